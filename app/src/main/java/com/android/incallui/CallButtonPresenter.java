@@ -40,6 +40,7 @@ import com.android.incallui.InCallPresenter.IncomingCallListener;
 import com.android.incallui.audiomode.AudioModeProvider;
 import com.android.incallui.audiomode.AudioModeProvider.AudioModeListener;
 import com.android.incallui.call.CallList;
+import com.android.incallui.call.CallListDiff;
 import com.android.incallui.call.CallRecorder;
 import com.android.incallui.call.DialerCall;
 import com.android.incallui.call.DialerCall.CameraDirection;
@@ -149,6 +150,7 @@ public class CallButtonPresenter
     @Override
     public void onStateChange(InCallState oldState, InCallState newState, CallList callList) {
         Trace.beginSection("CallButtonPresenter.onStateChange");
+        DialerCall previousCall = call;
         if (newState == InCallState.OUTGOING) {
             call = callList.getOutgoingCall();
         } else if (newState == InCallState.INCALL) {
@@ -171,6 +173,16 @@ public class CallButtonPresenter
         } else {
             call = null;
         }
+        CallListDiff diff = callList.getLastDiff();
+        if (oldState == newState
+                && call != null
+                && call == previousCall
+                && !diff.hasChanged(call, CallListDiff.FIELD_ALL)
+                && !diff.hasChangesOutside(call.getChildCallIds())) {
+            // Only conference participants changed, which doesn't affect the buttons.
+            Trace.endSection();
+            return;
+        }
         updateUi(newState, call);
         Trace.endSection();
     }
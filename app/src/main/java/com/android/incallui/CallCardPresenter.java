@@ -53,6 +53,7 @@ import com.android.incallui.InCallPresenter.InCallState;
 import com.android.incallui.InCallPresenter.InCallStateListener;
 import com.android.incallui.InCallPresenter.IncomingCallListener;
 import com.android.incallui.call.CallList;
+import com.android.incallui.call.CallListDiff;
 import com.android.incallui.call.DialerCall;
 import com.android.incallui.call.DialerCallListener;
 import com.android.incallui.call.state.DialerCallState;
@@ -80,6 +81,8 @@ import com.fissy.dialer.postcall.PostCall;
 import com.fissy.dialer.preferredsim.suggestion.SuggestionProvider;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Controller for the Call Card Fragment. This class listens for changes to InCallState and passes
@@ -350,6 +353,18 @@ public class CallCardPresenter
         this.primary = primary;
         this.primaryNumber = primaryNumber;
 
+        CallListDiff diff = callList.getLastDiff();
+        if (oldState == newState
+                && !primaryChanged
+                && !secondaryChanged
+                && !diff.hasChanged(primary, CallListDiff.FIELD_ALL)
+                && !diff.hasChanged(secondary, CallListDiff.FIELD_ALL)
+                && !diff.hasChangesOutside(getChildCallIds(primary, secondary))) {
+            // Only conference participants changed, the card only shows their parent call.
+            Trace.endSection();
+            return;
+        }
+
         if (this.primary != null) {
             inCallScreen.updateInCallScreenColors();
         }
@@ -411,6 +426,18 @@ public class CallCardPresenter
         Trace.endSection();
     }
 
+    private static List<String> getChildCallIds(
+            @Nullable DialerCall primary, @Nullable DialerCall secondary) {
+        List<String> childCallIds = new ArrayList<>();
+        if (primary != null) {
+            childCallIds.addAll(primary.getChildCallIds());
+        }
+        if (secondary != null) {
+            childCallIds.addAll(secondary.getChildCallIds());
+        }
+        return childCallIds;
+    }
+
     @Override
     public void onDetailsChanged(DialerCall call, Details details) {
         updatePrimaryCallState();
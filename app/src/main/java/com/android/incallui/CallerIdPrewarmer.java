@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.incallui;
+
+import android.content.Context;
+import androidx.annotation.MainThread;
+import android.telecom.Call;
+import android.telecom.TelecomManager;
+import android.text.TextUtils;
+
+import com.android.incallui.latencyreport.LatencyReport;
+import com.android.incallui.latencyreport.LatencyReport.CallerIdStage;
+import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.location.GeoUtil;
+import com.fissy.dialer.phonenumberproto.DialerPhoneNumberUtil;
+import com.fissy.dialer.phonenumberutil.PhoneNumberHelper;
+import com.fissy.dialer.telecom.TelecomCallUtil;
+import com.fissy.dialer.util.PermissionsUtil;
+
+/**
+ * Starts the parts of the caller-ID lookup that only need the number as soon as telecom hands over
+ * an incoming call, while the call is still being checked for blocking and before it is added to
+ * the {@link com.android.incallui.call.CallList}.
+ */
+final class CallerIdPrewarmer {
+
+    private CallerIdPrewarmer() {
+    }
+
+    @MainThread
+    static void prewarm(Context context, Call telecomCall, LatencyReport latencyReport) {
+        if (telecomCall.getState() != Call.STATE_RINGING) {
+            return;
+        }
+        if (telecomCall.getDetails().getHandlePresentation() != TelecomManager.PRESENTATION_ALLOWED) {
+            return;
+        }
+        String number = TelecomCallUtil.getNumber(telecomCall);
+        // Forwarded and SIP numbers are rewritten by CallerInfoUtils before the real query, so there
+        // is nothing to gain from looking them up early.
+        if (TextUtils.isEmpty(number)
+                || PhoneNumberHelper.isUriNumber(number)
+                || number.contains("&")) {
+            return;
+        }
+        LogUtil.enterBlock("CallerIdPrewarmer.prewarm");
+        Context appContext = context.getApplicationContext();
+
+        latencyReport.onCallerIdStageStarted(CallerIdStage.PARSE);
+        DialerExecutorComponent.get(appContext)
+                .backgroundExecutor()
+                .execute(
+                        () -> {
+                            new DialerPhoneNumberUtil()
+                                    .parseCached(number, GeoUtil.getCurrentCountryIso(appContext));
+                            latencyReport.onCallerIdStageFinished(CallerIdStage.PARSE);
+                        });
+
+        if (PermissionsUtil.hasContactsReadPermissions(appContext)) {
+            String countryIso =
+                    PhoneNumberHelper.getCurrentCountryIso(
+                            appContext, telecomCall.getDetails().getAccountHandle());
+            // noinspection MissingPermission
+            CallerInfoAsyncQuery.prefetch(appContext, number, countryIso, latencyReport);
+        }
+    }
+}
@@ -27,25 +27,35 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import android.os.Trace;
-import android.provider.ContactsContract;
-import android.provider.ContactsContract.Directory;
 import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresPermission;
 import androidx.annotation.WorkerThread;
 import android.text.TextUtils;
 
+import com.android.incallui.latencyreport.LatencyReport;
+import com.android.incallui.latencyreport.LatencyReport.CallerIdStage;
 import com.fissy.dialer.R;
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.common.concurrent.ThreadUtil;
 import com.fissy.dialer.phonenumbercache.CachedNumberLookupService;
 import com.fissy.dialer.phonenumbercache.CachedNumberLookupService.CachedContactInfo;
 import com.fissy.dialer.phonenumbercache.ContactInfoHelper;
 import com.fissy.dialer.phonenumbercache.PhoneNumberCache;
 import com.fissy.dialer.phonenumberutil.PhoneNumberHelper;
-import com.fissy.dialer.strictmode.StrictModeUtils;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 /**
  * Helper class to make it easier to run asynchronous caller-id lookup queries.
@@ -66,33 +76,100 @@ public class CallerInfoAsyncQuery {
     // configured on a per-product basis.)
     private static final boolean ENABLE_UNKNOWN_NUMBER_GEO_DESCRIPTION = true;
     /* Directory lookup related code - START */
-    private static final String[] DIRECTORY_PROJECTION = new String[]{Directory._ID};
+    /**
+     * How long each remote directory gets to answer before the lookup settles for what it has.
+     */
+    private static final long DIRECTORY_QUERY_TIMEOUT_MILLIS = 3000;
+    /**
+     * How long the result of {@link #prefetch} is kept for a matching {@link #startQuery}.
+     */
+    private static final long PREFETCH_EXPIRY_MILLIS = 10_000;
+    /**
+     * Default directory lookups started by {@link #prefetch}, keyed by number and country.
+     */
+    private static final Map<String, ListenableFuture<CallerInfo>> prefetchedQueries =
+            new ConcurrentHashMap<>();
     /**
      * Private constructor for factory methods.
      */
     private CallerInfoAsyncQuery() {
     }
 
+    /**
+     * Starts looking the number up in the default directory before the call has been added to the
+     * call list, for example while it is still being checked for blocking. The next {@link
+     * #startQuery} for the same number and country picks up the result instead of querying again.
+     */
+    @MainThread
+    @RequiresPermission(Manifest.permission.READ_CONTACTS)
+    static void prefetch(
+            Context context,
+            String number,
+            String countryIso,
+            @Nullable LatencyReport latencyReport) {
+        if (TextUtils.isEmpty(number)) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        String key = getPrefetchKey(number, countryIso);
+        if (prefetchedQueries.containsKey(key)) {
+            return;
+        }
+        Log.d(LOG_TAG, "prefetching default directory query");
+        DirectoryIdCache.get(appContext).prefetch();
+        if (latencyReport != null) {
+            latencyReport.onCallerIdStageStarted(CallerIdStage.CP2);
+        }
+        Uri uri = ContactInfoHelper.getContactInfoLookupUri(number);
+        ListenableFuture<CallerInfo> future =
+                DialerExecutorComponent.get(appContext)
+                        .lightweightExecutor()
+                        .submit(
+                                () -> {
+                                    CallerInfo ci =
+                                            queryDirectory(appContext, uri, EVENT_NEW_QUERY, number, countryIso);
+                                    if (latencyReport != null) {
+                                        latencyReport.onCallerIdStageFinished(CallerIdStage.CP2);
+                                    }
+                                    return ci;
+                                });
+        prefetchedQueries.put(key, future);
+        ThreadUtil.postDelayedOnUiThread(
+                () -> prefetchedQueries.remove(key, future), PREFETCH_EXPIRY_MILLIS);
+    }
+
+    private static String getPrefetchKey(String number, String countryIso) {
+        return countryIso + "|" + number;
+    }
+
     @RequiresPermission(Manifest.permission.READ_CONTACTS)
     static void startQuery(
             final int token,
             final Context context,
             final CallerInfo info,
             final OnQueryCompleteListener listener,
-            final Object cookie) {
+            final Object cookie,
+            @Nullable final LatencyReport latencyReport) {
         Log.d(LOG_TAG, "##### CallerInfoAsyncQuery startContactProviderQuery()... #####");
         Log.d(LOG_TAG, "- number: " + info.phoneNumber);
         Log.d(LOG_TAG, "- cookie: " + cookie);
 
+        if (latencyReport != null) {
+            latencyReport.onCallerIdStageStarted(CallerIdStage.CP2);
+        }
         OnQueryCompleteListener contactsProviderQueryCompleteListener =
                 new OnQueryCompleteListener() {
                     @Override
                     public void onQueryComplete(int token, Object cookie, CallerInfo ci) {
                         Log.d(LOG_TAG, "contactsProviderQueryCompleteListener onQueryComplete");
+                        if (latencyReport != null) {
+                            latencyReport.onCallerIdStageFinished(CallerIdStage.CP2);
+                        }
                         // If there are no other directory queries, make sure that the listener is
                         // notified of this result.  see a bug
                         if ((ci != null && ci.contactExists)
-                                || !startOtherDirectoriesQuery(token, context, info, listener, cookie)) {
+                                || !startOtherDirectoriesQuery(
+                                token, context, info, ci, listener, cookie, latencyReport)) {
                             if (listener != null && ci != null) {
                                 listener.onQueryComplete(token, cookie, ci);
                             }
@@ -105,6 +182,9 @@ public class CallerInfoAsyncQuery {
                         listener.onDataLoaded(token, cookie, ci);
                     }
                 };
+        // Load the directory ids while the default directory is being queried so they are usually
+        // cached by the time they are needed.
+        DirectoryIdCache.get(context).prefetch();
         startDefaultDirectoryQuery(token, context, info, contactsProviderQueryCompleteListener, cookie);
     }
 
@@ -117,6 +197,32 @@ public class CallerInfoAsyncQuery {
             Object cookie) {
         // Construct the URI object and query params, and start the query.
         Uri uri = ContactInfoHelper.getContactInfoLookupUri(info.phoneNumber);
+        ListenableFuture<CallerInfo> prefetchedQuery =
+                TextUtils.isEmpty(info.phoneNumber)
+                        ? null
+                        : prefetchedQueries.remove(getPrefetchKey(info.phoneNumber, info.countryIso));
+        if (prefetchedQuery != null && getQueryEvent(context, info) == EVENT_NEW_QUERY) {
+            Log.d(LOG_TAG, "using prefetched default directory query");
+            Futures.addCallback(
+                    prefetchedQuery,
+                    new FutureCallback<CallerInfo>() {
+                        @Override
+                        public void onSuccess(CallerInfo ci) {
+                            listener.onDataLoaded(token, cookie, ci);
+                            ThreadUtil.postOnUiThread(() -> listener.onQueryComplete(token, cookie, ci));
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            Log.e(LOG_TAG, "prefetched query failed, querying again");
+                            ThreadUtil.postOnUiThread(
+                                    () -> startQueryInternal(token, context, info, listener, cookie, uri));
+                        }
+                    },
+                    // The listener expects onDataLoaded() on a worker thread.
+                    DialerExecutorComponent.get(context).lightweightExecutor());
+            return;
+        }
         startQueryInternal(token, context, info, listener, cookie, uri);
     }
 
@@ -152,14 +258,7 @@ public class CallerInfoAsyncQuery {
         cw.number = info.phoneNumber;
         cw.countryIso = info.countryIso;
 
-        // check to see if these are recognized numbers, and use shortcuts if we can.
-        if (PhoneNumberHelper.isLocalEmergencyNumber(context, info.phoneNumber)) {
-            cw.event = EVENT_EMERGENCY_NUMBER;
-        } else if (info.isVoiceMailNumber()) {
-            cw.event = EVENT_VOICEMAIL_NUMBER;
-        } else {
-            cw.event = EVENT_NEW_QUERY;
-        }
+        cw.event = getQueryEvent(context, info);
 
         String[] proejection = CallerInfo.getDefaultPhoneLookupProjection();
         handler.startQuery(
@@ -172,28 +271,47 @@ public class CallerInfoAsyncQuery {
                 null); // orderBy
     }
 
+    // check to see if these are recognized numbers, and use shortcuts if we can.
+    private static int getQueryEvent(Context context, CallerInfo info) {
+        if (PhoneNumberHelper.isLocalEmergencyNumber(context, info.phoneNumber)) {
+            return EVENT_EMERGENCY_NUMBER;
+        } else if (info.isVoiceMailNumber()) {
+            return EVENT_VOICEMAIL_NUMBER;
+        } else {
+            return EVENT_NEW_QUERY;
+        }
+    }
+
     // Return value indicates if listener was notified.
+    @MainThread
     private static boolean startOtherDirectoriesQuery(
             int token,
             Context context,
             CallerInfo info,
+            @Nullable CallerInfo defaultDirectoryInfo,
             OnQueryCompleteListener listener,
-            Object cookie) {
+            Object cookie,
+            @Nullable LatencyReport latencyReport) {
         Trace.beginSection("CallerInfoAsyncQuery.startOtherDirectoriesQuery");
-        long[] directoryIds = StrictModeUtils.bypass(() -> getDirectoryIds(context));
+        long[] directoryIds = DirectoryIdCache.get(context).getDirectoryIds();
         int size = directoryIds.length;
         if (size == 0) {
             Trace.endSection();
             return false;
         }
 
+        if (latencyReport != null) {
+            latencyReport.onCallerIdStageStarted(CallerIdStage.DIRECTORIES);
+        }
         DirectoryQueryCompleteListenerFactory listenerFactory =
-                new DirectoryQueryCompleteListenerFactory(context, size, listener);
-
-        // The current implementation of multiple async query runs in single handler thread
-        // in AsyncQueryHandler.
-        // intermediateListener.onQueryComplete is also called from the same caller thread.
-        // TODO(a bug): use thread pool instead of single thread.
+                new DirectoryQueryCompleteListenerFactory(
+                        context, size, listener, defaultDirectoryInfo, token, cookie, latencyReport);
+
+        // Each directory is queried on its own thread of the bounded lightweight pool so a slow
+        // remote directory does not hold up the others. The first directory that finds a contact
+        // wins and the remaining queries are cancelled.
+        ListeningExecutorService executor = DialerExecutorComponent.get(context).lightweightExecutor();
+        int event = getQueryEvent(context, info);
         for (int i = 0; i < size; i++) {
             long directoryId = directoryIds[i];
             Uri uri = ContactInfoHelper.getContactInfoLookupUri(info.phoneNumber, directoryId);
@@ -201,39 +319,114 @@ public class CallerInfoAsyncQuery {
                 Log.d(LOG_TAG, "directoryId: " + directoryId + " uri: " + uri);
             }
             OnQueryCompleteListener intermediateListener = listenerFactory.newListener(directoryId);
-            startQueryInternal(token, context, info, intermediateListener, cookie, uri);
+            listenerFactory.addPendingQuery(
+                    executor.submit(
+                            () -> {
+                                CallerInfo ci =
+                                        queryDirectory(
+                                                context, uri, event, info.phoneNumber, info.countryIso);
+                                intermediateListener.onDataLoaded(token, cookie, ci);
+                                ThreadUtil.postOnUiThread(
+                                        () -> intermediateListener.onQueryComplete(token, cookie, ci));
+                            }));
         }
+        listenerFactory.startDeadline();
         Trace.endSection();
         return true;
     }
 
-    private static long[] getDirectoryIds(Context context) {
-        ArrayList<Long> results = new ArrayList<>();
+    @WorkerThread
+    private static CallerInfo queryDirectory(
+            Context context, Uri contactRef, int event, String number, String countryIso) {
+        Cursor cursor = null;
+        try {
+            if (event == EVENT_NEW_QUERY) {
+                try {
+                    cursor =
+                            context
+                                    .getContentResolver()
+                                    .query(
+                                            contactRef,
+                                            CallerInfo.getDefaultPhoneLookupProjection(),
+                                            null,
+                                            null,
+                                            null);
+                } catch (Exception e) {
+                    Log.e(LOG_TAG, "Exception thrown during directory query", e);
+                    cursor = null;
+                }
+            }
+            return buildCallerInfo(context, contactRef, cursor, event, number, countryIso);
+        } finally {
+            // The cursor may have been closed in CallerInfo.getCallerInfo()
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+        }
+    }
 
-        Uri uri = Uri.withAppendedPath(ContactsContract.AUTHORITY_URI, "directories_enterprise");
+    /**
+     * Builds the {@link CallerInfo} for a finished query. For emergency and voicemail numbers the
+     * cursor is ignored.
+     */
+    @WorkerThread
+    private static CallerInfo buildCallerInfo(
+            Context context,
+            Uri contactRef,
+            @Nullable Cursor cursor,
+            int event,
+            String number,
+            String countryIso) {
+        // adjust the callerInfo data as needed, and only if it was set from the
+        // initial query request.
+        // Change the callerInfo number ONLY if it is an emergency number or the
+        // voicemail number, and adjust other data (including photoResource)
+        // accordingly.
+        if (event == EVENT_EMERGENCY_NUMBER) {
+            // Note we're setting the phone number here (refer to javadoc
+            // comments at the top of CallerInfo class).
+            return new CallerInfo().markAsEmergency(context);
+        } else if (event == EVENT_VOICEMAIL_NUMBER) {
+            return new CallerInfo().markAsVoiceMail(context);
+        }
 
-        ContentResolver cr = context.getContentResolver();
-        Cursor cursor = cr.query(uri, DIRECTORY_PROJECTION, null, null, null);
-        addDirectoryIdsFromCursor(cursor, results);
+        CallerInfo callerInfo = CallerInfo.getCallerInfo(context, contactRef, cursor);
+        Log.d(LOG_TAG, "==> Got mCallerInfo: " + callerInfo);
 
-        long[] result = new long[results.size()];
-        for (int i = 0; i < results.size(); i++) {
-            result[i] = results.get(i);
+        CallerInfo newCallerInfo = CallerInfo.doSecondaryLookupIfNecessary(context, number, callerInfo);
+        if (newCallerInfo != callerInfo) {
+            callerInfo = newCallerInfo;
+            Log.d(LOG_TAG, "#####async contact look up with numeric username" + callerInfo);
         }
-        return result;
-    }
-
-    private static void addDirectoryIdsFromCursor(Cursor cursor, ArrayList<Long> results) {
-        if (cursor != null) {
-            int idIndex = cursor.getColumnIndex(Directory._ID);
-            while (cursor.moveToNext()) {
-                long id = cursor.getLong(idIndex);
-                if (Directory.isRemoteDirectoryId(id)) {
-                    results.add(id);
-                }
+        callerInfo.countryIso = countryIso;
+
+        // Final step: look up the geocoded description.
+        if (ENABLE_UNKNOWN_NUMBER_GEO_DESCRIPTION) {
+            // Note we do this only if we *don't* have a valid name (i.e. if
+            // no contacts matched the phone number of the incoming call),
+            // since that's the only case where the incoming-call UI cares
+            // about this field.
+            //
+            // (TODO: But if we ever want the UI to show the geoDescription
+            // even when we *do* match a contact, we'll need to either call
+            // updateGeoDescription() unconditionally here, or possibly add a
+            // new parameter to CallerInfoAsyncQuery.startQuery() to force
+            // the geoDescription field to be populated.)
+
+            if (TextUtils.isEmpty(callerInfo.name)) {
+                // Actually when no contacts match the incoming phone number,
+                // the CallerInfo object is totally blank here (i.e. no name
+                // *or* phoneNumber).  So we need to pass in cw.number as
+                // a fallback number.
+                callerInfo.updateGeoDescription(context, number);
             }
-            cursor.close();
         }
+
+        // Use the number entered by the user for display.
+        if (!TextUtils.isEmpty(number)) {
+            callerInfo.phoneNumber = number;
+        }
+        return callerInfo;
     }
 
     private static String sanitizeUriToString(Uri uri) {
@@ -295,37 +488,126 @@ public class CallerInfoAsyncQuery {
 
         private final OnQueryCompleteListener listener;
         private final Context context;
+        // Result of the default directory query, reported if no directory answers in time.
+        @Nullable
+        private final CallerInfo fallbackCallerInfo;
+        private final int token;
+        private final Object cookie;
+        @Nullable
+        private final LatencyReport latencyReport;
+        private final List<Future<?>> pendingQueries = new ArrayList<>();
+        private final Runnable deadlineRunnable = this::onDeadline;
         // Make sure listener to be called once and only once
         private int count;
         private boolean isListenerCalled;
+        // The first contact found by any directory, the only one passed on to the listener.
+        @Nullable
+        private CallerInfo foundCallerInfo;
 
         DirectoryQueryCompleteListenerFactory(
-                Context context, int size, OnQueryCompleteListener listener) {
+                Context context,
+                int size,
+                OnQueryCompleteListener listener,
+                @Nullable CallerInfo fallbackCallerInfo,
+                int token,
+                Object cookie,
+                @Nullable LatencyReport latencyReport) {
             count = size;
             this.listener = listener;
             isListenerCalled = false;
             this.context = context;
+            this.fallbackCallerInfo = fallbackCallerInfo;
+            this.token = token;
+            this.cookie = cookie;
+            this.latencyReport = latencyReport;
+        }
+
+        synchronized void addPendingQuery(Future<?> query) {
+            if (isListenerCalled) {
+                query.cancel(true);
+            } else {
+                pendingQueries.add(query);
+            }
+        }
+
+        @MainThread
+        void startDeadline() {
+            ThreadUtil.postDelayedOnUiThread(deadlineRunnable, DIRECTORY_QUERY_TIMEOUT_MILLIS);
+        }
+
+        /**
+         * Completes the listener with the contact found so far, or else the result of the default
+         * directory query, or else an empty {@link CallerInfo}.
+         */
+        @MainThread
+        private void onDeadline() {
+            CallerInfo ci;
+            synchronized (this) {
+                if (isListenerCalled) {
+                    return;
+                }
+                isListenerCalled = true;
+                cancelPendingQueries();
+                ci = foundCallerInfo;
+            }
+            Log.i(LOG_TAG, count + " directory queries timed out");
+            onDirectoriesDone();
+            if (ci == null) {
+                ci = fallbackCallerInfo != null ? fallbackCallerInfo : new CallerInfo();
+            }
+            if (listener != null) {
+                listener.onQueryComplete(token, cookie, ci);
+            }
+        }
+
+        private void onDirectoriesDone() {
+            if (latencyReport != null) {
+                latencyReport.onCallerIdStageFinished(CallerIdStage.DIRECTORIES);
+            }
         }
 
+        // Must be called while holding the lock on this object.
+        private void cancelPendingQueries() {
+            for (Future<?> query : pendingQueries) {
+                query.cancel(true);
+            }
+            pendingQueries.clear();
+        }
+
+        @MainThread
         private void onDirectoryQueryComplete(
                 int token, Object cookie, CallerInfo ci, long directoryId) {
             boolean shouldCallListener = false;
             synchronized (this) {
                 count = count - 1;
-                if (!isListenerCalled && (ci.contactExists || count == 0)) {
+                if (!isListenerCalled && (ci == foundCallerInfo || count == 0)) {
                     isListenerCalled = true;
                     shouldCallListener = true;
+                    cancelPendingQueries();
                 }
             }
 
             // Don't call callback in synchronized block because mListener.onQueryComplete may
             // take long time to complete
             if (shouldCallListener && listener != null) {
+                ThreadUtil.getUiThreadHandler().removeCallbacks(deadlineRunnable);
+                onDirectoriesDone();
                 addCallerInfoIntoCache(ci, directoryId);
                 listener.onQueryComplete(token, cookie, ci);
             }
         }
 
+        @WorkerThread
+        private void onDirectoryDataLoaded(int token, Object cookie, CallerInfo ci) {
+            synchronized (this) {
+                if (!ci.contactExists || foundCallerInfo != null || isListenerCalled) {
+                    return;
+                }
+                foundCallerInfo = ci;
+            }
+            listener.onDataLoaded(token, cookie, ci);
+        }
+
         private void addCallerInfoIntoCache(CallerInfo ci, long directoryId) {
             CachedNumberLookupService cachedNumberLookupService =
                     PhoneNumberCache.get(context).getCachedNumberLookupService();
@@ -366,7 +648,7 @@ public class CallerInfoAsyncQuery {
             @Override
             public void onDataLoaded(int token, Object cookie, CallerInfo ci) {
                 Log.d(LOG_TAG, "DirectoryQueryCompleteListener.onDataLoaded");
-                listener.onDataLoaded(token, cookie, ci);
+                onDirectoryDataLoaded(token, cookie, ci);
             }
 
             @Override
@@ -488,56 +770,9 @@ public class CallerInfoAsyncQuery {
                                 "Bad context or query uri, or CallerInfoAsyncQuery already released.");
                     }
 
-                    // adjust the callerInfo data as needed, and only if it was set from the
-                    // initial query request.
-                    // Change the callerInfo number ONLY if it is an emergency number or the
-                    // voicemail number, and adjust other data (including photoResource)
-                    // accordingly.
-                    if (cw.event == EVENT_EMERGENCY_NUMBER) {
-                        // Note we're setting the phone number here (refer to javadoc
-                        // comments at the top of CallerInfo class).
-                        callerInfo = new CallerInfo().markAsEmergency(queryContext);
-                    } else if (cw.event == EVENT_VOICEMAIL_NUMBER) {
-                        callerInfo = new CallerInfo().markAsVoiceMail(queryContext);
-                    } else {
-                        callerInfo = CallerInfo.getCallerInfo(queryContext, queryUri, cursor);
-                        Log.d(this, "==> Got mCallerInfo: " + callerInfo);
-
-                        CallerInfo newCallerInfo =
-                                CallerInfo.doSecondaryLookupIfNecessary(queryContext, cw.number, callerInfo);
-                        if (newCallerInfo != callerInfo) {
-                            callerInfo = newCallerInfo;
-                            Log.d(this, "#####async contact look up with numeric username" + callerInfo);
-                        }
-                        callerInfo.countryIso = cw.countryIso;
-
-                        // Final step: look up the geocoded description.
-                        if (ENABLE_UNKNOWN_NUMBER_GEO_DESCRIPTION) {
-                            // Note we do this only if we *don't* have a valid name (i.e. if
-                            // no contacts matched the phone number of the incoming call),
-                            // since that's the only case where the incoming-call UI cares
-                            // about this field.
-                            //
-                            // (TODO: But if we ever want the UI to show the geoDescription
-                            // even when we *do* match a contact, we'll need to either call
-                            // updateGeoDescription() unconditionally here, or possibly add a
-                            // new parameter to CallerInfoAsyncQuery.startQuery() to force
-                            // the geoDescription field to be populated.)
-
-                            if (TextUtils.isEmpty(callerInfo.name)) {
-                                // Actually when no contacts match the incoming phone number,
-                                // the CallerInfo object is totally blank here (i.e. no name
-                                // *or* phoneNumber).  So we need to pass in cw.number as
-                                // a fallback number.
-                                callerInfo.updateGeoDescription(queryContext, cw.number);
-                            }
-                        }
-
-                        // Use the number entered by the user for display.
-                        if (!TextUtils.isEmpty(cw.number)) {
-                            callerInfo.phoneNumber = cw.number;
-                        }
-                    }
+                    callerInfo =
+                            buildCallerInfo(
+                                    queryContext, queryUri, cursor, cw.event, cw.number, cw.countryIso);
 
                     Log.d(this, "constructing CallerInfo object for token: " + token);
 
@@ -71,7 +71,8 @@ public class CallerInfoUtils {
                         "Actually starting CallerInfoAsyncQuery.startQuery()...");
 
                 // noinspection MissingPermission
-                CallerInfoAsyncQuery.startQuery(QUERY_TOKEN, context, info, listener, cookie);
+                CallerInfoAsyncQuery.startQuery(
+                        QUERY_TOKEN, context, info, listener, cookie, call.getLatencyReport());
             } else {
                 LogUtil.w(
                         "CallerInfoUtils.getCallerInfoForCall",
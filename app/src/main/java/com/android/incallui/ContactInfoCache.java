@@ -46,6 +46,8 @@ import com.android.incallui.ContactsAsyncHelper.OnImageLoadCompleteListener;
 import com.android.incallui.bindings.PhoneNumberService;
 import com.android.incallui.call.DialerCall;
 import com.android.incallui.incall.protocol.ContactPhotoType;
+import com.android.incallui.latencyreport.LatencyReport;
+import com.android.incallui.latencyreport.LatencyReport.CallerIdStage;
 import com.fissy.dialer.R;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.concurrent.DialerExecutor;
@@ -359,7 +361,7 @@ public class ContactInfoCache implements OnImageLoadCompleteListener {
          * such as those for voicemail and emergency call information, will not perform an additional
          * asynchronous query.
          */
-        final CallerInfoQueryToken queryToken = new CallerInfoQueryToken(queryId, callId);
+        final CallerInfoQueryToken queryToken = new CallerInfoQueryToken(queryId, callId, call.getLatencyReport());
         queryId++;
         final CallerInfo callerInfo =
                 CallerInfoUtils.getCallerInfoForCall(
@@ -446,6 +448,9 @@ public class ContactInfoCache implements OnImageLoadCompleteListener {
                 // Load the image with a callback to update the image state.
                 // When the load is finished, onImageLoadComplete() will be called.
                 cacheEntry.hasPendingQuery = true;
+                if (queryToken.latencyReport != null) {
+                    queryToken.latencyReport.onCallerIdStageStarted(CallerIdStage.PHOTO_DECODE);
+                }
                 ContactsAsyncHelper.startObtainPhotoAsync(
                         TOKEN_UPDATE_PHOTO_FOR_CALL_STATE,
                         context,
@@ -519,6 +524,9 @@ public class ContactInfoCache implements OnImageLoadCompleteListener {
             return;
         }
         loadImage(photo, photoIcon, cookie);
+        if (myCookie.latencyReport != null) {
+            myCookie.latencyReport.onCallerIdStageFinished(CallerIdStage.PHOTO_DECODE);
+        }
     }
 
     private void loadImage(Drawable photo, Bitmap photoIcon, Object cookie) {
@@ -849,10 +857,13 @@ public class ContactInfoCache implements OnImageLoadCompleteListener {
     private static final class CallerInfoQueryToken {
         final int queryId;
         final String callId;
+        @Nullable
+        final LatencyReport latencyReport;
 
-        CallerInfoQueryToken(int queryId, String callId) {
+        CallerInfoQueryToken(int queryId, String callId, @Nullable LatencyReport latencyReport) {
             this.queryId = queryId;
             this.callId = callId;
+            this.latencyReport = latencyReport;
         }
     }
 
@@ -909,6 +920,9 @@ public class ContactInfoCache implements OnImageLoadCompleteListener {
                 phoneNumberService.getPhoneNumberInfo(cacheEntry.number, listener);
             }
             sendInfoNotifications(callId, cacheEntry);
+            if (queryToken.latencyReport != null) {
+                queryToken.latencyReport.onCallerIdDone();
+            }
             if (!cacheEntry.hasPendingQuery) {
                 if (callerInfo.contactExists) {
                     Log.d(TAG, "Contact lookup done. Local contact found, no image.");
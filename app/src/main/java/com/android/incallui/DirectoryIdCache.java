@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.incallui;
+
+import android.Manifest;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.Directory;
+import androidx.annotation.AnyThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresPermission;
+import androidx.annotation.WorkerThread;
+
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.common.concurrent.ThreadUtil;
+import com.fissy.dialer.strictmode.StrictModeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caches the ids of the remote and enterprise directories used by {@link CallerInfoAsyncQuery}.
+ *
+ * <p>The list is loaded on a background thread and kept until the contacts provider reports a
+ * change to its directories, so an incoming call normally does not need to query {@code
+ * directories_enterprise} at all.
+ */
+final class DirectoryIdCache {
+
+    private static final String TAG = "DirectoryIdCache";
+
+    private static final String[] DIRECTORY_PROJECTION = new String[]{Directory._ID};
+
+    private static DirectoryIdCache instance;
+
+    private final Context appContext;
+    private final Object lock = new Object();
+
+    /**
+     * The cached directory ids, or null if they need to be (re)loaded.
+     */
+    @Nullable
+    private volatile long[] directoryIds;
+
+    /**
+     * Incremented every time the cache is invalidated so a load that raced with a change is dropped.
+     */
+    private int generation;
+
+    private boolean isLoading;
+
+    private DirectoryIdCache(Context appContext) {
+        this.appContext = appContext;
+        appContext
+                .getContentResolver()
+                .registerContentObserver(
+                        Directory.CONTENT_URI,
+                        true,
+                        new ContentObserver(ThreadUtil.getUiThreadHandler()) {
+                            @Override
+                            public void onChange(boolean selfChange) {
+                                Log.d(TAG, "directories changed, invalidating");
+                                invalidate();
+                            }
+                        });
+    }
+
+    static synchronized DirectoryIdCache get(Context context) {
+        if (instance == null) {
+            instance = new DirectoryIdCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts loading the directory ids in the background if they are not cached yet.
+     */
+    @AnyThread
+    @RequiresPermission(Manifest.permission.READ_CONTACTS)
+    void prefetch() {
+        final int loadGeneration;
+        synchronized (lock) {
+            if (directoryIds != null || isLoading) {
+                return;
+            }
+            isLoading = true;
+            loadGeneration = generation;
+        }
+        DialerExecutorComponent.get(appContext)
+                .lowPriorityThreadPool()
+                .execute(
+                        () -> {
+                            long[] ids = null;
+                            try {
+                                ids = queryDirectoryIds(appContext);
+                            } finally {
+                                onLoaded(loadGeneration, ids);
+                            }
+                        });
+    }
+
+    /**
+     * Returns the cached directory ids. If nothing has been cached yet the provider is queried on the
+     * calling thread.
+     */
+    @AnyThread
+    @RequiresPermission(Manifest.permission.READ_CONTACTS)
+    long[] getDirectoryIds() {
+        long[] ids = directoryIds;
+        if (ids != null) {
+            return ids;
+        }
+        final int loadGeneration;
+        synchronized (lock) {
+            loadGeneration = generation;
+        }
+        Log.d(TAG, "cache miss, querying directories synchronously");
+        ids = StrictModeUtils.bypass(() -> queryDirectoryIds(appContext));
+        onLoaded(loadGeneration, ids);
+        return ids;
+    }
+
+    private void invalidate() {
+        synchronized (lock) {
+            generation++;
+            directoryIds = null;
+        }
+    }
+
+    private void onLoaded(int loadGeneration, @Nullable long[] ids) {
+        synchronized (lock) {
+            isLoading = false;
+            if (ids != null && loadGeneration == generation) {
+                directoryIds = ids;
+            }
+        }
+    }
+
+    @WorkerThread
+    private static long[] queryDirectoryIds(Context context) {
+        List<Long> results = new ArrayList<>();
+
+        Uri uri = Uri.withAppendedPath(ContactsContract.AUTHORITY_URI, "directories_enterprise");
+
+        ContentResolver cr = context.getContentResolver();
+        try (Cursor cursor = cr.query(uri, DIRECTORY_PROJECTION, null, null, null)) {
+            if (cursor != null) {
+                int idIndex = cursor.getColumnIndex(Directory._ID);
+                while (cursor.moveToNext()) {
+                    long id = cursor.getLong(idIndex);
+                    if (Directory.isRemoteDirectoryId(id)) {
+                        results.add(id);
+                    }
+                }
+            }
+        }
+
+        long[] result = new long[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            result[i] = results.get(i);
+        }
+        return result;
+    }
+}
@@ -64,6 +64,7 @@ import com.android.incallui.videotech.utils.VideoUtils;
 import com.fissy.dialer.CallConfiguration;
 import com.fissy.dialer.Mode;
 import com.fissy.dialer.R;
+import com.fissy.dialer.blocking.BlockedNumberIndex;
 import com.fissy.dialer.blocking.FilteredNumberAsyncQueryHandler;
 import com.fissy.dialer.blocking.FilteredNumberAsyncQueryHandler.OnCheckBlockedListener;
 import com.fissy.dialer.blocking.FilteredNumberCompat;
@@ -443,6 +444,8 @@ public class InCallPresenter implements CallList.Listener, AudioModeProvider.Aud
         VideoPauseController.getInstance().setUp(this);
 
         filteredQueryHandler = filteredNumberQueryHandler;
+        // Load the blocked numbers ahead of the incoming call checks.
+        BlockedNumberIndex.get(context).preload();
         this.speakEasyCallManager = speakEasyCallManager;
         this.context
                 .getSystemService(TelephonyManager.class)
@@ -670,6 +673,7 @@ public class InCallPresenter implements CallList.Listener, AudioModeProvider.Aud
     public void onCallAdded(final android.telecom.Call call) {
         Trace.beginSection("InCallPresenter.onCallAdded");
         LatencyReport latencyReport = new LatencyReport(call);
+        CallerIdPrewarmer.prewarm(context, call, latencyReport);
         if (shouldAttemptBlocking(call)) {
             maybeBlockCall(call, latencyReport);
         } else {
@@ -62,6 +62,7 @@ import android.text.Spanned;
 import android.text.TextDirectionHeuristics;
 import android.text.TextUtils;
 import android.text.style.ForegroundColorSpan;
+import android.util.LruCache;
 
 import com.android.contacts.common.ContactsUtils;
 import com.android.contacts.common.ContactsUtils.UserType;
@@ -71,6 +72,7 @@ import com.android.incallui.InCallPresenter.InCallState;
 import com.android.incallui.async.PausableExecutorImpl;
 import com.android.incallui.audiomode.AudioModeProvider;
 import com.android.incallui.call.CallList;
+import com.android.incallui.call.CallListDiff;
 import com.android.incallui.call.DialerCall;
 import com.android.incallui.call.DialerCallListener;
 import com.android.incallui.call.TelecomAdapter;
@@ -83,7 +85,7 @@ import com.android.incallui.videotech.utils.SessionModificationState;
 import com.fissy.dialer.R;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
-import com.fissy.dialer.configprovider.ConfigProviderComponent;
+import com.fissy.dialer.configprovider.ConfigFlag;
 import com.fissy.dialer.contactphoto.BitmapUtil;
 import com.fissy.dialer.contacts.ContactsComponent;
 import com.fissy.dialer.enrichedcall.EnrichedCallManager;
@@ -122,19 +124,26 @@ public class StatusBarNotifier
 
     private static final long[] VIBRATE_PATTERN = new long[]{0, 1000, 1000};
 
+    // Rounded large icons are kept for the few calls a user can have at the same time.
+    private static final int LARGE_ICON_CACHE_SIZE = 4;
+
     private final Context context;
     private final ContactInfoCache contactInfoCache;
     private final DialerRingtoneManager dialerRingtoneManager;
+    private final ConfigFlag.BooleanFlag quietIncomingCallIfUiShowing;
+    private final ConfigFlag.BooleanFlag enableSpeakeasyNotificationButton;
     private int currentNotification = NOTIFICATION_NONE;
     private int callState = DialerCallState.INVALID;
     private int videoState = VideoProfile.STATE_AUDIO_ONLY;
     private int savedIcon = 0;
     private String savedContent = null;
-    private Bitmap savedLargeIcon;
+    private LargeIconKey savedLargeIconKey;
     private String savedContentTitle;
     private CallAudioState savedCallAudioState;
     private Uri ringtone;
     private StatusBarCallListener statusBarCallListener;
+    private final LruCache<LargeIconKey, Bitmap> largeIconCache =
+            new LruCache<>(LARGE_ICON_CACHE_SIZE);
 
     public StatusBarNotifier(@NonNull Context context, @NonNull ContactInfoCache contactInfoCache) {
         Trace.beginSection("StatusBarNotifier.Constructor");
@@ -144,6 +153,10 @@ public class StatusBarNotifier
                 new DialerRingtoneManager(
                         new InCallTonePlayer(new ToneGeneratorFactory(), new PausableExecutorImpl()),
                         CallList.getInstance());
+        quietIncomingCallIfUiShowing =
+                ConfigFlag.booleanFlag(context, "quiet_incoming_call_if_ui_showing", true);
+        enableSpeakeasyNotificationButton =
+                ConfigFlag.booleanFlag(context, "enable_speakeasy_notification_button", false);
         currentNotification = NOTIFICATION_NONE;
         Trace.endSection();
     }
@@ -181,40 +194,63 @@ public class StatusBarNotifier
     }
 
     /**
-     * Gets a large icon from the contact info object to display in the notification.
+     * Returns the key identifying the large icon to display in the notification, or null if there is
+     * no large icon. This is cheap and doesn't touch any bitmap.
+     */
+    @Nullable
+    private static LargeIconKey getLargeIconKey(ContactCacheEntry contactInfo, DialerCall call) {
+        if (call.isSpam()) {
+            return LargeIconKey.SPAM;
+        }
+        if (contactInfo.photo != null) {
+            if (contactInfo.photo instanceof BitmapDrawable) {
+                Bitmap photo = ((BitmapDrawable) contactInfo.photo).getBitmap();
+                return photo == null ? null : LargeIconKey.forPhoto(photo);
+            }
+            return null;
+        }
+        @ContactType
+        int contactType =
+                LetterTileDrawable.getContactTypeFromPrimitives(
+                        call.isVoiceMailNumber(),
+                        call.isSpam(),
+                        contactInfo.isBusiness,
+                        call.getNumberPresentation(),
+                        call.isConferenceCall() && !call.hasProperty(Details.PROPERTY_GENERIC_CONFERENCE));
+        return LargeIconKey.forLetterTile(
+                contactInfo.namePrimary == null ? contactInfo.number : contactInfo.namePrimary,
+                contactInfo.lookupKey,
+                contactType);
+    }
+
+    /**
+     * Gets the rounded large icon for {@code key} to display in the notification, rendering it only
+     * if it isn't cached yet.
      */
-    private static Bitmap getLargeIconToDisplay(
-            Context context, ContactCacheEntry contactInfo, DialerCall call) {
+    private Bitmap getLargeIconToDisplay(@NonNull LargeIconKey key) {
+        Bitmap largeIcon = largeIconCache.get(key);
+        if (largeIcon != null) {
+            return largeIcon;
+        }
         Trace.beginSection("StatusBarNotifier.getLargeIconToDisplay");
         Resources resources = context.getResources();
-        Bitmap largeIcon = null;
-        if (contactInfo.photo != null && (contactInfo.photo instanceof BitmapDrawable)) {
-            largeIcon = ((BitmapDrawable) contactInfo.photo).getBitmap();
-        }
-        if (contactInfo.photo == null) {
+        if (key == LargeIconKey.SPAM) {
+            Drawable drawable = resources.getDrawable(R.drawable.blocked_contact, context.getTheme());
+            largeIcon = DrawableConverter.drawableToBitmap(drawable);
+        } else if (key.photo != null) {
+            largeIcon = key.photo;
+        } else {
             int width = (int) resources.getDimension(android.R.dimen.notification_large_icon_width);
             int height = (int) resources.getDimension(android.R.dimen.notification_large_icon_height);
-            @ContactType
-            int contactType =
-                    LetterTileDrawable.getContactTypeFromPrimitives(
-                            call.isVoiceMailNumber(),
-                            call.isSpam(),
-                            contactInfo.isBusiness,
-                            call.getNumberPresentation(),
-                            call.isConferenceCall() && !call.hasProperty(Details.PROPERTY_GENERIC_CONFERENCE));
             LetterTileDrawable lettertile = new LetterTileDrawable(resources);
 
             lettertile.setCanonicalDialerLetterTileDetails(
-                    contactInfo.namePrimary == null ? contactInfo.number : contactInfo.namePrimary,
-                    contactInfo.lookupKey,
-                    LetterTileDrawable.SHAPE_CIRCLE,
-                    contactType);
+                    key.displayName, key.lookupKey, LetterTileDrawable.SHAPE_CIRCLE, key.contactType);
             largeIcon = lettertile.getBitmap(width, height);
         }
-
-        if (call.isSpam()) {
-            Drawable drawable = resources.getDrawable(R.drawable.blocked_contact, context.getTheme());
-            largeIcon = DrawableConverter.drawableToBitmap(drawable);
+        largeIcon = getRoundedIcon(largeIcon);
+        if (largeIcon != null) {
+            largeIconCache.put(key, largeIcon);
         }
         Trace.endSection();
         return largeIcon;
@@ -227,6 +263,15 @@ public class StatusBarNotifier
     @RequiresPermission(Manifest.permission.READ_PHONE_STATE)
     public void onStateChange(InCallState oldState, InCallState newState, CallList callList) {
         LogUtil.d("StatusBarNotifier.onStateChange", "%s->%s", oldState, newState);
+        CallListDiff diff = callList.getLastDiff();
+        if (oldState == newState
+                && statusBarCallListener != null
+                && statusBarCallListener.dialerCall == getCallToShow(callList)
+                && !diff.hasChanged(statusBarCallListener.dialerCall, CallListDiff.FIELD_ALL)
+                && !diff.hasChangesOutside(statusBarCallListener.dialerCall.getChildCallIds())) {
+            // Only conference participants changed, which doesn't affect the notification.
+            return;
+        }
         updateNotification();
     }
 
@@ -331,7 +376,7 @@ public class StatusBarNotifier
         Trace.beginSection("read icon and strings");
         // Check if data has changed; if nothing is different, don't issue another notification.
         final int iconResId = getIconToDisplay(call);
-        Bitmap largeIcon = getLargeIconToDisplay(context, contactInfo, call);
+        final LargeIconKey largeIconKey = getLargeIconKey(contactInfo, call);
         final CharSequence content = getContentString(call, contactInfo.userType);
         final String contentTitle = getContentTitle(contactInfo, call);
         Trace.endSection();
@@ -343,9 +388,7 @@ public class StatusBarNotifier
         if (callState == DialerCallState.INCOMING
                 || callState == DialerCallState.CALL_WAITING
                 || isVideoUpgradeRequest) {
-            if (ConfigProviderComponent.get(context)
-                    .getConfigProvider()
-                    .getBoolean("quiet_incoming_call_if_ui_showing", true)) {
+            if (quietIncomingCallIfUiShowing.get()) {
                 notificationType =
                         InCallPresenter.getInstance().isShowingInCallUi()
                                 ? NOTIFICATION_INCOMING_CALL_QUIET
@@ -365,7 +408,7 @@ public class StatusBarNotifier
         if (!checkForChangeAndSaveData(
                 iconResId,
                 content.toString(),
-                largeIcon,
+                largeIconKey,
                 contentTitle,
                 callState,
                 call.getVideoState(),
@@ -376,9 +419,7 @@ public class StatusBarNotifier
             return;
         }
 
-        if (largeIcon != null) {
-            largeIcon = getRoundedIcon(largeIcon);
-        }
+        final Bitmap largeIcon = largeIconKey == null ? null : getLargeIconToDisplay(largeIconKey);
 
         // This builder is used for the notification shown when the device is locked and the user
         // has set their notification settings to 'hide sensitive content'
@@ -529,7 +570,7 @@ public class StatusBarNotifier
     private boolean checkForChangeAndSaveData(
             int icon,
             String content,
-            Bitmap largeIcon,
+            @Nullable LargeIconKey largeIconKey,
             String contentTitle,
             int state,
             int videoState,
@@ -544,12 +585,7 @@ public class StatusBarNotifier
                 (contentTitle != null && !contentTitle.equals(savedContentTitle))
                         || (contentTitle == null && savedContentTitle != null);
 
-        boolean largeIconChanged;
-        if (savedLargeIcon == null) {
-            largeIconChanged = largeIcon != null;
-        } else {
-            largeIconChanged = largeIcon == null || !savedLargeIcon.sameAs(largeIcon);
-        }
+        boolean largeIconChanged = !Objects.equals(savedLargeIconKey, largeIconKey);
 
         // any change means we are definitely updating
         boolean retval =
@@ -589,7 +625,7 @@ public class StatusBarNotifier
         savedContent = content;
         callState = state;
         this.videoState = videoState;
-        savedLargeIcon = largeIcon;
+        savedLargeIconKey = largeIconKey;
         savedContentTitle = contentTitle;
         this.ringtone = ringtone;
         savedCallAudioState = callAudioState;
@@ -895,9 +931,7 @@ public class StatusBarNotifier
             return;
         }
 
-        if (!ConfigProviderComponent.get(context)
-                .getConfigProvider()
-                .getBoolean("enable_speakeasy_notification_button", false)) {
+        if (!enableSpeakeasyNotificationButton.get()) {
             return;
         }
 
@@ -1191,4 +1225,62 @@ public class StatusBarNotifier
             }
         }
     }
+
+    /**
+     * Identifies the large icon of the notification without rendering it. Contact photos are compared
+     * by bitmap identity, letter tiles by what they are drawn from.
+     */
+    private static final class LargeIconKey {
+        static final LargeIconKey SPAM =
+                new LargeIconKey(null, null, null, LetterTileDrawable.TYPE_DEFAULT);
+
+        @Nullable
+        final Bitmap photo;
+        @Nullable
+        final String displayName;
+        @Nullable
+        final String lookupKey;
+        @ContactType
+        final int contactType;
+
+        private LargeIconKey(
+                @Nullable Bitmap photo,
+                @Nullable String displayName,
+                @Nullable String lookupKey,
+                @ContactType int contactType) {
+            this.photo = photo;
+            this.displayName = displayName;
+            this.lookupKey = lookupKey;
+            this.contactType = contactType;
+        }
+
+        static LargeIconKey forPhoto(@NonNull Bitmap photo) {
+            return new LargeIconKey(photo, null, null, LetterTileDrawable.TYPE_DEFAULT);
+        }
+
+        static LargeIconKey forLetterTile(
+                @Nullable String displayName, @Nullable String lookupKey, @ContactType int contactType) {
+            return new LargeIconKey(null, displayName, lookupKey, contactType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LargeIconKey) || this == SPAM || o == SPAM) {
+                return false;
+            }
+            LargeIconKey other = (LargeIconKey) o;
+            return photo == other.photo
+                    && contactType == other.contactType
+                    && Objects.equals(displayName, other.displayName)
+                    && Objects.equals(lookupKey, other.lookupKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(photo), displayName, lookupKey, contactType);
+        }
+    }
 }
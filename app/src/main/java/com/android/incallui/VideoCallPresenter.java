@@ -33,6 +33,7 @@ import com.android.incallui.InCallPresenter.InCallOrientationListener;
 import com.android.incallui.InCallPresenter.InCallStateListener;
 import com.android.incallui.InCallPresenter.IncomingCallListener;
 import com.android.incallui.call.CallList;
+import com.android.incallui.call.CallListDiff;
 import com.android.incallui.call.DialerCall;
 import com.android.incallui.call.DialerCall.CameraDirection;
 import com.android.incallui.call.InCallVideoCallCallbackNotifier;
@@ -597,7 +598,8 @@ public class VideoCallPresenter
                 primaryCall);
         if (primaryChanged) {
             onPrimaryCallChanged(primary);
-        } else if (primaryCall != null) {
+        } else if (primaryCall != null
+                && callList.getLastDiff().hasChanged(primary, CallListDiff.FIELD_ALL)) {
             updateVideoCall(primary);
         }
         updateCallCache(primary);
@@ -28,9 +28,11 @@ import android.telecom.DisconnectCause;
 import android.telecom.PhoneAccount;
 import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 
 import com.android.incallui.call.state.DialerCallState;
 import com.android.incallui.latencyreport.LatencyReport;
+import com.android.incallui.latencyreport.LatencyReport.CallerIdStage;
 import com.android.incallui.videotech.utils.SessionModificationState;
 import com.fissy.dialer.blocking.FilteredNumberAsyncQueryHandler;
 import com.fissy.dialer.common.Assert;
@@ -71,6 +73,7 @@ public class CallList implements DialerCallDelegate {
     private static final int DISCONNECTED_CALL_LONG_TIMEOUT_MS = 5000;
 
     private static final int EVENT_DISCONNECTED_TIMEOUT = 1;
+    private static final int EVENT_NOTIFY_COALESCED_UPDATE = 2;
 
     private static CallList instance = new CallList();
 
@@ -87,6 +90,19 @@ public class CallList implements DialerCallDelegate {
     private final Set<DialerCall> pendingDisconnectCalls =
             Collections.newSetFromMap(new ConcurrentHashMap<DialerCall, Boolean>(8, 0.9f, 1));
 
+    /**
+     * Calls as last reported to {@link Listener#onCallListChange(CallList)}, used to compute {@link
+     * #lastDiff}.
+     */
+    private Map<String, CallListDiff.CallSnapshot> lastSnapshots = Collections.emptyMap();
+
+    private CallListDiff lastDiff = CallListDiff.ALL_CHANGED;
+
+    /**
+     * Calls which asked for an update since listeners were last notified.
+     */
+    private final Set<String> updatedCallIds = new ArraySet<>();
+
     private UiListener uiListeners;
     /**
      * USED ONLY FOR TESTING Testing-only constructor. Instance should only be acquired through
@@ -106,6 +122,9 @@ public class CallList implements DialerCallDelegate {
                             LogUtil.d("CallList.handleMessage", "EVENT_DISCONNECTED_TIMEOUT ", msg.obj);
                             finishDisconnectedCall((DialerCall) msg.obj);
                             break;
+                        case EVENT_NOTIFY_COALESCED_UPDATE:
+                            notifyCoalescedUpdate();
+                            break;
                         default:
                             LogUtil.e("CallList.handleMessage", "Message not expected: " + msg.what);
                             break;
@@ -155,6 +174,7 @@ public class CallList implements DialerCallDelegate {
         LogUtil.d("CallList.onCallAdded", "callState=" + call.getState());
         if (SpamComponent.get(context).spamSettings().isSpamEnabled()) {
             String number = TelecomCallUtil.getNumber(telecomCall);
+            latencyReport.onCallerIdStageStarted(CallerIdStage.SPAM);
             ListenableFuture<SpamStatus> futureSpamStatus =
                     SpamComponent.get(context).spam().checkSpamStatus(number, call.getCountryIso());
 
@@ -163,6 +183,7 @@ public class CallList implements DialerCallDelegate {
                     new FutureCallback<SpamStatus>() {
                         @Override
                         public void onSuccess(@Nullable SpamStatus result) {
+                            latencyReport.onCallerIdStageFinished(CallerIdStage.SPAM);
                             boolean isIncomingCall =
                                     call.getState() == DialerCallState.INCOMING
                                             || call.getState() == DialerCallState.CALL_WAITING;
@@ -184,6 +205,7 @@ public class CallList implements DialerCallDelegate {
 
                         @Override
                         public void onFailure(Throwable t) {
+                            latencyReport.onCallerIdStageFinished(CallerIdStage.SPAM);
                             LogUtil.e("CallList.onFailure", "unable to query spam status", t);
                         }
                     },
@@ -635,12 +657,67 @@ public class CallList implements DialerCallDelegate {
      */
     private void notifyGenericListeners() {
         Trace.beginSection("CallList.notifyGenericListeners");
+        // This delivers the latest state, so any pending coalesced update is redundant.
+        handler.removeMessages(EVENT_NOTIFY_COALESCED_UPDATE);
+        updatedCallIds.clear();
+        lastSnapshots = takeSnapshots();
+        lastDiff = CallListDiff.ALL_CHANGED;
         for (Listener listener : listeners) {
             listener.onCallListChange(this);
         }
         Trace.endSection();
     }
 
+    /**
+     * Schedules a notification to all listeners after the messages already queued on the main
+     * thread, so a burst of telecom callbacks results in a single {@link
+     * Listener#onCallListChange(CallList)}.
+     */
+    private void scheduleCoalescedUpdate(DialerCall call) {
+        updatedCallIds.add(call.getId());
+        if (!handler.hasMessages(EVENT_NOTIFY_COALESCED_UPDATE)) {
+            handler.sendEmptyMessage(EVENT_NOTIFY_COALESCED_UPDATE);
+        }
+    }
+
+    private void notifyCoalescedUpdate() {
+        Trace.beginSection("CallList.notifyCoalescedUpdate");
+        Map<String, CallListDiff.CallSnapshot> snapshots = takeSnapshots();
+        CallListDiff diff = CallListDiff.compute(lastSnapshots, snapshots, updatedCallIds);
+        updatedCallIds.clear();
+        // Only empty if the calls which asked for an update were removed in the meantime.
+        if (diff.isEmpty()) {
+            LogUtil.v("CallList.notifyCoalescedUpdate", "nothing changed");
+            Trace.endSection();
+            return;
+        }
+        lastSnapshots = snapshots;
+        lastDiff = diff;
+        for (Listener listener : listeners) {
+            listener.onCallListChange(this);
+        }
+        // Outside of the dispatch the diff is unknown, e.g. when a UI attaches and asks for a refresh.
+        lastDiff = CallListDiff.ALL_CHANGED;
+        Trace.endSection();
+    }
+
+    private Map<String, CallListDiff.CallSnapshot> takeSnapshots() {
+        Map<String, CallListDiff.CallSnapshot> snapshots = new ArrayMap<>(callById.size());
+        for (DialerCall call : callById.values()) {
+            snapshots.put(call.getId(), CallListDiff.CallSnapshot.of(call));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns what changed since the previous {@link Listener#onCallListChange(CallList)}. Outside of
+     * that callback every call is reported as changed.
+     */
+    @NonNull
+    public CallListDiff getLastDiff() {
+        return lastDiff;
+    }
+
     private void notifyListenersOfDisconnect(DialerCall call) {
         for (Listener listener : listeners) {
             listener.onDisconnect(call);
@@ -793,6 +870,9 @@ public class CallList implements DialerCallDelegate {
          * updating information, etc. This method will NOT be called for new incoming calls and for
          * calls that switch to disconnected state. Listeners must add actions to those method
          * implementations if they want to deal with those actions.
+         *
+         * <p>Updates from telecom are coalesced, and {@link CallList#getLastDiff()} tells which calls
+         * and fields changed.
          */
         void onCallListChange(CallList callList);
 
@@ -854,7 +934,7 @@ public class CallList implements DialerCallDelegate {
         public void onDialerCallUpdate() {
             Trace.beginSection("CallList.onDialerCallUpdate");
             onUpdateCall(call);
-            notifyGenericListeners();
+            scheduleCoalescedUpdate(call);
             Trace.endSection();
         }
 
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.android.incallui.call;
+
+import android.telecom.Call;
+import android.telecom.Call.Details;
+import android.telecom.InCallService.VideoCall;
+import android.util.ArrayMap;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Field level difference between the call list seen by listeners in the previous and the current
+ * {@link CallList.Listener#onCallListChange(CallList)}. Listeners can read it from {@link
+ * CallList#getLastDiff()} to skip the work for calls and fields that did not change.
+ */
+public final class CallListDiff {
+
+    /**
+     * The {@link DialerCall#getState()} changed.
+     */
+    public static final int FIELD_STATE = 1;
+    /**
+     * The telecom {@link Details} changed. Set along with {@link #FIELD_VIDEO_STATE}.
+     */
+    public static final int FIELD_DETAILS = 1 << 1;
+    /**
+     * The video state in the telecom {@link Details} changed.
+     */
+    public static final int FIELD_VIDEO_STATE = 1 << 2;
+    /**
+     * The conference children, parent or conferenceable calls changed.
+     */
+    public static final int FIELD_CONFERENCE = 1 << 3;
+    /**
+     * Something else telecom reports through the call callback changed, such as the video call,
+     * the RTT state or the remaining post dial sequence. Also set for a call that asked for an
+     * update without any of the compared fields changing, e.g. for a connection event or a video
+     * tech state change.
+     */
+    public static final int FIELD_OTHER = 1 << 4;
+    /**
+     * The call was added to the list.
+     */
+    public static final int FIELD_ADDED = 1 << 5;
+    /**
+     * The call was removed from the list.
+     */
+    public static final int FIELD_REMOVED = 1 << 6;
+
+    public static final int FIELD_ALL = (1 << 7) - 1;
+
+    /**
+     * Diff used when the change can't be computed, every call is reported as fully changed.
+     */
+    static final CallListDiff ALL_CHANGED = new CallListDiff(Collections.emptyMap(), true);
+
+    private final Map<String, Integer> changedFieldsById;
+    private final boolean allChanged;
+
+    private CallListDiff(Map<String, Integer> changedFieldsById, boolean allChanged) {
+        this.changedFieldsById = changedFieldsById;
+        this.allChanged = allChanged;
+    }
+
+    /**
+     * @param updatedCallIds calls which asked for an update since the old snapshots were taken,
+     *                       they are reported as changed even if none of the compared fields
+     *                       changed
+     */
+    static CallListDiff compute(
+            @NonNull Map<String, CallSnapshot> oldSnapshots,
+            @NonNull Map<String, CallSnapshot> newSnapshots,
+            @NonNull Collection<String> updatedCallIds) {
+        Map<String, Integer> changedFieldsById = new ArrayMap<>();
+        for (Map.Entry<String, CallSnapshot> entry : newSnapshots.entrySet()) {
+            CallSnapshot oldSnapshot = oldSnapshots.get(entry.getKey());
+            int changedFields =
+                    oldSnapshot == null ? FIELD_ALL & ~FIELD_REMOVED : oldSnapshot.diff(entry.getValue());
+            if (changedFields == 0 && updatedCallIds.contains(entry.getKey())) {
+                changedFields = FIELD_OTHER;
+            }
+            if (changedFields != 0) {
+                changedFieldsById.put(entry.getKey(), changedFields);
+            }
+        }
+        for (String id : oldSnapshots.keySet()) {
+            if (!newSnapshots.containsKey(id)) {
+                changedFieldsById.put(id, FIELD_REMOVED);
+            }
+        }
+        return new CallListDiff(changedFieldsById, false);
+    }
+
+    /**
+     * Returns true if no call in the list changed.
+     */
+    public boolean isEmpty() {
+        return !allChanged && changedFieldsById.isEmpty();
+    }
+
+    /**
+     * Returns the {@code FIELD_*} bits that changed for the call with {@code callId}.
+     */
+    public int getChangedFields(String callId) {
+        if (allChanged) {
+            return FIELD_ALL;
+        }
+        Integer changedFields = changedFieldsById.get(callId);
+        return changedFields == null ? 0 : changedFields;
+    }
+
+    /**
+     * Returns true if any of the {@code fields} changed for {@code call}.
+     */
+    public boolean hasChanged(@Nullable DialerCall call, int fields) {
+        return call != null && (getChangedFields(call.getId()) & fields) != 0;
+    }
+
+    /**
+     * Returns true if a call that is not in {@code callIds} changed.
+     */
+    public boolean hasChangesOutside(Collection<String> callIds) {
+        if (allChanged) {
+            return true;
+        }
+        for (String id : changedFieldsById.keySet()) {
+            if (!callIds.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return allChanged ? "CallListDiff{all}" : "CallListDiff" + changedFieldsById;
+    }
+
+    /**
+     * Immutable copy of the parts of a {@link DialerCall} that telecom updates. Telecom only replaces
+     * the {@link Details} instance when they changed, so it is compared by reference.
+     */
+    static final class CallSnapshot {
+        private final int state;
+        private final Details details;
+        private final List<String> childCallIds;
+        private final Call parent;
+        private final List<Call> conferenceableCalls;
+        private final VideoCall videoCall;
+        private final boolean isRttActive;
+        private final String remainingPostDialSequence;
+
+        private CallSnapshot(DialerCall call) {
+            Call telecomCall = call.getTelecomCall();
+            state = call.getState();
+            childCallIds = new ArrayList<>(call.getChildCallIds());
+            isRttActive = call.isActiveRttCall();
+            if (telecomCall == null) {
+                details = null;
+                parent = null;
+                conferenceableCalls = Collections.emptyList();
+                videoCall = null;
+                remainingPostDialSequence = null;
+            } else {
+                details = telecomCall.getDetails();
+                parent = telecomCall.getParent();
+                conferenceableCalls = new ArrayList<>(telecomCall.getConferenceableCalls());
+                videoCall = telecomCall.getVideoCall();
+                remainingPostDialSequence = telecomCall.getRemainingPostDialSequence();
+            }
+        }
+
+        static CallSnapshot of(DialerCall call) {
+            return new CallSnapshot(call);
+        }
+
+        int diff(CallSnapshot other) {
+            int changedFields = 0;
+            if (state != other.state) {
+                changedFields |= FIELD_STATE;
+            }
+            if (details != other.details) {
+                if (details == null
+                        || other.details == null
+                        || details.getVideoState() != other.details.getVideoState()) {
+                    changedFields |= FIELD_VIDEO_STATE;
+                }
+                changedFields |= FIELD_DETAILS;
+            }
+            if (!childCallIds.equals(other.childCallIds)
+                    || parent != other.parent
+                    || !conferenceableCalls.equals(other.conferenceableCalls)) {
+                changedFields |= FIELD_CONFERENCE;
+            }
+            if (videoCall != other.videoCall
+                    || isRttActive != other.isRttActive
+                    || !Objects.equals(remainingPostDialSequence, other.remainingPostDialSequence)) {
+                changedFields |= FIELD_OTHER;
+            }
+            return changedFields;
+        }
+    }
+}
@@ -17,7 +17,6 @@
 package com.android.incallui.call;
 
 import android.Manifest.permission;
-import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.hardware.camera2.CameraCharacteristics;
@@ -173,7 +172,6 @@ public class DialerCall implements VideoTechListener, StateChangedListener, Capa
     private boolean isBlocked;
     private boolean didShowCameraPermission;
     private boolean didDismissVideoChargesAlertDialog;
-    private PersistableBundle carrierConfig;
     private String callProviderLabel;
     private String callbackNumber;
     private int cameraDirection = CameraDirection.CAMERA_DIRECTION_UNKNOWN;
@@ -188,7 +186,6 @@ public class DialerCall implements VideoTechListener, StateChangedListener, Capa
     private com.fissy.dialer.logging.VideoTech.Type selectedAvailableVideoTechType =
             com.fissy.dialer.logging.VideoTech.Type.NONE;
     private boolean isVoicemailNumber;
-    private List<PhoneAccountHandle> callCapableAccounts;
     private String countryIso;
     private volatile boolean feedbackRequested = false;
     private Clock clock = System::currentTimeMillis;
@@ -534,7 +531,7 @@ public class DialerCall implements VideoTechListener, StateChangedListener, Capa
     }
 
     public List<PhoneAccountHandle> getCallCapableAccounts() {
-        return callCapableAccounts;
+        return PhoneAccountSnapshotCache.get(context).getCallCapableAccounts();
     }
 
     public String getCountryIso() {
@@ -610,58 +607,36 @@ public class DialerCall implements VideoTechListener, StateChangedListener, Capa
 
         // If the handle of the call has changed, update state for the call determining if it is an
         // emergency call.
+        boolean handleOrAccountChanged = false;
         Uri newHandle = telecomCall.getDetails().getHandle();
         if (!Objects.equals(handle, newHandle)) {
             handle = newHandle;
+            handleOrAccountChanged = true;
             updateEmergencyCallState();
         }
 
-        TelecomManager telecomManager = context.getSystemService(TelecomManager.class);
         // If the phone account handle of the call is set, cache capability bit indicating whether
-        // the phone account supports call subjects.
+        // the phone account supports call subjects. The account data and carrier config come from
+        // PhoneAccountSnapshotCache so conference detail updates don't query telephony.
         PhoneAccountHandle newPhoneAccountHandle = telecomCall.getDetails().getAccountHandle();
         if (!Objects.equals(phoneAccountHandle, newPhoneAccountHandle)) {
             phoneAccountHandle = newPhoneAccountHandle;
+            handleOrAccountChanged = true;
 
-            if (phoneAccountHandle != null) {
-                PhoneAccount phoneAccount = telecomManager.getPhoneAccount(phoneAccountHandle);
-                if (phoneAccount != null) {
-                    isCallSubjectSupported =
-                            phoneAccount.hasCapabilities(PhoneAccount.CAPABILITY_CALL_SUBJECT);
-                    if (phoneAccount.hasCapabilities(PhoneAccount.CAPABILITY_SIM_SUBSCRIPTION)) {
-                        cacheCarrierConfiguration(phoneAccountHandle);
-                    }
-                }
+            PhoneAccountSnapshotCache.Snapshot snapshot =
+                    PhoneAccountSnapshotCache.get(context).getSnapshot(phoneAccountHandle);
+            if (snapshot != null) {
+                isCallSubjectSupported = snapshot.isCallSubjectSupported();
             }
         }
-        if (PermissionsUtil.hasPermission(context, permission.READ_PHONE_STATE)) {
+        if ((handleOrAccountChanged || countryIso == null)
+                && PermissionsUtil.hasPermission(context, permission.READ_PHONE_STATE)) {
             updateIsVoiceMailNumber();
-            callCapableAccounts = telecomManager.getCallCapablePhoneAccounts();
             countryIso = GeoUtil.getCurrentCountryIso(context);
         }
         Trace.endSection();
     }
 
-    /**
-     * Caches frequently used carrier configuration locally.
-     *
-     * @param accountHandle The PhoneAccount handle.
-     */
-    @SuppressLint("MissingPermission")
-    private void cacheCarrierConfiguration(PhoneAccountHandle accountHandle) {
-        if (!PermissionsUtil.hasPermission(context, permission.READ_PHONE_STATE)) {
-            return;
-        }
-        if (VERSION.SDK_INT < VERSION_CODES.O) {
-            return;
-        }
-        // TODO(a bug): This may take several seconds to complete, revisit it to move it to worker
-        // thread.
-        carrierConfig =
-                TelephonyManagerCompat.getTelephonyManagerForPhoneAccountHandle(context, accountHandle)
-                        .getCarrierConfig();
-    }
-
     /**
      * Tests corruption of the {@code callExtras} bundle by calling {@link
      * Bundle#containsKey(String)}. If the bundle is corrupted a {@link IllegalArgumentException} will
@@ -775,6 +750,9 @@ public class DialerCall implements VideoTechListener, StateChangedListener, Capa
     }
 
     public boolean showVideoChargesAlertDialog() {
+        PhoneAccountSnapshotCache.Snapshot snapshot =
+                PhoneAccountSnapshotCache.get(context).getSnapshot(phoneAccountHandle);
+        PersistableBundle carrierConfig = snapshot == null ? null : snapshot.getCarrierConfig();
         if (carrierConfig == null) {
             return false;
         }
@@ -1470,7 +1448,7 @@ public class DialerCall implements VideoTechListener, StateChangedListener, Capa
         if (callProviderLabel == null) {
             PhoneAccount account = getPhoneAccount();
             if (account != null && !TextUtils.isEmpty(account.getLabel())) {
-                if (callCapableAccounts != null && callCapableAccounts.size() > 1) {
+                if (getCallCapableAccounts().size() > 1) {
                     callProviderLabel = account.getLabel().toString();
                 }
             }
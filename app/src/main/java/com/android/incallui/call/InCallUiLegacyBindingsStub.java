@@ -16,6 +16,8 @@
 
 package com.android.incallui.call;
 
+import com.fissy.dialer.common.LogUtil;
+
 /**
  * Default implementation for in call UI legacy bindings.
  */
@@ -23,5 +25,6 @@ public class InCallUiLegacyBindingsStub implements InCallUiLegacyBindings {
 
     @Override
     public void logCall(DialerCall call) {
+        LogUtil.i("InCallUiLegacyBindingsStub.logCall", "%s", call.getLatencyReport());
     }
 }
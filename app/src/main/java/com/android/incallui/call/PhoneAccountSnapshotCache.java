@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.android.incallui.call;
+
+import android.Manifest.permission;
+import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.PersistableBundle;
+import android.telecom.PhoneAccount;
+import android.telecom.PhoneAccountHandle;
+import android.telecom.TelecomManager;
+import android.telephony.CarrierConfigManager;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.compat.telephony.TelephonyManagerCompat;
+import com.fissy.dialer.util.PermissionsUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the per {@link PhoneAccountHandle} data that {@link DialerCall} reads on every telecom
+ * update: the phone account capabilities, the carrier config and the list of call capable
+ * accounts. The carrier config is loaded on a background thread, and everything is reloaded when a
+ * phone account is (un)registered or the carrier config changes, so {@link DialerCall} never waits
+ * on telephony.
+ */
+public class PhoneAccountSnapshotCache {
+
+    private static PhoneAccountSnapshotCache instance;
+
+    private final Context appContext;
+    private final Map<PhoneAccountHandle, Snapshot> snapshots = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile List<PhoneAccountHandle> callCapableAccounts;
+
+    private final BroadcastReceiver invalidationReceiver =
+            new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    LogUtil.i("PhoneAccountSnapshotCache.onReceive", intent.getAction());
+                    refreshAll();
+                }
+            };
+
+    private PhoneAccountSnapshotCache(Context appContext) {
+        this.appContext = appContext;
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(TelecomManager.ACTION_PHONE_ACCOUNT_REGISTERED);
+        filter.addAction(TelecomManager.ACTION_PHONE_ACCOUNT_UNREGISTERED);
+        filter.addAction(CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED);
+        appContext.registerReceiver(invalidationReceiver, filter);
+    }
+
+    public static synchronized PhoneAccountSnapshotCache get(Context context) {
+        if (instance == null) {
+            instance = new PhoneAccountSnapshotCache(context.getApplicationContext());
+            instance.refreshAll();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the snapshot for {@code handle}. On a cache miss the phone account is read right away
+     * and the carrier config is loaded in the background, so {@link Snapshot#getCarrierConfig()}
+     * may be null until that completes.
+     */
+    @MainThread
+    @Nullable
+    public Snapshot getSnapshot(@Nullable PhoneAccountHandle handle) {
+        if (handle == null) {
+            return null;
+        }
+        Snapshot snapshot = snapshots.get(handle);
+        if (snapshot == null) {
+            PhoneAccount phoneAccount =
+                    appContext.getSystemService(TelecomManager.class).getPhoneAccount(handle);
+            if (phoneAccount == null) {
+                return null;
+            }
+            snapshot = new Snapshot(phoneAccount, null);
+            snapshots.put(handle, snapshot);
+            if (snapshot.isSimSubscription()) {
+                DialerExecutorComponent.get(appContext)
+                        .backgroundExecutor()
+                        .execute(() -> loadSnapshot(handle));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the call capable phone accounts, or an empty list if they can't be read. Only the
+     * first call before the accounts are loaded in the background queries telecom directly.
+     */
+    @NonNull
+    public List<PhoneAccountHandle> getCallCapableAccounts() {
+        List<PhoneAccountHandle> accounts = callCapableAccounts;
+        if (accounts == null) {
+            accounts = loadCallCapableAccounts();
+        }
+        return accounts;
+    }
+
+    private void refreshAll() {
+        DialerExecutorComponent.get(appContext)
+                .backgroundExecutor()
+                .execute(
+                        () -> {
+                            loadCallCapableAccounts();
+                            for (PhoneAccountHandle handle : new ArrayList<>(snapshots.keySet())) {
+                                loadSnapshot(handle);
+                            }
+                        });
+    }
+
+    @SuppressLint("MissingPermission")
+    private List<PhoneAccountHandle> loadCallCapableAccounts() {
+        if (!PermissionsUtil.hasPermission(appContext, permission.READ_PHONE_STATE)) {
+            return Collections.emptyList();
+        }
+        List<PhoneAccountHandle> accounts =
+                Collections.unmodifiableList(
+                        new ArrayList<>(
+                                appContext.getSystemService(TelecomManager.class).getCallCapablePhoneAccounts()));
+        callCapableAccounts = accounts;
+        return accounts;
+    }
+
+    @WorkerThread
+    @SuppressLint("MissingPermission")
+    private void loadSnapshot(PhoneAccountHandle handle) {
+        Assert.isWorkerThread();
+        PhoneAccount phoneAccount =
+                appContext.getSystemService(TelecomManager.class).getPhoneAccount(handle);
+        if (phoneAccount == null) {
+            snapshots.remove(handle);
+            return;
+        }
+        PersistableBundle carrierConfig = null;
+        if (phoneAccount.hasCapabilities(PhoneAccount.CAPABILITY_SIM_SUBSCRIPTION)
+                && PermissionsUtil.hasPermission(appContext, permission.READ_PHONE_STATE)) {
+            carrierConfig =
+                    TelephonyManagerCompat.getTelephonyManagerForPhoneAccountHandle(appContext, handle)
+                            .getCarrierConfig();
+        }
+        snapshots.put(handle, new Snapshot(phoneAccount, carrierConfig));
+    }
+
+    /**
+     * Immutable view of a phone account and its carrier config.
+     */
+    public static final class Snapshot {
+        private final boolean isCallSubjectSupported;
+        private final boolean isSimSubscription;
+        @Nullable
+        private final PersistableBundle carrierConfig;
+
+        private Snapshot(PhoneAccount phoneAccount, @Nullable PersistableBundle carrierConfig) {
+            this.isCallSubjectSupported =
+                    phoneAccount.hasCapabilities(PhoneAccount.CAPABILITY_CALL_SUBJECT);
+            this.isSimSubscription =
+                    phoneAccount.hasCapabilities(PhoneAccount.CAPABILITY_SIM_SUBSCRIPTION);
+            this.carrierConfig = carrierConfig;
+        }
+
+        public boolean isCallSubjectSupported() {
+            return isCallSubjectSupported;
+        }
+
+        public boolean isSimSubscription() {
+            return isSimSubscription;
+        }
+
+        /**
+         * Returns the carrier config of a SIM account, or null if it is not loaded yet.
+         */
+        @Nullable
+        public PersistableBundle getCarrierConfig() {
+            return carrierConfig;
+        }
+    }
+}
@@ -19,6 +19,8 @@ package com.android.incallui.latencyreport;
 import android.os.Bundle;
 import android.os.SystemClock;
 
+import java.util.Arrays;
+
 /**
  * Tracks latency information for a call.
  */
@@ -56,10 +58,44 @@ public class LatencyReport {
     // Time elapsed since boot when the InCallUI was shown.
     private long inCallUiShownTimeMillis = INVALID_TIME;
 
+    // Time elapsed since boot when the first caller-ID lookup result was delivered to the UI.
+    private long callerIdTimeMillis = INVALID_TIME;
+
     // Whether the call was shown to the user as a heads up notification instead of a full screen
     // UI.
     private boolean didDisplayHeadsUpNotification;
 
+    // Per-stage start time and duration of the caller-ID lookup, in nanoseconds since boot. Stages
+    // may be reported from worker threads so access is guarded by the report.
+    private final long[] callerIdStageStartNanos = newStageArray();
+    private final long[] callerIdStageDurationNanos = newStageArray();
+
+    /**
+     * Stages of the caller-ID lookup of a call whose latency is tracked.
+     */
+    public enum CallerIdStage {
+        /**
+         * Parsing the number into a {@link com.fissy.dialer.DialerPhoneNumber}.
+         */
+        PARSE,
+        /**
+         * Looking the number up in the default contacts directory.
+         */
+        CP2,
+        /**
+         * Looking the number up in the remote and enterprise directories.
+         */
+        DIRECTORIES,
+        /**
+         * Checking the spam status of the number.
+         */
+        SPAM,
+        /**
+         * Loading and decoding the contact photo.
+         */
+        PHOTO_DECODE
+    }
+
     public LatencyReport() {
         wasIncoming = false;
         createdTimeMillis = INVALID_TIME;
@@ -139,4 +175,92 @@ public class LatencyReport {
     public boolean getDidDisplayHeadsUpNotification() {
         return didDisplayHeadsUpNotification;
     }
+
+    public synchronized long getCallerIdTimeMillis() {
+        return callerIdTimeMillis;
+    }
+
+    public synchronized void onCallerIdDone() {
+        if (callerIdTimeMillis == INVALID_TIME) {
+            callerIdTimeMillis = SystemClock.elapsedRealtime();
+        }
+    }
+
+    /**
+     * Marks the start of a caller-ID stage. Only the first start of each stage is kept.
+     */
+    public synchronized void onCallerIdStageStarted(CallerIdStage stage) {
+        if (callerIdStageStartNanos[stage.ordinal()] == INVALID_TIME) {
+            callerIdStageStartNanos[stage.ordinal()] = SystemClock.elapsedRealtimeNanos();
+        }
+    }
+
+    /**
+     * Marks the end of a caller-ID stage started with {@link #onCallerIdStageStarted}. Only the first
+     * completion of each stage is kept.
+     */
+    public synchronized void onCallerIdStageFinished(CallerIdStage stage) {
+        long start = callerIdStageStartNanos[stage.ordinal()];
+        if (start != INVALID_TIME && callerIdStageDurationNanos[stage.ordinal()] == INVALID_TIME) {
+            callerIdStageDurationNanos[stage.ordinal()] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+    }
+
+    /**
+     * Returns the time elapsed since boot when the stage started, in nanoseconds, or {@link
+     * #INVALID_TIME} if it never started.
+     */
+    public synchronized long getCallerIdStageStartNanos(CallerIdStage stage) {
+        return callerIdStageStartNanos[stage.ordinal()];
+    }
+
+    /**
+     * Returns how long the stage took, in nanoseconds, or {@link #INVALID_TIME} if it did not finish.
+     */
+    public synchronized long getCallerIdStageDurationNanos(CallerIdStage stage) {
+        return callerIdStageDurationNanos[stage.ordinal()];
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder =
+                new StringBuilder()
+                        .append("LatencyReport{wasIncoming=")
+                        .append(wasIncoming)
+                        .append(", createdTimeMillis=")
+                        .append(createdTimeMillis)
+                        .append(", telecomRoutingStartTimeMillis=")
+                        .append(telecomRoutingStartTimeMillis)
+                        .append(", telecomRoutingEndTimeMillis=")
+                        .append(telecomRoutingEndTimeMillis)
+                        .append(", callAddedTimeMillis=")
+                        .append(callAddedTimeMillis)
+                        .append(", callBlockingTimeMillis=")
+                        .append(callBlockingTimeMillis)
+                        .append(", callNotificationTimeMillis=")
+                        .append(callNotificationTimeMillis)
+                        .append(", inCallUiShownTimeMillis=")
+                        .append(inCallUiShownTimeMillis)
+                        .append(", didDisplayHeadsUpNotification=")
+                        .append(didDisplayHeadsUpNotification)
+                        .append(", callerIdTimeMillis=")
+                        .append(callerIdTimeMillis);
+        for (CallerIdStage stage : CallerIdStage.values()) {
+            builder
+                    .append(", ")
+                    .append(stage)
+                    .append("={startNanos=")
+                    .append(callerIdStageStartNanos[stage.ordinal()])
+                    .append(", durationNanos=")
+                    .append(callerIdStageDurationNanos[stage.ordinal()])
+                    .append('}');
+        }
+        return builder.append('}').toString();
+    }
+
+    private static long[] newStageArray() {
+        long[] array = new long[CallerIdStage.values().length];
+        Arrays.fill(array, INVALID_TIME);
+        return array;
+    }
 }
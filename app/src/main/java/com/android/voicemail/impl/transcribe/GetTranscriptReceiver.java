@@ -168,7 +168,7 @@ public class GetTranscriptReceiver extends BroadcastReceiver {
         if (transcriptionClientFactoryForTesting != null) {
             return transcriptionClientFactoryForTesting;
         }
-        return new TranscriptionClientFactory(context, new TranscriptionConfigProvider(context));
+        return TranscriptionClientFactory.getShared(context, new TranscriptionConfigProvider(context));
     }
 
     // Alarm fired, poll for transcription result on a background thread
@@ -259,29 +259,23 @@ public class GetTranscriptReceiver extends BroadcastReceiver {
         private Pair<String, TranscriptionStatus> pollForTranscription(String transcriptId) {
             VvmLog.i(TAG, "pollForTranscription, transcript id: " + transcriptId);
             GetTranscriptRequest request = getGetTranscriptRequest(transcriptId);
-            TranscriptionClientFactory factory = null;
-            try {
-                factory = getTranscriptionClientFactory(context);
-                TranscriptionClient client = factory.getClient();
-                Logger.get(context).logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_POLL_REQUEST);
-                GetTranscriptResponseAsync response = client.sendGetTranscriptRequest(request);
-                if (response == null) {
-                    VvmLog.i(TAG, "pollForTranscription, no transcription result.");
-                    return new Pair<>(null, null);
-                } else if (response.isTranscribing()) {
-                    VvmLog.i(TAG, "pollForTranscription, transcribing");
-                    return new Pair<>(null, null);
-                } else if (response.hasFatalError()) {
-                    VvmLog.i(TAG, "pollForTranscription, fail. " + response.getErrorDescription());
-                    return new Pair<>(null, response.getTranscriptionStatus());
-                } else {
-                    VvmLog.i(TAG, "pollForTranscription, got transcription");
-                    return new Pair<>(response.getTranscript(), TranscriptionStatus.SUCCESS);
-                }
-            } finally {
-                if (factory != null) {
-                    factory.shutdown();
-                }
+            // The factory is shared across polls so each poll reuses the same channel instead of
+            // opening a new connection.
+            TranscriptionClient client = getTranscriptionClientFactory(context).getClient();
+            Logger.get(context).logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_POLL_REQUEST);
+            GetTranscriptResponseAsync response = client.sendGetTranscriptRequest(request);
+            if (response == null) {
+                VvmLog.i(TAG, "pollForTranscription, no transcription result.");
+                return new Pair<>(null, null);
+            } else if (response.isTranscribing()) {
+                VvmLog.i(TAG, "pollForTranscription, transcribing");
+                return new Pair<>(null, null);
+            } else if (response.hasFatalError()) {
+                VvmLog.i(TAG, "pollForTranscription, fail. " + response.getErrorDescription());
+                return new Pair<>(null, response.getTranscriptionStatus());
+            } else {
+                VvmLog.i(TAG, "pollForTranscription, got transcription");
+                return new Pair<>(response.getTranscript(), TranscriptionStatus.SUCCESS);
             }
         }
 
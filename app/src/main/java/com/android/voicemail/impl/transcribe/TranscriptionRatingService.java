@@ -72,7 +72,7 @@ public class TranscriptionRatingService extends JobIntentService {
         LogUtil.enterBlock("TranscriptionRatingService.onHandleWork");
 
         TranscriptionConfigProvider configProvider = new TranscriptionConfigProvider(this);
-        TranscriptionClientFactory factory = new TranscriptionClientFactory(this, configProvider);
+        TranscriptionClientFactory factory = TranscriptionClientFactory.getShared(this, configProvider);
         try {
             // Send rating to server
             SendTranscriptionFeedbackRequest request =
@@ -81,8 +81,6 @@ public class TranscriptionRatingService extends JobIntentService {
             factory.getClient().sendTranscriptFeedbackRequest(request);
         } catch (InvalidProtocolBufferException e) {
             LogUtil.e("TranscriptionRatingService.onHandleWork", "failed to send feedback", e);
-        } finally {
-            factory.shutdown();
         }
     }
 
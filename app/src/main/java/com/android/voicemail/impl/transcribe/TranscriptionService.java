@@ -39,8 +39,9 @@ import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.constants.ScheduledJobIds;
 import com.fissy.dialer.logging.DialerImpression;
 import com.fissy.dialer.logging.Logger;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
@@ -54,7 +55,7 @@ public class TranscriptionService extends JobService {
     @VisibleForTesting
     static final String EXTRA_ACCOUNT_HANDLE = "extra_account_handle";
 
-    private ExecutorService executorService;
+    private ListeningScheduledExecutorService executorService;
     private JobParameters jobParameters;
     private TranscriptionClientFactory clientFactory;
     private TranscriptionConfigProvider configProvider;
@@ -68,7 +69,7 @@ public class TranscriptionService extends JobService {
 
     @VisibleForTesting
     TranscriptionService(
-            ExecutorService executorService,
+            ListeningScheduledExecutorService executorService,
             TranscriptionClientFactory clientFactory,
             TranscriptionConfigProvider configProvider) {
         this.executorService = executorService;
@@ -200,10 +201,9 @@ public class TranscriptionService extends JobService {
     }
 
     private void cleanup() {
-        if (clientFactory != null) {
-            clientFactory.shutdown();
-            clientFactory = null;
-        }
+        // The client factory is shared with the transcript poller, so its channel is left open and is
+        // released by its idle timeout.
+        clientFactory = null;
         if (executorService != null) {
             executorService.shutdownNow();
             executorService = null;
@@ -223,9 +223,19 @@ public class TranscriptionService extends JobService {
             activeTask =
                     configProvider.shouldUseSyncApi()
                             ? new TranscriptionTaskSync(
-                            this, new Callback(), workItem, getClientFactory(), configProvider)
+                            this,
+                            new Callback(),
+                            workItem,
+                            getClientFactory(),
+                            configProvider,
+                            getExecutorService())
                             : new TranscriptionTaskAsync(
-                            this, new Callback(), workItem, getClientFactory(), configProvider);
+                            this,
+                            new Callback(),
+                            workItem,
+                            getClientFactory(),
+                            configProvider,
+                            getExecutorService());
             getExecutorService().execute(activeTask);
             return true;
         } else {
@@ -233,12 +243,14 @@ public class TranscriptionService extends JobService {
         }
     }
 
-    private ExecutorService getExecutorService() {
+    private ListeningScheduledExecutorService getExecutorService() {
         if (executorService == null) {
             // The common use case is transcribing a single voicemail so just use a single thread executor
             // The reason we're not using DialerExecutor here is because the transcription task can be
-            // very long running (ie. multiple minutes).
-            executorService = Executors.newSingleThreadExecutor();
+            // very long running (ie. multiple minutes). The RPCs and retry delays are chained as
+            // futures, so the thread is only held while reading audio and recording results.
+            executorService =
+                    MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
         }
         return executorService;
     }
@@ -252,7 +264,7 @@ public class TranscriptionService extends JobService {
 
     private TranscriptionClientFactory getClientFactory() {
         if (clientFactory == null) {
-            clientFactory = new TranscriptionClientFactory(this, getConfigProvider());
+            clientFactory = TranscriptionClientFactory.getShared(this, getConfigProvider());
         }
         return clientFactory;
     }
@@ -29,14 +29,21 @@ import com.android.voicemail.impl.transcribe.grpc.TranscriptionClient;
 import com.android.voicemail.impl.transcribe.grpc.TranscriptionClientFactory;
 import com.android.voicemail.impl.transcribe.grpc.TranscriptionResponse;
 import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.backoff.ExponentialBackoff;
 import com.fissy.dialer.common.concurrent.ThreadUtil;
 import com.fissy.dialer.compat.android.provider.VoicemailCompat;
 import com.fissy.dialer.logging.DialerImpression;
 import com.fissy.dialer.logging.Logger;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.internal.communications.voicemailtranscription.v1.AudioFormat;
 import com.google.internal.communications.voicemailtranscription.v1.TranscriptionStatus;
 import com.google.protobuf.ByteString;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Background task to get a voicemail transcription and update the database.
  *
@@ -48,13 +55,18 @@ import com.google.protobuf.ByteString;
  *     3a. On response
  *       Update the database with transcription (if successful) and new transcription-state
  *     3b. On network error
- *       If retry-count < max then increment retry-count and retry the request
+ *       If retry-count < max then increment retry-count and schedule a retry of the request
  *       Otherwise update the transcription-state in the database to 'transcription-failed'
  *   4. Notify the callback that the work item is complete
  * </pre>
+ *
+ * <p>Requests and retries are chained as futures on the executor passed in, so no thread is held
+ * while waiting for the server or for the next retry.
  */
 public abstract class TranscriptionTask implements Runnable {
     private static final String TAG = "TranscriptionTask";
+    private static final long RETRY_INITIAL_DELAY_MILLIS = 1000;
+    private static final double RETRY_BASE_MULTIPLIER = 2;
     protected final Context context;
     protected final Uri voicemailUri;
     protected final PhoneAccountHandle phoneAccountHandle;
@@ -63,6 +75,7 @@ public abstract class TranscriptionTask implements Runnable {
     private final JobCallback callback;
     private final JobWorkItem workItem;
     private final TranscriptionClientFactory clientFactory;
+    protected final ListeningScheduledExecutorService executorService;
     protected ByteString audioData;
     protected AudioFormat encoding;
     protected volatile boolean cancelled;
@@ -72,32 +85,19 @@ public abstract class TranscriptionTask implements Runnable {
             JobCallback callback,
             JobWorkItem workItem,
             TranscriptionClientFactory clientFactory,
-            TranscriptionConfigProvider configProvider) {
+            TranscriptionConfigProvider configProvider,
+            ListeningScheduledExecutorService executorService) {
         this.context = context;
         this.callback = callback;
         this.workItem = workItem;
         this.clientFactory = clientFactory;
+        this.executorService = executorService;
         this.voicemailUri = TranscriptionService.getVoicemailUri(workItem);
         this.phoneAccountHandle = TranscriptionService.getPhoneAccountHandle(workItem);
         this.configProvider = configProvider;
         dbHelper = new TranscriptionDbHelper(context, voicemailUri);
     }
 
-    private static void backoff(int retryCount) {
-        VvmLog.i(TAG, "backoff, count: " + retryCount);
-        long millis = (1L << retryCount) * 1000;
-        sleep(millis);
-    }
-
-    protected static void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            VvmLog.e(TAG, "interrupted", e);
-            Thread.currentThread().interrupt();
-        }
-    }
-
     static void recordResult(
             Context context, Pair<String, TranscriptionStatus> result, TranscriptionDbHelper dbHelper) {
         recordResult(context, result, dbHelper, false);
@@ -165,54 +165,113 @@ public abstract class TranscriptionTask implements Runnable {
                         .logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_VOICEMAIL_INVALID_DATA);
             }
             updateTranscriptionState(VoicemailCompat.TRANSCRIPTION_FAILED);
+            notifyWorkCompleted();
         }
-        ThreadUtil.postOnUiThread(
-                () -> {
-                    callback.onWorkCompleted(workItem);
-                });
     }
 
-    protected abstract Pair<String, TranscriptionStatus> getTranscription();
+    /**
+     * Returns a future for the transcription result. A result with neither a transcript nor a status
+     * means the result is not available yet.
+     */
+    protected abstract ListenableFuture<Pair<String, TranscriptionStatus>> getTranscription();
 
     protected abstract DialerImpression.Type getRequestSentImpression();
 
     private void transcribeVoicemail() {
         VvmLog.i(TAG, "transcribeVoicemail");
-        recordResult(context, getTranscription(), dbHelper, cancelled);
+        Futures.addCallback(
+                getTranscription(),
+                new FutureCallback<Pair<String, TranscriptionStatus>>() {
+                    @Override
+                    public void onSuccess(Pair<String, TranscriptionStatus> result) {
+                        recordResult(context, result, dbHelper, cancelled);
+                        notifyWorkCompleted();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        VvmLog.e(TAG, "transcribeVoicemail, failed", t);
+                        recordResult(
+                                context,
+                                new Pair<>(null, TranscriptionStatus.FAILED_NO_RETRY),
+                                dbHelper,
+                                cancelled);
+                        notifyWorkCompleted();
+                    }
+                },
+                executorService);
+    }
+
+    private void notifyWorkCompleted() {
+        ThreadUtil.postOnUiThread(
+                () -> {
+                    callback.onWorkCompleted(workItem);
+                });
     }
 
-    protected TranscriptionResponse sendRequest(Request request) {
+    /**
+     * Sends the request, retrying with exponential backoff while the server reports a recoverable
+     * error. The returned future resolves to null if the task was cancelled or ran out of retries.
+     */
+    protected ListenableFuture<TranscriptionResponse> sendRequest(Request request) {
         VvmLog.i(TAG, "sendRequest");
         TranscriptionClient client = clientFactory.getClient();
-        for (int i = 0; i < configProvider.getMaxTranscriptionRetries(); i++) {
-            if (cancelled) {
-                VvmLog.i(TAG, "sendRequest, cancelled");
-                return null;
-            }
+        int maxAttempts = (int) configProvider.getMaxTranscriptionRetries();
+        if (maxAttempts <= 0) {
+            Logger.get(context)
+                    .logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_RESPONSE_TOO_MANY_ERRORS);
+            return Futures.immediateFuture(null);
+        }
+        ExponentialBackoff backoff =
+                new ExponentialBackoff(
+                        RETRY_INITIAL_DELAY_MILLIS, RETRY_BASE_MULTIPLIER, Math.max(1, maxAttempts - 1));
+        return sendRequest(request, client, 0, maxAttempts, backoff);
+    }
 
-            VvmLog.i(TAG, "sendRequest, try: " + (i + 1));
-            if (i == 0) {
-                Logger.get(context).logImpression(getRequestSentImpression());
-            } else {
-                Logger.get(context).logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_REQUEST_RETRY);
-            }
+    private ListenableFuture<TranscriptionResponse> sendRequest(
+            Request request,
+            TranscriptionClient client,
+            int attempt,
+            int maxAttempts,
+            ExponentialBackoff backoff) {
+        if (cancelled) {
+            VvmLog.i(TAG, "sendRequest, cancelled");
+            return Futures.immediateFuture(null);
+        }
 
-            TranscriptionResponse response = request.getResponse(client);
-            if (cancelled) {
-                VvmLog.i(TAG, "sendRequest, cancelled");
-                return null;
-            } else if (response.hasRecoverableError()) {
-                Logger.get(context)
-                        .logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_RESPONSE_RECOVERABLE_ERROR);
-                backoff(i);
-            } else {
-                return response;
-            }
+        VvmLog.i(TAG, "sendRequest, try: " + (attempt + 1));
+        if (attempt == 0) {
+            Logger.get(context).logImpression(getRequestSentImpression());
+        } else {
+            Logger.get(context).logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_REQUEST_RETRY);
         }
 
-        Logger.get(context)
-                .logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_RESPONSE_TOO_MANY_ERRORS);
-        return null;
+        return Futures.transformAsync(
+                request.getResponse(client),
+                response -> {
+                    if (cancelled) {
+                        VvmLog.i(TAG, "sendRequest, cancelled");
+                        return Futures.immediateFuture(null);
+                    } else if (!response.hasRecoverableError()) {
+                        return Futures.immediateFuture(response);
+                    }
+
+                    Logger.get(context)
+                            .logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_RESPONSE_RECOVERABLE_ERROR);
+                    if (attempt + 1 >= maxAttempts) {
+                        Logger.get(context)
+                                .logImpression(DialerImpression.Type.VVM_TRANSCRIPTION_RESPONSE_TOO_MANY_ERRORS);
+                        return Futures.immediateFuture(null);
+                    }
+                    long delayMillis = backoff.getNextBackoff();
+                    VvmLog.i(TAG, "sendRequest, retry in " + delayMillis + " millis");
+                    return Futures.scheduleAsync(
+                            () -> sendRequest(request, client, attempt + 1, maxAttempts, backoff),
+                            delayMillis,
+                            TimeUnit.MILLISECONDS,
+                            executorService);
+                },
+                executorService);
     }
 
     protected void updateTranscriptionState(int newState) {
@@ -258,6 +317,6 @@ public abstract class TranscriptionTask implements Runnable {
      * Functional interface for sending requests to the transcription server
      */
     public interface Request {
-        TranscriptionResponse getResponse(TranscriptionClient client);
+        ListenableFuture<? extends TranscriptionResponse> getResponse(TranscriptionClient client);
     }
 }
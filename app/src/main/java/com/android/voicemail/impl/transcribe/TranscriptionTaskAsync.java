@@ -26,6 +26,9 @@ import com.android.voicemail.impl.transcribe.TranscriptionService.JobCallback;
 import com.android.voicemail.impl.transcribe.grpc.TranscriptionClientFactory;
 import com.android.voicemail.impl.transcribe.grpc.TranscriptionResponseAsync;
 import com.fissy.dialer.logging.DialerImpression;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.internal.communications.voicemailtranscription.v1.DonationPreference;
 import com.google.internal.communications.voicemailtranscription.v1.TranscribeVoicemailAsyncRequest;
 import com.google.internal.communications.voicemailtranscription.v1.TranscriptionStatus;
@@ -40,8 +43,8 @@ import com.google.internal.communications.voicemailtranscription.v1.Transcriptio
  *   <li>client waits appropriate amount of time then begins polling for the result
  * </ol>
  * <p>
- * This implementation blocks until the response or an error is received, even though it is using
- * the asynchronous server API.
+ * The upload request and its retries are chained as futures, and polling for the result is driven
+ * by {@link GetTranscriptReceiver} alarms, so no thread is held while waiting on the server.
  */
 public class TranscriptionTaskAsync extends TranscriptionTask {
     private static final String TAG = "TranscriptionTaskAsync";
@@ -51,12 +54,13 @@ public class TranscriptionTaskAsync extends TranscriptionTask {
             JobCallback callback,
             JobWorkItem workItem,
             TranscriptionClientFactory clientFactory,
-            TranscriptionConfigProvider configProvider) {
-        super(context, callback, workItem, clientFactory, configProvider);
+            TranscriptionConfigProvider configProvider,
+            ListeningScheduledExecutorService executorService) {
+        super(context, callback, workItem, clientFactory, configProvider, executorService);
     }
 
     @Override
-    protected Pair<String, TranscriptionStatus> getTranscription() {
+    protected ListenableFuture<Pair<String, TranscriptionStatus>> getTranscription() {
         VvmLog.i(TAG, "getTranscription");
 
         if (GetTranscriptReceiver.hasPendingAlarm(context)) {
@@ -64,7 +68,7 @@ public class TranscriptionTaskAsync extends TranscriptionTask {
             VvmLog.i(
                     TAG,
                     "getTranscription, pending transcription, postponing transcription of: " + voicemailUri);
-            return new Pair<>(null, null);
+            return Futures.immediateFuture(new Pair<>(null, null));
         }
 
         TranscribeVoicemailAsyncRequest uploadRequest = getUploadRequest();
@@ -74,10 +78,14 @@ public class TranscriptionTaskAsync extends TranscriptionTask {
                         + voicemailUri
                         + ", id: "
                         + uploadRequest.getTranscriptionId());
-        TranscriptionResponseAsync uploadResponse =
-                (TranscriptionResponseAsync)
-                        sendRequest((client) -> client.sendUploadRequest(uploadRequest));
+        return Futures.transform(
+                sendRequest((client) -> client.sendUploadRequestAsync(uploadRequest)),
+                response -> onUploadResponse(uploadRequest, (TranscriptionResponseAsync) response),
+                executorService);
+    }
 
+    private Pair<String, TranscriptionStatus> onUploadResponse(
+            TranscribeVoicemailAsyncRequest uploadRequest, TranscriptionResponseAsync uploadResponse) {
         if (cancelled) {
             VvmLog.i(TAG, "getTranscription, cancelled.");
             return new Pair<>(null, TranscriptionStatus.FAILED_NO_RETRY);
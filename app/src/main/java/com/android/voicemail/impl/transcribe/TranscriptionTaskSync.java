@@ -24,6 +24,9 @@ import com.android.voicemail.impl.transcribe.TranscriptionService.JobCallback;
 import com.android.voicemail.impl.transcribe.grpc.TranscriptionClientFactory;
 import com.android.voicemail.impl.transcribe.grpc.TranscriptionResponseSync;
 import com.fissy.dialer.logging.DialerImpression;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.internal.communications.voicemailtranscription.v1.TranscribeVoicemailRequest;
 import com.google.internal.communications.voicemailtranscription.v1.TranscriptionStatus;
 
@@ -38,17 +41,23 @@ public class TranscriptionTaskSync extends TranscriptionTask {
             JobCallback callback,
             JobWorkItem workItem,
             TranscriptionClientFactory clientFactory,
-            TranscriptionConfigProvider configProvider) {
-        super(context, callback, workItem, clientFactory, configProvider);
+            TranscriptionConfigProvider configProvider,
+            ListeningScheduledExecutorService executorService) {
+        super(context, callback, workItem, clientFactory, configProvider, executorService);
     }
 
     @Override
-    protected Pair<String, TranscriptionStatus> getTranscription() {
+    protected ListenableFuture<Pair<String, TranscriptionStatus>> getTranscription() {
         VvmLog.i(TAG, "getTranscription");
 
-        TranscriptionResponseSync response =
-                (TranscriptionResponseSync)
-                        sendRequest((client) -> client.sendSyncRequest(getSyncRequest()));
+        TranscribeVoicemailRequest request = getSyncRequest();
+        return Futures.transform(
+                sendRequest((client) -> client.sendSyncRequestAsync(request)),
+                response -> onResponse((TranscriptionResponseSync) response),
+                executorService);
+    }
+
+    private Pair<String, TranscriptionStatus> onResponse(TranscriptionResponseSync response) {
         if (response == null) {
             VvmLog.i(TAG, "getTranscription, failed to transcribe voicemail.");
             return new Pair<>(null, TranscriptionStatus.FAILED_NO_RETRY);
@@ -17,12 +17,17 @@ package com.android.voicemail.impl.transcribe.grpc;
 
 import androidx.annotation.WorkerThread;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.internal.communications.voicemailtranscription.v1.GetTranscriptRequest;
 import com.google.internal.communications.voicemailtranscription.v1.SendTranscriptionFeedbackRequest;
 import com.google.internal.communications.voicemailtranscription.v1.TranscribeVoicemailAsyncRequest;
 import com.google.internal.communications.voicemailtranscription.v1.TranscribeVoicemailRequest;
 import com.google.internal.communications.voicemailtranscription.v1.VoicemailTranscriptionServiceGrpc;
 
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 
 /**
@@ -31,10 +36,28 @@ import io.grpc.StatusRuntimeException;
 public class TranscriptionClient {
 
     private final VoicemailTranscriptionServiceGrpc.VoicemailTranscriptionServiceBlockingStub stub;
+    private final VoicemailTranscriptionServiceGrpc.VoicemailTranscriptionServiceFutureStub futureStub;
 
     TranscriptionClient(
-            VoicemailTranscriptionServiceGrpc.VoicemailTranscriptionServiceBlockingStub stub) {
+            VoicemailTranscriptionServiceGrpc.VoicemailTranscriptionServiceBlockingStub stub,
+            VoicemailTranscriptionServiceGrpc.VoicemailTranscriptionServiceFutureStub futureStub) {
         this.stub = stub;
+        this.futureStub = futureStub;
+    }
+
+    /**
+     * Converts the result of a future stub call into a {@link TranscriptionResponse}, mapping grpc
+     * errors to a response carrying the error status the same way the blocking calls do.
+     */
+    private static <ResponseT, T extends TranscriptionResponse> ListenableFuture<T> toResponse(
+            ListenableFuture<ResponseT> call,
+            Function<ResponseT, T> onResponse,
+            Function<Status, T> onError) {
+        return Futures.catching(
+                Futures.transform(call, onResponse, MoreExecutors.directExecutor()),
+                StatusRuntimeException.class,
+                e -> onError.apply(e.getStatus()),
+                MoreExecutors.directExecutor());
     }
 
     @WorkerThread
@@ -46,6 +69,18 @@ public class TranscriptionClient {
         }
     }
 
+    /**
+     * Same as {@link #sendSyncRequest} but does not block the calling thread while the server is
+     * transcribing.
+     */
+    public ListenableFuture<TranscriptionResponseSync> sendSyncRequestAsync(
+            TranscribeVoicemailRequest request) {
+        return toResponse(
+                futureStub.transcribeVoicemail(request),
+                TranscriptionResponseSync::new,
+                TranscriptionResponseSync::new);
+    }
+
     @WorkerThread
     public TranscriptionResponseAsync sendUploadRequest(TranscribeVoicemailAsyncRequest request) {
         try {
@@ -55,6 +90,17 @@ public class TranscriptionClient {
         }
     }
 
+    /**
+     * Same as {@link #sendUploadRequest} but does not block the calling thread.
+     */
+    public ListenableFuture<TranscriptionResponseAsync> sendUploadRequestAsync(
+            TranscribeVoicemailAsyncRequest request) {
+        return toResponse(
+                futureStub.transcribeVoicemailAsync(request),
+                TranscriptionResponseAsync::new,
+                TranscriptionResponseAsync::new);
+    }
+
     @WorkerThread
     public GetTranscriptResponseAsync sendGetTranscriptRequest(GetTranscriptRequest request) {
         try {
@@ -26,6 +26,8 @@ import com.fissy.dialer.common.LogUtil;
 import com.google.internal.communications.voicemailtranscription.v1.VoicemailTranscriptionServiceGrpc;
 
 import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import io.grpc.CallOptions;
 import io.grpc.Channel;
@@ -42,17 +44,25 @@ import io.grpc.okhttp.OkHttpChannelBuilder;
 /**
  * Factory for creating grpc clients that talk to the transcription server. This allows all clients
  * to share the same channel, which is relatively expensive to create.
+ *
+ * <p>Use {@link #getShared(Context, TranscriptionConfigProvider)} to share a single channel between
+ * the transcription tasks and the transcript polls of the whole process.
  */
 public class TranscriptionClientFactory {
     private static final String DIGEST_ALGORITHM_SHA1 = "SHA1";
     private static final char[] HEX_UPPERCASE = {
             '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
     };
+    // The shared channel drops its connection after this long without requests.
+    private static final long CHANNEL_IDLE_TIMEOUT_MINUTES = 5;
+
+    private static TranscriptionClientFactory sharedInstance;
 
     private final TranscriptionConfigProvider configProvider;
     private final ManagedChannel originalChannel;
     private final String packageName;
     private final String cert;
+    private final String serverAddress;
 
     public TranscriptionClientFactory(Context context, TranscriptionConfigProvider configProvider) {
         this(context, configProvider, getManagedChannel(configProvider));
@@ -63,9 +73,29 @@ public class TranscriptionClientFactory {
         this.configProvider = configProvider;
         this.packageName = context.getPackageName();
         this.cert = getCertificateFingerprint(context);
+        this.serverAddress = configProvider.getServerAddress();
         originalChannel = managedChannel;
     }
 
+    /**
+     * Returns the factory shared by all transcription requests in the process, creating it if there
+     * is none yet or the server address changed. The shared channel should not be shut down by
+     * callers.
+     */
+    public static synchronized TranscriptionClientFactory getShared(
+            Context context, TranscriptionConfigProvider configProvider) {
+        if (sharedInstance == null
+                || sharedInstance.originalChannel.isShutdown()
+                || !Objects.equals(sharedInstance.serverAddress, configProvider.getServerAddress())) {
+            if (sharedInstance != null) {
+                sharedInstance.shutdown();
+            }
+            sharedInstance =
+                    new TranscriptionClientFactory(context.getApplicationContext(), configProvider);
+        }
+        return sharedInstance;
+    }
+
     private static ManagedChannel getManagedChannel(TranscriptionConfigProvider configProvider) {
         ManagedChannelBuilder<OkHttpChannelBuilder> builder =
                 OkHttpChannelBuilder.forTarget(configProvider.getServerAddress());
@@ -74,6 +104,7 @@ public class TranscriptionClientFactory {
             // Just passing 'false' doesnt have the same effect as not setting this field
             builder.usePlaintext();
         }
+        builder.idleTimeout(CHANNEL_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
         return builder.build();
     }
 
@@ -129,7 +160,9 @@ public class TranscriptionClientFactory {
                         originalChannel,
                         new Interceptor(
                                 packageName, cert, configProvider.getApiKey(), configProvider.getAuthToken()));
-        return new TranscriptionClient(VoicemailTranscriptionServiceGrpc.newBlockingStub(channel));
+        return new TranscriptionClient(
+                VoicemailTranscriptionServiceGrpc.newBlockingStub(channel),
+                VoicemailTranscriptionServiceGrpc.newFutureStub(channel));
     }
 
     public void shutdown() {
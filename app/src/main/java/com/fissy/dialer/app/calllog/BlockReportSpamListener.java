@@ -19,7 +19,6 @@ package com.fissy.dialer.app.calllog;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentManager;
-import androidx.recyclerview.widget.RecyclerView;
 import android.view.View;
 
 import com.fissy.dialer.blocking.FilteredNumberAsyncQueryHandler;
@@ -44,7 +43,7 @@ public class BlockReportSpamListener implements CallLogListItemViewHolder.OnClic
     private final Context context;
     private final View rootView;
     private final FragmentManager fragmentManager;
-    private final RecyclerView.Adapter adapter;
+    private final CallLogAdapter adapter;
     private final FilteredNumberAsyncQueryHandler filteredNumberAsyncQueryHandler;
     private final Spam spam;
     private final SpamSettings spamSettings;
@@ -54,7 +53,7 @@ public class BlockReportSpamListener implements CallLogListItemViewHolder.OnClic
             Context context,
             View rootView,
             FragmentManager fragmentManager,
-            RecyclerView.Adapter adapter,
+            CallLogAdapter adapter,
             FilteredNumberAsyncQueryHandler filteredNumberAsyncQueryHandler) {
         this.context = context;
         this.rootView = rootView;
@@ -94,7 +93,7 @@ public class BlockReportSpamListener implements CallLogListItemViewHolder.OnClic
                                     uri -> {
                                         Logger.get(context)
                                                 .logImpression(DialerImpression.Type.USER_ACTION_BLOCKED_NUMBER);
-                                        adapter.notifyDataSetChanged();
+                                        adapter.onBlockOrSpamStatusChanged();
                                     },
                                     number,
                                     countryIso);
@@ -135,7 +134,7 @@ public class BlockReportSpamListener implements CallLogListItemViewHolder.OnClic
                                     uri -> {
                                         Logger.get(context)
                                                 .logImpression(DialerImpression.Type.USER_ACTION_BLOCKED_NUMBER);
-                                        adapter.notifyDataSetChanged();
+                                        adapter.onBlockOrSpamStatusChanged();
                                     },
                                     number,
                                     countryIso);
@@ -173,7 +172,7 @@ public class BlockReportSpamListener implements CallLogListItemViewHolder.OnClic
                                     (rows, values) -> {
                                         Logger.get(context)
                                                 .logImpression(DialerImpression.Type.USER_ACTION_UNBLOCKED_NUMBER);
-                                        adapter.notifyDataSetChanged();
+                                        adapter.onBlockOrSpamStatusChanged();
                                     },
                                     blockId);
                         },
@@ -202,7 +201,7 @@ public class BlockReportSpamListener implements CallLogListItemViewHolder.OnClic
                                         ReportingLocation.Type.CALL_LOG_HISTORY,
                                         contactSourceType);
                             }
-                            adapter.notifyDataSetChanged();
+                            adapter.onBlockOrSpamStatusChanged();
                         },
                         null)
                 .show(fragmentManager, BlockReportSpamDialogs.NOT_SPAM_DIALOG_TAG);
@@ -23,7 +23,6 @@ import android.content.DialogInterface.OnCancelListener;
 import android.content.res.Resources;
 import android.database.Cursor;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.os.Bundle;
@@ -34,7 +33,6 @@ import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
-import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.RecyclerView;
@@ -44,6 +42,7 @@ import android.telephony.PhoneNumberUtils;
 import android.text.TextUtils;
 import android.util.ArrayMap;
 import android.util.ArraySet;
+import android.util.LongSparseArray;
 import android.util.SparseArray;
 import android.view.ActionMode;
 import android.view.LayoutInflater;
@@ -57,11 +56,13 @@ import com.android.contacts.common.ContactsUtils;
 import com.fissy.dialer.R;
 import com.fissy.dialer.app.calllog.CallLogFragment.CallLogFragmentListener;
 import com.fissy.dialer.app.calllog.CallLogGroupBuilder.GroupCreator;
+import com.fissy.dialer.app.calllog.CallLogPrefetcher.RowStatus;
 import com.fissy.dialer.app.calllog.calllogcache.CallLogCache;
 import com.fissy.dialer.app.contactinfo.ContactInfoCache;
 import com.fissy.dialer.app.voicemail.VoicemailPlaybackPresenter;
 import com.fissy.dialer.app.voicemail.VoicemailPlaybackPresenter.OnVoicemailDeletedListener;
 import com.fissy.dialer.blocking.FilteredNumberAsyncQueryHandler;
+import com.fissy.dialer.blocking.NumberStatusIndex;
 import com.fissy.dialer.calldetails.CallDetailsEntries;
 import com.fissy.dialer.calldetails.CallDetailsEntries.CallDetailsEntry;
 import com.fissy.dialer.calllogutils.CallbackActionHelper.CallbackAction;
@@ -69,10 +70,8 @@ import com.fissy.dialer.calllogutils.PhoneCallDetails;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.FragmentUtils.FragmentUtilListener;
 import com.fissy.dialer.common.LogUtil;
-import com.fissy.dialer.common.concurrent.AsyncTaskExecutor;
-import com.fissy.dialer.common.concurrent.AsyncTaskExecutors;
 import com.fissy.dialer.compat.android.provider.VoicemailCompat;
-import com.fissy.dialer.configprovider.ConfigProviderComponent;
+import com.fissy.dialer.configprovider.ConfigFlag;
 import com.fissy.dialer.contacts.ContactsComponent;
 import com.fissy.dialer.duo.Duo;
 import com.fissy.dialer.duo.DuoComponent;
@@ -92,7 +91,6 @@ import com.fissy.dialer.phonenumbercache.CallLogQuery;
 import com.fissy.dialer.phonenumbercache.ContactInfo;
 import com.fissy.dialer.phonenumbercache.ContactInfoHelper;
 import com.fissy.dialer.phonenumberutil.PhoneNumberHelper;
-import com.fissy.dialer.spam.SpamComponent;
 import com.fissy.dialer.telecom.TelecomUtil;
 import com.fissy.dialer.util.PermissionsUtil;
 import com.google.i18n.phonenumbers.NumberParseException;
@@ -115,12 +113,15 @@ public class CallLogAdapter extends GroupingListAdapter
     public static final int ACTIVITY_TYPE_CALL_LOG = 1;
     public static final int ACTIVITY_TYPE_DIALTACTS = 2;
     public static final int ALERT_POSITION = 0;
-    public static final String LOAD_DATA_TASK_IDENTIFIER = "load_data";
     public static final String ENABLE_CALL_LOG_MULTI_SELECT = "enable_call_log_multiselect";
     public static final boolean ENABLE_CALL_LOG_MULTI_SELECT_FLAG = true;
     @VisibleForTesting
     static final String FILTER_EMERGENCY_CALLS_FLAG = "filter_emergency_calls";
     private static final int NO_EXPANDED_LIST_ITEM = -1;
+    /**
+     * Number of rows before and after the bound one which are resolved along with it.
+     */
+    private static final int PREFETCH_ROWS = 10;
     private static final int VIEW_TYPE_ALERT = 1;
     private static final int VIEW_TYPE_CALLLOG = 2;
     private static final String KEY_EXPANDED_POSITION = "expanded_position";
@@ -149,8 +150,12 @@ public class CallLogAdapter extends GroupingListAdapter
      */
     private final CallLogGroupBuilder callLogGroupBuilder;
 
-    private final AsyncTaskExecutor asyncTaskExecutor = AsyncTaskExecutors.createAsyncTaskExecutor();
     private final ContactInfoCache contactInfoCache;
+    private final CallLogPrefetcher prefetcher;
+    /**
+     * View holders bound to rows which are not resolved yet, keyed by row id.
+     */
+    private final LongSparseArray<PendingBind> pendingBinds = new LongSparseArray<>();
     private final CallLogAlertManager callLogAlertManager;
     private final SparseArray<String> selectedItems = new SparseArray<>();
     /**
@@ -366,10 +371,7 @@ public class CallLogAdapter extends GroupingListAdapter
             new View.OnLongClickListener() {
                 @Override
                 public boolean onLongClick(View v) {
-                    if (ConfigProviderComponent.get(v.getContext())
-                            .getConfigProvider()
-                            .getBoolean(ENABLE_CALL_LOG_MULTI_SELECT, ENABLE_CALL_LOG_MULTI_SELECT_FLAG)
-                            && voicemailPlaybackPresenter != null) {
+                    if (enableMultiSelect.get() && voicemailPlaybackPresenter != null) {
                         if (v.getId() == R.id.primary_action_view || v.getId() == R.id.quick_contact_photo) {
                             if (actionMode == null) {
                                 Logger.get(activity)
@@ -390,7 +392,10 @@ public class CallLogAdapter extends GroupingListAdapter
                 }
             };
     private boolean loading = true;
-    private boolean isSpamEnabled;
+    // Config values read per bound row.
+    private final ConfigFlag.LongFlag remoteLookupRowCount;
+    private final ConfigFlag.BooleanFlag filterEmergencyCalls;
+    private final ConfigFlag.BooleanFlag enableMultiSelect;
 
     public CallLogAdapter(
             Activity activity,
@@ -444,6 +449,18 @@ public class CallLogAdapter extends GroupingListAdapter
 
         callLogAlertManager =
                 new CallLogAlertManager(this, LayoutInflater.from(this.activity), alertContainer);
+        prefetcher =
+                new CallLogPrefetcher(
+                        activity,
+                        callLogCache,
+                        contactInfoCache,
+                        this::onRowsResolved);
+        remoteLookupRowCount =
+                ConfigFlag.longFlag(activity, "number_of_call_to_do_remote_lookup", 5L);
+        filterEmergencyCalls = ConfigFlag.booleanFlag(activity, FILTER_EMERGENCY_CALLS_FLAG, false);
+        enableMultiSelect =
+                ConfigFlag.booleanFlag(
+                        activity, ENABLE_CALL_LOG_MULTI_SELECT, ENABLE_CALL_LOG_MULTI_SELECT_FLAG);
     }
 
     private static int getVoicemailId(String voicemailUri) {
@@ -701,6 +718,24 @@ public class CallLogAdapter extends GroupingListAdapter
 
     public void clearFilteredNumbersCache() {
         filteredNumberAsyncQueryHandler.clearCache();
+        prefetcher.clear();
+    }
+
+    /**
+     * Rebinds every row after the user blocked, unblocked or reported a number from the call log.
+     */
+    public void onBlockOrSpamStatusChanged() {
+        NumberStatusIndex.get(activity).invalidate();
+        prefetcher.clear();
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void changeCursor(Cursor cursor) {
+        // Rows are resolved again for the new cursor, the rows still bound keep showing their old
+        // data until then.
+        prefetcher.clear();
+        super.changeCursor(cursor);
     }
 
     public void onResume() {
@@ -708,7 +743,8 @@ public class CallLogAdapter extends GroupingListAdapter
         if (PermissionsUtil.hasPermission(activity, android.Manifest.permission.READ_CONTACTS)) {
             contactInfoCache.start();
         }
-        isSpamEnabled = SpamComponent.get(activity).spamSettings().isSpamEnabled();
+        // Spam settings or contacts may have changed while paused.
+        prefetcher.clear();
         getDuo().registerListener(this);
         notifyDataSetChanged();
     }
@@ -810,8 +846,9 @@ public class CallLogAdapter extends GroupingListAdapter
             CallLogListItemViewHolder views = (CallLogListItemViewHolder) viewHolder;
             updateCheckMarkedStatusOfEntry(views);
 
-            if (views.asyncTask != null) {
-                views.asyncTask.cancel(true);
+            PendingBind pendingBind = pendingBinds.get(views.rowId);
+            if (pendingBind != null && pendingBind.viewHolder == views) {
+                pendingBinds.remove(views.rowId);
             }
         }
     }
@@ -859,7 +896,7 @@ public class CallLogAdapter extends GroupingListAdapter
         if (currentlyExpandedRowId == views.rowId) {
             views.inflateActionViewStub();
         }
-        loadAndRender(views, views.rowId, details, callDetailsEntries);
+        loadAndRender(views, views.rowId, position, details, callDetailsEntries);
     }
 
     private void updateCheckMarkedStatusOfEntry(CallLogListItemViewHolder views) {
@@ -881,9 +918,7 @@ public class CallLogAdapter extends GroupingListAdapter
     }
 
     private boolean isHideableEmergencyNumberRow(@Nullable String number) {
-        if (!ConfigProviderComponent.get(activity)
-                .getConfigProvider()
-                .getBoolean(FILTER_EMERGENCY_CALLS_FLAG, false)) {
+        if (!filterEmergencyCalls.get()) {
             return false;
         }
         return number != null && PhoneNumberUtils.isEmergencyNumber(number);
@@ -892,9 +927,10 @@ public class CallLogAdapter extends GroupingListAdapter
     private void loadAndRender(
             final CallLogListItemViewHolder viewHolder,
             final long rowId,
+            final int position,
             final PhoneCallDetails details,
             final CallDetailsEntries callDetailsEntries) {
-        LogUtil.d("CallLogAdapter.loadAndRender", "position: %d", viewHolder.getAdapterPosition());
+        LogUtil.d("CallLogAdapter.loadAndRender", "position: %d", position);
         // Reset block and spam information since this view could be reused which may contain
         // outdated data.
         viewHolder.isSpam = false;
@@ -906,50 +942,107 @@ public class CallLogAdapter extends GroupingListAdapter
         // attempt to set the field properly in that case
         viewHolder.isCallComposerCapable = isCallComposerCapable(viewHolder.number);
         viewHolder.setDetailedPhoneDetails(callDetailsEntries);
-        final AsyncTask<Void, Void, Boolean> loadDataTask =
-                new AsyncTask<Void, Void, Boolean>() {
-                    @Override
-                    protected Boolean doInBackground(Void... params) {
-                        viewHolder.blockId =
-                                filteredNumberAsyncQueryHandler.getBlockedIdSynchronous(
-                                        viewHolder.number, viewHolder.countryIso);
-                        details.isBlocked = viewHolder.blockId != null;
-                        if (isCancelled()) {
-                            return false;
-                        }
-                        if (isSpamEnabled) {
-                            viewHolder.isSpamFeatureEnabled = true;
-                            // Only display the call as a spam call if there are incoming calls in the list.
-                            // Call log cards with only outgoing calls should never be displayed as spam.
-                            viewHolder.isSpam =
-                                    details.hasIncomingCalls()
-                                            && SpamComponent.get(activity)
-                                            .spam()
-                                            .checkSpamStatusSynchronous(viewHolder.number, viewHolder.countryIso);
-                            details.isSpam = viewHolder.isSpam;
-                        }
-                        return !isCancelled() && loadData(viewHolder, rowId, details);
-                    }
 
-                    @Override
-                    protected void onPostExecute(Boolean success) {
-                        viewHolder.isLoaded = true;
-                        if (success) {
-                            viewHolder.callbackAction = getCallbackAction(viewHolder.rowId);
-                            int currentDayGroup = getDayGroup(viewHolder.rowId);
-                            if (currentDayGroup != details.previousGroup) {
-                                viewHolder.dayGroupHeaderVisibility = View.VISIBLE;
-                                viewHolder.dayGroupHeaderText = getGroupDescription(currentDayGroup);
-                            } else {
-                                viewHolder.dayGroupHeaderVisibility = View.GONE;
-                            }
-                            render(viewHolder, details, rowId);
-                        }
-                    }
-                };
+        prefetchAround(position);
+        RowStatus rowStatus = prefetcher.getRowStatus(rowId);
+        if (rowStatus != null) {
+            bindResolvedRow(viewHolder, rowId, details, rowStatus);
+        } else {
+            // Bound once the prefetcher resolved the row, see onRowsResolved().
+            pendingBinds.put(rowId, new PendingBind(viewHolder, details));
+        }
+    }
 
-        viewHolder.asyncTask = loadDataTask;
-        asyncTaskExecutor.submit(LOAD_DATA_TASK_IDENTIFIER, loadDataTask);
+    /**
+     * Requests the rows within {@link #PREFETCH_ROWS} of {@code position} which are not resolved yet,
+     * nearest first.
+     */
+    @MainThread
+    private void prefetchAround(int position) {
+        int firstPosition = Math.max(0, position - PREFETCH_ROWS);
+        int lastPosition = Math.min(getItemCount() - 1, position + PREFETCH_ROWS);
+        for (int offset = 0; offset <= PREFETCH_ROWS; offset++) {
+            if (position + offset <= lastPosition) {
+                maybeRequestRow(position + offset);
+            }
+            if (offset > 0 && position - offset >= firstPosition) {
+                maybeRequestRow(position - offset);
+            }
+        }
+        prefetcher.startBatch();
+    }
+
+    @MainThread
+    private void maybeRequestRow(int position) {
+        if (getItemViewType(position) != VIEW_TYPE_CALLLOG) {
+            return;
+        }
+        Cursor cursor = (Cursor) getItem(position);
+        if (cursor == null) {
+            return;
+        }
+        long rowId = cursor.getLong(CallLogQuery.ID);
+        if (prefetcher.isRequested(rowId)) {
+            return;
+        }
+        prefetcher.request(
+                new CallLogPrefetcher.Request(
+                        rowId,
+                        cursor.getString(CallLogQuery.NUMBER),
+                        cursor.getString(CallLogQuery.POST_DIAL_DIGITS),
+                        cursor.getString(CallLogQuery.COUNTRY_ISO),
+                        cursor.getInt(CallLogQuery.NUMBER_PRESENTATION),
+                        TelecomUtil.composePhoneAccountHandle(
+                                cursor.getString(CallLogQuery.ACCOUNT_COMPONENT_NAME),
+                                cursor.getString(CallLogQuery.ACCOUNT_ID)),
+                        ContactInfoHelper.getContactInfo(cursor),
+                        position < remoteLookupRowCount.get()));
+    }
+
+    @MainThread
+    private void onRowsResolved() {
+        for (int i = pendingBinds.size() - 1; i >= 0; i--) {
+            long rowId = pendingBinds.keyAt(i);
+            RowStatus rowStatus = prefetcher.getRowStatus(rowId);
+            if (rowStatus == null) {
+                continue;
+            }
+            PendingBind pendingBind = pendingBinds.valueAt(i);
+            pendingBinds.removeAt(i);
+            if (pendingBind.viewHolder.rowId == rowId) {
+                bindResolvedRow(pendingBind.viewHolder, rowId, pendingBind.details, rowStatus);
+            }
+        }
+    }
+
+    @MainThread
+    private void bindResolvedRow(
+            CallLogListItemViewHolder viewHolder,
+            long rowId,
+            PhoneCallDetails details,
+            RowStatus rowStatus) {
+        viewHolder.blockId = rowStatus.blockId;
+        details.isBlocked = viewHolder.blockId != null;
+        if (rowStatus.isSpamFeatureEnabled) {
+            viewHolder.isSpamFeatureEnabled = true;
+            // Only display the call as a spam call if there are incoming calls in the list.
+            // Call log cards with only outgoing calls should never be displayed as spam.
+            viewHolder.isSpam = details.hasIncomingCalls() && rowStatus.isSpam;
+            details.isSpam = viewHolder.isSpam;
+        }
+        if (!loadData(viewHolder, rowId, details, rowStatus.isVoicemailNumber)) {
+            return;
+        }
+        viewHolder.isLoaded = true;
+        viewHolder.callbackAction = getCallbackAction(viewHolder.rowId);
+        int currentDayGroup = getDayGroup(viewHolder.rowId);
+        if (currentDayGroup != details.previousGroup) {
+            viewHolder.dayGroupHeaderVisibility = View.VISIBLE;
+            viewHolder.dayGroupHeaderText = getGroupDescription(currentDayGroup);
+        } else {
+            viewHolder.dayGroupHeaderVisibility = View.GONE;
+        }
+        render(viewHolder, details, rowId);
     }
 
     @MainThread
@@ -1056,12 +1149,16 @@ public class CallLogAdapter extends GroupingListAdapter
     }
 
     /**
-     * Load data for call log. Any expensive operation should be put here to avoid blocking main
-     * thread. Do NOT put any cursor operation here since it's not thread safe.
+     * Load data for call log. Everything which needs IPC was resolved by the {@link
+     * CallLogPrefetcher} beforehand, the contact info is read from the {@link ContactInfoCache}.
      */
-    @WorkerThread
-    private boolean loadData(CallLogListItemViewHolder views, long rowId, PhoneCallDetails details) {
-        Assert.isWorkerThread();
+    @MainThread
+    private boolean loadData(
+            CallLogListItemViewHolder views,
+            long rowId,
+            PhoneCallDetails details,
+            boolean isVoicemailNumber) {
+        Assert.isMainThread();
         if (rowId != views.rowId) {
             LogUtil.i(
                     "CallLogAdapter.loadData",
@@ -1072,8 +1169,6 @@ public class CallLogAdapter extends GroupingListAdapter
         final PhoneAccountHandle accountHandle =
                 TelecomUtil.composePhoneAccountHandle(details.accountComponentName, details.accountId);
 
-        final boolean isVoicemailNumber = callLogCache.isVoicemailNumber(accountHandle, details.number);
-
         // Note: Binding of the action buttons is done as required in configureActionViews when the
         // user expands the actions ViewStub.
 
@@ -1088,10 +1183,7 @@ public class CallLogAdapter extends GroupingListAdapter
                             details.number + details.postDialDigits,
                             details.countryIso,
                             details.cachedContactInfo,
-                            position
-                                    < ConfigProviderComponent.get(activity)
-                                    .getConfigProvider()
-                                    .getLong("number_of_call_to_do_remote_lookup", 5L));
+                            position < remoteLookupRowCount.get());
             logCp2Metrics(details, info);
         }
         CharSequence formattedNumber =
@@ -1206,6 +1298,14 @@ public class CallLogAdapter extends GroupingListAdapter
         return super.getItem(position - (callLogAlertManager.isEmpty() ? 0 : 1));
     }
 
+    /**
+     * Returns the cached photo id of the row at the specified position, or 0 if it has none.
+     */
+    public long getPhotoIdAt(int position) {
+        Object item = getItem(position);
+        return item instanceof Cursor ? ((Cursor) item).getLong(CallLogQuery.CACHED_PHOTO_ID) : 0;
+    }
+
     @Override
     public long getItemId(int position) {
         Cursor cursor = (Cursor) getItem(position);
@@ -1544,4 +1644,17 @@ public class CallLogAdapter extends GroupingListAdapter
 
         void tapSelectAll();
     }
+
+    /**
+     * A view holder waiting for its row to be resolved.
+     */
+    private static final class PendingBind {
+        private final CallLogListItemViewHolder viewHolder;
+        private final PhoneCallDetails details;
+
+        private PendingBind(CallLogListItemViewHolder viewHolder, PhoneCallDetails details) {
+            this.viewHolder = viewHolder;
+            this.details = details;
+        }
+    }
 }
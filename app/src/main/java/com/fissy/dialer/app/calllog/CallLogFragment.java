@@ -21,11 +21,9 @@ import static android.Manifest.permission.READ_CALL_LOG;
 import android.app.Activity;
 import android.app.Fragment;
 import android.app.KeyguardManager;
-import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.database.ContentObserver;
 import android.database.Cursor;
 import android.graphics.Canvas;
 import android.graphics.PorterDuff;
@@ -67,6 +65,9 @@ import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.FragmentUtils;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.configprovider.ConfigProviderComponent;
+import com.fissy.dialer.contentchange.ContentChangeHub;
+import com.fissy.dialer.contentchange.ContentChangeHub.ChangeSummary;
+import com.fissy.dialer.contactphoto.ContactPhotoPreloader;
 import com.fissy.dialer.database.CallLogQueryHandler;
 import com.fissy.dialer.database.CallLogQueryHandler.Listener;
 import com.fissy.dialer.location.GeoUtil;
@@ -118,8 +119,8 @@ public class CallLogFragment extends Fragment
     private static final long MILLIS_IN_MINUTE = 60 * 1000;
     private final Handler handler = new Handler();
     // See issue 6363009
-    private final ContentObserver callLogObserver = new CustomContentObserver();
-    private final ContentObserver contactsObserver = new CustomContentObserver();
+    private final ContentChangeHub.Listener callLogListener = new RefreshRequiredListener();
+    private final ContentChangeHub.Listener contactsListener = new RefreshRequiredListener();
     protected CallLogModalAlertManager modalAlertManager;
     private View multiSelectUnSelectAllViewContent;
     private TextView selectUnselectAllViewText;
@@ -439,6 +440,8 @@ public class CallLogFragment extends Fragment
                                 new FilteredNumberAsyncQueryHandler(getActivity()),
                                 activityType);
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(
+                new ContactPhotoPreloader(getActivity(), adapter::getPhotoIdAt));
         if (adapter.getOnScrollListener() != null) {
             recyclerView.addOnScrollListener(adapter.getOnScrollListener());
         }
@@ -487,15 +490,14 @@ public class CallLogFragment extends Fragment
             updateEmptyMessage(callTypeFilter);
         }
 
-        ContentResolver resolver = getActivity().getContentResolver();
+        ContentChangeHub contentChangeHub = ContentChangeHub.get(getContext());
         if (PermissionsUtil.hasCallLogReadPermissions(getContext())) {
-            resolver.registerContentObserver(CallLog.CONTENT_URI, true, callLogObserver);
+            contentChangeHub.subscribe(CallLog.CONTENT_URI, true, callLogListener);
         } else {
             LogUtil.w("CallLogFragment.onCreate", "call log permission not available");
         }
         if (PermissionsUtil.hasContactsReadPermissions(getContext())) {
-            resolver.registerContentObserver(
-                    ContactsContract.Contacts.CONTENT_URI, true, contactsObserver);
+            contentChangeHub.subscribe(ContactsContract.Contacts.CONTENT_URI, true, contactsListener);
         } else {
             LogUtil.w("CallLogFragment.onCreate", "contacts permission not available.");
         }
@@ -520,8 +522,8 @@ public class CallLogFragment extends Fragment
     @Override
     public void onPause() {
         LogUtil.enterBlock("CallLogFragment.onPause");
-        getActivity().getContentResolver().unregisterContentObserver(callLogObserver);
-        getActivity().getContentResolver().unregisterContentObserver(contactsObserver);
+        ContentChangeHub.get(getContext()).unsubscribe(callLogListener);
+        ContentChangeHub.get(getContext()).unsubscribe(contactsListener);
         if (getUserVisibleHint()) {
             onNotVisible();
         }
@@ -842,14 +844,10 @@ public class CallLogFragment extends Fragment
         void showMultiSelectRemoveView(boolean show);
     }
 
-    protected class CustomContentObserver extends ContentObserver {
-
-        public CustomContentObserver() {
-            super(handler);
-        }
+    protected class RefreshRequiredListener implements ContentChangeHub.Listener {
 
         @Override
-        public void onChange(boolean selfChange) {
+        public void onContentChanged(ChangeSummary summary) {
             refreshDataRequired = true;
         }
     }
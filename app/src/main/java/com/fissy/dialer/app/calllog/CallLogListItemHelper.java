@@ -18,14 +18,12 @@ package com.fissy.dialer.app.calllog;
 
 import android.content.res.Resources;
 import android.provider.CallLog.Calls;
-import androidx.annotation.WorkerThread;
 import android.text.SpannableStringBuilder;
 import android.text.TextUtils;
 
 import com.fissy.dialer.R;
 import com.fissy.dialer.app.calllog.calllogcache.CallLogCache;
 import com.fissy.dialer.calllogutils.PhoneCallDetails;
-import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
 
 /**
@@ -61,14 +59,12 @@ import com.fissy.dialer.common.LogUtil;
     }
 
     /**
-     * Update phone call details. This is called before any drawing to avoid expensive operation on UI
-     * thread.
+     * Update phone call details. This is called before any drawing and only formats data which was
+     * loaded beforehand.
      *
      * @param details
      */
-    @WorkerThread
     public void updatePhoneCallDetails(PhoneCallDetails details) {
-        Assert.isWorkerThread();
         details.callLocationAndDate = phoneCallDetailsHelper.getCallLocationAndDate(details);
         details.callDescription = getCallDescription(details);
     }
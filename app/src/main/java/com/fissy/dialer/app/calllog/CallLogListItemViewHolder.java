@@ -269,7 +269,6 @@ public final class CallLogListItemViewHolder extends RecyclerView.ViewHolder
     public int dayGroupHeaderVisibility;
     public CharSequence dayGroupHeaderText;
     public boolean isAttachedToWindow;
-    public AsyncTask<Void, Void, ?> asyncTask;
     private boolean voicemailPrimaryActionButtonClicked;
     private CallDetailsEntries callDetailsEntries;
 
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.app.calllog;
+
+import android.content.Context;
+import android.telecom.PhoneAccountHandle;
+import android.util.LongSparseArray;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.fissy.dialer.DialerPhoneNumber;
+import com.fissy.dialer.app.calllog.calllogcache.CallLogCache;
+import com.fissy.dialer.app.contactinfo.ContactInfoCache;
+import com.fissy.dialer.blocking.NumberStatus;
+import com.fissy.dialer.blocking.NumberStatusIndex;
+import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.phonenumbercache.ContactInfo;
+import com.fissy.dialer.phonenumberproto.DialerPhoneNumberUtil;
+import com.fissy.dialer.phonenumberutil.PhoneNumberHelper;
+import com.fissy.dialer.spam.SpamComponent;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the parts of call log rows that need IPC (block and spam status, the voicemail number
+ * check and the contact lookup) ahead of binding, for a window of rows at a time.
+ *
+ * <p>Requested rows are resolved together instead of one task per bound row, with the block and spam
+ * status of the whole batch coming from one {@link NumberStatusIndex} lookup. The results are kept
+ * per row id until {@link #clear()}, so rows can be bound synchronously once they are resolved.
+ * Only one batch runs at a time, rows requested meanwhile make up the next one.
+ */
+final class CallLogPrefetcher {
+
+    private final Context appContext;
+    private final CallLogCache callLogCache;
+    private final ContactInfoCache contactInfoCache;
+    private final Listener listener;
+
+    // All of the following is only touched on the main thread.
+    private final LongSparseArray<RowStatus> rowStatuses = new LongSparseArray<>();
+    private final LongSparseArray<Request> requestedRows = new LongSparseArray<>();
+    private final List<Request> queuedRequests = new ArrayList<>();
+    private boolean isBatchRunning;
+    // Incremented by clear() so the results of a batch started before are dropped.
+    private int generation;
+
+    CallLogPrefetcher(
+            Context context,
+            CallLogCache callLogCache,
+            ContactInfoCache contactInfoCache,
+            Listener listener) {
+        this.appContext = context.getApplicationContext();
+        this.callLogCache = callLogCache;
+        this.contactInfoCache = contactInfoCache;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the resolved status of the row, or {@code null} if it wasn't resolved yet.
+     */
+    @MainThread
+    @Nullable
+    RowStatus getRowStatus(long rowId) {
+        return rowStatuses.get(rowId);
+    }
+
+    /**
+     * Returns true if the row was resolved or is waiting to be.
+     */
+    @MainThread
+    boolean isRequested(long rowId) {
+        return rowStatuses.get(rowId) != null || requestedRows.get(rowId) != null;
+    }
+
+    /**
+     * Queues the row to be resolved by the next batch, see {@link #startBatch()}.
+     */
+    @MainThread
+    void request(@NonNull Request request) {
+        Assert.isMainThread();
+        requestedRows.put(request.rowId, request);
+        queuedRequests.add(request);
+    }
+
+    /**
+     * Resolves the queued rows in the background, unless a batch is already running in which case
+     * they are resolved right after it.
+     */
+    @MainThread
+    void startBatch() {
+        Assert.isMainThread();
+        if (isBatchRunning || queuedRequests.isEmpty()) {
+            return;
+        }
+        List<Request> batch = new ArrayList<>(queuedRequests);
+        queuedRequests.clear();
+        isBatchRunning = true;
+        int batchGeneration = generation;
+
+        ListeningExecutorService backgroundExecutor =
+                DialerExecutorComponent.get(appContext).backgroundExecutor();
+        // The block and spam status of the whole batch is looked up at once.
+        ListenableFuture<List<RowStatus>> future =
+                Futures.transformAsync(
+                        backgroundExecutor.submit(() -> parseNumbers(batch)),
+                        numbers ->
+                                Futures.transform(
+                                        NumberStatusIndex.get(appContext)
+                                                .getStatuses(ImmutableSet.copyOf(numbers)),
+                                        statuses -> resolve(batch, numbers, statuses),
+                                        backgroundExecutor),
+                        MoreExecutors.directExecutor());
+        Futures.addCallback(
+                future,
+                new FutureCallback<List<RowStatus>>() {
+                    @Override
+                    public void onSuccess(List<RowStatus> statuses) {
+                        onBatchFinished(batchGeneration, batch, statuses);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        LogUtil.e("CallLogPrefetcher.onFailure", "unable to resolve rows", throwable);
+                        onBatchFinished(batchGeneration, batch, null);
+                    }
+                },
+                DialerExecutorComponent.get(appContext).uiExecutor());
+    }
+
+    /**
+     * Drops every resolved and queued row, e.g. because blocked numbers or settings changed.
+     */
+    @MainThread
+    void clear() {
+        Assert.isMainThread();
+        generation++;
+        rowStatuses.clear();
+        requestedRows.clear();
+        queuedRequests.clear();
+    }
+
+    @MainThread
+    private void onBatchFinished(
+            int batchGeneration, List<Request> batch, @Nullable List<RowStatus> statuses) {
+        isBatchRunning = false;
+        if (batchGeneration == generation) {
+            for (int i = 0; i < batch.size(); i++) {
+                long rowId = batch.get(i).rowId;
+                requestedRows.remove(rowId);
+                if (statuses != null) {
+                    rowStatuses.put(rowId, statuses.get(i));
+                }
+            }
+            if (statuses != null) {
+                listener.onRowsResolved();
+            }
+        }
+        startBatch();
+    }
+
+    @WorkerThread
+    private static List<DialerPhoneNumber> parseNumbers(List<Request> batch) {
+        Assert.isWorkerThread();
+        DialerPhoneNumberUtil dialerPhoneNumberUtil = new DialerPhoneNumberUtil();
+        List<DialerPhoneNumber> numbers = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            numbers.add(dialerPhoneNumberUtil.parse(request.number, request.countryIso));
+        }
+        return numbers;
+    }
+
+    @WorkerThread
+    private List<RowStatus> resolve(
+            List<Request> batch,
+            List<DialerPhoneNumber> numbers,
+            ImmutableMap<DialerPhoneNumber, NumberStatus> numberStatuses) {
+        Assert.isWorkerThread();
+        boolean isSpamEnabled = SpamComponent.get(appContext).spamSettings().isSpamEnabled();
+        List<RowStatus> statuses = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Request request = batch.get(i);
+            NumberStatus numberStatus = numberStatuses.get(numbers.get(i));
+            Integer blockId = numberStatus == null ? null : numberStatus.blockedId();
+            boolean isSpam = isSpamEnabled && numberStatus != null && numberStatus.isSpam();
+            boolean isVoicemailNumber =
+                    callLogCache.isVoicemailNumber(request.accountHandle, request.number);
+            if (PhoneNumberHelper.canPlaceCallsTo(request.number, request.numberPresentation)
+                    && !isVoicemailNumber) {
+                // Starts the lookup if the contact isn't cached yet so it is ready when the row is bound.
+                contactInfoCache.getValue(
+                        request.number + request.postDialDigits,
+                        request.countryIso,
+                        request.cachedContactInfo,
+                        request.remoteLookupIfNotFoundLocally);
+            }
+            statuses.add(new RowStatus(blockId, isSpamEnabled, isSpam, isVoicemailNumber));
+        }
+        return statuses;
+    }
+
+    /**
+     * Called when rows were resolved.
+     */
+    interface Listener {
+        @MainThread
+        void onRowsResolved();
+    }
+
+    /**
+     * What is needed to resolve a row, read from the cursor on the main thread.
+     */
+    static final class Request {
+        private final long rowId;
+        private final String number;
+        private final String postDialDigits;
+        private final String countryIso;
+        private final int numberPresentation;
+        private final PhoneAccountHandle accountHandle;
+        private final ContactInfo cachedContactInfo;
+        private final boolean remoteLookupIfNotFoundLocally;
+
+        Request(
+                long rowId,
+                String number,
+                String postDialDigits,
+                String countryIso,
+                int numberPresentation,
+                PhoneAccountHandle accountHandle,
+                ContactInfo cachedContactInfo,
+                boolean remoteLookupIfNotFoundLocally) {
+            this.rowId = rowId;
+            this.number = number;
+            this.postDialDigits = postDialDigits;
+            this.countryIso = countryIso;
+            this.numberPresentation = numberPresentation;
+            this.accountHandle = accountHandle;
+            this.cachedContactInfo = cachedContactInfo;
+            this.remoteLookupIfNotFoundLocally = remoteLookupIfNotFoundLocally;
+        }
+    }
+
+    /**
+     * The resolved status of a row.
+     */
+    static final class RowStatus {
+        @Nullable
+        final Integer blockId;
+        final boolean isSpamFeatureEnabled;
+        // Whether the number is spam, regardless of the call types of the row.
+        final boolean isSpam;
+        final boolean isVoicemailNumber;
+
+        private RowStatus(
+                @Nullable Integer blockId,
+                boolean isSpamFeatureEnabled,
+                boolean isSpam,
+                boolean isVoicemailNumber) {
+            this.blockId = blockId;
+            this.isSpamFeatureEnabled = isSpamFeatureEnabled;
+            this.isSpam = isSpam;
+            this.isVoicemailNumber = isVoicemailNumber;
+        }
+    }
+}
@@ -19,7 +19,6 @@ package com.fissy.dialer.app.calllog;
 import android.app.KeyguardManager;
 import android.content.Context;
 import android.content.Intent;
-import android.database.ContentObserver;
 import android.media.AudioManager;
 import android.os.Bundle;
 import android.provider.CallLog;
@@ -37,6 +36,7 @@ import com.fissy.dialer.common.FragmentUtils;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.DialerExecutor;
 import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.logging.DialerImpression;
 import com.fissy.dialer.logging.Logger;
 import com.fissy.dialer.util.PermissionsUtil;
@@ -49,7 +49,7 @@ import java.util.List;
 
 public class VisualVoicemailCallLogFragment extends CallLogFragment {
 
-    private final ContentObserver voicemailStatusObserver = new CustomContentObserver();
+    private final ContentChangeHub.Listener voicemailStatusListener = new RefreshRequiredListener();
     private VoicemailPlaybackPresenter voicemailPlaybackPresenter;
     private DialerExecutor<Context> preSyncVoicemailStatusCheckExecutor;
 
@@ -70,10 +70,8 @@ public class VisualVoicemailCallLogFragment extends CallLogFragment {
                 VoicemailPlaybackPresenter.getInstance(getActivity(), savedInstanceState);
         if (PermissionsUtil.hasReadVoicemailPermissions(getContext())
                 && PermissionsUtil.hasAddVoicemailPermissions(getContext())) {
-            getActivity()
-                    .getContentResolver()
-                    .registerContentObserver(
-                            VoicemailContract.Status.CONTENT_URI, true, voicemailStatusObserver);
+            ContentChangeHub.get(getContext())
+                    .subscribe(VoicemailContract.Status.CONTENT_URI, true, voicemailStatusListener);
         } else {
             LogUtil.w(
                     "VisualVoicemailCallLogFragment.onActivityCreated",
@@ -96,12 +94,11 @@ public class VisualVoicemailCallLogFragment extends CallLogFragment {
 
         if (PermissionsUtil.hasReadVoicemailPermissions(getContext())
                 && PermissionsUtil.hasAddVoicemailPermissions(getContext())) {
-            getActivity()
-                    .getContentResolver()
-                    .registerContentObserver(
+            ContentChangeHub.get(getContext())
+                    .subscribe(
                             VoicemailContract.Status.CONTENT_URI,
                             true,
-                            voicemailErrorManager.getContentObserver());
+                            voicemailErrorManager.getContentChangeListener());
         } else {
             LogUtil.w(
                     "VisualVoicemailCallLogFragment.onActivityCreated",
@@ -141,12 +138,11 @@ public class VisualVoicemailCallLogFragment extends CallLogFragment {
     @Override
     public void onDestroy() {
         if (isAdded()) {
-            getActivity()
-                    .getContentResolver()
-                    .unregisterContentObserver(voicemailErrorManager.getContentObserver());
+            ContentChangeHub.get(getContext())
+                    .unsubscribe(voicemailErrorManager.getContentChangeListener());
             voicemailPlaybackPresenter.onDestroy();
             voicemailErrorManager.onDestroy();
-            getActivity().getContentResolver().unregisterContentObserver(voicemailStatusObserver);
+            ContentChangeHub.get(getContext()).unsubscribe(voicemailStatusListener);
         }
         super.onDestroy();
     }
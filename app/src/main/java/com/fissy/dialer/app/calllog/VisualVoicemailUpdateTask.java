@@ -25,10 +25,13 @@ import androidx.annotation.WorkerThread;
 import android.text.TextUtils;
 import android.util.ArrayMap;
 
+import com.fissy.dialer.DialerPhoneNumber;
 import com.fissy.dialer.R;
 import com.fissy.dialer.app.calllog.CallLogNotificationsQueryHelper.NewCall;
 import com.fissy.dialer.blocking.FilteredNumberAsyncQueryHandler;
 import com.fissy.dialer.blocking.FilteredNumbersUtil;
+import com.fissy.dialer.blocking.NumberStatus;
+import com.fissy.dialer.blocking.NumberStatusIndex;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.DialerExecutor.Worker;
@@ -37,12 +40,16 @@ import com.fissy.dialer.logging.DialerImpression;
 import com.fissy.dialer.logging.Logger;
 import com.fissy.dialer.notification.DialerNotificationManager;
 import com.fissy.dialer.phonenumbercache.ContactInfo;
+import com.fissy.dialer.phonenumberproto.DialerPhoneNumberUtil;
 import com.fissy.dialer.spam.SpamComponent;
 import com.fissy.dialer.telecom.TelecomUtil;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Updates voicemail notifications in the background.
@@ -73,8 +80,10 @@ class VisualVoicemailUpdateTask implements Worker<VisualVoicemailUpdateTask.Inpu
                     "VisualVoicemailUpdateTask.updateNotification",
                     "not filtering due to recent emergency call");
         } else {
-            voicemailsToNotify = filterBlockedNumbers(context, queryHandler, voicemailsToNotify);
-            voicemailsToNotify = filterSpamNumbers(context, voicemailsToNotify);
+            Map<NewCall, NumberStatus> numberStatuses = getNumberStatuses(context, voicemailsToNotify);
+            voicemailsToNotify =
+                    filterBlockedNumbers(context, queryHandler, voicemailsToNotify, numberStatuses);
+            voicemailsToNotify = filterSpamNumbers(context, voicemailsToNotify, numberStatuses);
         }
         boolean shouldAlert =
                 !voicemailsToNotify.isEmpty()
@@ -170,13 +179,59 @@ class VisualVoicemailUpdateTask implements Worker<VisualVoicemailUpdateTask.Inpu
         return result;
     }
 
+    /**
+     * Looks up the block and spam status of all the calls at once. Calls missing from the result
+     * must be checked one by one.
+     */
+    @WorkerThread
+    private static Map<NewCall, NumberStatus> getNumberStatuses(
+            Context context, List<NewCall> newCalls) {
+        Assert.isWorkerThread();
+        Map<NewCall, NumberStatus> result = new ArrayMap<>();
+        if (newCalls.isEmpty()) {
+            return result;
+        }
+        DialerPhoneNumberUtil dialerPhoneNumberUtil = new DialerPhoneNumberUtil();
+        Map<NewCall, DialerPhoneNumber> numbers = new ArrayMap<>();
+        for (NewCall newCall : newCalls) {
+            numbers.put(newCall, dialerPhoneNumberUtil.parse(newCall.number, newCall.countryIso));
+        }
+        ImmutableMap<DialerPhoneNumber, NumberStatus> statuses;
+        try {
+            statuses =
+                    NumberStatusIndex.get(context)
+                            .getStatuses(ImmutableSet.copyOf(numbers.values()))
+                            .get();
+        } catch (ExecutionException | InterruptedException e) {
+            LogUtil.e(
+                    "VisualVoicemailUpdateTask.getNumberStatuses", "unable to get number statuses", e);
+            return result;
+        }
+        for (Map.Entry<NewCall, DialerPhoneNumber> entry : numbers.entrySet()) {
+            NumberStatus status = statuses.get(entry.getValue());
+            if (status != null) {
+                result.put(entry.getKey(), status);
+            }
+        }
+        return result;
+    }
+
     @WorkerThread
     private static List<NewCall> filterBlockedNumbers(
-            Context context, FilteredNumberAsyncQueryHandler queryHandler, List<NewCall> newCalls) {
+            Context context,
+            FilteredNumberAsyncQueryHandler queryHandler,
+            List<NewCall> newCalls,
+            Map<NewCall, NumberStatus> numberStatuses) {
         Assert.isWorkerThread();
         List<NewCall> result = new ArrayList<>();
         for (NewCall newCall : newCalls) {
-            if (queryHandler.getBlockedIdSynchronous(newCall.number, newCall.countryIso) != null) {
+            NumberStatus status = numberStatuses.get(newCall);
+            boolean isBlocked =
+                    status != null
+                            ? status.isBlocked()
+                            : queryHandler.getBlockedIdSynchronous(newCall.number, newCall.countryIso)
+                            != null;
+            if (isBlocked) {
                 LogUtil.i(
                         "VisualVoicemailUpdateTask.filterBlockedNumbers",
                         "found voicemail from blocked number, deleting");
@@ -192,7 +247,8 @@ class VisualVoicemailUpdateTask implements Worker<VisualVoicemailUpdateTask.Inpu
     }
 
     @WorkerThread
-    private static List<NewCall> filterSpamNumbers(Context context, List<NewCall> newCalls) {
+    private static List<NewCall> filterSpamNumbers(
+            Context context, List<NewCall> newCalls, Map<NewCall, NumberStatus> numberStatuses) {
         Assert.isWorkerThread();
         if (!SpamComponent.get(context).spamSettings().isSpamBlockingEnabled()) {
             return newCalls;
@@ -201,9 +257,14 @@ class VisualVoicemailUpdateTask implements Worker<VisualVoicemailUpdateTask.Inpu
         List<NewCall> result = new ArrayList<>();
         for (NewCall newCall : newCalls) {
             Logger.get(context).logImpression(DialerImpression.Type.INCOMING_VOICEMAIL_SCREENED);
-            if (SpamComponent.get(context)
-                    .spam()
-                    .checkSpamStatusSynchronous(newCall.number, newCall.countryIso)) {
+            NumberStatus status = numberStatuses.get(newCall);
+            boolean isSpam =
+                    status != null
+                            ? status.isSpam()
+                            : SpamComponent.get(context)
+                            .spam()
+                            .checkSpamStatusSynchronous(newCall.number, newCall.countryIso);
+            if (isSpam) {
                 LogUtil.i(
                         "VisualVoicemailUpdateTask.filterSpamNumbers",
                         "found voicemail from spam number, suppressing notification");
@@ -20,10 +20,8 @@ import static androidx.viewpager.widget.ViewPager.SCROLL_STATE_SETTLING;
 
 import android.app.Fragment;
 import android.content.SharedPreferences;
-import android.database.ContentObserver;
 import android.database.Cursor;
 import android.os.Bundle;
-import android.os.Handler;
 import android.os.Trace;
 import android.preference.PreferenceManager;
 import android.provider.VoicemailContract;
@@ -39,6 +37,7 @@ import com.fissy.dialer.app.calllog.CallLogFragment.CallLogFragmentListener;
 import com.fissy.dialer.app.calllog.CallLogNotificationsService;
 import com.fissy.dialer.app.calllog.VisualVoicemailCallLogFragment;
 import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.database.CallLogQueryHandler;
 import com.fissy.dialer.database.CallLogQueryHandler.Listener;
 import com.fissy.dialer.logging.DialerImpression;
@@ -85,14 +84,8 @@ public class ListsFragment extends Fragment
     private int tabIndex = DialtactsPagerAdapter.TAB_INDEX_SPEED_DIAL;
     private boolean paused;
     private CallLogQueryHandler callLogQueryHandler;
-    private final ContentObserver voicemailStatusObserver =
-            new ContentObserver(new Handler()) {
-                @Override
-                public void onChange(boolean selfChange) {
-                    super.onChange(selfChange);
-                    callLogQueryHandler.fetchVoicemailStatus();
-                }
-            };
+    private final ContentChangeHub.Listener voicemailStatusListener =
+            summary -> callLogQueryHandler.fetchVoicemailStatus();
     private UiAction.Type[] actionTypeList;
     // Only for detecting page selected by swiping or clicking.
     private boolean onPageScrolledBeforeScrollStateSettling;
@@ -219,10 +212,8 @@ public class ListsFragment extends Fragment
 
         if (PermissionsUtil.hasReadVoicemailPermissions(getContext())
                 && PermissionsUtil.hasAddVoicemailPermissions(getContext())) {
-            getActivity()
-                    .getContentResolver()
-                    .registerContentObserver(
-                            VoicemailContract.Status.CONTENT_URI, true, voicemailStatusObserver);
+            ContentChangeHub.get(getContext())
+                    .subscribe(VoicemailContract.Status.CONTENT_URI, true, voicemailStatusListener);
         } else {
             LogUtil.w("ListsFragment.onCreateView", "no voicemail read permissions");
         }
@@ -234,7 +225,7 @@ public class ListsFragment extends Fragment
 
     @Override
     public void onDestroy() {
-        getActivity().getContentResolver().unregisterContentObserver(voicemailStatusObserver);
+        ContentChangeHub.get(getContext()).unsubscribe(voicemailStatusListener);
         super.onDestroy();
     }
 
@@ -17,9 +17,7 @@
 package com.fissy.dialer.app.voicemail;
 
 import android.content.Context;
-import android.database.ContentObserver;
 import android.database.Cursor;
-import android.os.Handler;
 import androidx.annotation.MainThread;
 import android.telecom.PhoneAccountHandle;
 import android.telephony.PhoneStateListener;
@@ -32,6 +30,7 @@ import com.fissy.dialer.app.calllog.CallLogAlertManager;
 import com.fissy.dialer.app.calllog.CallLogModalAlertManager;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.database.CallLogQueryHandler;
 import com.fissy.dialer.voicemail.listui.error.VoicemailErrorAlert;
 import com.fissy.dialer.voicemail.listui.error.VoicemailErrorMessageCreator;
@@ -55,14 +54,7 @@ public class VoicemailErrorManager implements CallLogQueryHandler.Listener, Voic
     private final Map<PhoneAccountHandle, ServiceStateListener> listeners = new ArrayMap<>();
     private boolean isForeground;
     private boolean statusInvalidated;
-    private final ContentObserver statusObserver =
-            new ContentObserver(new Handler()) {
-                @Override
-                public void onChange(boolean selfChange) {
-                    super.onChange(selfChange);
-                    fetchStatus();
-                }
-            };
+    private final ContentChangeHub.Listener statusListener = summary -> fetchStatus();
 
     public VoicemailErrorManager(
             Context context,
@@ -76,8 +68,8 @@ public class VoicemailErrorManager implements CallLogQueryHandler.Listener, Voic
         fetchStatus();
     }
 
-    public ContentObserver getContentObserver() {
-        return statusObserver;
+    public ContentChangeHub.Listener getContentChangeListener() {
+        return statusListener;
     }
 
     @MainThread
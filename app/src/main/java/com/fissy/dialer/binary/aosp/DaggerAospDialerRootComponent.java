@@ -81,6 +81,7 @@ import com.fissy.dialer.commandline.impl.BlockingCommand_Factory;
 import com.fissy.dialer.commandline.impl.CallCommand;
 import com.fissy.dialer.commandline.impl.CallCommand_Factory;
 import com.fissy.dialer.commandline.impl.Echo_Factory;
+import com.fissy.dialer.commandline.impl.ExecutorsCommand_Factory;
 import com.fissy.dialer.commandline.impl.Help;
 import com.fissy.dialer.commandline.impl.Help_Factory;
 import com.fissy.dialer.commandline.impl.Version;
@@ -627,7 +628,8 @@ public final class DaggerAospDialerRootComponent implements AospDialerRootCompon
                         Echo_Factory.create(),
                         blockingCommandProvider,
                         callCommandProvider,
-                        activeCallsCommandProvider);
+                        activeCallsCommandProvider,
+                        ExecutorsCommand_Factory.create());
 
         this.provideCommandSupplierProvider =
                 CommandLineModule_ProvideCommandSupplierFactory.create(aospCommandInjectorProvider);
@@ -29,10 +29,13 @@ import com.fissy.dialer.calllog.config.CallLogConfig;
 import com.fissy.dialer.calllog.config.CallLogConfigComponent;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.configprovider.ConfigProviderComponent;
 import com.fissy.dialer.inject.HasRootComponent;
+import com.fissy.dialer.location.GeoUtil;
 import com.fissy.dialer.logging.LogManager;
 import com.fissy.dialer.notification.NotificationChannelManager;
 import com.fissy.dialer.persistentlog.PersistentLogger;
+import com.fissy.dialer.phonenumbergeoutil.PhoneNumberGeoUtilComponent;
 import com.fissy.dialer.strictmode.StrictModeComponent;
 
 /**
@@ -54,6 +57,19 @@ public abstract class DialerApplication extends Application implements HasRootCo
         
         // Initialize LogManager
         LogManager.getInstance().init(this);
+
+        // Loads the config flags in the background so the first read doesn't block the main thread.
+        DialerExecutorComponent.get(this)
+                .backgroundExecutor()
+                .execute(() -> ConfigProviderComponent.get(this).getConfigProvider().preload());
+        // Not needed right away, loads the geo data of the user's country for call log and in call UI.
+        DialerExecutorComponent.get(this)
+                .lowPriorityThreadPool()
+                .execute(
+                        () ->
+                                PhoneNumberGeoUtilComponent.get(this)
+                                        .getPhoneNumberGeoUtil()
+                                        .warmUp(this, GeoUtil.getCurrentCountryIso(this)));
         
         new BlockedNumbersAutoMigrator(
                 this.getApplicationContext(),
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.blocking;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.os.UserManagerCompat;
+import android.text.TextUtils;
+
+import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.contentchange.ContentChangeHub;
+import com.fissy.dialer.contentchange.ContentChangeHub.ChangeSummary;
+import com.fissy.dialer.database.FilteredNumberContract.FilteredNumberColumns;
+import com.fissy.dialer.database.FilteredNumberContract.FilteredNumberTypes;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resident copy of the blocked numbers, indexed by their original and E164 forms.
+ *
+ * <p>The index is loaded with one query of the blocked number provider the first time it is needed
+ * and is dropped and reloaded whenever the provider notifies a change. Callers ask it instead of
+ * querying the provider per number, which keeps that IPC out of incoming call handling and call
+ * log binding.
+ *
+ * <p>The index can't be loaded while the user is locked or if blocking isn't available. Callers
+ * must fall back to querying the provider when no {@link Snapshot} is returned.
+ */
+public final class BlockedNumberIndex implements ContentChangeHub.Listener {
+
+    private static BlockedNumberIndex instance;
+
+    private final Context appContext;
+    private final AtomicBoolean loadScheduled = new AtomicBoolean();
+    // Incremented on every change so loads that raced with a change don't publish stale data.
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @Nullable
+    private volatile Snapshot snapshot;
+    // Guarded by this.
+    @Nullable
+    private Uri subscribedUri;
+
+    private BlockedNumberIndex(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static synchronized BlockedNumberIndex get(Context context) {
+        if (instance == null) {
+            instance = new BlockedNumberIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts loading the index in the background if it isn't loaded, e.g. before a call comes in.
+     */
+    @AnyThread
+    public void preload() {
+        peekSnapshot();
+    }
+
+    /**
+     * Returns the loaded index without blocking, or {@code null} after starting to load it in the
+     * background.
+     */
+    @AnyThread
+    @Nullable
+    public Snapshot peekSnapshot() {
+        Snapshot current = getValidSnapshot();
+        if (current == null && loadScheduled.compareAndSet(false, true)) {
+            DialerExecutorComponent.get(appContext)
+                    .backgroundExecutor()
+                    .execute(
+                            () -> {
+                                loadScheduled.set(false);
+                                getSnapshot();
+                            });
+        }
+        return current;
+    }
+
+    /**
+     * Returns the index, loading it first if needed, or {@code null} if it can't be loaded.
+     */
+    @WorkerThread
+    @Nullable
+    public Snapshot getSnapshot() {
+        Assert.isWorkerThread();
+        Snapshot current = getValidSnapshot();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = getValidSnapshot();
+            if (current != null) {
+                return current;
+            }
+            if (!FilteredNumberCompat.canAttemptBlockOperations(appContext)
+                    || !UserManagerCompat.isUserUnlocked(appContext)) {
+                return null;
+            }
+            boolean useNewFiltering = FilteredNumberCompat.useNewFiltering(appContext);
+            Uri uri = FilteredNumberCompat.getContentUri(appContext, null);
+            if (!uri.equals(subscribedUri)) {
+                // Subscribe before querying so no change can be missed.
+                ContentChangeHub.get(appContext).unsubscribe(this);
+                ContentChangeHub.get(appContext).subscribe(uri, true, this);
+                subscribedUri = uri;
+            }
+            int loadGeneration = generation.get();
+            Snapshot loaded = query(uri, useNewFiltering);
+            if (loaded == null || loadGeneration != generation.get()) {
+                // Changed while loading, the caller queries the provider instead of using stale data.
+                return null;
+            }
+            snapshot = loaded;
+            return loaded;
+        }
+    }
+
+    /**
+     * Drops the index, it will be reloaded by the next caller.
+     */
+    @AnyThread
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Override
+    public void onContentChanged(@NonNull ChangeSummary summary) {
+        LogUtil.i("BlockedNumberIndex.onContentChanged", "%s", summary);
+        invalidate();
+        // The per number results cached by the query handler may be stale as well.
+        FilteredNumberAsyncQueryHandler.blockedNumberCache.clear();
+        preload();
+    }
+
+    @Nullable
+    private Snapshot getValidSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null
+                && current.useNewFiltering != FilteredNumberCompat.useNewFiltering(appContext)) {
+            // Migrated to or from the framework blocking, the index is for the other database.
+            return null;
+        }
+        return current;
+    }
+
+    @WorkerThread
+    @Nullable
+    private Snapshot query(Uri uri, boolean useNewFiltering) {
+        String idColumn = FilteredNumberCompat.getIdColumnName(appContext);
+        String originalNumberColumn = FilteredNumberCompat.getOriginalNumberColumnName(appContext);
+        String e164NumberColumn = FilteredNumberCompat.getE164NumberColumnName(appContext);
+        try (Cursor cursor =
+                     appContext
+                             .getContentResolver()
+                             .query(
+                                     uri,
+                                     new String[]{idColumn, originalNumberColumn, e164NumberColumn},
+                                     useNewFiltering
+                                             ? null
+                                             : FilteredNumberColumns.TYPE + "=" + FilteredNumberTypes.BLOCKED_NUMBER,
+                                     null,
+                                     null)) {
+            if (cursor == null) {
+                return null;
+            }
+            Map<String, Integer> idsByOriginalNumber = new HashMap<>();
+            Map<String, Integer> idsByE164Number = new HashMap<>();
+            while (cursor.moveToNext()) {
+                int id = cursor.getInt(0);
+                String originalNumber = cursor.getString(1);
+                String e164Number = cursor.getString(2);
+                if (!TextUtils.isEmpty(originalNumber)) {
+                    idsByOriginalNumber.put(originalNumber, id);
+                }
+                if (!TextUtils.isEmpty(e164Number)) {
+                    idsByE164Number.put(e164Number, id);
+                }
+            }
+            LogUtil.i("BlockedNumberIndex.query", "loaded %d blocked numbers", cursor.getCount());
+            return new Snapshot(useNewFiltering, idsByOriginalNumber, idsByE164Number);
+        } catch (SecurityException e) {
+            LogUtil.e("BlockedNumberIndex.query", "unable to query blocked numbers", e);
+            return null;
+        }
+    }
+
+    /**
+     * Immutable view of the blocked numbers at one point in time.
+     */
+    public static final class Snapshot {
+        private final boolean useNewFiltering;
+        private final Map<String, Integer> idsByOriginalNumber;
+        private final Map<String, Integer> idsByE164Number;
+
+        private Snapshot(
+                boolean useNewFiltering,
+                Map<String, Integer> idsByOriginalNumber,
+                Map<String, Integer> idsByE164Number) {
+            this.useNewFiltering = useNewFiltering;
+            this.idsByOriginalNumber = idsByOriginalNumber;
+            this.idsByE164Number = idsByE164Number;
+        }
+
+        /**
+         * Returns the id of the row blocking {@code number}, or {@code null} if it isn't blocked.
+         *
+         * <p>Matches the way numbers are blocked: by their E164 form if they have one, otherwise by
+         * their original form, which only the framework blocking supports.
+         *
+         * @param e164Number the E164 form of {@code number}, or {@code null} if it has none
+         */
+        @Nullable
+        public Integer getBlockedId(@Nullable String number, @Nullable String e164Number) {
+            if (!TextUtils.isEmpty(e164Number)) {
+                return idsByE164Number.get(e164Number);
+            }
+            if (!useNewFiltering || TextUtils.isEmpty(number)) {
+                return null;
+            }
+            return idsByOriginalNumber.get(number);
+        }
+
+        /**
+         * Returns true if a row was blocked with {@code e164Number} as its E164 form.
+         */
+        public boolean containsE164Number(String e164Number) {
+            return idsByE164Number.containsKey(e164Number);
+        }
+
+        /**
+         * Returns true if a row was blocked with {@code number} as its original form.
+         */
+        public boolean containsOriginalNumber(String number) {
+            return idsByOriginalNumber.containsKey(number);
+        }
+
+        /**
+         * Returns true if the index is of the framework blocked number database.
+         */
+        public boolean usesNewFiltering() {
+            return useNewFiltering;
+        }
+    }
+}
@@ -132,6 +132,12 @@ public final class Blocking {
                 .backgroundExecutor()
                 .submit(
                         () -> {
+                            BlockedNumberIndex.Snapshot snapshot =
+                                    BlockedNumberIndex.get(context).getSnapshot();
+                            if (snapshot != null && snapshot.usesNewFiltering()) {
+                                return isBlocked(snapshot, numbers, countryIso);
+                            }
+
                             Map<String, Boolean> blockedStatus = new ArrayMap<>();
                             List<String> e164Numbers = new ArrayList<>();
 
@@ -171,6 +177,21 @@ public final class Blocking {
                         });
     }
 
+    private static ImmutableMap<String, Boolean> isBlocked(
+            BlockedNumberIndex.Snapshot snapshot,
+            ImmutableCollection<String> numbers,
+            @Nullable String countryIso) {
+        Map<String, Boolean> blockedStatus = new ArrayMap<>();
+        for (String number : numbers) {
+            String e164Number = PhoneNumberUtils.formatNumberToE164(number, countryIso);
+            blockedStatus.put(
+                    number,
+                    snapshot.containsOriginalNumber(number)
+                            || (e164Number != null && snapshot.containsE164Number(e164Number)));
+        }
+        return ImmutableMap.copyOf(blockedStatus);
+    }
+
     private static ContentProviderResult[] applyBatchOps(
             ContentResolver resolver, ArrayList<ContentProviderOperation> ops)
             throws BlockingFailedException {
@@ -25,6 +25,7 @@ import android.database.sqlite.SQLiteDatabaseCorruptException;
 import android.net.Uri;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 import androidx.core.os.UserManagerCompat;
 import android.telephony.PhoneNumberUtils;
 import android.text.TextUtils;
@@ -158,6 +159,12 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
             return;
         }
 
+        BlockedNumberIndex.Snapshot snapshot = BlockedNumberIndex.get(context).peekSnapshot();
+        if (snapshot != null) {
+            listener.onCheckComplete(snapshot.getBlockedId(number, e164Number));
+            return;
+        }
+
         startQuery(
                 NO_TOKEN,
                 new Listener() {
@@ -206,6 +213,19 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
      */
     @Nullable
     public Integer getBlockedIdSynchronous(@Nullable String number, String countryIso) {
+        return getBlockedIdSynchronous(context, number, countryIso);
+    }
+
+    /**
+     * Synchronously check if this number has been blocked, for callers on threads without a looper
+     * which can't create a query handler.
+     *
+     * @return blocked id.
+     */
+    @WorkerThread
+    @Nullable
+    public static Integer getBlockedIdSynchronous(
+            Context context, @Nullable String number, String countryIso) {
         Assert.isWorkerThread();
         if (number == null) {
             return null;
@@ -227,6 +247,11 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
             return null;
         }
 
+        BlockedNumberIndex.Snapshot snapshot = BlockedNumberIndex.get(context).getSnapshot();
+        if (snapshot != null) {
+            return snapshot.getBlockedId(number, e164Number);
+        }
+
         try (Cursor cursor =
                      context
                              .getContentResolver()
@@ -237,7 +262,7 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
                                                      FilteredNumberCompat.getIdColumnName(context),
                                                      FilteredNumberCompat.getTypeColumnName(context)
                                              }),
-                                     getIsBlockedNumberSelection(e164Number != null) + " = ?",
+                                     getIsBlockedNumberSelection(context, e164Number != null) + " = ?",
                                      new String[]{formattedNumber},
                                      null)) {
             /*
@@ -263,6 +288,7 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
     @VisibleForTesting
     public void clearCache() {
         blockedNumberCache.clear();
+        BlockedNumberIndex.get(context).invalidate();
     }
 
     /*
@@ -271,6 +297,10 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
      * number is e164 or not.
      */
     private String getIsBlockedNumberSelection(boolean isE164Number) {
+        return getIsBlockedNumberSelection(context, isE164Number);
+    }
+
+    private static String getIsBlockedNumberSelection(Context context, boolean isE164Number) {
         if (FilteredNumberCompat.useNewFiltering(context) && !isE164Number) {
             return FilteredNumberCompat.getOriginalNumberColumnName(context);
         }
@@ -301,7 +331,7 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
      * performing the 'undo' action after unblocking.
      */
     public void blockNumber(final OnBlockNumberListener listener, ContentValues values) {
-        blockedNumberCache.clear();
+        clearCache();
         if (!FilteredNumberCompat.canAttemptBlockOperations(context)) {
             if (listener != null) {
                 listener.onBlockComplete(null);
@@ -344,7 +374,7 @@ public class FilteredNumberAsyncQueryHandler extends AsyncQueryHandler {
      * @param uri      The uri of row to remove, from {@link FilteredNumberAsyncQueryHandler#blockNumber}.
      */
     public void unblock(@Nullable final OnUnblockNumberListener listener, final Uri uri) {
-        blockedNumberCache.clear();
+        clearCache();
         if (!FilteredNumberCompat.canAttemptBlockOperations(context)) {
             if (listener != null) {
                 listener.onUnblockComplete(0, null);
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.blocking;
+
+import androidx.annotation.Nullable;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Block and spam status of a number, see {@link NumberStatusIndex}.
+ */
+@AutoValue
+public abstract class NumberStatus {
+
+    public static NumberStatus create(@Nullable Integer blockedId, boolean isSpam) {
+        return new AutoValue_NumberStatus(blockedId, isSpam);
+    }
+
+    /**
+     * Returns the id of the row blocking the number, or {@code null} if it isn't blocked.
+     */
+    @Nullable
+    public abstract Integer blockedId();
+
+    /**
+     * Returns true if the number is suspected of being spam, regardless of the type of the call.
+     */
+    public abstract boolean isSpam();
+
+    public boolean isBlocked() {
+        return blockedId() != null;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.blocking;
+
+import android.content.Context;
+import android.util.LruCache;
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.fissy.dialer.DialerPhoneNumber;
+import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
+import com.fissy.dialer.metrics.Metrics;
+import com.fissy.dialer.metrics.MetricsComponent;
+import com.fissy.dialer.spam.Spam;
+import com.fissy.dialer.spam.SpamComponent;
+import com.fissy.dialer.spam.status.SpamStatus;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers the block and spam status of a batch of numbers at once.
+ *
+ * <p>Blocked numbers are looked up in the {@link BlockedNumberIndex}. Spam statuses are cached per
+ * number, so only the numbers not seen before are passed to {@link Spam#batchCheckSpamStatus}, in
+ * a single call. The cache is dropped when the spam data was updated since it was filled, or
+ * explicitly with {@link #invalidate()} after the user reported a number.
+ *
+ * <p>Numbers are treated as not blocked while the {@link BlockedNumberIndex} can't be loaded, e.g.
+ * while the user is locked.
+ */
+public final class NumberStatusIndex {
+
+    private static final int SPAM_CACHE_SIZE = 512;
+
+    private static NumberStatusIndex instance;
+
+    private final Context appContext;
+    private final LruCache<DialerPhoneNumber, Boolean> spamCache = new LruCache<>(SPAM_CACHE_SIZE);
+    // When the spam cache was last dropped, spam data updated after that isn't in it.
+    private volatile long spamCacheTimestampMillis = System.currentTimeMillis();
+
+    private NumberStatusIndex(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static synchronized NumberStatusIndex get(Context context) {
+        if (instance == null) {
+            instance = new NumberStatusIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the status of each of the given numbers.
+     */
+    @AnyThread
+    public ListenableFuture<ImmutableMap<DialerPhoneNumber, NumberStatus>> getStatuses(
+            @NonNull ImmutableSet<DialerPhoneNumber> numbers) {
+        if (numbers.isEmpty()) {
+            return Futures.immediateFuture(ImmutableMap.of());
+        }
+        ListenableFuture<ImmutableMap<DialerPhoneNumber, Integer>> blockedIdsFuture =
+                DialerExecutorComponent.get(appContext)
+                        .backgroundExecutor()
+                        .submit(() -> getBlockedIds(numbers));
+        ListenableFuture<ImmutableMap<DialerPhoneNumber, Boolean>> spamFuture =
+                getSpamStatuses(numbers);
+        return Futures.whenAllSucceed(blockedIdsFuture, spamFuture)
+                .call(
+                        () -> {
+                            ImmutableMap<DialerPhoneNumber, Integer> blockedIds =
+                                    Futures.getDone(blockedIdsFuture);
+                            ImmutableMap<DialerPhoneNumber, Boolean> spamStatuses =
+                                    Futures.getDone(spamFuture);
+                            ImmutableMap.Builder<DialerPhoneNumber, NumberStatus> statuses =
+                                    ImmutableMap.builder();
+                            for (DialerPhoneNumber number : numbers) {
+                                statuses.put(
+                                        number,
+                                        NumberStatus.create(
+                                                blockedIds.get(number),
+                                                Boolean.TRUE.equals(spamStatuses.get(number))));
+                            }
+                            return statuses.build();
+                        },
+                        MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Drops the cached spam statuses, e.g. after the user reported a number as spam or not spam.
+     */
+    @AnyThread
+    public void invalidate() {
+        spamCache.evictAll();
+        spamCacheTimestampMillis = System.currentTimeMillis();
+    }
+
+    @WorkerThread
+    private ImmutableMap<DialerPhoneNumber, Integer> getBlockedIds(
+            ImmutableSet<DialerPhoneNumber> numbers) {
+        Assert.isWorkerThread();
+        BlockedNumberIndex.Snapshot snapshot = BlockedNumberIndex.get(appContext).getSnapshot();
+        if (snapshot == null) {
+            // The index can't be used, e.g. while the user is locked or after a change raced its
+            // load, so each number is looked up in the provider as the index requires.
+            return getBlockedIdsFromProvider(numbers);
+        }
+        ImmutableMap.Builder<DialerPhoneNumber, Integer> blockedIds = ImmutableMap.builder();
+        for (DialerPhoneNumber number : numbers) {
+            Integer blockedId = snapshot.getBlockedId(number.getNormalizedNumber(), getE164(number));
+            if (blockedId != null) {
+                blockedIds.put(number, blockedId);
+            }
+        }
+        return blockedIds.build();
+    }
+
+    @WorkerThread
+    private ImmutableMap<DialerPhoneNumber, Integer> getBlockedIdsFromProvider(
+            ImmutableSet<DialerPhoneNumber> numbers) {
+        ImmutableMap.Builder<DialerPhoneNumber, Integer> blockedIds = ImmutableMap.builder();
+        for (DialerPhoneNumber number : numbers) {
+            Integer blockedId =
+                    FilteredNumberAsyncQueryHandler.getBlockedIdSynchronous(
+                            appContext, number.getNormalizedNumber(), number.getCountryIso());
+            if (blockedId != null) {
+                blockedIds.put(number, blockedId);
+            }
+        }
+        return blockedIds.build();
+    }
+
+    private ListenableFuture<ImmutableMap<DialerPhoneNumber, Boolean>> getSpamStatuses(
+            ImmutableSet<DialerPhoneNumber> numbers) {
+        if (!SpamComponent.get(appContext).spamSettings().isSpamEnabled()) {
+            return Futures.immediateFuture(ImmutableMap.of());
+        }
+        Spam spam = SpamComponent.get(appContext).spam();
+        long cacheTimestampMillis = spamCacheTimestampMillis;
+        return Futures.transformAsync(
+                spam.dataUpdatedSince(cacheTimestampMillis),
+                dataUpdated -> {
+                    if (Boolean.TRUE.equals(dataUpdated)
+                            && cacheTimestampMillis == spamCacheTimestampMillis) {
+                        LogUtil.i("NumberStatusIndex.getSpamStatuses", "spam data updated");
+                        invalidate();
+                    }
+                    Map<DialerPhoneNumber, Boolean> cached = new HashMap<>();
+                    ImmutableSet.Builder<DialerPhoneNumber> missing = ImmutableSet.builder();
+                    for (DialerPhoneNumber number : numbers) {
+                        Boolean isSpam = spamCache.get(number);
+                        if (isSpam != null) {
+                            cached.put(number, isSpam);
+                        } else {
+                            missing.add(number);
+                        }
+                    }
+                    ImmutableSet<DialerPhoneNumber> missingNumbers = missing.build();
+                    recordCacheStats(cached.size(), missingNumbers.size());
+                    if (missingNumbers.isEmpty()) {
+                        return Futures.immediateFuture(ImmutableMap.copyOf(cached));
+                    }
+                    return Futures.transform(
+                            spam.batchCheckSpamStatus(missingNumbers),
+                            spamStatuses -> {
+                                for (Map.Entry<DialerPhoneNumber, SpamStatus> entry
+                                        : spamStatuses.entrySet()) {
+                                    boolean isSpam = entry.getValue().isSpam();
+                                    spamCache.put(entry.getKey(), isSpam);
+                                    cached.put(entry.getKey(), isSpam);
+                                }
+                                return ImmutableMap.copyOf(cached);
+                            },
+                            MoreExecutors.directExecutor());
+                },
+                DialerExecutorComponent.get(appContext).lightweightExecutor());
+    }
+
+    private void recordCacheStats(int hits, int misses) {
+        Metrics metrics = MetricsComponent.get(appContext).metrics();
+        metrics.incrementCounter(Metrics.SPAM_CACHE_HIT_COUNTER_NAME, hits);
+        metrics.incrementCounter(Metrics.SPAM_CACHE_MISS_COUNTER_NAME, misses);
+    }
+
+    /**
+     * Returns the E164 form of the number, or {@code null} if it is invalid or has a post dial
+     * portion and so can only be matched by its original form.
+     */
+    @Nullable
+    private static String getE164(DialerPhoneNumber number) {
+        return number.getIsValid() && number.getPostDialPortion().isEmpty()
+                ? number.getNormalizedNumber()
+                : null;
+    }
+}
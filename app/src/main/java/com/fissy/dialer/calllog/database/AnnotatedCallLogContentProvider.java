@@ -187,6 +187,7 @@ public class AnnotatedCallLogContentProvider extends ContentProvider {
         }
         Uri insertedUri = ContentUris.withAppendedId(AnnotatedCallLog.CONTENT_URI, id);
         if (!isApplyingBatch()) {
+            databaseHelper.trimToMaxRows(database);
             notifyChange(insertedUri);
         }
         return insertedUri;
@@ -287,6 +288,7 @@ public class AnnotatedCallLogContentProvider extends ContentProvider {
         }
 
         SQLiteDatabase database = databaseHelper.getWritableDatabase();
+        boolean hasInserts = false;
         try {
             applyingBatch.set(true);
             database.beginTransaction();
@@ -308,25 +310,16 @@ public class AnnotatedCallLogContentProvider extends ContentProvider {
                     if (result.uri == null) {
                         throw new OperationApplicationException("error inserting row");
                     }
+                    hasInserts = true;
                 } else if (result.count == 0) {
-                    /*
-                     * The batches built by MutationApplier happen to contain operations in order of:
-                     *
-                     * 1. Inserts
-                     * 2. Updates
-                     * 3. Deletes
-                     *
-                     * Let's say the last row in the table is row Z, and MutationApplier wishes to update it,
-                     * as well as insert row A. When row A gets inserted, row Z will be deleted via the
-                     * trigger if the table is full. Then later, when we try to process the update for row Z,
-                     * it won't exist.
-                     */
-                    LogUtil.w(
-                            "AnnotatedCallLogContentProvider.applyBatch",
-                            "update or delete failed, possibly because row got cleaned up");
+                    LogUtil.w("AnnotatedCallLogContentProvider.applyBatch", "update or delete failed");
                 }
                 results[i] = result;
             }
+            if (hasInserts) {
+                // The row cap is enforced once for the whole batch rather than after each insert.
+                databaseHelper.trimToMaxRows(database);
+            }
             database.setTransactionSuccessful();
         } finally {
             applyingBatch.set(false);
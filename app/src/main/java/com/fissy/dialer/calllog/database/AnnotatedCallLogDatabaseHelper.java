@@ -41,7 +41,7 @@ import javax.inject.Singleton;
 public class AnnotatedCallLogDatabaseHelper extends SQLiteOpenHelper {
 
     @VisibleForTesting
-    static final int VERSION = 4;
+    static final int VERSION = 5;
 
     private static final String FILENAME = "annotated_call_log.db";
     /**
@@ -84,19 +84,11 @@ public class AnnotatedCallLogDatabaseHelper extends SQLiteOpenHelper {
                     + ");";
     /**
      * Deletes all but the first maxRows rows (by timestamp, excluding voicemails) to keep the table a
-     * manageable size.
+     * manageable size. Run by {@link #trimToMaxRows(SQLiteDatabase)} once per batch of writes instead
+     * of by a trigger after every insert.
      */
-    private static final String CREATE_TRIGGER_SQL =
-            "create trigger delete_old_rows after insert on "
-                    + AnnotatedCallLog.TABLE
-                    + " when (select count(*) from "
-                    + AnnotatedCallLog.TABLE
-                    + " where "
-                    + AnnotatedCallLog.CALL_TYPE
-                    + " != "
-                    + Calls.VOICEMAIL_TYPE
-                    + ") > %d"
-                    + " begin delete from "
+    private static final String TRIM_TO_MAX_ROWS_SQL =
+            "delete from "
                     + AnnotatedCallLog.TABLE
                     + " where "
                     + AnnotatedCallLog._ID
@@ -108,14 +100,19 @@ public class AnnotatedCallLogDatabaseHelper extends SQLiteOpenHelper {
                     + AnnotatedCallLog.CALL_TYPE
                     + " != "
                     + Calls.VOICEMAIL_TYPE
-                    + " order by timestamp limit (select count(*)-%d"
+                    + " order by timestamp limit max((select count(*)-%d"
                     + " from "
                     + AnnotatedCallLog.TABLE
                     + " where "
                     + AnnotatedCallLog.CALL_TYPE
                     + " != "
                     + Calls.VOICEMAIL_TYPE
-                    + ")); end;";
+                    + "), 0))";
+    /**
+     * Versions before 5 trimmed the table with a trigger after every insert, which made bulk inserts
+     * quadratic.
+     */
+    private static final String DROP_TRIGGER_SQL = "drop trigger if exists delete_old_rows";
     private static final String CREATE_INDEX_ON_CALL_TYPE_SQL =
             "create index call_type_index on "
                     + AnnotatedCallLog.TABLE
@@ -191,7 +188,6 @@ public class AnnotatedCallLogDatabaseHelper extends SQLiteOpenHelper {
         LogUtil.enterBlock("AnnotatedCallLogDatabaseHelper.onCreate");
         long startTime = System.currentTimeMillis();
         db.execSQL(CREATE_TABLE_SQL);
-        db.execSQL(String.format(Locale.US, CREATE_TRIGGER_SQL, maxRows, maxRows));
         db.execSQL(CREATE_INDEX_ON_CALL_TYPE_SQL);
         db.execSQL(CREATE_INDEX_ON_NUMBER_SQL);
         // TODO(zachh): Consider logging impression.
@@ -212,6 +208,19 @@ public class AnnotatedCallLogDatabaseHelper extends SQLiteOpenHelper {
         if (oldVersion < 4) {
             upgradeToV4(db);
         }
+
+        if (oldVersion < 5) {
+            db.execSQL(DROP_TRIGGER_SQL);
+        }
+    }
+
+    /**
+     * Deletes the oldest rows (excluding voicemails) so at most {@link AnnotatedCallLogMaxRows} are
+     * left. Must be called at the end of every batch of writes that inserts rows, preferably in the
+     * same transaction.
+     */
+    void trimToMaxRows(SQLiteDatabase db) {
+        db.execSQL(String.format(Locale.US, TRIM_TO_MAX_ROWS_SQL, maxRows));
     }
 
     /**
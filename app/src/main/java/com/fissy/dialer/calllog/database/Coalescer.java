@@ -71,9 +71,25 @@ public class Coalescer {
      */
     public ListenableFuture<ImmutableList<CoalescedRow>> coalesce(
             @NonNull Cursor allAnnotatedCallLogRowsSortedByTimestampDesc) {
+        return coalesce(allAnnotatedCallLogRowsSortedByTimestampDesc, /* hasMoreRows = */ false);
+    }
+
+    /**
+     * Same as {@link #coalesce(Cursor)} but for a cursor holding only the newest rows of {@link
+     * AnnotatedCallLog}.
+     *
+     * @param hasMoreRows true if there are older rows which are not in the cursor. The last group may
+     *     then continue past the end of the cursor, so it is left out and should be coalesced as part
+     *     of the next page.
+     */
+    public ListenableFuture<ImmutableList<CoalescedRow>> coalesce(
+            @NonNull Cursor newestAnnotatedCallLogRowsSortedByTimestampDesc, boolean hasMoreRows) {
         ListenableFuture<ImmutableList<CoalescedRow>> coalescingFuture =
                 backgroundExecutorService.submit(
-                        () -> coalesceInternal(Assert.isNotNull(allAnnotatedCallLogRowsSortedByTimestampDesc)));
+                        () ->
+                                coalesceInternal(
+                                        Assert.isNotNull(newestAnnotatedCallLogRowsSortedByTimestampDesc),
+                                        hasMoreRows));
         futureTimer.applyTiming(coalescingFuture, Metrics.NEW_CALL_LOG_COALESCE);
         return coalescingFuture;
     }
@@ -85,13 +101,17 @@ public class Coalescer {
      *
      * @param allAnnotatedCallLogRowsSortedByTimestampDesc {@link AnnotatedCallLog} rows sorted in
      *                                                     descending order of timestamp.
+     * @param hasMoreRows                                  true to leave out the last group unless it
+     *                                                     is the only one, see {@link
+     *                                                     #coalesce(Cursor, boolean)}.
      * @return a list of {@link CoalescedRow coalesced rows}, which will be used to display call log
      * entries.
      */
     @WorkerThread
     @NonNull
     private ImmutableList<CoalescedRow> coalesceInternal(
-            Cursor allAnnotatedCallLogRowsSortedByTimestampDesc) throws ExpectedCoalescerException {
+            Cursor allAnnotatedCallLogRowsSortedByTimestampDesc, boolean hasMoreRows)
+            throws ExpectedCoalescerException {
         Assert.isWorkerThread();
 
         ImmutableList.Builder<CoalescedRow> coalescedRowListBuilder = new ImmutableList.Builder<>();
@@ -113,8 +133,14 @@ public class Coalescer {
                 }
 
                 if (!isRowMerged || allAnnotatedCallLogRowsSortedByTimestampDesc.isAfterLast()) {
-                    coalescedRowListBuilder.add(
-                            rowCombiner.combine().toBuilder().setId(coalescedRowId++).build());
+                    boolean isLastGroupIncomplete =
+                            hasMoreRows
+                                    && allAnnotatedCallLogRowsSortedByTimestampDesc.isAfterLast()
+                                    && coalescedRowId > 0;
+                    if (!isLastGroupIncomplete) {
+                        coalescedRowListBuilder.add(
+                                rowCombiner.combine().toBuilder().setId(coalescedRowId++).build());
+                    }
                     rowCombiner.startNewGroup();
                 }
             } while (!allAnnotatedCallLogRowsSortedByTimestampDesc.isAfterLast());
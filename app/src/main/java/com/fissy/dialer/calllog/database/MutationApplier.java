@@ -15,16 +15,16 @@
  */
 package com.fissy.dialer.calllog.database;
 
-import android.content.ContentProviderOperation;
-import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
-import android.content.OperationApplicationException;
-import android.os.RemoteException;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import androidx.annotation.WorkerThread;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 
-import com.fissy.dialer.calllog.database.contract.AnnotatedCallLogContract;
+import com.fissy.dialer.calllog.database.AnnotatedCallLogConstraints.Operation;
 import com.fissy.dialer.calllog.database.contract.AnnotatedCallLogContract.AnnotatedCallLog;
 import com.fissy.dialer.calllog.datasources.CallLogMutations;
 import com.fissy.dialer.common.Assert;
@@ -37,8 +37,11 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeSet;
 
 import javax.inject.Inject;
 
@@ -69,66 +72,139 @@ public class MutationApplier {
     }
 
     @WorkerThread
-    private void applyToDatabaseInternal(CallLogMutations mutations, Context appContext)
-            throws RemoteException, OperationApplicationException {
+    private void applyToDatabaseInternal(CallLogMutations mutations, Context appContext) {
         Assert.isWorkerThread();
 
-        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
-
-        if (!mutations.getInserts().isEmpty()) {
-            LogUtil.i(
-                    "MutationApplier.applyToDatabase", "inserting %d rows", mutations.getInserts().size());
-            for (Entry<Long, ContentValues> entry : mutations.getInserts().entrySet()) {
-                long id = entry.getKey();
-                ContentValues contentValues = entry.getValue();
-                operations.add(
-                        ContentProviderOperation.newInsert(
-                                        ContentUris.withAppendedId(AnnotatedCallLog.CONTENT_URI, id))
-                                .withValues(contentValues)
-                                .build());
+        // The annotated call log lives in this process, so write to the database directly rather than
+        // sending a ContentProviderOperation per row through the content provider. This runs all
+        // writes in one transaction with one compiled statement per column set, and notifies
+        // observers once at the end.
+        AnnotatedCallLogDatabaseHelper databaseHelper =
+                CallLogDatabaseComponent.get(appContext).annotatedCallLogDatabaseHelper();
+        SQLiteDatabase database = databaseHelper.getWritableDatabase();
+        Map<String, SQLiteStatement> statements = new ArrayMap<>();
+        database.beginTransaction();
+        try {
+            if (!mutations.getInserts().isEmpty()) {
+                LogUtil.i(
+                        "MutationApplier.applyToDatabase", "inserting %d rows", mutations.getInserts().size());
+                for (Entry<Long, ContentValues> entry : mutations.getInserts().entrySet()) {
+                    ContentValues contentValues = new ContentValues(entry.getValue());
+                    AnnotatedCallLogConstraints.check(contentValues, Operation.INSERT);
+                    contentValues.put(AnnotatedCallLog._ID, entry.getKey());
+
+                    List<String> columns = new ArrayList<>(new TreeSet<>(contentValues.keySet()));
+                    SQLiteStatement statement = getInsertStatement(database, statements, columns);
+                    bindValues(statement, contentValues, columns);
+                    statement.executeInsert();
+                }
             }
-        }
 
-        if (!mutations.getUpdates().isEmpty()) {
-            LogUtil.i(
-                    "MutationApplier.applyToDatabase", "updating %d rows", mutations.getUpdates().size());
-            for (Entry<Long, ContentValues> entry : mutations.getUpdates().entrySet()) {
-                long id = entry.getKey();
-                ContentValues contentValues = entry.getValue();
-                operations.add(
-                        ContentProviderOperation.newUpdate(
-                                        ContentUris.withAppendedId(AnnotatedCallLog.CONTENT_URI, id))
-                                .withValues(contentValues)
-                                .build());
+            if (!mutations.getUpdates().isEmpty()) {
+                LogUtil.i(
+                        "MutationApplier.applyToDatabase", "updating %d rows", mutations.getUpdates().size());
+                for (Entry<Long, ContentValues> entry : mutations.getUpdates().entrySet()) {
+                    ContentValues contentValues = entry.getValue();
+                    AnnotatedCallLogConstraints.check(contentValues, Operation.UPDATE);
+                    Assert.checkArgument(
+                            !contentValues.containsKey(AnnotatedCallLog._ID),
+                            "Do not specify _ID when updating by ID");
+                    if (contentValues.size() == 0) {
+                        continue;
+                    }
+
+                    List<String> columns = new ArrayList<>(new TreeSet<>(contentValues.keySet()));
+                    SQLiteStatement statement = getUpdateStatement(database, statements, columns);
+                    bindValues(statement, contentValues, columns);
+                    statement.bindLong(columns.size() + 1, entry.getKey());
+                    if (statement.executeUpdateDelete() == 0) {
+                        LogUtil.w("MutationApplier.applyToDatabase", "no rows updated");
+                    }
+                }
             }
-        }
 
-        if (!mutations.getDeletes().isEmpty()) {
-            LogUtil.i(
-                    "MutationApplier.applyToDatabase", "deleting %d rows", mutations.getDeletes().size());
+            if (!mutations.getDeletes().isEmpty()) {
+                LogUtil.i(
+                        "MutationApplier.applyToDatabase", "deleting %d rows", mutations.getDeletes().size());
 
-            // Batch the deletes into chunks of 999, the maximum size for SQLite selection args.
-            Iterable<List<Long>> batches = Iterables.partition(mutations.getDeletes(), 999);
-            for (List<Long> idsInBatch : batches) {
-                String[] questionMarks = new String[idsInBatch.size()];
-                Arrays.fill(questionMarks, "?");
+                // Batch the deletes into chunks of 999, the maximum size for SQLite selection args.
+                Iterable<List<Long>> batches = Iterables.partition(mutations.getDeletes(), 999);
+                for (List<Long> idsInBatch : batches) {
+                    String[] questionMarks = new String[idsInBatch.size()];
+                    Arrays.fill(questionMarks, "?");
 
-                String whereClause =
-                        (AnnotatedCallLog._ID + " in (") + TextUtils.join(",", questionMarks) + ")";
+                    String whereClause =
+                            (AnnotatedCallLog._ID + " in (") + TextUtils.join(",", questionMarks) + ")";
 
-                String[] whereArgs = new String[idsInBatch.size()];
-                int i = 0;
-                for (long id : idsInBatch) {
-                    whereArgs[i++] = String.valueOf(id);
-                }
+                    String[] whereArgs = new String[idsInBatch.size()];
+                    int i = 0;
+                    for (long id : idsInBatch) {
+                        whereArgs[i++] = String.valueOf(id);
+                    }
 
-                operations.add(
-                        ContentProviderOperation.newDelete(AnnotatedCallLog.CONTENT_URI)
-                                .withSelection(whereClause, whereArgs)
-                                .build());
+                    database.delete(AnnotatedCallLog.TABLE, whereClause, whereArgs);
+                }
+            }
+            if (!mutations.getInserts().isEmpty()) {
+                // Enforce the row cap once for the whole batch.
+                databaseHelper.trimToMaxRows(database);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            for (SQLiteStatement statement : statements.values()) {
+                statement.close();
             }
         }
+        appContext.getContentResolver().notifyChange(AnnotatedCallLog.CONTENT_URI, null);
+    }
 
-        appContext.getContentResolver().applyBatch(AnnotatedCallLogContract.AUTHORITY, operations);
+    private static SQLiteStatement getInsertStatement(
+            SQLiteDatabase database, Map<String, SQLiteStatement> statements, List<String> columns) {
+        String sql =
+                "insert into "
+                        + AnnotatedCallLog.TABLE
+                        + " ("
+                        + TextUtils.join(",", columns)
+                        + ") values ("
+                        + TextUtils.join(",", Collections.nCopies(columns.size(), "?"))
+                        + ")";
+        return getStatement(database, statements, sql);
+    }
+
+    private static SQLiteStatement getUpdateStatement(
+            SQLiteDatabase database, Map<String, SQLiteStatement> statements, List<String> columns) {
+        String sql =
+                "update "
+                        + AnnotatedCallLog.TABLE
+                        + " set "
+                        + TextUtils.join("=?,", columns)
+                        + "=? where "
+                        + AnnotatedCallLog._ID
+                        + "=?";
+        return getStatement(database, statements, sql);
+    }
+
+    /**
+     * Returns the compiled statement for {@code sql}, compiling it on first use. Rows from the same
+     * data sources have the same columns, so only a handful of statements are compiled per batch.
+     */
+    private static SQLiteStatement getStatement(
+            SQLiteDatabase database, Map<String, SQLiteStatement> statements, String sql) {
+        SQLiteStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = database.compileStatement(sql);
+            statements.put(sql, statement);
+        } else {
+            statement.clearBindings();
+        }
+        return statement;
+    }
+
+    private static void bindValues(
+            SQLiteStatement statement, ContentValues contentValues, List<String> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            DatabaseUtils.bindObjectToProgram(statement, i + 1, contentValues.get(columns.get(i)));
+        }
     }
 }
@@ -21,6 +21,7 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.database.Cursor;
+import android.net.Uri;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.provider.CallLog;
@@ -31,11 +32,9 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
-import android.telephony.PhoneNumberUtils;
 import android.text.TextUtils;
 import android.util.ArraySet;
 
-import com.fissy.dialer.DialerPhoneNumber;
 import com.fissy.dialer.calllog.database.AnnotatedCallLogDatabaseHelper;
 import com.fissy.dialer.calllog.database.contract.AnnotatedCallLogContract.AnnotatedCallLog;
 import com.fissy.dialer.calllog.datasources.CallLogDataSource;
@@ -44,7 +43,9 @@ import com.fissy.dialer.calllog.observer.MarkDirtyObserver;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.Annotations.BackgroundExecutor;
+import com.fissy.dialer.common.database.Selection;
 import com.fissy.dialer.compat.android.provider.VoicemailCompat;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.duo.Duo;
 import com.fissy.dialer.inject.ApplicationContext;
 import com.fissy.dialer.phonenumberproto.DialerPhoneNumberUtil;
@@ -60,6 +61,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -74,6 +76,24 @@ public class SystemCallLogDataSource implements CallLogDataSource {
 
     @VisibleForTesting
     static final String PREF_LAST_TIMESTAMP_PROCESSED = "systemCallLogLastTimestampProcessed";
+    @VisibleForTesting
+    static final String PREF_LAST_MAX_ID_PROCESSED = "systemCallLogLastMaxIdProcessed";
+    @VisibleForTesting
+    static final String PREF_LAST_ID_COUNT_PROCESSED = "systemCallLogLastIdCountProcessed";
+    @VisibleForTesting
+    static final String PREF_LAST_FULL_DELETE_SCAN = "systemCallLogLastFullDeleteScan";
+
+    /**
+     * How often every annotated call log id is checked against the system call log, regardless of
+     * what the id summary says.
+     */
+    private static final long FULL_DELETE_SCAN_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Number of system call log rows annotated per background task.
+     */
+    private static final int ANNOTATION_BATCH_SIZE = 100;
+
     private static final String[] PROJECTION_PRE_O =
             new String[]{
                     Calls._ID,
@@ -112,6 +132,12 @@ public class SystemCallLogDataSource implements CallLogDataSource {
     private final Duo duo;
     @Nullable
     private Long lastTimestampProcessed;
+    @Nullable
+    private Long lastMaxIdProcessed;
+    @Nullable
+    private Long lastIdCountProcessed;
+    @Nullable
+    private Long lastFullDeleteScan;
     private boolean isCallLogContentObserverRegistered = false;
 
     @Inject
@@ -180,6 +206,42 @@ public class SystemCallLogDataSource implements CallLogDataSource {
         return ids;
     }
 
+    /**
+     * Returns the ids in {@code rows} that already exist in the annotated call log.
+     */
+    private static Set<Long> getAnnotatedCallLogIdsThatMatch(
+            Context appContext, SystemCallLogRows rows) {
+        List<String> rowIds = new ArrayList<>(rows.size());
+        for (int row = 0; row < rows.size(); row++) {
+            rowIds.add(String.valueOf(rows.getId(row)));
+        }
+
+        ArraySet<Long> ids = new ArraySet<>();
+        for (List<String> idsInBatch : Iterables.partition(rowIds, 999)) {
+            Selection selection = Selection.column(AnnotatedCallLog._ID).in(idsInBatch);
+            try (Cursor annotatedCallLogCursor =
+                         appContext
+                                 .getContentResolver()
+                                 .query(
+                                         AnnotatedCallLog.CONTENT_URI,
+                                         new String[]{AnnotatedCallLog._ID},
+                                         selection.getSelection(),
+                                         selection.getSelectionArgs(),
+                                         null)) {
+
+                if (annotatedCallLogCursor == null) {
+                    LogUtil.e("SystemCallLogDataSource.getAnnotatedCallLogIdsThatMatch", "null cursor");
+                    return ids;
+                }
+
+                while (annotatedCallLogCursor.moveToNext()) {
+                    ids.add(annotatedCallLogCursor.getLong(0));
+                }
+            }
+        }
+        return ids;
+    }
+
     private static Set<Long> getIdsFromSystemCallLogThatMatch(
             Context appContext, Set<Long> matchingIds) {
         ArraySet<Long> ids = new ArraySet<>();
@@ -236,9 +298,8 @@ public class SystemCallLogDataSource implements CallLogDataSource {
         // column is unused). This means that we can't detect deletes without scanning the entire table,
         // which would be too slow. So, we just rely on content observers to trigger rebuilds when any
         // change is made to the system call log.
-        appContext
-                .getContentResolver()
-                .registerContentObserver(CallLog.Calls.CONTENT_URI_WITH_VOICEMAIL, true, markDirtyObserver);
+        ContentChangeHub.get(appContext)
+                .subscribe(CallLog.Calls.CONTENT_URI_WITH_VOICEMAIL, true, markDirtyObserver);
         isCallLogContentObserverRegistered = true;
 
         if (!PermissionsUtil.hasAddVoicemailPermissions(appContext)) {
@@ -246,14 +307,13 @@ public class SystemCallLogDataSource implements CallLogDataSource {
             return;
         }
         // TODO(uabdullah): Need to somehow register observers if user enables permission after launch?
-        appContext
-                .getContentResolver()
-                .registerContentObserver(VoicemailContract.Status.CONTENT_URI, true, markDirtyObserver);
+        ContentChangeHub.get(appContext)
+                .subscribe(VoicemailContract.Status.CONTENT_URI, true, markDirtyObserver);
     }
 
     @Override
     public void unregisterContentObservers() {
-        appContext.getContentResolver().unregisterContentObserver(markDirtyObserver);
+        ContentChangeHub.get(appContext).unsubscribe(markDirtyObserver);
         isCallLogContentObserverRegistered = false;
     }
 
@@ -262,7 +322,13 @@ public class SystemCallLogDataSource implements CallLogDataSource {
         ListenableFuture<Void> deleteSharedPref =
                 backgroundExecutorService.submit(
                         () -> {
-                            sharedPreferences.edit().remove(PREF_LAST_TIMESTAMP_PROCESSED).apply();
+                            sharedPreferences
+                                    .edit()
+                                    .remove(PREF_LAST_TIMESTAMP_PROCESSED)
+                                    .remove(PREF_LAST_MAX_ID_PROCESSED)
+                                    .remove(PREF_LAST_ID_COUNT_PROCESSED)
+                                    .remove(PREF_LAST_FULL_DELETE_SCAN)
+                                    .apply();
                             return null;
                         });
 
@@ -292,7 +358,7 @@ public class SystemCallLogDataSource implements CallLogDataSource {
 
     @Override
     public ListenableFuture<Void> fill(CallLogMutations mutations) {
-        return backgroundExecutorService.submit(() -> fillInternal(mutations));
+        return Futures.submitAsync(() -> fillInternal(mutations), backgroundExecutorService);
     }
 
     @Override
@@ -316,19 +382,34 @@ public class SystemCallLogDataSource implements CallLogDataSource {
     }
 
     @WorkerThread
-    private Void fillInternal(CallLogMutations mutations) {
+    private ListenableFuture<Void> fillInternal(CallLogMutations mutations) {
         Assert.isWorkerThread();
 
         lastTimestampProcessed = null;
+        lastMaxIdProcessed = null;
+        lastIdCountProcessed = null;
+        lastFullDeleteScan = null;
 
         if (!PermissionsUtil.hasPermission(appContext, permission.READ_CALL_LOG)) {
             LogUtil.i("SystemCallLogDataSource.fill", "no call log permissions");
-            return null;
+            return Futures.immediateFuture(null);
         }
 
         // This data source should always run first so the mutations should always be empty.
         Assert.checkArgument(mutations.isEmpty());
 
+        // Reading every annotated call log id is only needed to find deletes. Skip it unless the id
+        // summary shows rows went away or the periodic full scan is due.
+        boolean mayHaveDeletes = mayHaveDeletes();
+        long now = System.currentTimeMillis();
+        boolean fullDeleteScanDue =
+                now - sharedPreferences.getLong(PREF_LAST_FULL_DELETE_SCAN, 0L)
+                        >= FULL_DELETE_SCAN_INTERVAL_MILLIS;
+        if (!mayHaveDeletes && !fullDeleteScanDue) {
+            LogUtil.i("SystemCallLogDataSource.fill", "no deletes, skipping full scan");
+            return handleInsertsAndUpdates(appContext, mutations, null);
+        }
+
         Set<Long> annotatedCallLogIds = getAnnotatedCallLogIds(appContext);
 
         LogUtil.i(
@@ -336,29 +417,130 @@ public class SystemCallLogDataSource implements CallLogDataSource {
                 "found %d existing annotated call log ids",
                 annotatedCallLogIds.size());
 
-        handleInsertsAndUpdates(appContext, mutations, annotatedCallLogIds);
+        // Deletes are added first, the inserts and updates are added from whichever thread annotates
+        // the last batch.
         handleDeletes(appContext, annotatedCallLogIds, mutations);
-        return null;
+        lastFullDeleteScan = now;
+        return handleInsertsAndUpdates(appContext, mutations, annotatedCallLogIds);
+    }
+
+    /**
+     * Returns true if rows may have been deleted from the system call log since the last successful
+     * fill, and records the id summary to persist for the next one.
+     *
+     * <p>System call log ids are never reused and new rows always get a larger id than existing ones,
+     * so rows at or below the last max id processed can only go away. They are still all there if
+     * exactly as many of them are left as were recorded last time. This only reads the rows added
+     * since and probes the old rows at the recorded count, rather than reading every id.
+     */
+    @WorkerThread
+    private boolean mayHaveDeletes() {
+        long previousMaxId = sharedPreferences.getLong(PREF_LAST_MAX_ID_PROCESSED, -1L);
+        long previousCount = sharedPreferences.getLong(PREF_LAST_ID_COUNT_PROCESSED, -1L);
+
+        // Without a summary every id is counted once, the full scan runs in this fill anyway.
+        String newRowsSelection = previousCount < 0 ? null : Calls._ID + " > ?";
+        String[] newRowsSelectionArgs =
+                previousCount < 0 ? null : new String[]{Long.toString(previousMaxId)};
+        long maxId = previousMaxId;
+        int newCount;
+        try (Cursor cursor =
+                     appContext
+                             .getContentResolver()
+                             .query(
+                                     Calls.CONTENT_URI_WITH_VOICEMAIL,
+                                     new String[]{Calls._ID},
+                                     newRowsSelection,
+                                     newRowsSelectionArgs,
+                                     Calls._ID + " DESC")) {
+
+            if (cursor == null) {
+                LogUtil.e("SystemCallLogDataSource.mayHaveDeletes", "null cursor");
+                return true;
+            }
+            if (cursor.moveToFirst()) {
+                maxId = Math.max(maxId, cursor.getLong(0));
+            }
+            newCount = cursor.getCount();
+        }
+
+        boolean mayHaveDeletes = previousCount < 0 || !hasOldRowCount(previousMaxId, previousCount);
+        lastMaxIdProcessed = maxId;
+        lastIdCountProcessed = previousCount < 0 ? newCount : previousCount + newCount;
+        LogUtil.i(
+                "SystemCallLogDataSource.mayHaveDeletes",
+                "%d new rows, may have deletes: %b",
+                newCount,
+                mayHaveDeletes);
+        return mayHaveDeletes;
+    }
+
+    /**
+     * Returns true if exactly {@code count} rows with an id up to {@code maxId} are left, by checking
+     * that the row at offset {@code count - 1} exists and the one after it doesn't.
+     */
+    @WorkerThread
+    private boolean hasOldRowCount(long maxId, long count) {
+        Uri uri =
+                Calls.CONTENT_URI_WITH_VOICEMAIL
+                        .buildUpon()
+                        .appendQueryParameter(Calls.LIMIT_PARAM_KEY, count == 0 ? "1" : "2")
+                        .appendQueryParameter(
+                                Calls.OFFSET_PARAM_KEY, Long.toString(Math.max(0, count - 1)))
+                        .build();
+        try (Cursor cursor =
+                     appContext
+                             .getContentResolver()
+                             .query(
+                                     uri,
+                                     new String[]{Calls._ID},
+                                     Calls._ID + " <= ?",
+                                     new String[]{Long.toString(maxId)},
+                                     Calls._ID + " ASC")) {
+
+            if (cursor == null) {
+                LogUtil.e("SystemCallLogDataSource.hasOldRowCount", "null cursor");
+                return false;
+            }
+            return cursor.getCount() == (count == 0 ? 0 : 1);
+        }
     }
 
     @WorkerThread
     private Void onSuccessfulFillInternal() {
         // If a fill operation was a no-op, lastTimestampProcessed could still be null.
+        SharedPreferences.Editor editor = sharedPreferences.edit();
         if (lastTimestampProcessed != null) {
-            sharedPreferences
-                    .edit()
-                    .putLong(PREF_LAST_TIMESTAMP_PROCESSED, lastTimestampProcessed)
-                    .apply();
+            editor.putLong(PREF_LAST_TIMESTAMP_PROCESSED, lastTimestampProcessed);
+        }
+        if (lastMaxIdProcessed != null && lastIdCountProcessed != null) {
+            editor
+                    .putLong(PREF_LAST_MAX_ID_PROCESSED, lastMaxIdProcessed)
+                    .putLong(PREF_LAST_ID_COUNT_PROCESSED, lastIdCountProcessed);
+        }
+        if (lastFullDeleteScan != null) {
+            editor.putLong(PREF_LAST_FULL_DELETE_SCAN, lastFullDeleteScan);
         }
+        editor.apply();
         return null;
     }
 
-    private void handleInsertsAndUpdates(
-            Context appContext, CallLogMutations mutations, Set<Long> existingAnnotatedCallLogIds) {
+    /**
+     * Adds mutations for the system call log rows modified since the last fill. The rows are copied
+     * out of the cursor and then annotated in batches on the background executor, so the returned
+     * future completes once all of them were added to {@code mutations}.
+     *
+     * @param existingAnnotatedCallLogIds all annotated call log ids, or null to only look up the ids
+     *     of the modified rows
+     */
+    @WorkerThread
+    private ListenableFuture<Void> handleInsertsAndUpdates(
+            Context appContext,
+            CallLogMutations mutations,
+            @Nullable Set<Long> existingAnnotatedCallLogIds) {
         long previousTimestampProcessed = sharedPreferences.getLong(PREF_LAST_TIMESTAMP_PROCESSED, 0L);
 
-        DialerPhoneNumberUtil dialerPhoneNumberUtil = new DialerPhoneNumberUtil();
-
+        SystemCallLogRows rows;
         // TODO(zachh): Really should be getting last 1000 by timestamp, not by last modified.
         try (Cursor cursor =
                      appContext
@@ -372,120 +554,76 @@ public class SystemCallLogDataSource implements CallLogDataSource {
 
             if (cursor == null) {
                 LogUtil.e("SystemCallLogDataSource.handleInsertsAndUpdates", "null cursor");
-                return;
+                return Futures.immediateFuture(null);
             }
 
-            if (!cursor.moveToFirst()) {
+            if (cursor.getCount() == 0) {
                 LogUtil.i("SystemCallLogDataSource.handleInsertsAndUpdates", "no entries to insert/update");
-                return;
+                return Futures.immediateFuture(null);
             }
 
             LogUtil.i(
                     "SystemCallLogDataSource.handleInsertsAndUpdates",
                     "found %d entries to insert/update",
                     cursor.getCount());
+            rows = new SystemCallLogRows(cursor);
+        }
 
-            int idColumn = cursor.getColumnIndexOrThrow(Calls._ID);
-            int dateColumn = cursor.getColumnIndexOrThrow(Calls.DATE);
-            int lastModifiedColumn = cursor.getColumnIndexOrThrow(Calls.LAST_MODIFIED);
-            int numberColumn = cursor.getColumnIndexOrThrow(Calls.NUMBER);
-            int presentationColumn = cursor.getColumnIndexOrThrow(Calls.NUMBER_PRESENTATION);
-            int typeColumn = cursor.getColumnIndexOrThrow(Calls.TYPE);
-            int countryIsoColumn = cursor.getColumnIndexOrThrow(Calls.COUNTRY_ISO);
-            int durationsColumn = cursor.getColumnIndexOrThrow(Calls.DURATION);
-            int dataUsageColumn = cursor.getColumnIndexOrThrow(Calls.DATA_USAGE);
-            int transcriptionColumn = cursor.getColumnIndexOrThrow(Calls.TRANSCRIPTION);
-            int voicemailUriColumn = cursor.getColumnIndexOrThrow(Calls.VOICEMAIL_URI);
-            int isReadColumn = cursor.getColumnIndexOrThrow(Calls.IS_READ);
-            int newColumn = cursor.getColumnIndexOrThrow(Calls.NEW);
-            int geocodedLocationColumn = cursor.getColumnIndexOrThrow(Calls.GEOCODED_LOCATION);
-            int phoneAccountComponentColumn =
-                    cursor.getColumnIndexOrThrow(Calls.PHONE_ACCOUNT_COMPONENT_NAME);
-            int phoneAccountIdColumn = cursor.getColumnIndexOrThrow(Calls.PHONE_ACCOUNT_ID);
-            int featuresColumn = cursor.getColumnIndexOrThrow(Calls.FEATURES);
-            int postDialDigitsColumn = cursor.getColumnIndexOrThrow(Calls.POST_DIAL_DIGITS);
-
-            // The cursor orders by LAST_MODIFIED DESC, so the first result is the most recent timestamp
-            // processed.
-            lastTimestampProcessed = cursor.getLong(lastModifiedColumn);
-            do {
-                long id = cursor.getLong(idColumn);
-                long date = cursor.getLong(dateColumn);
-                String numberAsStr = cursor.getString(numberColumn);
-                int type;
-                if (cursor.isNull(typeColumn) || (type = cursor.getInt(typeColumn)) == 0) {
-                    // CallLog.Calls#TYPE lists the allowed values, which are non-null and non-zero.
-                    throw new IllegalStateException("call type is missing");
-                }
-                int presentation;
-                if (cursor.isNull(presentationColumn)
-                        || (presentation = cursor.getInt(presentationColumn)) == 0) {
-                    // CallLog.Calls#NUMBER_PRESENTATION lists the allowed values, which are non-null and
-                    // non-zero.
-                    throw new IllegalStateException("presentation is missing");
-                }
-                String countryIso = cursor.getString(countryIsoColumn);
-                int duration = cursor.getInt(durationsColumn);
-                int dataUsage = cursor.getInt(dataUsageColumn);
-                String transcription = cursor.getString(transcriptionColumn);
-                String voicemailUri = cursor.getString(voicemailUriColumn);
-                int isRead = cursor.getInt(isReadColumn);
-                int isNew = cursor.getInt(newColumn);
-                String geocodedLocation = cursor.getString(geocodedLocationColumn);
-                String phoneAccountComponentName = cursor.getString(phoneAccountComponentColumn);
-                String phoneAccountId = cursor.getString(phoneAccountIdColumn);
-                int features = cursor.getInt(featuresColumn);
-                String postDialDigits = cursor.getString(postDialDigitsColumn);
-
-                // Exclude Duo audio calls.
-                if (isDuoAudioCall(phoneAccountComponentName, features)) {
-                    continue;
-                }
+        // The cursor orders by LAST_MODIFIED DESC, so the first result is the most recent timestamp
+        // processed.
+        lastTimestampProcessed = rows.getLastModified(0);
 
-                ContentValues contentValues = new ContentValues();
-                contentValues.put(AnnotatedCallLog.TIMESTAMP, date);
+        Set<Long> existingIds =
+                existingAnnotatedCallLogIds == null
+                        ? getAnnotatedCallLogIdsThatMatch(appContext, rows)
+                        : existingAnnotatedCallLogIds;
 
-                if (!TextUtils.isEmpty(numberAsStr)) {
-                    String numberWithPostDialDigits =
-                            postDialDigits == null ? numberAsStr : numberAsStr + postDialDigits;
-                    DialerPhoneNumber dialerPhoneNumber =
-                            dialerPhoneNumberUtil.parse(numberWithPostDialDigits, countryIso);
+        List<ListenableFuture<ContentValues[]>> batches = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += ANNOTATION_BATCH_SIZE) {
+            int batchStart = start;
+            int batchEnd = Math.min(start + ANNOTATION_BATCH_SIZE, rows.size());
+            batches.add(backgroundExecutorService.submit(() -> annotateRows(rows, batchStart, batchEnd)));
+        }
 
-                    contentValues.put(AnnotatedCallLog.NUMBER, dialerPhoneNumber.toByteArray());
-                    String formattedNumber =
-                            PhoneNumberUtils.formatNumber(numberWithPostDialDigits, countryIso);
-                    if (formattedNumber == null) {
-                        formattedNumber = numberWithPostDialDigits;
+        // Batches complete in any order, allAsList keeps them in row order.
+        return Futures.transform(
+                Futures.allAsList(batches),
+                annotatedBatches -> {
+                    int row = 0;
+                    for (ContentValues[] annotatedBatch : annotatedBatches) {
+                        for (ContentValues contentValues : annotatedBatch) {
+                            long id = rows.getId(row++);
+                            if (contentValues == null) {
+                                continue;
+                            }
+                            if (existingIds.contains(id)) {
+                                mutations.update(id, contentValues);
+                            } else {
+                                mutations.insert(id, contentValues);
+                            }
+                        }
                     }
-                    contentValues.put(AnnotatedCallLog.FORMATTED_NUMBER, formattedNumber);
-                } else {
-                    contentValues.put(
-                            AnnotatedCallLog.NUMBER, DialerPhoneNumber.getDefaultInstance().toByteArray());
-                }
-                contentValues.put(AnnotatedCallLog.NUMBER_PRESENTATION, presentation);
-                contentValues.put(AnnotatedCallLog.CALL_TYPE, type);
-                contentValues.put(AnnotatedCallLog.IS_READ, isRead);
-                contentValues.put(AnnotatedCallLog.NEW, isNew);
-                contentValues.put(AnnotatedCallLog.GEOCODED_LOCATION, geocodedLocation);
-                contentValues.put(AnnotatedCallLog.PHONE_ACCOUNT_COMPONENT_NAME, phoneAccountComponentName);
-                contentValues.put(AnnotatedCallLog.PHONE_ACCOUNT_ID, phoneAccountId);
-                contentValues.put(AnnotatedCallLog.FEATURES, features);
-                contentValues.put(AnnotatedCallLog.DURATION, duration);
-                contentValues.put(AnnotatedCallLog.DATA_USAGE, dataUsage);
-                contentValues.put(AnnotatedCallLog.TRANSCRIPTION, transcription);
-                contentValues.put(AnnotatedCallLog.VOICEMAIL_URI, voicemailUri);
-
-                contentValues.put(AnnotatedCallLog.CALL_MAPPING_ID, String.valueOf(date));
-
-                setTranscriptionState(cursor, contentValues);
-
-                if (existingAnnotatedCallLogIds.contains(id)) {
-                    mutations.update(id, contentValues);
-                } else {
-                    mutations.insert(id, contentValues);
-                }
-            } while (cursor.moveToNext());
+                    return null;
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Returns the annotated call log values of rows {@code start} (inclusive) to {@code end}
+     * (exclusive), with null for rows that are excluded from the annotated call log.
+     */
+    @WorkerThread
+    private ContentValues[] annotateRows(SystemCallLogRows rows, int start, int end) {
+        DialerPhoneNumberUtil dialerPhoneNumberUtil = new DialerPhoneNumberUtil();
+        ContentValues[] annotatedRows = new ContentValues[end - start];
+        for (int row = start; row < end; row++) {
+            // Exclude Duo audio calls.
+            if (isDuoAudioCall(rows.getPhoneAccountComponentName(row), rows.getFeatures(row))) {
+                continue;
+            }
+            annotatedRows[row - start] = rows.toContentValues(row, dialerPhoneNumberUtil);
         }
+        return annotatedRows;
     }
 
     /**
@@ -506,15 +644,6 @@ public class SystemCallLogDataSource implements CallLogDataSource {
                 && ((features & Calls.FEATURES_VIDEO) != Calls.FEATURES_VIDEO);
     }
 
-    private void setTranscriptionState(Cursor cursor, ContentValues contentValues) {
-        if (VERSION.SDK_INT >= VERSION_CODES.O) {
-            int transcriptionStateColumn =
-                    cursor.getColumnIndexOrThrow(VoicemailCompat.TRANSCRIPTION_STATE);
-            int transcriptionState = cursor.getInt(transcriptionStateColumn);
-            contentValues.put(VoicemailCompat.TRANSCRIPTION_STATE, transcriptionState);
-        }
-    }
-
     private String[] getProjection() {
         if (VERSION.SDK_INT >= VERSION_CODES.O) {
             return PROJECTION_O_AND_LATER;
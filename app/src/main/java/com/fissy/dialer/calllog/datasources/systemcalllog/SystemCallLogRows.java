@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.calllog.datasources.systemcalllog;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.provider.CallLog.Calls;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import android.telephony.PhoneNumberUtils;
+import android.text.TextUtils;
+
+import com.fissy.dialer.DialerPhoneNumber;
+import com.fissy.dialer.calllog.database.contract.AnnotatedCallLogContract.AnnotatedCallLog;
+import com.fissy.dialer.compat.android.provider.VoicemailCompat;
+import com.fissy.dialer.phonenumberproto.DialerPhoneNumberUtil;
+
+/**
+ * The system call log rows to insert or update, copied column by column out of the cursor so the
+ * cursor can be closed and the rows annotated on several threads.
+ *
+ * <p>Instances are not modified after construction and can be read from any thread.
+ */
+final class SystemCallLogRows {
+
+    private final int size;
+    private final long[] ids;
+    private final long[] dates;
+    private final long[] lastModifieds;
+    private final String[] numbers;
+    private final int[] presentations;
+    private final int[] types;
+    private final String[] countryIsos;
+    private final int[] durations;
+    private final int[] dataUsages;
+    private final String[] transcriptions;
+    private final String[] voicemailUris;
+    private final int[] isReads;
+    private final int[] isNews;
+    private final String[] geocodedLocations;
+    private final String[] phoneAccountComponentNames;
+    private final String[] phoneAccountIds;
+    private final int[] features;
+    private final String[] postDialDigits;
+    @Nullable
+    private final int[] transcriptionStates;
+
+    /**
+     * Copies every row of {@code cursor}, which must have been queried with the system call log data
+     * source's projection.
+     *
+     * @throws IllegalStateException if a row is missing its call type or number presentation
+     */
+    SystemCallLogRows(Cursor cursor) {
+        size = cursor.getCount();
+        ids = new long[size];
+        dates = new long[size];
+        lastModifieds = new long[size];
+        numbers = new String[size];
+        presentations = new int[size];
+        types = new int[size];
+        countryIsos = new String[size];
+        durations = new int[size];
+        dataUsages = new int[size];
+        transcriptions = new String[size];
+        voicemailUris = new String[size];
+        isReads = new int[size];
+        isNews = new int[size];
+        geocodedLocations = new String[size];
+        phoneAccountComponentNames = new String[size];
+        phoneAccountIds = new String[size];
+        features = new int[size];
+        postDialDigits = new String[size];
+        transcriptionStates = VERSION.SDK_INT >= VERSION_CODES.O ? new int[size] : null;
+
+        int idColumn = cursor.getColumnIndexOrThrow(Calls._ID);
+        int dateColumn = cursor.getColumnIndexOrThrow(Calls.DATE);
+        int lastModifiedColumn = cursor.getColumnIndexOrThrow(Calls.LAST_MODIFIED);
+        int numberColumn = cursor.getColumnIndexOrThrow(Calls.NUMBER);
+        int presentationColumn = cursor.getColumnIndexOrThrow(Calls.NUMBER_PRESENTATION);
+        int typeColumn = cursor.getColumnIndexOrThrow(Calls.TYPE);
+        int countryIsoColumn = cursor.getColumnIndexOrThrow(Calls.COUNTRY_ISO);
+        int durationsColumn = cursor.getColumnIndexOrThrow(Calls.DURATION);
+        int dataUsageColumn = cursor.getColumnIndexOrThrow(Calls.DATA_USAGE);
+        int transcriptionColumn = cursor.getColumnIndexOrThrow(Calls.TRANSCRIPTION);
+        int voicemailUriColumn = cursor.getColumnIndexOrThrow(Calls.VOICEMAIL_URI);
+        int isReadColumn = cursor.getColumnIndexOrThrow(Calls.IS_READ);
+        int newColumn = cursor.getColumnIndexOrThrow(Calls.NEW);
+        int geocodedLocationColumn = cursor.getColumnIndexOrThrow(Calls.GEOCODED_LOCATION);
+        int phoneAccountComponentColumn =
+                cursor.getColumnIndexOrThrow(Calls.PHONE_ACCOUNT_COMPONENT_NAME);
+        int phoneAccountIdColumn = cursor.getColumnIndexOrThrow(Calls.PHONE_ACCOUNT_ID);
+        int featuresColumn = cursor.getColumnIndexOrThrow(Calls.FEATURES);
+        int postDialDigitsColumn = cursor.getColumnIndexOrThrow(Calls.POST_DIAL_DIGITS);
+        int transcriptionStateColumn =
+                transcriptionStates == null
+                        ? -1
+                        : cursor.getColumnIndexOrThrow(VoicemailCompat.TRANSCRIPTION_STATE);
+
+        int i = 0;
+        for (boolean hasRow = cursor.moveToFirst(); hasRow; hasRow = cursor.moveToNext(), i++) {
+            ids[i] = cursor.getLong(idColumn);
+            dates[i] = cursor.getLong(dateColumn);
+            lastModifieds[i] = cursor.getLong(lastModifiedColumn);
+            numbers[i] = cursor.getString(numberColumn);
+            if (cursor.isNull(typeColumn) || (types[i] = cursor.getInt(typeColumn)) == 0) {
+                // CallLog.Calls#TYPE lists the allowed values, which are non-null and non-zero.
+                throw new IllegalStateException("call type is missing");
+            }
+            if (cursor.isNull(presentationColumn)
+                    || (presentations[i] = cursor.getInt(presentationColumn)) == 0) {
+                // CallLog.Calls#NUMBER_PRESENTATION lists the allowed values, which are non-null and
+                // non-zero.
+                throw new IllegalStateException("presentation is missing");
+            }
+            countryIsos[i] = cursor.getString(countryIsoColumn);
+            durations[i] = cursor.getInt(durationsColumn);
+            dataUsages[i] = cursor.getInt(dataUsageColumn);
+            transcriptions[i] = cursor.getString(transcriptionColumn);
+            voicemailUris[i] = cursor.getString(voicemailUriColumn);
+            isReads[i] = cursor.getInt(isReadColumn);
+            isNews[i] = cursor.getInt(newColumn);
+            geocodedLocations[i] = cursor.getString(geocodedLocationColumn);
+            phoneAccountComponentNames[i] = cursor.getString(phoneAccountComponentColumn);
+            phoneAccountIds[i] = cursor.getString(phoneAccountIdColumn);
+            features[i] = cursor.getInt(featuresColumn);
+            postDialDigits[i] = cursor.getString(postDialDigitsColumn);
+            if (transcriptionStates != null) {
+                transcriptionStates[i] = cursor.getInt(transcriptionStateColumn);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getId(int row) {
+        return ids[row];
+    }
+
+    long getLastModified(int row) {
+        return lastModifieds[row];
+    }
+
+    @Nullable
+    String getPhoneAccountComponentName(int row) {
+        return phoneAccountComponentNames[row];
+    }
+
+    int getFeatures(int row) {
+        return features[row];
+    }
+
+    /**
+     * Builds the annotated call log values of {@code row}. This parses and formats the number, which
+     * is the expensive part of a fill.
+     */
+    @WorkerThread
+    ContentValues toContentValues(int row, DialerPhoneNumberUtil dialerPhoneNumberUtil) {
+        ContentValues contentValues = new ContentValues();
+        contentValues.put(AnnotatedCallLog.TIMESTAMP, dates[row]);
+
+        String numberAsStr = numbers[row];
+        String countryIso = countryIsos[row];
+        if (!TextUtils.isEmpty(numberAsStr)) {
+            String numberWithPostDialDigits =
+                    postDialDigits[row] == null ? numberAsStr : numberAsStr + postDialDigits[row];
+            DialerPhoneNumber dialerPhoneNumber =
+                    dialerPhoneNumberUtil.parse(numberWithPostDialDigits, countryIso);
+
+            contentValues.put(AnnotatedCallLog.NUMBER, dialerPhoneNumber.toByteArray());
+            String formattedNumber = PhoneNumberUtils.formatNumber(numberWithPostDialDigits, countryIso);
+            if (formattedNumber == null) {
+                formattedNumber = numberWithPostDialDigits;
+            }
+            contentValues.put(AnnotatedCallLog.FORMATTED_NUMBER, formattedNumber);
+        } else {
+            contentValues.put(
+                    AnnotatedCallLog.NUMBER, DialerPhoneNumber.getDefaultInstance().toByteArray());
+        }
+        contentValues.put(AnnotatedCallLog.NUMBER_PRESENTATION, presentations[row]);
+        contentValues.put(AnnotatedCallLog.CALL_TYPE, types[row]);
+        contentValues.put(AnnotatedCallLog.IS_READ, isReads[row]);
+        contentValues.put(AnnotatedCallLog.NEW, isNews[row]);
+        contentValues.put(AnnotatedCallLog.GEOCODED_LOCATION, geocodedLocations[row]);
+        contentValues.put(
+                AnnotatedCallLog.PHONE_ACCOUNT_COMPONENT_NAME, phoneAccountComponentNames[row]);
+        contentValues.put(AnnotatedCallLog.PHONE_ACCOUNT_ID, phoneAccountIds[row]);
+        contentValues.put(AnnotatedCallLog.FEATURES, features[row]);
+        contentValues.put(AnnotatedCallLog.DURATION, durations[row]);
+        contentValues.put(AnnotatedCallLog.DATA_USAGE, dataUsages[row]);
+        contentValues.put(AnnotatedCallLog.TRANSCRIPTION, transcriptions[row]);
+        contentValues.put(AnnotatedCallLog.VOICEMAIL_URI, voicemailUris[row]);
+
+        contentValues.put(AnnotatedCallLog.CALL_MAPPING_ID, String.valueOf(dates[row]));
+
+        if (transcriptionStates != null) {
+            contentValues.put(VoicemailCompat.TRANSCRIPTION_STATE, transcriptionStates[row]);
+        }
+        return contentValues;
+    }
+}
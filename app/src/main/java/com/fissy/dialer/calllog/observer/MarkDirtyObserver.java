@@ -19,20 +19,26 @@ package com.fissy.dialer.calllog.observer;
 import android.database.ContentObserver;
 import android.net.Uri;
 import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
 import com.fissy.dialer.calllog.notifier.RefreshAnnotatedCallLogNotifier;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.ThreadUtil;
+import com.fissy.dialer.contentchange.ContentChangeHub;
+import com.fissy.dialer.contentchange.ContentChangeHub.ChangeSummary;
 
 import javax.inject.Inject;
 
 /**
  * Mark the annotated call log as dirty and notify that a refresh is in order when the content
  * changes.
+ *
+ * <p>Subscribe it with {@link ContentChangeHub} so bursts of changes only mark the call log dirty
+ * once.
  */
-public final class MarkDirtyObserver extends ContentObserver {
+public final class MarkDirtyObserver extends ContentObserver implements ContentChangeHub.Listener {
 
     private final RefreshAnnotatedCallLogNotifier refreshAnnotatedCallLogNotifier;
 
@@ -52,4 +58,13 @@ public final class MarkDirtyObserver extends ContentObserver {
 
         refreshAnnotatedCallLogNotifier.markDirtyAndNotify();
     }
+
+    @MainThread
+    @Override
+    public void onContentChanged(@NonNull ChangeSummary summary) {
+        Assert.isMainThread();
+        LogUtil.i("MarkDirtyObserver.onContentChanged", "%s", summary);
+
+        refreshAnnotatedCallLogNotifier.markDirtyAndNotify();
+    }
 }
@@ -17,23 +17,35 @@
 package com.fissy.dialer.calllog.ui;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.provider.CallLog.Calls;
 import androidx.loader.content.CursorLoader;
 
 import com.fissy.dialer.calllog.database.contract.AnnotatedCallLogContract.AnnotatedCallLog;
 
 /**
- * Cursor loader for {@link AnnotatedCallLog}.
+ * Cursor loader for the newest {@code rowLimit} rows of {@link AnnotatedCallLog}.
  */
 final class AnnotatedCallLogCursorLoader extends CursorLoader {
 
-    AnnotatedCallLogCursorLoader(Context context) {
+    private final int rowLimit;
+
+    AnnotatedCallLogCursorLoader(Context context, int rowLimit) {
         super(
                 context,
                 AnnotatedCallLog.CONTENT_URI,
                 /* projection = */ null,
                 /* selection = */ AnnotatedCallLog.CALL_TYPE + " != ?",
                 /* selectionArgs = */ new String[]{Integer.toString(Calls.VOICEMAIL_TYPE)},
-                /* sortOrder = */ AnnotatedCallLog.TIMESTAMP + " DESC");
+                /* sortOrder = */ AnnotatedCallLog.TIMESTAMP + " DESC LIMIT " + rowLimit);
+        this.rowLimit = rowLimit;
+    }
+
+    /**
+     * Returns true if {@code cursor} loaded by this loader may not contain all rows, i.e. there may
+     * be older rows to load.
+     */
+    boolean hasMoreRows(Cursor cursor) {
+        return cursor.getCount() >= rowLimit;
     }
 }
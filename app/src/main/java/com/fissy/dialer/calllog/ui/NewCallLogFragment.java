@@ -69,6 +69,22 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
     static final long MARK_ALL_CALLS_READ_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(3);
     private static final int PHONE_PERMISSIONS_REQUEST_CODE = 1;
     private static final int LOADER_ID = 0;
+
+    /**
+     * Number of {@link com.fissy.dialer.calllog.database.contract.AnnotatedCallLogContract
+     * AnnotatedCallLog} rows loaded first, and added each time the user scrolls near the end.
+     */
+    @VisibleForTesting
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * How many items before the end of the list loading the next page starts.
+     */
+    private static final int LOAD_MORE_THRESHOLD = 20;
+
+    private int rowLimit = PAGE_SIZE;
+    private boolean hasMoreRows;
+    private boolean isLoadingMoreRows;
     private RecyclerView recyclerView;
     private EmptyContentView emptyContentView;
     private RefreshAnnotatedCallLogReceiver refreshAnnotatedCallLogReceiver;
@@ -226,6 +242,13 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
         recyclerView.addOnScrollListener(
                 new RecyclerViewJankLogger(
                         MetricsComponent.get(getContext()).metrics(), Metrics.NEW_CALL_LOG_JANK_EVENT_NAME));
+        recyclerView.addOnScrollListener(
+                new RecyclerView.OnScrollListener() {
+                    @Override
+                    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                        maybeLoadMoreRows();
+                    }
+                });
 
         emptyContentView = view.findViewById(R.id.new_call_log_empty_content_view);
         configureEmptyContentView();
@@ -236,6 +259,9 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
                                 getChildFragmentManager(),
                                 /* taskId = */ "NewCallLogFragment.coalescingAnnotatedCallLog");
 
+        rowLimit = PAGE_SIZE;
+        hasMoreRows = false;
+        isLoadingMoreRows = false;
         if (PermissionsUtil.hasCallLogReadPermissions(getContext())) {
             getLoaderManager().restartLoader(LOADER_ID, null, this);
         }
@@ -243,6 +269,28 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
         return view;
     }
 
+    /**
+     * Loads the next page of older rows if the user scrolled near the end of the rows loaded so far.
+     *
+     * <p>The loader is restarted with a larger limit rather than querying only the older rows, so
+     * groups spanning a page boundary are coalesced correctly and the content observer keeps covering
+     * every row on screen. The loaded rows never exceed the table's row cap.
+     */
+    private void maybeLoadMoreRows() {
+        if (!hasMoreRows || isLoadingMoreRows || recyclerView.getAdapter() == null) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager.findLastVisibleItemPosition()
+                < recyclerView.getAdapter().getItemCount() - LOAD_MORE_THRESHOLD) {
+            return;
+        }
+        isLoadingMoreRows = true;
+        rowLimit += PAGE_SIZE;
+        LogUtil.i("NewCallLogFragment.maybeLoadMoreRows", "loading up to %d rows", rowLimit);
+        getLoaderManager().restartLoader(LOADER_ID, null, this);
+    }
+
     private void configureEmptyContentView() {
         emptyContentView.setImage(R.drawable.quantum_ic_query_builder_vd_theme_24);
         emptyContentView.setDescription(R.string.new_call_log_permission_no_calllog);
@@ -271,7 +319,7 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
     @Override
     public Loader<Cursor> onCreateLoader(int id, Bundle args) {
         LogUtil.enterBlock("NewCallLogFragment.onCreateLoader");
-        return new AnnotatedCallLogCursorLoader(Assert.isNotNull(getContext()));
+        return new AnnotatedCallLogCursorLoader(Assert.isNotNull(getContext()), rowLimit);
     }
 
     @Override
@@ -282,19 +330,25 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
             // This might be possible when the annotated call log hasn't been created but we're trying
             // to show the call log.
             LogUtil.w("NewCallLogFragment.onLoadFinished", "null cursor");
+            isLoadingMoreRows = false;
             return;
         }
 
         // Start combining adjacent rows which should be collapsed for display purposes.
         // This is a time-consuming process so we will do it in the background.
+        boolean cursorHasMoreRows = ((AnnotatedCallLogCursorLoader) loader).hasMoreRows(newCursor);
         ListenableFuture<ImmutableList<CoalescedRow>> coalescedRowsFuture =
-                CallLogDatabaseComponent.get(getContext()).coalescer().coalesce(newCursor);
+                CallLogDatabaseComponent.get(getContext())
+                        .coalescer()
+                        .coalesce(newCursor, cursorHasMoreRows);
 
         coalesingAnnotatedCallLogListener.listen(
                 getContext(),
                 coalescedRowsFuture,
                 coalescedRows -> {
                     LogUtil.i("NewCallLogFragment.onLoadFinished", "coalescing succeeded");
+                    hasMoreRows = cursorHasMoreRows;
+                    isLoadingMoreRows = false;
 
                     // TODO(zachh): Handle empty cursor by showing empty view.
                     if (recyclerView.getAdapter() == null) {
@@ -315,8 +369,12 @@ public final class NewCallLogFragment extends Fragment implements LoaderCallback
                     } else {
                         ((NewCallLogAdapter) recyclerView.getAdapter()).updateRows(coalescedRows);
                     }
+                    // The page may not fill the screen, e.g. if most of its rows were coalesced.
+                    recyclerView.post(this::maybeLoadMoreRows);
                 },
                 throwable -> {
+                    // Lets the next scroll load more rows again, whatever the failure was.
+                    isLoadingMoreRows = false;
                     // Coalescing can fail if the cursor passed to Coalescer is closed by the loader while
                     // the work is still in progress.
                     // This can happen when the loader restarts and finishes loading data before the
@@ -20,6 +20,7 @@ import com.fissy.dialer.commandline.impl.ActiveCallsCommand;
 import com.fissy.dialer.commandline.impl.BlockingCommand;
 import com.fissy.dialer.commandline.impl.CallCommand;
 import com.fissy.dialer.commandline.impl.Echo;
+import com.fissy.dialer.commandline.impl.ExecutorsCommand;
 import com.fissy.dialer.commandline.impl.Help;
 import com.fissy.dialer.commandline.impl.Version;
 import com.fissy.dialer.function.Supplier;
@@ -56,6 +57,7 @@ public abstract class CommandLineModule {
         private final BlockingCommand blockingCommand;
         private final CallCommand callCommand;
         private final ActiveCallsCommand activeCallsCommand;
+        private final ExecutorsCommand executorsCommand;
 
         @Inject
         AospCommandInjector(
@@ -64,13 +66,15 @@ public abstract class CommandLineModule {
                 Echo echo,
                 BlockingCommand blockingCommand,
                 CallCommand callCommand,
-                ActiveCallsCommand activeCallsCommand) {
+                ActiveCallsCommand activeCallsCommand,
+                ExecutorsCommand executorsCommand) {
             this.help = help;
             this.version = version;
             this.echo = echo;
             this.blockingCommand = blockingCommand;
             this.callCommand = callCommand;
             this.activeCallsCommand = activeCallsCommand;
+            this.executorsCommand = executorsCommand;
         }
 
         public CommandSupplier.Builder inject(CommandSupplier.Builder builder) {
@@ -80,6 +84,7 @@ public abstract class CommandLineModule {
             builder.addCommand("blocking", blockingCommand);
             builder.addCommand("call", callCommand);
             builder.addCommand("activecalls", activeCallsCommand);
+            builder.addCommand("executors", executorsCommand);
             return builder;
         }
     }
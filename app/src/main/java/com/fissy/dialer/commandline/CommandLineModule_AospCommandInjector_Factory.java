@@ -4,6 +4,7 @@ import com.fissy.dialer.commandline.impl.ActiveCallsCommand;
 import com.fissy.dialer.commandline.impl.BlockingCommand;
 import com.fissy.dialer.commandline.impl.CallCommand;
 import com.fissy.dialer.commandline.impl.Echo;
+import com.fissy.dialer.commandline.impl.ExecutorsCommand;
 import com.fissy.dialer.commandline.impl.Help;
 import com.fissy.dialer.commandline.impl.Version;
 
@@ -30,13 +31,16 @@ public final class CommandLineModule_AospCommandInjector_Factory
 
     private final Provider<ActiveCallsCommand> activeCallsCommandProvider;
 
+    private final Provider<ExecutorsCommand> executorsCommandProvider;
+
     public CommandLineModule_AospCommandInjector_Factory(
             Provider<Help> helpProvider,
             Provider<Version> versionProvider,
             Provider<Echo> echoProvider,
             Provider<BlockingCommand> blockingCommandProvider,
             Provider<CallCommand> callCommandProvider,
-            Provider<ActiveCallsCommand> activeCallsCommandProvider) {
+            Provider<ActiveCallsCommand> activeCallsCommandProvider,
+            Provider<ExecutorsCommand> executorsCommandProvider) {
         assert helpProvider != null;
         this.helpProvider = helpProvider;
         assert versionProvider != null;
@@ -49,6 +53,8 @@ public final class CommandLineModule_AospCommandInjector_Factory
         this.callCommandProvider = callCommandProvider;
         assert activeCallsCommandProvider != null;
         this.activeCallsCommandProvider = activeCallsCommandProvider;
+        assert executorsCommandProvider != null;
+        this.executorsCommandProvider = executorsCommandProvider;
     }
 
     public static Factory<CommandLineModule.AospCommandInjector> create(
@@ -57,14 +63,16 @@ public final class CommandLineModule_AospCommandInjector_Factory
             Provider<Echo> echoProvider,
             Provider<BlockingCommand> blockingCommandProvider,
             Provider<CallCommand> callCommandProvider,
-            Provider<ActiveCallsCommand> activeCallsCommandProvider) {
+            Provider<ActiveCallsCommand> activeCallsCommandProvider,
+            Provider<ExecutorsCommand> executorsCommandProvider) {
         return new CommandLineModule_AospCommandInjector_Factory(
                 helpProvider,
                 versionProvider,
                 echoProvider,
                 blockingCommandProvider,
                 callCommandProvider,
-                activeCallsCommandProvider);
+                activeCallsCommandProvider,
+                executorsCommandProvider);
     }
 
     @Override
@@ -75,6 +83,7 @@ public final class CommandLineModule_AospCommandInjector_Factory
                 echoProvider.get(),
                 blockingCommandProvider.get(),
                 callCommandProvider.get(),
-                activeCallsCommandProvider.get());
+                activeCallsCommandProvider.get(),
+                executorsCommandProvider.get());
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.commandline.impl;
+
+import androidx.annotation.NonNull;
+
+import com.fissy.dialer.commandline.Arguments;
+import com.fissy.dialer.commandline.Command;
+import com.fissy.dialer.common.concurrent.ExecutorStats;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import javax.inject.Inject;
+
+/**
+ * Print the pool sizes and the task latency histograms of the dialer executors.
+ */
+public class ExecutorsCommand implements Command {
+
+    @Inject
+    ExecutorsCommand() {
+    }
+
+    @NonNull
+    @Override
+    public String getShortDescription() {
+        return "Print executor queue and latency stats";
+    }
+
+    @NonNull
+    @Override
+    public String getUsage() {
+        return "executors [reset]";
+    }
+
+    @Override
+    public ListenableFuture<String> run(Arguments args) throws IllegalCommandLineArgumentException {
+        String dump = ExecutorStats.get().dump();
+        if (args.getPositionals().isEmpty()) {
+            return Futures.immediateFuture(dump);
+        }
+        if (!"reset".equals(args.getPositionals().get(0))) {
+            throw new IllegalCommandLineArgumentException("unknown argument");
+        }
+        ExecutorStats.get().reset();
+        return Futures.immediateFuture(dump);
+    }
+}
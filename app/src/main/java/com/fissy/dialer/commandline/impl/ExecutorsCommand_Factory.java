@@ -0,0 +1,22 @@
+package com.fissy.dialer.commandline.impl;
+
+import javax.annotation.Generated;
+
+import dagger.internal.Factory;
+
+@Generated(
+        value = "dagger.internal.codegen.ComponentProcessor",
+        comments = "https://google.github.io/dagger"
+)
+public enum ExecutorsCommand_Factory implements Factory<ExecutorsCommand> {
+    INSTANCE;
+
+    public static Factory<ExecutorsCommand> create() {
+        return INSTANCE;
+    }
+
+    @Override
+    public ExecutorsCommand get() {
+        return new ExecutorsCommand();
+    }
+}
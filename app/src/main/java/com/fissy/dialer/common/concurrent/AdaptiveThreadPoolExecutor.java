@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.common.concurrent;
+
+import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.LogUtil;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool which adds threads while its queue backs up and returns to its base size once the
+ * queue drained.
+ *
+ * <p>A plain {@link ThreadPoolExecutor} with an unbounded queue never grows past its core size, so
+ * the core size itself is adjusted: it is raised by one thread whenever a task is queued behind
+ * more than {@link #GROW_QUEUE_DEPTH} others, up to the maximum size, and dropped back to the base
+ * size when a worker finds the queue empty. The extra threads then exit after being idle for the
+ * keep alive time.
+ */
+final class AdaptiveThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final int GROW_QUEUE_DEPTH = 4;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final int basePoolSize;
+
+    AdaptiveThreadPoolExecutor(int basePoolSize, int maxPoolSize, ThreadFactory threadFactory) {
+        super(
+                basePoolSize,
+                maxPoolSize,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        Assert.checkArgument(basePoolSize > 0 && maxPoolSize >= basePoolSize);
+        this.basePoolSize = basePoolSize;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command);
+        if (getQueue().size() > GROW_QUEUE_DEPTH) {
+            grow();
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        super.afterExecute(runnable, throwable);
+        if (getCorePoolSize() > basePoolSize && getQueue().isEmpty()) {
+            shrink();
+        }
+    }
+
+    private synchronized void grow() {
+        int corePoolSize = getCorePoolSize();
+        if (corePoolSize < getMaximumPoolSize()) {
+            LogUtil.i(
+                    "AdaptiveThreadPoolExecutor.grow",
+                    "%d tasks queued, growing to %d threads",
+                    getQueue().size(),
+                    corePoolSize + 1);
+            // Starts a new thread right away since there are queued tasks.
+            setCorePoolSize(corePoolSize + 1);
+        }
+    }
+
+    private synchronized void shrink() {
+        if (getCorePoolSize() > basePoolSize) {
+            LogUtil.i(
+                    "AdaptiveThreadPoolExecutor.shrink",
+                    "queue drained, shrinking to %d threads",
+                    basePoolSize);
+            setCorePoolSize(basePoolSize);
+        }
+    }
+}
@@ -32,6 +32,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import javax.inject.Singleton;
 
@@ -45,6 +46,8 @@ import dagger.Provides;
 @Module
 public abstract class DialerExecutorModule {
 
+    private static final int NON_UI_THREAD_POOL_BASE_SIZE = 5;
+
     @Provides
     @Singleton
     @Ui
@@ -56,18 +59,23 @@ public abstract class DialerExecutorModule {
     @Singleton
     @NonUiParallel
     static ExecutorService provideNonUiThreadPool() {
-        return Executors.newFixedThreadPool(
-                5,
-                new ThreadFactory() {
-                    @Override
-                    public Thread newThread(Runnable runnable) {
-                        LogUtil.i("DialerExecutorModule.newThread", "creating low priority thread");
-                        Thread thread = new Thread(runnable, "DialerExecutors-LowPriority");
-                        // Java thread priority 4 corresponds to Process.THREAD_PRIORITY_BACKGROUND (10)
-                        thread.setPriority(4);
-                        return thread;
-                    }
-                });
+        ThreadPoolExecutor pool =
+                new AdaptiveThreadPoolExecutor(
+                        NON_UI_THREAD_POOL_BASE_SIZE,
+                        Math.max(
+                                NON_UI_THREAD_POOL_BASE_SIZE, 2 * Runtime.getRuntime().availableProcessors()),
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable runnable) {
+                                LogUtil.i("DialerExecutorModule.newThread", "creating low priority thread");
+                                Thread thread = new Thread(runnable, "DialerExecutors-LowPriority");
+                                // Java thread priority 4 corresponds to Process.THREAD_PRIORITY_BACKGROUND (10)
+                                thread.setPriority(4);
+                                return thread;
+                            }
+                        });
+        ExecutorStats.get().registerPool("NonUiParallel", pool);
+        return pool;
     }
 
     @Provides
@@ -114,7 +122,11 @@ public abstract class DialerExecutorModule {
     @Singleton
     @LightweightExecutor
     static ListeningExecutorService provideLightweightExecutor(@UiParallel ExecutorService delegate) {
-        return MoreExecutors.listeningDecorator(delegate);
+        if (delegate instanceof ThreadPoolExecutor) {
+            ExecutorStats.get().registerPool("UiParallel", (ThreadPoolExecutor) delegate);
+        }
+        return new InstrumentedExecutorService(
+                "Lightweight", MoreExecutors.listeningDecorator(delegate));
     }
 
     @Provides
@@ -122,7 +134,8 @@ public abstract class DialerExecutorModule {
     @BackgroundExecutor
     static ListeningExecutorService provideBackgroundExecutor(
             @NonUiParallel ExecutorService delegate) {
-        return MoreExecutors.listeningDecorator(delegate);
+        return new InstrumentedExecutorService(
+                "Background", MoreExecutors.listeningDecorator(delegate));
     }
 
     @Binds
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.common.concurrent;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process wide queue-wait and run-time histograms of the tasks run by the instrumented executors,
+ * keyed by executor and submitting component. See {@link InstrumentedExecutorService}.
+ */
+public final class ExecutorStats {
+
+    private static final ExecutorStats instance = new ExecutorStats();
+
+    private final Map<String, TaskStats> taskStats = new ConcurrentHashMap<>();
+    private final Map<String, ThreadPoolExecutor> pools = new ConcurrentHashMap<>();
+
+    private ExecutorStats() {
+    }
+
+    public static ExecutorStats get() {
+        return instance;
+    }
+
+    /**
+     * Makes the pool's size and queue depth part of {@link #dump()}.
+     */
+    void registerPool(String poolName, ThreadPoolExecutor pool) {
+        pools.put(poolName, pool);
+    }
+
+    void record(String executorName, String tag, long queueWaitMillis, long runMillis) {
+        String key = executorName + "/" + tag;
+        TaskStats stats = taskStats.get(key);
+        if (stats == null) {
+            stats = taskStats.computeIfAbsent(key, unused -> new TaskStats());
+        }
+        stats.queueWait.record(queueWaitMillis);
+        stats.run.record(runMillis);
+    }
+
+    /**
+     * Returns a human readable dump of every pool and of the task histograms.
+     */
+    @NonNull
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, ThreadPoolExecutor> entry : new TreeMap<>(pools).entrySet()) {
+            ThreadPoolExecutor pool = entry.getValue();
+            builder.append(
+                    String.format(
+                            Locale.US,
+                            "%s: threads %d/%d (max %d), active %d, queued %d, completed %d\n",
+                            entry.getKey(),
+                            pool.getPoolSize(),
+                            pool.getCorePoolSize(),
+                            pool.getMaximumPoolSize(),
+                            pool.getActiveCount(),
+                            pool.getQueue().size(),
+                            pool.getCompletedTaskCount()));
+        }
+        builder.append("\nBuckets are in ms: ").append(Histogram.bucketLabels()).append('\n');
+        for (Map.Entry<String, TaskStats> entry : new TreeMap<>(taskStats).entrySet()) {
+            builder
+                    .append(entry.getKey())
+                    .append("\n  wait ")
+                    .append(entry.getValue().queueWait)
+                    .append("\n  run  ")
+                    .append(entry.getValue().run)
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Clears the task histograms.
+     */
+    public void reset() {
+        taskStats.clear();
+    }
+
+    private static final class TaskStats {
+        private final Histogram queueWait = new Histogram();
+        private final Histogram run = new Histogram();
+    }
+
+    /**
+     * Lock free histogram with power of two millisecond buckets: [0, 1), [1, 2), [2, 4), ... and a
+     * last bucket for everything of 4s and longer.
+     */
+    private static final class Histogram {
+        private static final int BUCKET_COUNT = 14;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private static String bucketLabels() {
+            StringBuilder builder = new StringBuilder("<1");
+            for (int i = 1; i < BUCKET_COUNT - 1; i++) {
+                builder.append(" <").append(1L << i);
+            }
+            return builder.append(" >=").append(1L << (BUCKET_COUNT - 2)).toString();
+        }
+
+        void record(long millis) {
+            int bucket = millis <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+            buckets.incrementAndGet(Math.min(bucket, BUCKET_COUNT - 1));
+            count.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            long max;
+            do {
+                max = maxMillis.get();
+            } while (millis > max && !maxMillis.compareAndSet(max, millis));
+        }
+
+        @Override
+        public String toString() {
+            long tasks = count.get();
+            StringBuilder builder =
+                    new StringBuilder(
+                            String.format(
+                                    Locale.US,
+                                    "n=%d avg=%dms max=%dms [",
+                                    tasks,
+                                    tasks == 0 ? 0 : totalMillis.get() / tasks,
+                                    maxMillis.get()));
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                builder.append(i == 0 ? "" : " ").append(buckets.get(i));
+            }
+            return builder.append(']').toString();
+        }
+    }
+}
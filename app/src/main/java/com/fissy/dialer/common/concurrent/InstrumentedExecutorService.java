@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.common.concurrent;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+
+import com.google.common.util.concurrent.ForwardingListeningExecutorService;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executor which records how long each task waited in the queue and how long it ran in {@link
+ * ExecutorStats}.
+ *
+ * <p>Tasks are tagged with the component that submitted them, derived from the outer class of the
+ * task (e.g. {@code SystemCallLogDataSource} for a lambda written in that class). Tasks submitted
+ * by Guava's future utilities, such as the functions passed to {@code Futures.transform}, can't be
+ * traced back to their component and are tagged {@link #GUAVA_TAG}.
+ */
+final class InstrumentedExecutorService extends ForwardingListeningExecutorService {
+
+    static final String GUAVA_TAG = "Futures";
+
+    private static final String LEGACY_LAMBDA_PREFIX = "-$$Lambda$";
+    private static final Map<Class<?>, String> tagsByClass = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final ListeningExecutorService delegate;
+
+    InstrumentedExecutorService(String name, ListeningExecutorService delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected ListeningExecutorService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        delegate.execute(new InstrumentedRunnable(command));
+    }
+
+    @Override
+    public ListenableFuture<?> submit(Runnable task) {
+        return delegate.submit(new InstrumentedRunnable(task));
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submit(Runnable task, T result) {
+        return delegate.submit(new InstrumentedRunnable(task), result);
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submit(Callable<T> task) {
+        return delegate.submit(new InstrumentedCallable<>(task));
+    }
+
+    private void record(Object task, long submitMillis, long startMillis) {
+        ExecutorStats.get()
+                .record(
+                        name,
+                        getTag(task),
+                        startMillis - submitMillis,
+                        SystemClock.elapsedRealtime() - startMillis);
+    }
+
+    private static String getTag(Object task) {
+        Class<?> taskClass = task.getClass();
+        String tag = tagsByClass.get(taskClass);
+        if (tag == null) {
+            tag = computeTag(taskClass.getName());
+            tagsByClass.put(taskClass, tag);
+        }
+        return tag;
+    }
+
+    private static String computeTag(String className) {
+        if (className.startsWith("com.google.common.")) {
+            return GUAVA_TAG;
+        }
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        if (simpleName.startsWith(LEGACY_LAMBDA_PREFIX)) {
+            // Desugared lambdas of older build tools, e.g. -$$Lambda$Outer$abc123.
+            simpleName = simpleName.substring(LEGACY_LAMBDA_PREFIX.length());
+        }
+        // Drops inner class, anonymous class and lambda suffixes such as $$ExternalSyntheticLambda0.
+        int dollar = simpleName.indexOf('$');
+        return dollar > 0 ? simpleName.substring(0, dollar) : simpleName;
+    }
+
+    private final class InstrumentedRunnable implements Runnable {
+        private final Runnable task;
+        private final long submitMillis = SystemClock.elapsedRealtime();
+
+        private InstrumentedRunnable(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long startMillis = SystemClock.elapsedRealtime();
+            try {
+                task.run();
+            } finally {
+                record(task, submitMillis, startMillis);
+            }
+        }
+    }
+
+    private final class InstrumentedCallable<T> implements Callable<T> {
+        private final Callable<T> task;
+        private final long submitMillis = SystemClock.elapsedRealtime();
+
+        private InstrumentedCallable(Callable<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            long startMillis = SystemClock.elapsedRealtime();
+            try {
+                return task.call();
+            } finally {
+                record(task, submitMillis, startMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.configprovider;
+
+import android.content.Context;
+
+/**
+ * Typed handles to config values for code that reads them often, e.g. per bound row or per
+ * notification update.
+ *
+ * <p>A handle keeps the value it last read along with the {@link ConfigProvider#getVersion()
+ * version} of the config, so reading it is a field read until the config changes. Handles are
+ * thread safe and meant to be kept in a field:
+ *
+ * <pre>
+ *   private final ConfigFlag.BooleanFlag someFlag =
+ *       ConfigFlag.booleanFlag(context, "some_flag", false);
+ *   ...
+ *   if (someFlag.get()) {
+ * </pre>
+ */
+public final class ConfigFlag {
+
+    private ConfigFlag() {
+    }
+
+    public static BooleanFlag booleanFlag(Context context, String key, boolean defaultValue) {
+        return new BooleanFlag(getConfigProvider(context), key, defaultValue);
+    }
+
+    public static LongFlag longFlag(Context context, String key, long defaultValue) {
+        return new LongFlag(getConfigProvider(context), key, defaultValue);
+    }
+
+    public static StringFlag stringFlag(Context context, String key, String defaultValue) {
+        return new StringFlag(getConfigProvider(context), key, defaultValue);
+    }
+
+    private static ConfigProvider getConfigProvider(Context context) {
+        return ConfigProviderComponent.get(context).getConfigProvider();
+    }
+
+    /**
+     * Handle to a boolean config value.
+     */
+    public static final class BooleanFlag {
+        private final ConfigProvider configProvider;
+        private final String key;
+        private final boolean defaultValue;
+        // Replaced as a whole so the value always matches its version.
+        private volatile BooleanValue value = new BooleanValue(-1, false);
+
+        private BooleanFlag(ConfigProvider configProvider, String key, boolean defaultValue) {
+            this.configProvider = configProvider;
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        public boolean get() {
+            long version = configProvider.getVersion();
+            BooleanValue current = value;
+            if (current.version != version) {
+                current = new BooleanValue(version, configProvider.getBoolean(key, defaultValue));
+                value = current;
+            }
+            return current.value;
+        }
+
+        private static final class BooleanValue {
+            private final long version;
+            private final boolean value;
+
+            private BooleanValue(long version, boolean value) {
+                this.version = version;
+                this.value = value;
+            }
+        }
+    }
+
+    /**
+     * Handle to a long config value.
+     */
+    public static final class LongFlag {
+        private final ConfigProvider configProvider;
+        private final String key;
+        private final long defaultValue;
+        // Replaced as a whole so the value always matches its version.
+        private volatile LongValue value = new LongValue(-1, 0);
+
+        private LongFlag(ConfigProvider configProvider, String key, long defaultValue) {
+            this.configProvider = configProvider;
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        public long get() {
+            long version = configProvider.getVersion();
+            LongValue current = value;
+            if (current.version != version) {
+                current = new LongValue(version, configProvider.getLong(key, defaultValue));
+                value = current;
+            }
+            return current.value;
+        }
+
+        private static final class LongValue {
+            private final long version;
+            private final long value;
+
+            private LongValue(long version, long value) {
+                this.version = version;
+                this.value = value;
+            }
+        }
+    }
+
+    /**
+     * Handle to a string config value.
+     */
+    public static final class StringFlag {
+        private final ConfigProvider configProvider;
+        private final String key;
+        private final String defaultValue;
+        // Replaced as a whole so the value always matches its version.
+        private volatile StringValue value = new StringValue(-1, null);
+
+        private StringFlag(ConfigProvider configProvider, String key, String defaultValue) {
+            this.configProvider = configProvider;
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        public String get() {
+            long version = configProvider.getVersion();
+            StringValue current = value;
+            if (current.version != version) {
+                current = new StringValue(version, configProvider.getString(key, defaultValue));
+                value = current;
+            }
+            return current.value;
+        }
+
+        private static final class StringValue {
+            private final long version;
+            private final String value;
+
+            private StringValue(long version, String value) {
+                this.version = version;
+                this.value = value;
+            }
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.fissy.dialer.configprovider;
 
+import androidx.annotation.WorkerThread;
+
 /**
  * Gets config values from the container application.
  */
@@ -26,4 +28,17 @@ public interface ConfigProvider {
     long getLong(String key, long defaultValue);
 
     boolean getBoolean(String key, boolean defaultValue);
+
+    /**
+     * Returns a number which changes whenever any config value changes, so callers can cache
+     * values until it does. See {@link ConfigFlag}.
+     */
+    long getVersion();
+
+    /**
+     * Loads the config values ahead of the first read so it doesn't happen on the main thread.
+     */
+    @WorkerThread
+    default void preload() {
+    }
 }
@@ -20,7 +20,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.SharedPreferences.Editor;
+import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
@@ -28,6 +30,10 @@ import com.fissy.dialer.storage.StorageComponent;
 import com.fissy.dialer.storage.Unencrypted;
 import com.fissy.dialer.strictmode.StrictModeUtils;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.inject.Inject;
 
 /**
@@ -50,15 +56,30 @@ import javax.inject.Inject;
  *   adb shell cat \
  *     /data/user_de/0/com.fissy.dialer/shared_prefs/com.fissy.dialer_preferences.xml
  * </pre>
+ *
+ * <p>Values are read from an immutable {@link Snapshot} of the config flags, which is loaded once
+ * and replaced as a whole whenever a flag is written, so reads don't touch the shared preferences.
  */
 public class SharedPrefConfigProvider implements ConfigProvider {
     private static final String PREF_PREFIX = "config_provider_prefs_";
 
     private final SharedPreferences sharedPreferences;
 
+    // Shared preferences only keep weak references to their listeners.
+    private final OnSharedPreferenceChangeListener changeListener =
+            (prefs, key) -> {
+                if (key == null || key.startsWith(PREF_PREFIX)) {
+                    reload();
+                }
+            };
+
+    @Nullable
+    private volatile Snapshot snapshot;
+
     @Inject
     SharedPrefConfigProvider(@Unencrypted SharedPreferences sharedPreferences) {
         this.sharedPreferences = sharedPreferences;
+        sharedPreferences.registerOnSharedPreferenceChangeListener(changeListener);
     }
 
     private static SharedPreferences getSharedPrefs(Context appContext) {
@@ -82,22 +103,76 @@ public class SharedPrefConfigProvider implements ConfigProvider {
 
     @Override
     public String getString(String key, String defaultValue) {
-        // Reading shared prefs on the main thread is generally safe since a single instance is cached.
-        return StrictModeUtils.bypass(
-                () -> sharedPreferences.getString(PREF_PREFIX + key, defaultValue));
+        Object value = getSnapshot().values.get(key);
+        return value instanceof String ? (String) value : defaultValue;
     }
 
     @Override
     public long getLong(String key, long defaultValue) {
-        // Reading shared prefs on the main thread is generally safe since a single instance is cached.
-        return StrictModeUtils.bypass(() -> sharedPreferences.getLong(PREF_PREFIX + key, defaultValue));
+        Object value = getSnapshot().values.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
     }
 
     @Override
     public boolean getBoolean(String key, boolean defaultValue) {
-        // Reading shared prefs on the main thread is generally safe since a single instance is cached.
-        return StrictModeUtils.bypass(
-                () -> sharedPreferences.getBoolean(PREF_PREFIX + key, defaultValue));
+        Object value = getSnapshot().values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    @Override
+    public long getVersion() {
+        return getSnapshot().version;
+    }
+
+    @WorkerThread
+    @Override
+    public void preload() {
+        getSnapshot();
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load(0);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized void reload() {
+        Snapshot current = snapshot;
+        snapshot = load(current == null ? 0 : current.version + 1);
+    }
+
+    private Snapshot load(long version) {
+        // Reading shared prefs on the main thread is generally safe since a single instance is cached,
+        // and normally preload() already did it in the background.
+        Map<String, ?> all = StrictModeUtils.bypass(() -> sharedPreferences.getAll());
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            if (entry.getKey().startsWith(PREF_PREFIX)) {
+                values.put(entry.getKey().substring(PREF_PREFIX.length()), entry.getValue());
+            }
+        }
+        return new Snapshot(version, Collections.unmodifiableMap(values));
+    }
+
+    /**
+     * The config flags at one point in time, keyed without {@link #PREF_PREFIX}.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final Map<String, Object> values;
+
+        private Snapshot(long version, Map<String, Object> values) {
+            this.version = version;
+            this.values = values;
+        }
     }
 
     /**
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.contactphoto;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.SparseArray;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Bitmaps which are no longer used by anything, kept to be decoded into with {@link
+ * BitmapFactory.Options#inBitmap} instead of allocating new ones.
+ *
+ * <p>Bitmaps are bucketed by the highest power of two of their allocation size, so a bitmap is
+ * only reused for a decode needing less than eight times less memory. Only bitmaps which nothing
+ * else references, such as the intermediate bitmaps of a crop, may be released to the pool: a
+ * bitmap that is still drawn somewhere would be overwritten by the next decode.
+ */
+final class BitmapPool {
+
+    // Reusing a much larger bitmap for a small photo would hold on to too much memory.
+    private static final int MAX_BUCKET_DISTANCE = 2;
+
+    private final int maxBytes;
+    // Keyed by the log2 of the allocation size. Guarded by this.
+    private final SparseArray<ArrayDeque<Bitmap>> buckets = new SparseArray<>();
+    private int pooledBytes;
+    private int reuseCount;
+    private int missCount;
+
+    BitmapPool(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a bitmap of at least {@code minBytes} to decode into, or {@code null} if there is
+     * none. The bitmap is removed from the pool.
+     */
+    @Nullable
+    synchronized Bitmap acquire(int minBytes) {
+        int firstBucket = bucketOf(minBytes);
+        for (int bucket = firstBucket; bucket <= firstBucket + MAX_BUCKET_DISTANCE; bucket++) {
+            ArrayDeque<Bitmap> bitmaps = buckets.get(bucket);
+            if (bitmaps == null) {
+                continue;
+            }
+            Iterator<Bitmap> iterator = bitmaps.iterator();
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.getAllocationByteCount() >= minBytes) {
+                    iterator.remove();
+                    pooledBytes -= bitmap.getAllocationByteCount();
+                    reuseCount++;
+                    return bitmap;
+                }
+            }
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Adds a bitmap nothing references anymore to the pool.
+     */
+    synchronized void release(Bitmap bitmap) {
+        int size = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || bitmap.isRecycled() || size > maxBytes / 2) {
+            return;
+        }
+        int bucket = bucketOf(size);
+        ArrayDeque<Bitmap> bitmaps = buckets.get(bucket);
+        if (bitmaps == null) {
+            bitmaps = new ArrayDeque<>();
+            buckets.put(bucket, bitmaps);
+        }
+        bitmaps.addLast(bitmap);
+        pooledBytes += size;
+        trimToSize();
+    }
+
+    synchronized void clear() {
+        buckets.clear();
+        pooledBytes = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BitmapPool{bytes="
+                + pooledBytes
+                + "/"
+                + maxBytes
+                + ", reused="
+                + reuseCount
+                + ", missed="
+                + missCount
+                + "}";
+    }
+
+    /**
+     * Drops the oldest of the largest bitmaps until the pool fits its budget.
+     */
+    private void trimToSize() {
+        for (int i = buckets.size() - 1; i >= 0 && pooledBytes > maxBytes; i--) {
+            ArrayDeque<Bitmap> bitmaps = buckets.valueAt(i);
+            while (!bitmaps.isEmpty() && pooledBytes > maxBytes) {
+                pooledBytes -= bitmaps.removeFirst().getAllocationByteCount();
+            }
+        }
+    }
+
+    private static int bucketOf(int bytes) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(bytes, 1));
+    }
+}
@@ -24,6 +24,7 @@ import android.graphics.PorterDuff.Mode;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import androidx.annotation.Nullable;
 
 /**
  * Provides static functions to decode bitmaps at the optimal size
@@ -38,14 +39,33 @@ public class BitmapUtil {
      * decode the picture, so it is pretty efficient to run.
      */
     public static int getSmallerExtentFromBytes(byte[] bytes) {
+        final BitmapFactory.Options options = getBoundsFromBytes(bytes);
+
+        // test what the best sample size is
+        return Math.min(options.outWidth, options.outHeight);
+    }
+
+    /**
+     * Returns options holding the width and height of the picture in {@link
+     * BitmapFactory.Options#outWidth} and {@link BitmapFactory.Options#outHeight}, without decoding
+     * it.
+     */
+    public static BitmapFactory.Options getBoundsFromBytes(byte[] bytes) {
         final BitmapFactory.Options options = new BitmapFactory.Options();
 
         // don't actually decode the picture, just return its bounds
         options.inJustDecodeBounds = true;
         BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        return options;
+    }
 
-        // test what the best sample size is
-        return Math.min(options.outWidth, options.outHeight);
+    /**
+     * Returns how many bytes the picture takes once decoded with the given sample size, assuming
+     * the default {@link Bitmap.Config#ARGB_8888} config.
+     */
+    public static int getDecodedByteCount(int width, int height, int sampleSize) {
+        final int sample = Math.max(sampleSize, 1);
+        return ((width + sample - 1) / sample) * ((height + sample - 1) / sample) * 4;
     }
 
     /**
@@ -93,6 +113,28 @@ public class BitmapUtil {
         return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
     }
 
+    /**
+     * Decodes the bitmap with the given sample size into {@code reusableBitmap} if it can, otherwise
+     * into a new bitmap. The result is mutable so it can be reused in turn.
+     *
+     * @param reusableBitmap a bitmap nothing references anymore, see {@link
+     *                       BitmapFactory.Options#inBitmap}
+     */
+    public static Bitmap decodeBitmapFromBytes(
+            byte[] bytes, int sampleSize, @Nullable Bitmap reusableBitmap) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = Math.max(sampleSize, 1);
+        options.inMutable = true;
+        options.inBitmap = reusableBitmap;
+        try {
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        } catch (IllegalArgumentException e) {
+            // The picture doesn't fit in the bitmap after all.
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        }
+    }
+
     /**
      * Given an input bitmap, scales it to the given width/height and makes it round.
      *
@@ -31,6 +31,7 @@ import android.widget.QuickContactBadge;
 
 import com.fissy.dialer.R;
 import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.lettertile.LetterTileBitmapCache;
 import com.fissy.dialer.lettertile.LetterTileDrawable;
 import com.fissy.dialer.util.PermissionsUtil;
 import com.fissy.dialer.util.UriUtils;
@@ -190,6 +191,7 @@ public abstract class ContactPhotoManager implements ComponentCallbacks2 {
             Context applicationContext = context.getApplicationContext();
             instance = createContactPhotoManager(applicationContext);
             applicationContext.registerComponentCallbacks(instance);
+            applicationContext.registerComponentCallbacks(LetterTileBitmapCache.getInstance());
             if (PermissionsUtil.hasContactsReadPermissions(context)) {
                 instance.preloadPhotosInBackground();
             }
@@ -359,6 +361,15 @@ public abstract class ContactPhotoManager implements ComponentCallbacks2 {
      */
     public abstract void preloadPhotosInBackground();
 
+    /**
+     * Loads the given photos in the background ahead of them being shown, e.g. for the rows a list
+     * is about to scroll to, see {@link ContactPhotoPreloader}. Replaces the photos of the previous
+     * call which weren't loaded yet.
+     *
+     * @param photoIds the ids of the photos, the ones to be shown first coming first
+     */
+    public abstract void preloadPhotos(long[] photoIds);
+
     // ComponentCallbacks2
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
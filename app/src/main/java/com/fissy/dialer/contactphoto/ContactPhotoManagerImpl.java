@@ -24,6 +24,7 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.database.Cursor;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -38,6 +39,7 @@ import android.os.Handler;
 import android.os.Handler.Callback;
 import android.os.HandlerThread;
 import android.os.Message;
+import android.os.SystemClock;
 import android.provider.ContactsContract;
 import android.provider.ContactsContract.Contacts;
 import android.provider.ContactsContract.Contacts.Photo;
@@ -68,6 +70,7 @@ import java.lang.ref.SoftReference;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -75,6 +78,8 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
 
@@ -101,20 +106,32 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
      */
     private static final BitmapHolder BITMAP_UNAVAILABLE;
     /**
-     * Cache size for {@link #bitmapHolderCache} for devices with "large" RAM.
+     * Minimum cache size for {@link #bitmapHolderCache}.
      */
     private static final int HOLDER_CACHE_SIZE = 2000000;
     /**
-     * Cache size for {@link #bitmapCache} for devices with "large" RAM.
+     * Minimum cache size for {@link #bitmapCache}.
      */
     private static final int BITMAP_CACHE_SIZE = 36864 * 48; // 1728K
+    /**
+     * Fraction of the memory class of the app given to {@link #bitmapHolderCache}, e.g. 4M for 256M.
+     */
+    private static final int HOLDER_CACHE_MEMORY_DIVISOR = 64;
+    /**
+     * Fraction of the memory class of the app given to {@link #bitmapCache}, e.g. 2M for 256M.
+     */
+    private static final int BITMAP_CACHE_MEMORY_DIVISOR = 128;
+    /**
+     * Fraction of {@link #bitmapCache} given to {@link #bitmapPool}.
+     */
+    private static final int BITMAP_POOL_CACHE_DIVISOR = 4;
     /**
      * Height/width of a thumbnail image
      */
     private static int thumbnailSize;
 
     static {
-        BITMAP_UNAVAILABLE = new BitmapHolder(new byte[0], 0);
+        BITMAP_UNAVAILABLE = new BitmapHolder(new byte[0], 0, 0);
         BITMAP_UNAVAILABLE.bitmapRef = new SoftReference<Bitmap>(null);
     }
 
@@ -134,6 +151,10 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
      * #bitmapHolderCache}.
      */
     private final LruCache<Object, Bitmap> bitmapCache;
+    /**
+     * Bitmaps which are no longer used, decoded into instead of allocating new ones.
+     */
+    private final BitmapPool bitmapPool;
     /**
      * A map from ImageView to the corresponding photo ID or uri, encapsulated in a request. The
      * request may swapped out before the photo loading request is started.
@@ -152,6 +173,16 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
      * For debug: How many times we had to reload cached photo for a fresh entry. Should be 0.
      */
     private final AtomicInteger freshCacheOverwrite = new AtomicInteger();
+    /**
+     * How many photos were decoded, and how long it took in total.
+     */
+    private final AtomicInteger decodeCount = new AtomicInteger();
+
+    private final AtomicLong decodeMillis = new AtomicLong();
+    /**
+     * Photos passed to {@link #preloadPhotos(long[])} which weren't loaded yet.
+     */
+    private final AtomicReference<long[]> upcomingPhotoIds = new AtomicReference<>();
     /**
      * {@code true} if ALL entries in {@link #bitmapHolderCache} are NOT fresh.
      */
@@ -180,8 +211,12 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
                 ((ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE));
 
         final float cacheSizeAdjustment = (am.isLowRamDevice()) ? 0.5f : 1.0f;
+        final int memoryClassBytes = am.getMemoryClass() * 1024 * 1024;
 
-        final int bitmapCacheSize = (int) (cacheSizeAdjustment * BITMAP_CACHE_SIZE);
+        final int bitmapCacheSize =
+                (int)
+                        (cacheSizeAdjustment
+                                * Math.max(BITMAP_CACHE_SIZE, memoryClassBytes / BITMAP_CACHE_MEMORY_DIVISOR));
         bitmapCache =
                 new LruCache<Object, Bitmap>(bitmapCacheSize) {
                     @Override
@@ -197,7 +232,11 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
                         }
                     }
                 };
-        final int holderCacheSize = (int) (cacheSizeAdjustment * HOLDER_CACHE_SIZE);
+        bitmapPool = new BitmapPool(bitmapCacheSize / BITMAP_POOL_CACHE_DIVISOR);
+        final int holderCacheSize =
+                (int)
+                        (cacheSizeAdjustment
+                                * Math.max(HOLDER_CACHE_SIZE, memoryClassBytes / HOLDER_CACHE_MEMORY_DIVISOR));
         bitmapHolderCache =
                 new LruCache<Object, BitmapHolder>(holderCacheSize) {
                     @Override
@@ -215,12 +254,13 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
                 };
         bitmapHolderCacheRedZoneBytes = (int) (holderCacheSize * 0.75);
         LogUtil.i(
-                "ContactPhotoManagerImpl.ContactPhotoManagerImpl", "cache adj: " + cacheSizeAdjustment);
-        if (DEBUG) {
-            LogUtil.d(
-                    "ContactPhotoManagerImpl.ContactPhotoManagerImpl",
-                    "Cache size: " + btk(bitmapHolderCache.maxSize()) + " + " + btk(bitmapCache.maxSize()));
-        }
+                "ContactPhotoManagerImpl.ContactPhotoManagerImpl",
+                "cache adj: "
+                        + cacheSizeAdjustment
+                        + ", cache size: "
+                        + btk(bitmapHolderCache.maxSize())
+                        + " + "
+                        + btk(bitmapCache.maxSize()));
 
         thumbnailSize =
                 context.getResources().getDimensionPixelSize(R.dimen.contact_browser_list_item_photo_size);
@@ -254,8 +294,11 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
      * If necessary, decodes bytes stored in the holder to Bitmap. As long as the bitmap is held
      * either by {@link #bitmapCache} or by a soft reference in the holder, it will not be necessary
      * to decode the bitmap.
+     *
+     * <p>Only ever called on the loader thread, the UI thread only shows bitmaps decoded already.
      */
-    private static void inflateBitmap(BitmapHolder holder, int requestedExtent) {
+    @WorkerThread
+    private void inflateBitmap(BitmapHolder holder, int requestedExtent) {
         final int sampleSize =
                 BitmapUtil.findOptimalSampleSize(holder.originalSmallerExtent, requestedExtent);
         byte[] bytes = holder.bytes;
@@ -275,7 +318,14 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
         }
 
         try {
-            Bitmap bitmap = BitmapUtil.decodeBitmapFromBytes(bytes, sampleSize);
+            final long startMillis = SystemClock.elapsedRealtime();
+            Bitmap bitmap =
+                    BitmapUtil.decodeBitmapFromBytes(
+                            bytes,
+                            sampleSize,
+                            bitmapPool.acquire(
+                                    BitmapUtil.getDecodedByteCount(
+                                            holder.originalWidth, holder.originalHeight, sampleSize)));
 
             // TODO: As a temporary workaround while framework support is being added to
             // clip non-square bitmaps into a perfect circle, manually crop the bitmap into
@@ -289,8 +339,15 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
             // sample size.
             if (height != width && Math.min(height, width) <= thumbnailSize * 2) {
                 final int dimension = Math.min(height, width);
-                bitmap = ThumbnailUtils.extractThumbnail(bitmap, dimension, dimension);
+                final Bitmap uncropped = bitmap;
+                bitmap = ThumbnailUtils.extractThumbnail(uncropped, dimension, dimension);
+                if (bitmap != uncropped) {
+                    // Nothing else has seen the uncropped bitmap, the next photo can be decoded into it.
+                    bitmapPool.release(uncropped);
+                }
             }
+            decodeCount.incrementAndGet();
+            decodeMillis.addAndGet(SystemClock.elapsedRealtime() - startMillis);
             // make bitmap mutable and draw size onto it
             if (DEBUG_SIZES) {
                 Bitmap original = bitmap;
@@ -403,11 +460,33 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
         }
     }
 
+    /**
+     * Logs how well the caches and the pool are doing, e.g. when the UI is hidden.
+     */
+    private void logStats() {
+        int decodes = decodeCount.get();
+        LogUtil.i(
+                "ContactPhotoManagerImpl.logStats",
+                "holders: %s, %d evicted, bitmaps: %s, %d evicted, %s, %d decodes, avg %d ms",
+                bitmapHolderCache,
+                bitmapHolderCache.evictionCount(),
+                bitmapCache,
+                bitmapCache.evictionCount(),
+                bitmapPool,
+                decodes,
+                safeDiv((int) decodeMillis.get(), decodes));
+    }
+
     @Override
     public void onTrimMemory(int level) {
         if (DEBUG) {
             LogUtil.d("ContactPhotoManagerImpl.onTrimMemory", "onTrimMemory: " + level);
         }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            logStats();
+            // The pooled bitmaps are only useful while photos are being shown.
+            bitmapPool.clear();
+        }
         if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
             // Clear the caches.  Note all pending requests will be removed too.
             clear();
@@ -420,6 +499,16 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
         loaderThread.requestPreloading();
     }
 
+    @Override
+    public void preloadPhotos(long[] photoIds) {
+        upcomingPhotoIds.set(photoIds);
+        if (photoIds.length == 0 || paused) {
+            return;
+        }
+        ensureLoaderThread();
+        loaderThread.requestUpcomingPreloading();
+    }
+
     @Override
     public void loadThumbnail(
             ImageView view,
@@ -625,6 +714,7 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
         pendingRequests.clear();
         bitmapHolderCache.evictAll();
         bitmapCache.evictAll();
+        bitmapPool.clear();
     }
 
     @Override
@@ -744,8 +834,13 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
                     "ContactPhotoManagerImpl.cacheBitmap",
                     "caching data: key=" + key + ", " + (bytes == null ? "<null>" : btk(bytes.length)));
         }
-        BitmapHolder holder =
-                new BitmapHolder(bytes, bytes == null ? -1 : BitmapUtil.getSmallerExtentFromBytes(bytes));
+        BitmapHolder holder;
+        if (bytes == null) {
+            holder = new BitmapHolder(null, -1, -1);
+        } else {
+            BitmapFactory.Options bounds = BitmapUtil.getBoundsFromBytes(bytes);
+            holder = new BitmapHolder(bytes, bounds.outWidth, bounds.outHeight);
+        }
 
         // Unless this image is being preloaded, decode it right away while
         // we are still on the background thread.
@@ -823,6 +918,8 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
     private static class BitmapHolder {
 
         final byte[] bytes;
+        final int originalWidth;
+        final int originalHeight;
         final int originalSmallerExtent;
 
         volatile boolean fresh;
@@ -830,10 +927,12 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
         Reference<Bitmap> bitmapRef;
         int decodedSampleSize;
 
-        public BitmapHolder(byte[] bytes, int originalSmallerExtent) {
+        public BitmapHolder(byte[] bytes, int originalWidth, int originalHeight) {
             this.bytes = bytes;
             this.fresh = true;
-            this.originalSmallerExtent = originalSmallerExtent;
+            this.originalWidth = originalWidth;
+            this.originalHeight = originalHeight;
+            this.originalSmallerExtent = Math.min(originalWidth, originalHeight);
         }
     }
 
@@ -972,6 +1071,7 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
         private static final int BUFFER_SIZE = 1024 * 16;
         private static final int MESSAGE_PRELOAD_PHOTOS = 0;
         private static final int MESSAGE_LOAD_PHOTOS = 1;
+        private static final int MESSAGE_PRELOAD_UPCOMING_PHOTOS = 2;
 
         /**
          * A pause between preload batches that yields to the UI thread.
@@ -983,6 +1083,12 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
          */
         private static final int PRELOAD_BATCH = 25;
 
+        /**
+         * Number of photos requested by {@link #preloadPhotos(long[])} to load per batch. Photos
+         * needed right away are loaded between batches.
+         */
+        private static final int UPCOMING_PRELOAD_BATCH = 20;
+
         /**
          * Maximum number of photos to preload. If the cache size is 2Mb and the expected average size
          * of a photo is 4kb, then this number should be 2Mb/4kb = 500.
@@ -1032,6 +1138,18 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
             loaderThreadHandler.sendEmptyMessageDelayed(MESSAGE_PRELOAD_PHOTOS, PHOTO_PRELOAD_DELAY);
         }
 
+        /**
+         * Sends a message to this thread to load the photos of {@link #upcomingPhotoIds}, unless one
+         * is pending already. Cancels preloading by recency.
+         */
+        public void requestUpcomingPreloading() {
+            ensureHandler();
+            loaderThreadHandler.removeMessages(MESSAGE_PRELOAD_PHOTOS);
+            if (!loaderThreadHandler.hasMessages(MESSAGE_PRELOAD_UPCOMING_PHOTOS)) {
+                loaderThreadHandler.sendEmptyMessage(MESSAGE_PRELOAD_UPCOMING_PHOTOS);
+            }
+        }
+
         /**
          * Sends a message to this thread to load requested photos. Cancels a preloading request, if
          * any: we don't want preloading to impede loading of the photos we need to display now.
@@ -1055,6 +1173,9 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
                 case MESSAGE_LOAD_PHOTOS:
                     loadPhotosInBackground();
                     break;
+                case MESSAGE_PRELOAD_UPCOMING_PHOTOS:
+                    preloadUpcomingPhotos();
+                    break;
             }
             return true;
         }
@@ -1117,6 +1238,57 @@ class ContactPhotoManagerImpl extends ContactPhotoManager implements Callback {
             requestPreloading();
         }
 
+        /**
+         * Loads and decodes the next batch of {@link #upcomingPhotoIds}, then requests another cycle
+         * for the rest unless a newer request replaced them. Photos which are cached already are
+         * skipped.
+         */
+        @WorkerThread
+        private void preloadUpcomingPhotos() {
+            if (!PermissionsUtil.hasPermission(context, android.Manifest.permission.READ_CONTACTS)) {
+                return;
+            }
+            // A list is telling what is about to be shown, which beats guessing by recency.
+            preloadStatus = PRELOAD_STATUS_DONE;
+            preloadPhotoIds.clear();
+
+            long[] ids = upcomingPhotoIds.getAndSet(null);
+            if (ids == null) {
+                return;
+            }
+            photoIds.clear();
+            photoIdsAsStrings.clear();
+            boolean decoded = false;
+            int index = 0;
+            for (; index < ids.length && photoIds.size() < UPCOMING_PRELOAD_BATCH; index++) {
+                long id = ids[index];
+                BitmapHolder holder = bitmapHolderCache.get(id);
+                if (holder == BITMAP_UNAVAILABLE) {
+                    continue;
+                }
+                if (holder != null && holder.fresh && holder.bytes != null) {
+                    if (holder.bitmapRef == null || holder.bitmapRef.get() == null) {
+                        inflateBitmap(holder, -1);
+                        decoded = true;
+                    }
+                    continue;
+                }
+                photoIds.add(id);
+                photoIdsAsStrings.add(String.valueOf(id));
+            }
+            if (!photoIds.isEmpty()) {
+                loadThumbnails(false);
+            } else if (decoded) {
+                mainThreadHandler.sendEmptyMessage(MESSAGE_PHOTOS_LOADED);
+            }
+
+            if (index < ids.length
+                    && upcomingPhotoIds.compareAndSet(null, Arrays.copyOfRange(ids, index, ids.length))) {
+                // Queued behind the requests for the photos shown now.
+                loaderThreadHandler.sendEmptyMessage(MESSAGE_PRELOAD_UPCOMING_PHOTOS);
+            }
+        }
+
         @WorkerThread
         private void queryPhotosForPreload() {
             Cursor cursor = null;
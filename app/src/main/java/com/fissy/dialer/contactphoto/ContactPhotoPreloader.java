@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.contactphoto;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * Preloads the photos of the rows a list is about to scroll to, see {@link
+ * ContactPhotoManager#preloadPhotos(long[])}.
+ *
+ * <p>The further ahead of the visible rows photos are preloaded the faster the list scrolls, so a
+ * fling finds most of its photos decoded already. Each request replaces the previous one, which
+ * cancels the preloading of rows the list scrolled past or away from.
+ */
+public final class ContactPhotoPreloader extends RecyclerView.OnScrollListener {
+
+    /**
+     * How many frames of scrolling at the current speed to preload for.
+     */
+    private static final int LOOKAHEAD_FRAMES = 30;
+    /**
+     * Upper bound of the rows preloaded past the visible ones.
+     */
+    private static final int MAX_LOOKAHEAD_ROWS = 60;
+
+    private final ContactPhotoManager contactPhotoManager;
+    private final PhotoIdProvider photoIdProvider;
+
+    // The row next to the last preloaded range and the direction, only a new row appearing or the
+    // direction changing starts a new request.
+    private int lastEdgePosition = RecyclerView.NO_POSITION;
+    private boolean lastScrolledDown;
+
+    public ContactPhotoPreloader(Context context, PhotoIdProvider photoIdProvider) {
+        this.contactPhotoManager = ContactPhotoManager.getInstance(context);
+        this.photoIdProvider = photoIdProvider;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy == 0 || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int firstVisible = layoutManager.findFirstVisibleItemPosition();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (firstVisible == RecyclerView.NO_POSITION || lastVisible == RecyclerView.NO_POSITION) {
+            return;
+        }
+        boolean scrolledDown = dy > 0;
+        int edgePosition = scrolledDown ? lastVisible : firstVisible;
+        if (edgePosition == lastEdgePosition && scrolledDown == lastScrolledDown) {
+            return;
+        }
+        lastEdgePosition = edgePosition;
+        lastScrolledDown = scrolledDown;
+
+        int visibleRows = lastVisible - firstVisible + 1;
+        int rowHeight = Math.max(1, recyclerView.getHeight() / visibleRows);
+        int lookaheadRows =
+                Math.min(
+                        MAX_LOOKAHEAD_ROWS,
+                        visibleRows + Math.abs(dy) * LOOKAHEAD_FRAMES / rowHeight);
+
+        int rangeStart;
+        int rangeEnd;
+        if (scrolledDown) {
+            rangeStart = lastVisible + 1;
+            rangeEnd = Math.min(layoutManager.getItemCount(), rangeStart + lookaheadRows);
+        } else {
+            rangeEnd = firstVisible;
+            rangeStart = Math.max(0, rangeEnd - lookaheadRows);
+        }
+
+        long[] photoIds = new long[Math.max(0, rangeEnd - rangeStart)];
+        int count = 0;
+        // Nearest rows first, they are shown first.
+        for (int i = 0; i < photoIds.length; i++) {
+            int position = scrolledDown ? rangeStart + i : rangeEnd - 1 - i;
+            long photoId = photoIdProvider.getPhotoId(position);
+            if (photoId != 0) {
+                photoIds[count++] = photoId;
+            }
+        }
+        contactPhotoManager.preloadPhotos(Arrays.copyOf(photoIds, count));
+    }
+
+    /**
+     * Gives the photo id of the rows of a list.
+     */
+    public interface PhotoIdProvider {
+
+        /**
+         * Returns the photo id of the row at the adapter position, or 0 if it has none.
+         */
+        long getPhotoId(int position);
+    }
+}
@@ -201,6 +201,22 @@ final class ContactsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         return count;
     }
 
+    /**
+     * Returns the photo id of the contact at the position, or 0 if it has none.
+     */
+    long getPhotoIdAt(int position) {
+        if (header != Header.NONE) {
+            if (position == 0) {
+                return 0;
+            }
+            position--;
+        }
+        if (cursor == null || cursor.isClosed() || !cursor.moveToPosition(position)) {
+            return 0;
+        }
+        return getPhotoId(cursor);
+    }
+
     String getHeaderString(int position) {
         if (header != Header.NONE) {
             if (position == 0) {
@@ -46,6 +46,7 @@ import com.fissy.dialer.R;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.FragmentUtils;
 import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.contactphoto.ContactPhotoPreloader;
 import com.fissy.dialer.performancereport.PerformanceReport;
 import com.fissy.dialer.util.DialerUtils;
 import com.fissy.dialer.util.IntentUtil;
@@ -193,6 +194,8 @@ public class ContactsFragment extends Fragment
                 new ContactsAdapter(
                         getContext(), header, FragmentUtils.getParent(this, OnContactSelectedListener.class));
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(
+                new ContactPhotoPreloader(getContext(), adapter::getPhotoIdAt));
         manager =
                 new LinearLayoutManager(getContext()) {
                     @Override
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package com.fissy.dialer.contentchange;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.util.ArrayMap;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.common.LogUtil;
+import com.fissy.dialer.common.concurrent.ThreadUtil;
+import com.fissy.dialer.metrics.Metrics;
+import com.fissy.dialer.metrics.MetricsComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Observes content URIs on behalf of many listeners and debounces their notifications.
+ *
+ * <p>A single {@link ContentObserver} is registered per URI family (a URI plus whether descendants
+ * are observed), however many listeners subscribe to it. Notifications arriving within the debounce
+ * window after the first one are merged, and every listener of the family is called once with a
+ * {@link ChangeSummary} of what changed. A sync touching hundreds of rows thus costs one refresh
+ * per window instead of one per row. Suppressed notification storms are logged and timed with
+ * {@link Metrics#CONTENT_CHANGE_STORM_TEMPLATE}.
+ *
+ * <p>Listeners are called on the main thread. Subscribing and unsubscribing can happen on any
+ * thread.
+ */
+public final class ContentChangeHub {
+
+    /**
+     * Debounce window used when a listener doesn't ask for a specific one.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 500;
+
+    /**
+     * Maximum number of distinct changed URIs kept in a {@link ChangeSummary}.
+     */
+    private static final int MAX_CHANGED_URIS = 32;
+
+    private static ContentChangeHub instance;
+
+    private final Context appContext;
+    private final Map<Family, FamilyObserver> observers = new ArrayMap<>();
+    private int suppressedNotificationCount;
+
+    private ContentChangeHub(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    public static synchronized ContentChangeHub get(Context context) {
+        if (instance == null) {
+            instance = new ContentChangeHub(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes {@code listener} to changes of {@code uri} with the {@link #DEFAULT_WINDOW_MILLIS
+     * default debounce window}.
+     *
+     * @see android.content.ContentResolver#registerContentObserver(Uri, boolean, ContentObserver)
+     */
+    public void subscribe(Uri uri, boolean notifyForDescendants, Listener listener) {
+        subscribe(uri, notifyForDescendants, DEFAULT_WINDOW_MILLIS, listener);
+    }
+
+    /**
+     * Subscribes {@code listener} to changes of {@code uri}. If listeners of the same URI family ask
+     * for different windows, the shortest one is used for all of them.
+     */
+    public synchronized void subscribe(
+            Uri uri, boolean notifyForDescendants, long windowMillis, Listener listener) {
+        Family family = new Family(uri, notifyForDescendants);
+        FamilyObserver observer = observers.get(family);
+        if (observer == null) {
+            observer = new FamilyObserver(family);
+            observers.put(family, observer);
+            appContext.getContentResolver().registerContentObserver(uri, notifyForDescendants, observer);
+        }
+        observer.listeners.put(listener, windowMillis);
+    }
+
+    /**
+     * Removes every subscription of {@code listener}. The content observer of a URI family is
+     * unregistered once it has no listeners left.
+     */
+    public synchronized void unsubscribe(Listener listener) {
+        List<Family> unusedFamilies = new ArrayList<>();
+        for (FamilyObserver observer : observers.values()) {
+            if (observer.listeners.remove(listener) != null && observer.listeners.isEmpty()) {
+                appContext.getContentResolver().unregisterContentObserver(observer);
+                unusedFamilies.add(observer.family);
+            }
+        }
+        for (Family family : unusedFamilies) {
+            observers.remove(family).cancelPendingChanges();
+        }
+    }
+
+    /**
+     * Returns how many notifications were merged into another one since the process started.
+     */
+    public synchronized int getSuppressedNotificationCount() {
+        return suppressedNotificationCount;
+    }
+
+    private synchronized void onNotificationsSuppressed(int count) {
+        suppressedNotificationCount += count;
+    }
+
+    /**
+     * Receives the merged notifications of the URIs it subscribed to.
+     */
+    public interface Listener {
+        @MainThread
+        void onContentChanged(@NonNull ChangeSummary summary);
+    }
+
+    /**
+     * What changed in a URI family during one debounce window.
+     */
+    public static final class ChangeSummary {
+        private final Uri familyUri;
+        private final Set<Uri> changedUris;
+        private final boolean hasMoreChangedUris;
+        private final int notificationCount;
+        private final boolean isSelfChange;
+
+        private ChangeSummary(
+                Uri familyUri,
+                Set<Uri> changedUris,
+                boolean hasMoreChangedUris,
+                int notificationCount,
+                boolean isSelfChange) {
+            this.familyUri = familyUri;
+            this.changedUris = Collections.unmodifiableSet(changedUris);
+            this.hasMoreChangedUris = hasMoreChangedUris;
+            this.notificationCount = notificationCount;
+            this.isSelfChange = isSelfChange;
+        }
+
+        /**
+         * The URI that was subscribed to.
+         */
+        public Uri getFamilyUri() {
+            return familyUri;
+        }
+
+        /**
+         * The distinct URIs that were notified, see {@link #hasMoreChangedUris()}.
+         */
+        public Set<Uri> getChangedUris() {
+            return changedUris;
+        }
+
+        /**
+         * True if more URIs changed than {@link #getChangedUris()} holds, in which case listeners
+         * should treat the whole family as changed.
+         */
+        public boolean hasMoreChangedUris() {
+            return hasMoreChangedUris;
+        }
+
+        /**
+         * The number of notifications merged into this summary.
+         */
+        public int getNotificationCount() {
+            return notificationCount;
+        }
+
+        /**
+         * True if every merged notification was a self change.
+         */
+        public boolean isSelfChange() {
+            return isSelfChange;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    Locale.US,
+                    "ChangeSummary{familyUri: %s, changedUris: %d%s, notificationCount: %d, "
+                            + "isSelfChange: %b}",
+                    familyUri,
+                    changedUris.size(),
+                    hasMoreChangedUris ? "+" : "",
+                    notificationCount,
+                    isSelfChange);
+        }
+    }
+
+    private static final class Family {
+        private final Uri uri;
+        private final boolean notifyForDescendants;
+
+        private Family(Uri uri, boolean notifyForDescendants) {
+            this.uri = uri;
+            this.notifyForDescendants = notifyForDescendants;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Family)) {
+                return false;
+            }
+            Family other = (Family) o;
+            return notifyForDescendants == other.notifyForDescendants && uri.equals(other.uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, notifyForDescendants);
+        }
+    }
+
+    /**
+     * The content observer of one URI family. Its pending state is only touched on the main thread.
+     */
+    private final class FamilyObserver extends ContentObserver {
+        private final Family family;
+        // Listener to the debounce window it asked for. Guarded by ContentChangeHub.this.
+        private final Map<Listener, Long> listeners = new ArrayMap<>();
+
+        private final Set<Uri> pendingUris = new LinkedHashSet<>();
+        private final Runnable dispatchRunnable = this::dispatchPendingChanges;
+        private boolean hasMorePendingUris;
+        private int pendingNotificationCount;
+        private boolean pendingIsSelfChange = true;
+        @Nullable
+        private Integer stormTimerId;
+
+        private FamilyObserver(Family family) {
+            super(ThreadUtil.getUiThreadHandler());
+            this.family = family;
+        }
+
+        @MainThread
+        @Override
+        public void onChange(boolean selfChange) {
+            onChange(selfChange, null);
+        }
+
+        @MainThread
+        @Override
+        public void onChange(boolean selfChange, @Nullable Uri uri) {
+            Assert.isMainThread();
+            Uri changedUri = uri == null ? family.uri : uri;
+            if (pendingUris.size() < MAX_CHANGED_URIS) {
+                pendingUris.add(changedUri);
+            } else if (!pendingUris.contains(changedUri)) {
+                hasMorePendingUris = true;
+            }
+            pendingIsSelfChange &= selfChange;
+            pendingNotificationCount++;
+
+            if (pendingNotificationCount == 1) {
+                ThreadUtil.getUiThreadHandler().postDelayed(dispatchRunnable, getWindowMillis());
+            } else if (pendingNotificationCount == 2) {
+                // A second notification within the window, time the storm until it is dispatched.
+                stormTimerId = MetricsComponent.get(appContext).metrics().startUnnamedTimer();
+            }
+        }
+
+        private long getWindowMillis() {
+            synchronized (ContentChangeHub.this) {
+                long windowMillis = DEFAULT_WINDOW_MILLIS;
+                boolean first = true;
+                for (long listenerWindowMillis : listeners.values()) {
+                    windowMillis = first ? listenerWindowMillis : Math.min(windowMillis, listenerWindowMillis);
+                    first = false;
+                }
+                return windowMillis;
+            }
+        }
+
+        @MainThread
+        private void dispatchPendingChanges() {
+            ChangeSummary summary =
+                    new ChangeSummary(
+                            family.uri,
+                            new LinkedHashSet<>(pendingUris),
+                            hasMorePendingUris,
+                            pendingNotificationCount,
+                            pendingIsSelfChange);
+            Integer timerId = stormTimerId;
+            resetPendingChanges();
+
+            if (summary.getNotificationCount() > 1) {
+                onNotificationsSuppressed(summary.getNotificationCount() - 1);
+                LogUtil.i(
+                        "ContentChangeHub.dispatchPendingChanges",
+                        "merged %d notifications for %s",
+                        summary.getNotificationCount(),
+                        family.uri);
+                if (timerId != null) {
+                    MetricsComponent.get(appContext)
+                            .metrics()
+                            .stopUnnamedTimer(
+                                    timerId,
+                                    String.format(
+                                            Metrics.CONTENT_CHANGE_STORM_TEMPLATE, family.uri.getAuthority()));
+                }
+            }
+
+            List<Listener> listenersToNotify;
+            synchronized (ContentChangeHub.this) {
+                listenersToNotify = new ArrayList<>(listeners.keySet());
+            }
+            for (Listener listener : listenersToNotify) {
+                listener.onContentChanged(summary);
+            }
+        }
+
+        private void cancelPendingChanges() {
+            ThreadUtil.getUiThreadHandler().removeCallbacks(dispatchRunnable);
+            ThreadUtil.postOnUiThread(this::resetPendingChanges);
+        }
+
+        @MainThread
+        private void resetPendingChanges() {
+            pendingUris.clear();
+            hasMorePendingUris = false;
+            pendingNotificationCount = 0;
+            pendingIsSelfChange = true;
+            stormTimerId = null;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
@@ -28,10 +29,12 @@ import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.provider.BaseColumns;
 import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds.Nickname;
 import android.provider.ContactsContract.CommonDataKinds.Phone;
 import android.provider.ContactsContract.Contacts;
 import android.provider.ContactsContract.Data;
 import android.provider.ContactsContract.Directory;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 import android.text.TextUtils;
@@ -69,7 +72,7 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
      *   0-98   KitKat
      * </pre>
      */
-    public static final int DATABASE_VERSION = 10;
+    public static final int DATABASE_VERSION = 13;
 
     public static final String DATABASE_NAME = "dialer.db";
 
@@ -85,7 +88,19 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
     private static final String DATABASE_LAST_CREATED_SHARED_PREF = "com.fissy.dialer";
     private static final String LAST_UPDATED_MILLIS = "last_updated_millis";
     private static final String DATABASE_VERSION_PROPERTY = "database_version";
+    /**
+     * Whether CP2 has phone numbers the smart dial table skipped, see {@link
+     * PhoneQuery#SELECT_IGNORE_LOOKUP_KEY_TOO_LONG_CLAUSE}.
+     */
+    private static final String SKIPPED_LOOKUP_KEY_TOO_LONG_PROPERTY = "skipped_lookup_key_too_long";
     private static final int MAX_ENTRIES = 20;
+    /**
+     * The phone number with the usual formatting characters removed, for looking up digits.
+     */
+    private static final String NUMBER_DIGITS =
+            "replace(replace(replace(replace(replace(replace("
+                    + SmartDialDbColumns.NUMBER
+                    + ", ' ', ''), '-', ''), '(', ''), ')', ''), '.', ''), '+', '')";
 
     private final Context context;
     private final DialerFutureSerializer dialerFutureSerializer = new DialerFutureSerializer();
@@ -146,7 +161,13 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         + SmartDialDbColumns.IS_PRIMARY
                         + " INTEGER, "
                         + SmartDialDbColumns.CARRIER_PRESENCE
-                        + " INTEGER NOT NULL DEFAULT 0"
+                        + " INTEGER NOT NULL DEFAULT 0, "
+                        + SmartDialDbColumns.T9_KEY
+                        + " TEXT, "
+                        + SmartDialDbColumns.PHONE_TYPE
+                        + " INTEGER NOT NULL DEFAULT 0, "
+                        + SmartDialDbColumns.PHONE_LABEL
+                        + " TEXT"
                         + ");");
 
         db.execSQL(
@@ -161,6 +182,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         + " INTEGER"
                         + ");");
 
+        createNameTokenTable(db);
+
         db.execSQL(
                 "CREATE TABLE "
                         + Tables.PROPERTIES
@@ -206,6 +229,7 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
 
     public void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS " + Tables.PREFIX_TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + Tables.NAME_TOKEN_TABLE);
         db.execSQL("DROP TABLE IF EXISTS " + Tables.SMARTDIAL_TABLE);
         db.execSQL("DROP TABLE IF EXISTS " + Tables.PROPERTIES);
         db.execSQL("DROP TABLE IF EXISTS " + Tables.FILTERED_NUMBER_TABLE);
@@ -269,6 +293,21 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
             oldVersion = 10;
         }
 
+        if (oldVersion < 11) {
+            upgradeToVersion11(db);
+            oldVersion = 11;
+        }
+
+        if (oldVersion < 12) {
+            upgradeToVersion12(db);
+            oldVersion = 12;
+        }
+
+        if (oldVersion < 13) {
+            upgradeToVersion13(db);
+            oldVersion = 13;
+        }
+
         if (oldVersion != DATABASE_VERSION) {
             throw new IllegalStateException(
                     "error upgrading the database to version " + DATABASE_VERSION);
@@ -281,6 +320,46 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         db.execSQL("ALTER TABLE smartdial_table ADD carrier_presence INTEGER NOT NULL DEFAULT 0");
     }
 
+    public void upgradeToVersion11(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE smartdial_table ADD t9_key TEXT");
+        // Reloads all contacts so the existing rows get their T9 keys.
+        if (!isTestInstance) {
+            resetSmartDialLastUpdatedTime();
+        }
+    }
+
+    public void upgradeToVersion12(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE smartdial_table ADD phone_type INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE smartdial_table ADD phone_label TEXT");
+        // Reloads all contacts so the existing rows get their phone types and labels.
+        if (!isTestInstance) {
+            resetSmartDialLastUpdatedTime();
+        }
+    }
+
+    public void upgradeToVersion13(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + Tables.NAME_TOKEN_TABLE);
+        createNameTokenTable(db);
+        // Reloads all contacts so the name tokens of the existing rows are computed.
+        if (!isTestInstance) {
+            resetSmartDialLastUpdatedTime();
+        }
+    }
+
+    private static void createNameTokenTable(SQLiteDatabase db) {
+        db.execSQL(
+                "CREATE TABLE "
+                        + Tables.NAME_TOKEN_TABLE
+                        + " ("
+                        + NameTokenColumns._ID
+                        + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                        + NameTokenColumns.TOKEN
+                        + " TEXT, "
+                        + NameTokenColumns.CONTACT_ID
+                        + " INTEGER"
+                        + ");");
+    }
+
     /**
      * Stores a key-value pair in the {@link Tables#PROPERTIES} table.
      */
@@ -413,6 +492,13 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         Tables.PREFIX_TABLE,
                         prefixSelection.getSelection(),
                         prefixSelection.getSelectionArgs());
+
+                Selection nameTokenSelection =
+                        Selection.column(NameTokenColumns.CONTACT_ID).is("=", deleteContactId);
+                db.delete(
+                        Tables.NAME_TOKEN_TABLE,
+                        nameTokenSelection.getSelection(),
+                        nameTokenSelection.getSelectionArgs());
             } while (deletedContactCursor.moveToNext());
 
             db.setTransactionSuccessful();
@@ -442,11 +528,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
      * @param last_update_time Time stamp of last successful update of the dialer database.
      */
     private void removePotentiallyCorruptedContacts(SQLiteDatabase db, String last_update_time) {
-        db.delete(
-                Tables.PREFIX_TABLE,
-                PrefixColumns.CONTACT_ID
-                        + " IN "
-                        + "(SELECT "
+        final String corruptedContactIds =
+                "(SELECT "
                         + SmartDialDbColumns.CONTACT_ID
                         + " FROM "
                         + Tables.SMARTDIAL_TABLE
@@ -454,7 +537,11 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         + SmartDialDbColumns.LAST_SMARTDIAL_UPDATE_TIME
                         + " > "
                         + last_update_time
-                        + ")",
+                        + ")";
+        db.delete(Tables.PREFIX_TABLE, PrefixColumns.CONTACT_ID + " IN " + corruptedContactIds, null);
+        db.delete(
+                Tables.NAME_TOKEN_TABLE,
+                NameTokenColumns.CONTACT_ID + " IN " + corruptedContactIds,
                 null);
         db.delete(
                 Tables.SMARTDIAL_TABLE,
@@ -485,6 +572,7 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
 
                 db.delete(Tables.SMARTDIAL_TABLE, SmartDialDbColumns.CONTACT_ID + "=" + contactId, null);
                 db.delete(Tables.PREFIX_TABLE, PrefixColumns.CONTACT_ID + "=" + contactId, null);
+                db.delete(Tables.NAME_TOKEN_TABLE, NameTokenColumns.CONTACT_ID + "=" + contactId, null);
             }
 
             db.setTransactionSuccessful();
@@ -536,8 +624,14 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                             + SmartDialDbColumns.CARRIER_PRESENCE
                             + ", "
                             + SmartDialDbColumns.LAST_SMARTDIAL_UPDATE_TIME
+                            + ", "
+                            + SmartDialDbColumns.T9_KEY
+                            + ", "
+                            + SmartDialDbColumns.PHONE_TYPE
+                            + ", "
+                            + SmartDialDbColumns.PHONE_LABEL
                             + ") "
-                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
             final SQLiteStatement insert = db.compileStatement(sqlInsert);
 
             final String numberSqlInsert =
@@ -579,12 +673,13 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                     insert.bindString(4, lookupKey);
                 }
 
-                final String displayName = updatedContactCursor.getString(PhoneQuery.PHONE_DISPLAY_NAME);
+                String displayName = updatedContactCursor.getString(PhoneQuery.PHONE_DISPLAY_NAME);
                 if (displayName == null) {
-                    insert.bindString(5, context.getResources().getString(R.string.missing_name));
-                } else {
-                    insert.bindString(5, displayName);
+                    displayName = context.getResources().getString(R.string.missing_name);
                 }
+                insert.bindString(5, displayName);
+                // Computed once per contact version rather than on every match and prefix build.
+                insert.bindString(15, SmartDialPrefix.getT9Key(context, displayName));
                 insert.bindLong(1, updatedContactCursor.getLong(PhoneQuery.PHONE_ID));
                 insert.bindLong(3, updatedContactCursor.getLong(PhoneQuery.PHONE_CONTACT_ID));
                 insert.bindLong(6, updatedContactCursor.getLong(PhoneQuery.PHONE_PHOTO_ID));
@@ -596,6 +691,11 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                 insert.bindLong(12, updatedContactCursor.getInt(PhoneQuery.PHONE_IS_PRIMARY));
                 insert.bindLong(13, updatedContactCursor.getInt(PhoneQuery.PHONE_CARRIER_PRESENCE));
                 insert.bindLong(14, currentMillis);
+                insert.bindLong(16, updatedContactCursor.getInt(PhoneQuery.PHONE_TYPE));
+                final String phoneLabel = updatedContactCursor.getString(PhoneQuery.PHONE_LABEL);
+                if (phoneLabel != null) {
+                    insert.bindString(17, phoneLabel);
+                }
                 insert.executeInsert();
                 final String contactPhoneNumber = updatedContactCursor.getString(PhoneQuery.PHONE_NUMBER);
                 final ArrayList<String> numberPrefixes =
@@ -624,6 +724,7 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
     @VisibleForTesting
     void insertNamePrefixes(SQLiteDatabase db, Cursor nameCursor) {
         final int columnIndexName = nameCursor.getColumnIndex(SmartDialDbColumns.DISPLAY_NAME_PRIMARY);
+        final int columnIndexT9Key = nameCursor.getColumnIndex(SmartDialDbColumns.T9_KEY);
         final int columnIndexContactId = nameCursor.getColumnIndex(SmartDialDbColumns.CONTACT_ID);
 
         db.beginTransaction();
@@ -649,7 +750,12 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
 
                 /** Computes a list of prefixes of a given contact name. */
                 final ArrayList<String> namePrefixes =
-                        SmartDialPrefix.generateNamePrefixes(context, nameCursor.getString(columnIndexName));
+                        columnIndexT9Key == -1 || nameCursor.isNull(columnIndexT9Key)
+                                ? SmartDialPrefix.generateNamePrefixes(
+                                context, nameCursor.getString(columnIndexName))
+                                : SmartDialPrefix.generateNamePrefixes(
+                                SmartDialPrefix.parseT9KeyToIndexTokens(
+                                        nameCursor.getString(columnIndexT9Key)));
 
                 for (String namePrefix : namePrefixes) {
                     insert.bindLong(1, nameCursor.getLong(columnIndexContactId));
@@ -665,6 +771,75 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         }
     }
 
+    /**
+     * Inserts the text search tokens of contact names and nicknames to the name token table, see
+     * {@link SmartDialPrefix#generateNameTokens(Context, String)}.
+     *
+     * @param db             Database pointer to the smartdial database.
+     * @param nameCursor     Cursor pointing to the list of distinct updated contacts.
+     * @param nicknameCursor Cursor pointing to the nicknames of the updated contacts, or null if they
+     *                       couldn't be queried.
+     */
+    @VisibleForTesting
+    void insertNameTokens(SQLiteDatabase db, Cursor nameCursor, @Nullable Cursor nicknameCursor) {
+        final int columnIndexName = nameCursor.getColumnIndex(SmartDialDbColumns.DISPLAY_NAME_PRIMARY);
+        final int columnIndexContactId = nameCursor.getColumnIndex(SmartDialDbColumns.CONTACT_ID);
+
+        db.beginTransaction();
+        try {
+            final String sqlInsert =
+                    "INSERT INTO "
+                            + Tables.NAME_TOKEN_TABLE
+                            + " ("
+                            + NameTokenColumns.CONTACT_ID
+                            + ", "
+                            + NameTokenColumns.TOKEN
+                            + ") "
+                            + " VALUES (?, ?)";
+            final SQLiteStatement insert = db.compileStatement(sqlInsert);
+
+            // Only contacts with phone numbers are in the smart dial table.
+            final Set<Long> contactIds = new HashSet<>();
+            nameCursor.moveToPosition(-1);
+            while (nameCursor.moveToNext()) {
+                if (nameCursor.isNull(columnIndexContactId)) {
+                    continue;
+                }
+                final long contactId = nameCursor.getLong(columnIndexContactId);
+                contactIds.add(contactId);
+                insertNameTokens(insert, contactId, nameCursor.getString(columnIndexName));
+            }
+
+            if (nicknameCursor != null) {
+                nicknameCursor.moveToPosition(-1);
+                while (nicknameCursor.moveToNext()) {
+                    if (nicknameCursor.isNull(NicknameQuery.NICKNAME_CONTACT_ID)
+                            || nicknameCursor.isNull(NicknameQuery.NICKNAME_NAME)) {
+                        continue;
+                    }
+                    final long contactId = nicknameCursor.getLong(NicknameQuery.NICKNAME_CONTACT_ID);
+                    if (contactIds.contains(contactId)) {
+                        insertNameTokens(
+                                insert, contactId, nicknameCursor.getString(NicknameQuery.NICKNAME_NAME));
+                    }
+                }
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void insertNameTokens(SQLiteStatement insert, long contactId, String name) {
+        for (String nameToken : SmartDialPrefix.generateNameTokens(context, name)) {
+            insert.bindLong(1, contactId);
+            insert.bindString(2, nameToken);
+            insert.executeInsert();
+            insert.clearBindings();
+        }
+    }
+
     /**
      * Updates the smart dial and prefix database. This method queries the Delta API to get changed
      * contacts since last update, and updates the records in smartdial database and prefix database
@@ -779,6 +954,27 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
             updatedPhoneCursor.close();
         }
 
+        /** Records whether the regular search has to look up skipped numbers in CP2. */
+        final Cursor skippedPhoneCursor =
+                context
+                        .getContentResolver()
+                        .query(
+                                PhoneQuery.URI,
+                                new String[]{Phone._ID},
+                                PhoneQuery.SELECT_LOOKUP_KEY_TOO_LONG_CLAUSE,
+                                null,
+                                null);
+        if (skippedPhoneCursor != null) {
+            try {
+                setProperty(
+                        db,
+                        SKIPPED_LOOKUP_KEY_TOO_LONG_PROPERTY,
+                        String.valueOf(skippedPhoneCursor.getCount() > 0));
+            } finally {
+                skippedPhoneCursor.close();
+            }
+        }
+
         /**
          * Gets a list of distinct contacts which have been updated, and adds the name prefixes of these
          * contacts to the prefix table.
@@ -788,6 +984,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         "SELECT DISTINCT "
                                 + SmartDialDbColumns.DISPLAY_NAME_PRIMARY
                                 + ", "
+                                + SmartDialDbColumns.T9_KEY
+                                + ", "
                                 + SmartDialDbColumns.CONTACT_ID
                                 + " FROM "
                                 + Tables.SMARTDIAL_TABLE
@@ -807,6 +1005,27 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                 if (DEBUG) {
                     stopWatch.lap("Finished building the name prefix table");
                 }
+
+                /** Inserts text search tokens of names and nicknames into the name token table. */
+                final Cursor nicknameCursor =
+                        context
+                                .getContentResolver()
+                                .query(
+                                        NicknameQuery.URI,
+                                        NicknameQuery.PROJECTION,
+                                        NicknameQuery.SELECTION,
+                                        new String[]{lastUpdateMillis},
+                                        null);
+                try {
+                    insertNameTokens(db, nameCursor, nicknameCursor);
+                } finally {
+                    if (nicknameCursor != null) {
+                        nicknameCursor.close();
+                    }
+                }
+                if (DEBUG) {
+                    stopWatch.lap("Finished building the name token table");
+                }
             } finally {
                 nameCursor.close();
             }
@@ -861,6 +1080,20 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         + " ("
                         + PrefixColumns.CONTACT_ID
                         + ");");
+        /** Creates index on token for fast range SELECT operation. */
+        db.execSQL(
+                "CREATE INDEX IF NOT EXISTS name_token_index ON "
+                        + Tables.NAME_TOKEN_TABLE
+                        + " ("
+                        + NameTokenColumns.TOKEN
+                        + ");");
+        /** Creates index on contact_id for fast delete operation. */
+        db.execSQL(
+                "CREATE INDEX IF NOT EXISTS name_token_contact_id_index ON "
+                        + Tables.NAME_TOKEN_TABLE
+                        + " ("
+                        + NameTokenColumns.CONTACT_ID
+                        + ");");
 
         if (DEBUG) {
             stopWatch.lap(TAG + "Finished recreating index");
@@ -869,10 +1102,13 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         /** Updates the database index statistics. */
         db.execSQL("ANALYZE " + Tables.SMARTDIAL_TABLE);
         db.execSQL("ANALYZE " + Tables.PREFIX_TABLE);
+        db.execSQL("ANALYZE " + Tables.NAME_TOKEN_TABLE);
         db.execSQL("ANALYZE smartdial_contact_id_index");
         db.execSQL("ANALYZE smartdial_last_update_index");
         db.execSQL("ANALYZE nameprefix_index");
         db.execSQL("ANALYZE nameprefix_contact_id_index");
+        db.execSQL("ANALYZE name_token_index");
+        db.execSQL("ANALYZE name_token_contact_id_index");
         if (DEBUG) {
             stopWatch.stopAndLog(TAG + "Finished updating index stats", 0);
         }
@@ -927,6 +1163,12 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                                 + SmartDialDbColumns.LOOKUP_KEY
                                 + ", "
                                 + SmartDialDbColumns.CARRIER_PRESENCE
+                                + ", "
+                                + SmartDialDbColumns.T9_KEY
+                                + ", "
+                                + SmartDialDbColumns.PHONE_TYPE
+                                + ", "
+                                + SmartDialDbColumns.PHONE_LABEL
                                 + " FROM "
                                 + Tables.SMARTDIAL_TABLE
                                 + " WHERE "
@@ -962,6 +1204,9 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
             final int columnId = 4;
             final int columnLookupKey = 5;
             final int columnCarrierPresence = 6;
+            final int columnT9Key = 7;
+            final int columnPhoneType = 8;
+            final int columnPhoneLabel = 9;
             if (DEBUG) {
                 stopWatch.lap("Found column IDs");
             }
@@ -986,6 +1231,7 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                 final long photoId = cursor.getLong(columnPhotoId);
                 final String lookupKey = cursor.getString(columnLookupKey);
                 final int carrierPresence = cursor.getInt(columnCarrierPresence);
+                final String t9Key = cursor.getString(columnT9Key);
 
                 /**
                  * If a contact already exists and another phone number of the contact is being processed,
@@ -999,7 +1245,10 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                 /**
                  * If the contact has either the name or number that matches the query, add to the result.
                  */
-                final boolean nameMatches = nameMatcher.matches(context, displayName);
+                final boolean nameMatches =
+                        t9Key != null
+                                ? nameMatcher.matchesT9Key(t9Key)
+                                : nameMatcher.matches(context, displayName);
                 final boolean numberMatches =
                         (nameMatcher.matchesNumber(context, phoneNumber, query) != null);
                 if (nameMatches || numberMatches) {
@@ -1007,7 +1256,15 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                     duplicates.add(contactMatch);
                     result.add(
                             new ContactNumber(
-                                    id, dataID, displayName, phoneNumber, lookupKey, photoId, carrierPresence));
+                                    id,
+                                    dataID,
+                                    displayName,
+                                    phoneNumber,
+                                    cursor.getInt(columnPhoneType),
+                                    cursor.getString(columnPhoneLabel),
+                                    lookupKey,
+                                    photoId,
+                                    carrierPresence));
                     counter++;
                     if (DEBUG) {
                         stopWatch.lap("Added one result: Name: " + displayName);
@@ -1024,6 +1281,124 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         return result;
     }
 
+    /**
+     * Returns the phone numbers of the contacts with a name or nickname containing a word that starts
+     * with the query, or with a phone number containing the digits of the query. They are ranked the
+     * same way as {@link #getLooseMatches(String, SmartDialNameMatcher)} ranks its matches, so the
+     * regular search ranks the contacts of the dialpad search the same way.
+     *
+     * <p>Names are looked up through the index on {@link Tables#NAME_TOKEN_TABLE}. Numbers can't be
+     * looked up by an index, so only pass {@code digitsQuery} if the query can be a phone number.
+     *
+     * @param normalizedQuery The query as returned by {@link SmartDialPrefix#normalizeName(Context,
+     *                        String)}. It must not contain surrogates. If it is empty all phone
+     *                        numbers are returned.
+     * @param digitsQuery     The digits to look up in phone numbers, or null to only look up names.
+     * @return The phone numbers, or {@code null} if the table is empty, e.g. because it wasn't built
+     * yet.
+     */
+    @WorkerThread
+    @Nullable
+    public synchronized ArrayList<ContactNumber> getNameOrNumberMatches(
+            String normalizedQuery, @Nullable String digitsQuery) {
+        final SQLiteDatabase db = getReadableDatabase();
+        if (DatabaseUtils.queryIsEmpty(db, Tables.SMARTDIAL_TABLE)) {
+            return null;
+        }
+
+        // SmartDialSortingOrder.SORT_ORDER binds the current time as ?1, so it goes first and the
+        // placeholders below are numbered after it.
+        final ArrayList<String> selectionArgs = new ArrayList<>();
+        selectionArgs.add(Long.toString(System.currentTimeMillis()));
+        String where = "";
+        if (!normalizedQuery.isEmpty()) {
+            // Range on the index rather than LIKE, tokens are prefixed by the query if they sort
+            // between the query and the query with its last character incremented.
+            final int last = normalizedQuery.length() - 1;
+            selectionArgs.add(normalizedQuery);
+            selectionArgs.add(
+                    normalizedQuery.substring(0, last) + (char) (normalizedQuery.charAt(last) + 1));
+            where =
+                    " WHERE "
+                            + SmartDialDbColumns.CONTACT_ID
+                            + " IN (SELECT "
+                            + NameTokenColumns.CONTACT_ID
+                            + " FROM "
+                            + Tables.NAME_TOKEN_TABLE
+                            + " WHERE "
+                            + NameTokenColumns.TOKEN
+                            + " >= ?2 AND "
+                            + NameTokenColumns.TOKEN
+                            + " < ?3)";
+            if (!TextUtils.isEmpty(digitsQuery)) {
+                selectionArgs.add("%" + digitsQuery + "%");
+                where += " OR " + NUMBER_DIGITS + " LIKE ?4";
+            }
+        }
+
+        final Cursor cursor =
+                db.rawQuery(
+                        "SELECT "
+                                + SmartDialDbColumns.DATA_ID
+                                + ", "
+                                + SmartDialDbColumns.DISPLAY_NAME_PRIMARY
+                                + ", "
+                                + SmartDialDbColumns.PHOTO_ID
+                                + ", "
+                                + SmartDialDbColumns.NUMBER
+                                + ", "
+                                + SmartDialDbColumns.CONTACT_ID
+                                + ", "
+                                + SmartDialDbColumns.LOOKUP_KEY
+                                + ", "
+                                + SmartDialDbColumns.CARRIER_PRESENCE
+                                + ", "
+                                + SmartDialDbColumns.PHONE_TYPE
+                                + ", "
+                                + SmartDialDbColumns.PHONE_LABEL
+                                + " FROM "
+                                + Tables.SMARTDIAL_TABLE
+                                + where
+                                + " ORDER BY "
+                                + SmartDialSortingOrder.SORT_ORDER,
+                        selectionArgs.toArray(new String[0]));
+        final ArrayList<ContactNumber> result = new ArrayList<>();
+        if (cursor == null) {
+            return result;
+        }
+        try {
+            while (cursor.moveToNext()) {
+                if (cursor.isNull(0)) {
+                    continue;
+                }
+                result.add(
+                        new ContactNumber(
+                                cursor.getLong(4),
+                                cursor.getLong(0),
+                                cursor.getString(1),
+                                cursor.getString(3),
+                                cursor.getInt(7),
+                                cursor.getString(8),
+                                cursor.getString(5),
+                                cursor.getLong(2),
+                                cursor.getInt(6)));
+            }
+            return result;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Returns true if CP2 has phone numbers which are not in the smart dial table because the lookup
+     * key of their contact is too long, see {@link
+     * PhoneQuery#SELECT_IGNORE_LOOKUP_KEY_TOO_LONG_CLAUSE}.
+     */
+    @WorkerThread
+    public boolean hasSkippedLookupKeyTooLongContacts() {
+        return Boolean.parseBoolean(getProperty(SKIPPED_LOOKUP_KEY_TOO_LONG_PROPERTY, "false"));
+    }
+
     public interface Tables {
 
         /**
@@ -1038,6 +1413,10 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
          * Saves all possible prefixes to refer to a contacts.
          */
         String PREFIX_TABLE = "prefix_table";
+        /**
+         * Saves the text search tokens of the names and nicknames of contacts.
+         */
+        String NAME_TOKEN_TABLE = "name_token_table";
         /**
          * Saves all archived voicemail information.
          */
@@ -1065,6 +1444,13 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         String IS_PRIMARY = "is_primary";
         String CARRIER_PRESENCE = "carrier_presence";
         String LAST_SMARTDIAL_UPDATE_TIME = "last_smartdial_update_time";
+        /**
+         * The display name with each character replaced by its dialpad key, see {@link
+         * SmartDialPrefix#getT9Key(Context, String)}.
+         */
+        String T9_KEY = "t9_key";
+        String PHONE_TYPE = "phone_type";
+        String PHONE_LABEL = "phone_label";
     }
 
     public interface PrefixColumns extends BaseColumns {
@@ -1073,6 +1459,16 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         String CONTACT_ID = "contact_id";
     }
 
+    public interface NameTokenColumns extends BaseColumns {
+
+        /**
+         * A normalized name starting at one of its words, see {@link
+         * SmartDialPrefix#generateNameTokens(Context, String)}.
+         */
+        String TOKEN = "token";
+        String CONTACT_ID = "contact_id";
+    }
+
     public interface PropertiesColumns {
 
         String PROPERTY_KEY = "property_key";
@@ -1140,9 +1536,40 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
          */
         String SELECT_IGNORE_LOOKUP_KEY_TOO_LONG_CLAUSE = "length(" + Phone.LOOKUP_KEY + ") < 1000";
 
+        /**
+         * Selects the rows {@link #SELECT_IGNORE_LOOKUP_KEY_TOO_LONG_CLAUSE} ignores.
+         */
+        String SELECT_LOOKUP_KEY_TOO_LONG_CLAUSE = "length(" + Phone.LOOKUP_KEY + ") >= 1000";
+
         String SELECTION = SELECT_UPDATED_CLAUSE + " AND " + SELECT_IGNORE_LOOKUP_KEY_TOO_LONG_CLAUSE;
     }
 
+    /**
+     * Query for the nicknames of all contacts that have been updated since the last time the smart
+     * dial database was updated.
+     */
+    public interface NicknameQuery {
+
+        Uri URI = Data.CONTENT_URI;
+
+        String[] PROJECTION =
+                new String[]{
+                        Nickname.CONTACT_ID, // 0
+                        Nickname.NAME, // 1
+                };
+
+        int NICKNAME_CONTACT_ID = 0;
+        int NICKNAME_NAME = 1;
+
+        String SELECTION =
+                Data.MIMETYPE
+                        + " = '"
+                        + Nickname.CONTENT_ITEM_TYPE
+                        + "' AND "
+                        + Data.CONTACT_LAST_UPDATED_TIMESTAMP
+                        + " > ?";
+    }
+
     /**
      * Query for all contacts that have been updated since the last time the smart dial database was
      * updated.
@@ -1271,6 +1698,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         public final long dataId;
         public final String displayName;
         public final String phoneNumber;
+        public final int phoneType;
+        public final String phoneLabel;
         public final String lookupKey;
         public final long photoId;
         public final int carrierPresence;
@@ -1280,6 +1709,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                 long dataID,
                 String displayName,
                 String phoneNumber,
+                int phoneType,
+                String phoneLabel,
                 String lookupKey,
                 long photoId,
                 int carrierPresence) {
@@ -1287,6 +1718,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
             this.id = id;
             this.displayName = displayName;
             this.phoneNumber = phoneNumber;
+            this.phoneType = phoneType;
+            this.phoneLabel = phoneLabel;
             this.lookupKey = lookupKey;
             this.photoId = photoId;
             this.carrierPresence = carrierPresence;
@@ -1295,7 +1728,15 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
         @Override
         public int hashCode() {
             return Objects.hash(
-                    id, dataId, displayName, phoneNumber, lookupKey, photoId, carrierPresence);
+                    id,
+                    dataId,
+                    displayName,
+                    phoneNumber,
+                    phoneType,
+                    phoneLabel,
+                    lookupKey,
+                    photoId,
+                    carrierPresence);
         }
 
         @Override
@@ -1309,6 +1750,8 @@ public class DialerDatabaseHelper extends SQLiteOpenHelper {
                         && Objects.equals(this.dataId, that.dataId)
                         && Objects.equals(this.displayName, that.displayName)
                         && Objects.equals(this.phoneNumber, that.phoneNumber)
+                        && Objects.equals(this.phoneType, that.phoneType)
+                        && Objects.equals(this.phoneLabel, that.phoneLabel)
                         && Objects.equals(this.lookupKey, that.lookupKey)
                         && Objects.equals(this.photoId, that.photoId)
                         && Objects.equals(this.carrierPresence, that.carrierPresence);
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fissy.dialer.lettertile;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.fissy.dialer.common.LogUtil;
+
+import java.util.Objects;
+
+/**
+ * Process wide cache of rendered {@link LetterTileDrawable} tiles, so identical tiles in the call
+ * log, search, speed dial, shortcuts and in-call UI are rasterized once. The cache is bounded in
+ * bytes and is emptied under memory pressure. Cached bitmaps are shared and must not be modified.
+ */
+public final class LetterTileBitmapCache implements ComponentCallbacks2 {
+
+    // Fraction of the heap the rendered tiles may take up.
+    private static final int MAX_MEMORY_FRACTION = 64;
+
+    private static LetterTileBitmapCache instance;
+
+    private final LruCache<Key, Bitmap> cache;
+
+    private LetterTileBitmapCache(int maxSizeBytes) {
+        cache =
+                new LruCache<Key, Bitmap>(maxSizeBytes) {
+                    @Override
+                    protected int sizeOf(Key key, Bitmap value) {
+                        return value.getByteCount();
+                    }
+                };
+    }
+
+    public static synchronized LetterTileBitmapCache getInstance() {
+        if (instance == null) {
+            instance =
+                    new LetterTileBitmapCache((int) (Runtime.getRuntime().maxMemory() / MAX_MEMORY_FRACTION));
+        }
+        return instance;
+    }
+
+    @Nullable
+    Bitmap get(@NonNull Key key) {
+        return cache.get(key);
+    }
+
+    void put(@NonNull Key key, @NonNull Bitmap bitmap) {
+        cache.put(key, bitmap);
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            LogUtil.i("LetterTileBitmapCache.onTrimMemory", "clearing, level: %d", level);
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // Tile colors and avatars come from resources which may have changed, e.g. for night mode.
+        clear();
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    /**
+     * Everything that affects the pixels of a rendered tile.
+     */
+    static final class Key {
+        @Nullable
+        private final Character letter;
+        private final int color;
+        private final int fontColor;
+        private final boolean isCircle;
+        private final int width;
+        private final int height;
+        private final int contactType;
+        private final float scale;
+        private final float offset;
+
+        Key(
+                @Nullable Character letter,
+                int color,
+                int fontColor,
+                boolean isCircle,
+                int width,
+                int height,
+                int contactType,
+                float scale,
+                float offset) {
+            this.letter = letter;
+            this.color = color;
+            this.fontColor = fontColor;
+            this.isCircle = isCircle;
+            this.width = width;
+            this.height = height;
+            this.contactType = contactType;
+            this.scale = scale;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return color == other.color
+                    && fontColor == other.fontColor
+                    && isCircle == other.isCircle
+                    && width == other.width
+                    && height == other.height
+                    && contactType == other.contactType
+                    && Float.compare(scale, other.scale) == 0
+                    && Float.compare(offset, other.offset) == 0
+                    && Objects.equals(letter, other.letter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    letter, color, fontColor, isCircle, width, height, contactType, scale, offset);
+        }
+    }
+}
@@ -78,6 +78,10 @@ public class LetterTileDrawable extends Drawable {
      * Default icon scale for vector drawable.
      */
     private static final float VECTOR_ICON_SCALE = 0.7f;
+    /**
+     * Tiles larger than this in either dimension are drawn directly instead of being cached.
+     */
+    private static final int MAX_CACHED_TILE_SIZE_PX = 512;
     /**
      * Reusable components to avoid new allocations
      */
@@ -205,15 +209,56 @@ public class LetterTileDrawable extends Drawable {
         if (!isVisible() || bounds.isEmpty()) {
             return;
         }
-        // Draw letter tile.
-        drawLetterTile(canvas);
+        // Draw letter tile. The shared tiles are rendered without a color filter.
+        if (paint.getColorFilter() != null || !isCacheable(bounds)) {
+            drawLetterTile(canvas);
+            return;
+        }
+        canvas.drawBitmap(getCachedBitmap(bounds), bounds.left, bounds.top, null);
     }
 
+    /**
+     * Returns the tile rendered at the given size. The bitmap is shared through {@link
+     * LetterTileBitmapCache} and must not be modified.
+     */
     public Bitmap getBitmap(int width, int height) {
-        Bitmap bitmap = Bitmap.createBitmap(width, height, Config.ARGB_8888);
         this.setBounds(0, 0, width, height);
+        if (!isCacheable(getBounds())) {
+            return renderBitmap(getBounds());
+        }
+        return getCachedBitmap(getBounds());
+    }
+
+    private static boolean isCacheable(Rect bounds) {
+        return bounds.width() <= MAX_CACHED_TILE_SIZE_PX && bounds.height() <= MAX_CACHED_TILE_SIZE_PX;
+    }
+
+    private Bitmap getCachedBitmap(Rect bounds) {
+        LetterTileBitmapCache.Key key =
+                new LetterTileBitmapCache.Key(
+                        letter,
+                        color,
+                        tileFontColor,
+                        isCircle,
+                        bounds.width(),
+                        bounds.height(),
+                        contactType,
+                        scale,
+                        offset);
+        LetterTileBitmapCache cache = LetterTileBitmapCache.getInstance();
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = renderBitmap(bounds);
+            cache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private Bitmap renderBitmap(Rect bounds) {
+        Bitmap bitmap = Bitmap.createBitmap(bounds.width(), bounds.height(), Config.ARGB_8888);
         Canvas canvas = new Canvas(bitmap);
-        this.draw(canvas);
+        canvas.translate(-bounds.left, -bounds.top);
+        drawLetterTile(canvas);
         return bitmap;
     }
 
@@ -26,11 +26,9 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.database.ContentObserver;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
 import android.provider.CallLog.Calls;
 import android.provider.ContactsContract.QuickContact;
 import android.provider.VoicemailContract;
@@ -90,6 +88,7 @@ import com.fissy.dialer.constants.ActivityRequestCodes;
 import com.fissy.dialer.contactsfragment.ContactsFragment;
 import com.fissy.dialer.contactsfragment.ContactsFragment.Header;
 import com.fissy.dialer.contactsfragment.ContactsFragment.OnContactSelectedListener;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.database.CallLogQueryHandler;
 import com.fissy.dialer.database.Database;
 import com.fissy.dialer.dialpadview.DialpadFragment;
@@ -547,9 +546,8 @@ public class OldMainActivityPeer implements MainActivityPeer, FragmentUtilListen
         if (bottomNavTabListener.newCallLogFragmentActive()) {
             if (PermissionsUtil.hasCallLogReadPermissions(activity)) {
                 missedCallCountObserver.onChange(false); // Set the initial value for the badge
-                activity
-                        .getContentResolver()
-                        .registerContentObserver(Calls.CONTENT_URI, true, missedCallCountObserver);
+                ContentChangeHub.get(activity)
+                        .subscribe(Calls.CONTENT_URI, true, missedCallCountObserver);
             } else {
                 bottomNav.setNotificationCount(TabIndex.CALL_LOG, 0);
             }
@@ -573,7 +571,7 @@ public class OldMainActivityPeer implements MainActivityPeer, FragmentUtilListen
     public void onActivityPause() {
         searchController.onActivityPause();
         LocalBroadcastManager.getInstance(activity).unregisterReceiver(disableCallLogFrameworkReceiver);
-        activity.getContentResolver().unregisterContentObserver(missedCallCountObserver);
+        ContentChangeHub.get(activity).unsubscribe(missedCallCountObserver);
     }
 
     @Override
@@ -922,17 +920,13 @@ public class OldMainActivityPeer implements MainActivityPeer, FragmentUtilListen
         private final BottomNavBar bottomNavBar;
         private final Toolbar toolbar;
         private final MainBottomNavBarBottomNavTabListener bottomNavTabListener;
-        private final ContentObserver voicemailStatusObserver =
-                new ContentObserver(new Handler()) {
-                    @Override
-                    public void onChange(boolean selfChange) {
-                        LogUtil.i(
-                                "MainCallLogFragmentListener",
-                                "voicemailStatusObserver.onChange selfChange:%b",
-                                selfChange);
-                        super.onChange(selfChange);
-                        callLogQueryHandler.fetchVoicemailStatus();
-                    }
+        private final ContentChangeHub.Listener voicemailStatusListener =
+                summary -> {
+                    LogUtil.i(
+                            "MainCallLogFragmentListener",
+                            "voicemailStatusListener.onContentChanged summary:%s",
+                            summary);
+                    callLogQueryHandler.fetchVoicemailStatus();
                 };
         private @TabIndex
         int currentTab = TabIndex.SPEED_DIAL;
@@ -957,10 +951,8 @@ public class OldMainActivityPeer implements MainActivityPeer, FragmentUtilListen
             if (PermissionsUtil.hasReadVoicemailPermissions(context)
                     && PermissionsUtil.hasAddVoicemailPermissions(context)) {
                 LogUtil.i("MainCallLogFragmentListener.registerVoicemailStatusContentObserver", "register");
-                context
-                        .getContentResolver()
-                        .registerContentObserver(
-                                VoicemailContract.Status.CONTENT_URI, true, voicemailStatusObserver);
+                ContentChangeHub.get(context)
+                        .subscribe(VoicemailContract.Status.CONTENT_URI, true, voicemailStatusListener);
             } else {
                 LogUtil.w(
                         "MainCallLogFragmentListener.registerVoicemailStatusContentObserver",
@@ -1099,7 +1091,7 @@ public class OldMainActivityPeer implements MainActivityPeer, FragmentUtilListen
          * Should be called when {@link AppCompatActivity#onStop()} is called.
          */
         public void onActivityStop(boolean changingConfigurations, boolean keyguardLocked) {
-            context.getContentResolver().unregisterContentObserver(voicemailStatusObserver);
+            ContentChangeHub.get(context).unsubscribe(voicemailStatusListener);
             activityIsAlive = false;
             // The new call log fragment handles this on its own.
             if (!bottomNavTabListener.newCallLogFragmentActive()
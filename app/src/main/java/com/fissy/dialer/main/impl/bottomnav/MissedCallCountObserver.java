@@ -21,10 +21,13 @@ import android.content.Context;
 import android.database.ContentObserver;
 import android.database.Cursor;
 import android.provider.CallLog.Calls;
+import androidx.annotation.NonNull;
 import androidx.annotation.RequiresPermission;
 
 import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
 import com.fissy.dialer.common.concurrent.UiListener;
+import com.fissy.dialer.contentchange.ContentChangeHub;
+import com.fissy.dialer.contentchange.ContentChangeHub.ChangeSummary;
 import com.fissy.dialer.main.impl.bottomnav.BottomNavBar.TabIndex;
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -33,7 +36,8 @@ import com.google.common.util.concurrent.ListenableFuture;
  *
  * <p>Used only when the new call log fragment is enabled.
  */
-public final class MissedCallCountObserver extends ContentObserver {
+public final class MissedCallCountObserver extends ContentObserver
+        implements ContentChangeHub.Listener {
     private final Context appContext;
     private final BottomNavBar bottomNavBar;
     private final UiListener<Integer> uiListener;
@@ -80,4 +84,10 @@ public final class MissedCallCountObserver extends ContentObserver {
                     throw new RuntimeException(throwable);
                 });
     }
+
+    @RequiresPermission(Manifest.permission.READ_CALL_LOG)
+    @Override
+    public void onContentChanged(@NonNull ChangeSummary summary) {
+        onChange(summary.isSelfChange());
+    }
 }
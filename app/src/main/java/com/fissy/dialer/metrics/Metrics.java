@@ -71,6 +71,14 @@ public interface Metrics {
     String LOOKUP_FOR_CALL_TEMPLATE = "%s.LookupForCall";
     String LOOKUP_FOR_NUMBER_TEMPLATE = "%s.LookupForNumber";
 
+    String LOAD_SPEED_DIAL_UI_ITEMS_EVENT_NAME = "SpeedDialUiItemMutator.LoadSpeedDialUiItems";
+
+    // Prefixed with the authority of the URI whose notifications were merged by ContentChangeHub.
+    String CONTENT_CHANGE_STORM_TEMPLATE = "ContentChangeHub.%s.Storm";
+
+    String SPAM_CACHE_HIT_COUNTER_NAME = "NumberStatusIndex.SpamCacheHit";
+    String SPAM_CACHE_MISS_COUNTER_NAME = "NumberStatusIndex.SpamCacheMiss";
+
     /**
      * Start a timer.
      */
@@ -118,6 +126,11 @@ public interface Metrics {
      */
     void recordBattery(String batteryEventName);
 
+    /**
+     * Adds {@code count} to a counter.
+     */
+    void incrementCounter(String counterName, long count);
+
     /**
      * Initiazer for metrics.
      */
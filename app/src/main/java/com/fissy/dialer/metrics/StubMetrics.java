@@ -23,6 +23,7 @@ import com.fissy.dialer.common.LogUtil;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -37,6 +38,7 @@ public final class StubMetrics implements Metrics {
 
     private final ConcurrentMap<String, StubTimerEvent> namedEvents = new ConcurrentHashMap<>();
     private final ConcurrentMap<Integer, StubTimerEvent> unnamedEvents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
 
     @Inject
     StubMetrics() {
@@ -107,6 +109,17 @@ public final class StubMetrics implements Metrics {
         LogUtil.d("StubMetrics.recordBattery", "recorded battery for %s", batteryEventName);
     }
 
+    @Override
+    public void incrementCounter(String counterName, long count) {
+        AtomicLong counter = counters.get(counterName);
+        if (counter == null) {
+            counters.putIfAbsent(counterName, new AtomicLong());
+            counter = counters.get(counterName);
+        }
+        LogUtil.d(
+                "StubMetrics.incrementCounter", "%s is %d", counterName, counter.addAndGet(count));
+    }
+
     private static class StubTimerEvent {
         final long startTime;
 
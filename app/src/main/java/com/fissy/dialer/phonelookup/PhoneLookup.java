@@ -63,7 +63,7 @@ public interface PhoneLookup<T> {
                 backgroundExecutor.submit(
                         () -> {
                             DialerPhoneNumberUtil dialerPhoneNumberUtil = new DialerPhoneNumberUtil();
-                            return dialerPhoneNumberUtil.parse(
+                            return dialerPhoneNumberUtil.parseCached(
                                     TelecomCallUtil.getNumber(call), GeoUtil.getCurrentCountryIso(appContext));
                         });
 
@@ -24,12 +24,14 @@ import androidx.annotation.WorkerThread;
 import android.util.ArraySet;
 
 import com.fissy.dialer.DialerPhoneNumber;
+import com.fissy.dialer.blocking.BlockedNumberIndex;
 import com.fissy.dialer.blocking.FilteredNumberCompat;
 import com.fissy.dialer.calllog.observer.MarkDirtyObserver;
 import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.Annotations.BackgroundExecutor;
 import com.fissy.dialer.common.database.Selection;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.inject.ApplicationContext;
 import com.fissy.dialer.phonelookup.PhoneLookup;
 import com.fissy.dialer.phonelookup.PhoneLookupInfo;
@@ -100,6 +102,22 @@ public class SystemBlockedNumberPhoneLookup implements PhoneLookup<SystemBlocked
 
         Set<DialerPhoneNumber> blockedNumbers = new ArraySet<>();
 
+        BlockedNumberIndex.Snapshot snapshot = BlockedNumberIndex.get(appContext).getSnapshot();
+        if (snapshot != null && snapshot.usesNewFiltering()) {
+            for (String e164Number : partitionedNumbers.validE164Numbers()) {
+                if (snapshot.containsE164Number(e164Number)) {
+                    blockedNumbers.addAll(
+                            partitionedNumbers.dialerPhoneNumbersForValidE164(e164Number));
+                }
+            }
+            for (String number : partitionedNumbers.invalidNumbers()) {
+                if (snapshot.containsOriginalNumber(number)) {
+                    blockedNumbers.addAll(partitionedNumbers.dialerPhoneNumbersForInvalid(number));
+                }
+            }
+            return toBlockedNumberInfos(numbers, blockedNumbers);
+        }
+
         Selection normalizedSelection =
                 Selection.column(BlockedNumbers.COLUMN_E164_NUMBER)
                         .in(partitionedNumbers.validE164Numbers());
@@ -135,6 +153,11 @@ public class SystemBlockedNumberPhoneLookup implements PhoneLookup<SystemBlocked
             }
         }
 
+        return toBlockedNumberInfos(numbers, blockedNumbers);
+    }
+
+    private static ImmutableMap<DialerPhoneNumber, SystemBlockedNumberInfo> toBlockedNumberInfos(
+            ImmutableSet<DialerPhoneNumber> numbers, Set<DialerPhoneNumber> blockedNumbers) {
         ImmutableMap.Builder<DialerPhoneNumber, SystemBlockedNumberInfo> result =
                 ImmutableMap.builder();
 
@@ -167,9 +190,8 @@ public class SystemBlockedNumberPhoneLookup implements PhoneLookup<SystemBlocked
 
     @Override
     public void registerContentObservers() {
-        appContext
-                .getContentResolver()
-                .registerContentObserver(
+        ContentChangeHub.get(appContext)
+                .subscribe(
                         BlockedNumbers.CONTENT_URI,
                         true, // BlockedNumbers notifies on the item
                         markDirtyObserver);
@@ -177,7 +199,7 @@ public class SystemBlockedNumberPhoneLookup implements PhoneLookup<SystemBlocked
 
     @Override
     public void unregisterContentObservers() {
-        appContext.getContentResolver().unregisterContentObserver(markDirtyObserver);
+        ContentChangeHub.get(appContext).unsubscribe(markDirtyObserver);
     }
 
     @Override
@@ -91,7 +91,7 @@ public class CequintPhoneLookup implements PhoneLookup<CequintInfo> {
                 backgroundExecutorService.submit(
                         () -> {
                             DialerPhoneNumberUtil dialerPhoneNumberUtil = new DialerPhoneNumberUtil();
-                            return dialerPhoneNumberUtil.parse(
+                            return dialerPhoneNumberUtil.parseCached(
                                     TelecomCallUtil.getNumber(call), GeoUtil.getCurrentCountryIso(appContext));
                         });
         String callerDisplayName = call.getDetails().getCallerDisplayName();
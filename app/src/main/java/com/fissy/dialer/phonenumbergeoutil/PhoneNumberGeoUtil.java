@@ -17,6 +17,7 @@
 package com.fissy.dialer.phonenumbergeoutil;
 
 import android.content.Context;
+import androidx.annotation.WorkerThread;
 
 /**
  * Interface for getting geo information for phone number.
@@ -26,4 +27,12 @@ public interface PhoneNumberGeoUtil {
      * Returns geo location information for a phone number, e.g. California.
      */
     String getGeoDescription(Context context, String number, String countryIso);
+
+    /**
+     * Loads the geo data of the given country ahead of the first lookup, which would otherwise have
+     * to read it from disk.
+     */
+    @WorkerThread
+    default void warmUp(Context context, String countryIso) {
+    }
 }
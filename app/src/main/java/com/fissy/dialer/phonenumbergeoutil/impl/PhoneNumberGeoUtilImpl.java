@@ -18,12 +18,17 @@ package com.fissy.dialer.phonenumbergeoutil.impl;
 
 import android.content.Context;
 import android.text.TextUtils;
+import android.util.LruCache;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
+import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.i18n.LocaleUtils;
 import com.fissy.dialer.phonenumbergeoutil.PhoneNumberGeoUtil;
 import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberType;
 import com.google.i18n.phonenumbers.Phonenumber;
 import com.google.i18n.phonenumbers.geocoding.PhoneNumberOfflineGeocoder;
 
@@ -33,37 +38,95 @@ import javax.inject.Inject;
 
 /**
  * Implementation of {@link PhoneNumberGeoUtil}.
+ *
+ * <p>Descriptions are cached per number and country, so the numbers shown over and over by the
+ * call log, call details and the in call UI are only parsed and geocoded once. The cache is
+ * dropped when the locale changes since descriptions are localized.
  */
 public class PhoneNumberGeoUtilImpl implements PhoneNumberGeoUtil {
 
+    private static final int CACHE_SIZE = 128;
+
+    // Keyed by the number and country it was parsed for. The parsed country code and national
+    // number alone aren't enough to key it by: the description also depends on whether the whole
+    // number is valid and geographical. Numbers which can't be parsed aren't cached.
+    private final LruCache<String, String> descriptionCache = new LruCache<>(CACHE_SIZE);
+    // Guarded by descriptionCache.
+    @Nullable
+    private Locale cachedLocale;
+
     @Inject
     public PhoneNumberGeoUtilImpl() {
     }
 
     @Override
     public String getGeoDescription(Context context, String number, String countryIso) {
-        LogUtil.v("PhoneNumberGeoUtilImpl.getGeoDescription", "" + LogUtil.sanitizePii(number));
-
         if (TextUtils.isEmpty(number)) {
             return null;
         }
 
+        Locale locale = LocaleUtils.getLocale(context);
+        String key = countryIso + '|' + number;
+        synchronized (descriptionCache) {
+            if (!locale.equals(cachedLocale)) {
+                descriptionCache.evictAll();
+                cachedLocale = locale;
+            }
+        }
+        String description = descriptionCache.get(key);
+        if (description != null) {
+            return description;
+        }
+        description = lookUpGeoDescription(number, countryIso, locale);
+        if (description != null) {
+            synchronized (descriptionCache) {
+                // Don't cache a description of the previous locale.
+                if (locale.equals(cachedLocale)) {
+                    descriptionCache.put(key, description);
+                }
+            }
+        }
+        return description;
+    }
+
+    @WorkerThread
+    @Override
+    public void warmUp(Context context, String countryIso) {
+        Assert.isWorkerThread();
+        if (TextUtils.isEmpty(countryIso)) {
+            return;
+        }
+        Phonenumber.PhoneNumber example =
+                PhoneNumberUtil.getInstance()
+                        .getExampleNumberForType(
+                                countryIso.toUpperCase(Locale.US), PhoneNumberType.FIXED_LINE);
+        if (example != null) {
+            // Loads the prefix file of the country code for the current language.
+            PhoneNumberOfflineGeocoder.getInstance()
+                    .getDescriptionForNumber(example, LocaleUtils.getLocale(context));
+            LogUtil.i("PhoneNumberGeoUtilImpl.warmUp", "loaded geo data for %s", countryIso);
+        }
+    }
+
+    @Nullable
+    private static String lookUpGeoDescription(String number, String countryIso, Locale locale) {
+        LogUtil.v("PhoneNumberGeoUtilImpl.lookUpGeoDescription", "" + LogUtil.sanitizePii(number));
+
         PhoneNumberUtil util = PhoneNumberUtil.getInstance();
         PhoneNumberOfflineGeocoder geocoder = PhoneNumberOfflineGeocoder.getInstance();
 
-        Locale locale = LocaleUtils.getLocale(context);
         Phonenumber.PhoneNumber pn = null;
         try {
             LogUtil.v(
-                    "PhoneNumberGeoUtilImpl.getGeoDescription",
+                    "PhoneNumberGeoUtilImpl.lookUpGeoDescription",
                     "parsing '" + LogUtil.sanitizePii(number) + "' for countryIso '" + countryIso + "'...");
             pn = util.parse(number, countryIso);
             LogUtil.v(
-                    "PhoneNumberGeoUtilImpl.getGeoDescription",
+                    "PhoneNumberGeoUtilImpl.lookUpGeoDescription",
                     "- parsed number: " + LogUtil.sanitizePii(pn));
         } catch (NumberParseException e) {
             LogUtil.e(
-                    "PhoneNumberGeoUtilImpl.getGeoDescription",
+                    "PhoneNumberGeoUtilImpl.lookUpGeoDescription",
                     "getGeoDescription: NumberParseException for incoming number '"
                             + LogUtil.sanitizePii(number)
                             + "'");
@@ -72,7 +135,8 @@ public class PhoneNumberGeoUtilImpl implements PhoneNumberGeoUtil {
         if (pn != null) {
             String description = geocoder.getDescriptionForNumber(pn, locale);
             LogUtil.v(
-                    "PhoneNumberGeoUtilImpl.getGeoDescription", "- got description: '" + description + "'");
+                    "PhoneNumberGeoUtilImpl.lookUpGeoDescription",
+                    "- got description: '" + description + "'");
             return description;
         }
 
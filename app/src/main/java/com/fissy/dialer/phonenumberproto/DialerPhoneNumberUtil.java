@@ -21,6 +21,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 import android.telephony.PhoneNumberUtils;
 import android.text.TextUtils;
+import android.util.LruCache;
 
 import com.fissy.dialer.DialerPhoneNumber;
 import com.fissy.dialer.common.Assert;
@@ -39,6 +40,13 @@ import com.google.i18n.phonenumbers.ShortNumberInfo;
  * <p>All methods should be called on a worker thread.
  */
 public class DialerPhoneNumberUtil {
+    /**
+     * Recently parsed numbers, keyed by default region and raw number. {@link DialerPhoneNumber} is
+     * immutable so cached results can be shared between callers.
+     */
+    private static final LruCache<String, DialerPhoneNumber> recentlyParsedNumbers =
+            new LruCache<>(32);
+
     private final PhoneNumberUtil phoneNumberUtil;
     private final ShortNumberInfo shortNumberInfo;
 
@@ -104,6 +112,26 @@ public class DialerPhoneNumberUtil {
         return dialerPhoneNumber.setNormalizedNumber(networkPortion + postDialPortion).build();
     }
 
+    /**
+     * Same as {@link #parse(String, String)} but reuses the result of a recent parse of the same
+     * number, such as the one done when a call first arrives.
+     */
+    @WorkerThread
+    public DialerPhoneNumber parseCached(
+            @Nullable String numberToParse, @Nullable String defaultRegion) {
+        Assert.isWorkerThread();
+        if (numberToParse == null) {
+            return parse(null, defaultRegion);
+        }
+        String key = defaultRegion + "|" + numberToParse;
+        DialerPhoneNumber dialerPhoneNumber = recentlyParsedNumbers.get(key);
+        if (dialerPhoneNumber == null) {
+            dialerPhoneNumber = parse(numberToParse, defaultRegion);
+            recentlyParsedNumbers.put(key, dialerPhoneNumber);
+        }
+        return dialerPhoneNumber;
+    }
+
     /**
      * Returns true if the two numbers:
      *
@@ -18,6 +18,7 @@ package com.fissy.dialer.searchfragment.common;
 
 import android.content.Context;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.collection.SimpleArrayMap;
 import android.telephony.PhoneNumberUtils;
 import android.text.TextUtils;
@@ -82,6 +83,8 @@ public class QueryFilteringUtil {
         // Check matches initials
         // TODO(calderwoodra) investigate faster implementation
         int queryIndex = 0;
+        SimpleArrayMap<Character, Character> charToKeyMap =
+                DialpadCharMappings.getCharToKeyMap(context);
 
         String[] names = name.toLowerCase().split("\\s");
         for (int i = 0; i < names.length && queryIndex < query.length(); i++) {
@@ -89,7 +92,7 @@ public class QueryFilteringUtil {
                 continue;
             }
 
-            if (getDigit(names[i].charAt(0), context) == query.charAt(queryIndex)) {
+            if (getDigit(names[i].charAt(0), charToKeyMap) == query.charAt(queryIndex)) {
                 queryIndex++;
             }
         }
@@ -182,9 +185,12 @@ public class QueryFilteringUtil {
      * @return The original string with characters replaced with T9 representations.
      */
     public static String getT9Representation(String s, Context context) {
+        // Resolved once for the whole string rather than once per character.
+        SimpleArrayMap<Character, Character> charToKeyMap =
+                DialpadCharMappings.getCharToKeyMap(context);
         StringBuilder builder = new StringBuilder(s.length());
         for (char c : s.toLowerCase().toCharArray()) {
-            builder.append(getDigit(c, context));
+            builder.append(getDigit(c, charToKeyMap));
         }
         return builder.toString();
     }
@@ -211,13 +217,16 @@ public class QueryFilteringUtil {
      * If the second attempt fails, return the original character.
      */
     static char getDigit(char c, Context context) {
+        return getDigit(c, DialpadCharMappings.getCharToKeyMap(context));
+    }
+
+    private static char getDigit(
+            char c, @Nullable SimpleArrayMap<Character, Character> charToKeyMap) {
         Character digit = DEFAULT_CHAR_TO_DIGIT_MAP.get(c);
         if (digit != null) {
             return digit;
         }
 
-        SimpleArrayMap<Character, Character> charToKeyMap =
-                DialpadCharMappings.getCharToKeyMap(context);
         if (charToKeyMap != null) {
             digit = charToKeyMap.get(c);
             return digit != null ? digit : c;
@@ -24,6 +24,7 @@ import android.database.MergeCursor;
 import android.net.Uri;
 import android.provider.ContactsContract.CommonDataKinds.Phone;
 import android.provider.ContactsContract.Directory;
+import android.telephony.PhoneNumberUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.text.TextUtils;
@@ -33,11 +34,24 @@ import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.contacts.ContactsComponent;
 import com.fissy.dialer.contacts.displaypreference.ContactDisplayPreferences.DisplayOrder;
 import com.fissy.dialer.contacts.displaypreference.ContactDisplayPreferences.SortOrder;
+import com.fissy.dialer.database.Database;
+import com.fissy.dialer.database.DialerDatabaseHelper;
+import com.fissy.dialer.database.DialerDatabaseHelper.ContactNumber;
+import com.fissy.dialer.database.DialerDatabaseHelper.PhoneQuery;
 import com.fissy.dialer.searchfragment.common.Projections;
+import com.fissy.dialer.searchfragment.common.QueryFilteringUtil;
 import com.fissy.dialer.searchfragment.common.SearchCursor;
 import com.fissy.dialer.smartdial.SmartDialCursorLoader;
+import com.fissy.dialer.smartdial.map.CompositeSmartDialMap;
+import com.fissy.dialer.smartdial.map.SmartDialTable;
+import com.fissy.dialer.smartdial.util.SmartDialPrefix;
 import com.fissy.dialer.util.PermissionsUtil;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Cursor Loader for CP2 contacts.
  */
@@ -98,7 +112,90 @@ public final class SearchContactsCursorLoader extends CursorLoader {
     }
 
     private Cursor regularSearchLoadInBackground() {
-        return RegularSearchCursor.newInstance(getContext(), super.loadInBackground());
+        Cursor cursor = loadFromSmartDialDatabase();
+        if (cursor == null) {
+            cursor = super.loadInBackground();
+        }
+        return RegularSearchCursor.newInstance(getContext(), cursor);
+    }
+
+    /**
+     * Looks up the contacts in the smart dial database, which the dialpad search uses as well, so
+     * both searches show the same contacts ranked the same way (starred, times used, last used).
+     *
+     * <p>Returns {@code null} if CP2 has to be queried instead: the smart dial database only stores
+     * primary display names, it may not have been built yet and it can't match letters the dialpad
+     * can't type, e.g. Chinese characters which CP2 matches by their pinyin.
+     */
+    @Nullable
+    private Cursor loadFromSmartDialDatabase() {
+        if (ContactsComponent.get(getContext()).contactDisplayPreferences().getDisplayOrder()
+                != DisplayOrder.PRIMARY) {
+            return null;
+        }
+        String normalizedQuery = SmartDialPrefix.normalizeName(getContext(), query);
+        SmartDialTable table = CompositeSmartDialMap.getTable(getContext());
+        for (int i = 0; i < normalizedQuery.length(); i++) {
+            char c = normalizedQuery.charAt(i);
+            if (Character.isSurrogate(c)
+                    || (Character.isLetter(c) && !table.isValidDialpadCharacter(c))) {
+                return null;
+            }
+        }
+        String digitsQuery =
+                PhoneNumberUtils.isGlobalPhoneNumber(query) ? QueryFilteringUtil.digitsOnly(query) : null;
+        DialerDatabaseHelper databaseHelper =
+                Database.get(getContext()).getDatabaseHelper(getContext());
+        List<ContactNumber> contactNumbers =
+                databaseHelper.getNameOrNumberMatches(normalizedQuery, digitsQuery);
+        if (contactNumbers == null) {
+            return null;
+        }
+
+        // Keeps the numbers of a contact together, at the rank of its best ranked number.
+        Map<Long, List<ContactNumber>> matchesByContactId = new LinkedHashMap<>();
+        for (ContactNumber contactNumber : contactNumbers) {
+            List<ContactNumber> matches = matchesByContactId.get(contactNumber.id);
+            if (matches == null) {
+                matches = new ArrayList<>();
+                matchesByContactId.put(contactNumber.id, matches);
+            }
+            matches.add(contactNumber);
+        }
+
+        MatrixCursor cursor = new MatrixCursor(Projections.CP2_PROJECTION);
+        for (List<ContactNumber> matches : matchesByContactId.values()) {
+            for (ContactNumber contactNumber : matches) {
+                Object[] row = new Object[Projections.CP2_PROJECTION.length];
+                row[Projections.ID] = contactNumber.dataId;
+                row[Projections.PHONE_TYPE] = contactNumber.phoneType;
+                row[Projections.PHONE_LABEL] = contactNumber.phoneLabel;
+                row[Projections.PHONE_NUMBER] = contactNumber.phoneNumber;
+                row[Projections.DISPLAY_NAME] = contactNumber.displayName;
+                row[Projections.PHOTO_ID] = contactNumber.photoId;
+                row[Projections.LOOKUP_KEY] = contactNumber.lookupKey;
+                row[Projections.CARRIER_PRESENCE] = contactNumber.carrierPresence;
+                row[Projections.CONTACT_ID] = contactNumber.id;
+                cursor.addRow(row);
+            }
+        }
+        if (!databaseHelper.hasSkippedLookupKeyTooLongContacts()) {
+            return cursor;
+        }
+        // The smart dial database skips these numbers, so they are looked up in CP2.
+        Cursor skippedCursor =
+                getContext()
+                        .getContentResolver()
+                        .query(
+                                getUri(),
+                                getProjection(),
+                                getSelection() + " AND " + PhoneQuery.SELECT_LOOKUP_KEY_TOO_LONG_CLAUSE,
+                                null,
+                                getSortOrder());
+        if (skippedCursor == null) {
+            return cursor;
+        }
+        return new MergeCursor(new Cursor[]{cursor, skippedCursor});
     }
 
     private Cursor dialpadSearchLoadInBackground() {
@@ -53,6 +53,7 @@ import com.fissy.dialer.common.Assert;
 import com.fissy.dialer.common.FragmentUtils;
 import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.ThreadUtil;
+import com.fissy.dialer.contactphoto.ContactPhotoPreloader;
 import com.fissy.dialer.dialercontact.DialerContact;
 import com.fissy.dialer.enrichedcall.EnrichedCallComponent;
 import com.fissy.dialer.enrichedcall.EnrichedCallManager.CapabilitiesListener;
@@ -162,6 +163,8 @@ public final class NewSearchFragment extends Fragment
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerView.setOnTouchListener(this);
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(
+                new ContactPhotoPreloader(getContext(), adapter::getPhotoIdAt));
 
         if (!PermissionsUtil.hasContactsReadPermissions(getContext())) {
             emptyContentView.setDescription(R.string.new_permission_no_search);
@@ -29,6 +29,7 @@ import android.view.ViewGroup;
 
 import com.fissy.dialer.R;
 import com.fissy.dialer.common.Assert;
+import com.fissy.dialer.searchfragment.common.Projections;
 import com.fissy.dialer.searchfragment.common.RowClickListener;
 import com.fissy.dialer.searchfragment.common.SearchCursor;
 import com.fissy.dialer.searchfragment.cp2.SearchContactViewHolder;
@@ -145,6 +146,17 @@ public final class SearchAdapter extends RecyclerView.Adapter<ViewHolder> {
         return searchCursorManager.getCount();
     }
 
+    /**
+     * Returns the photo id of the contact at the position, or 0 if it isn't a contact row or has no
+     * photo.
+     */
+    long getPhotoIdAt(int position) {
+        if (position >= getItemCount() || getItemViewType(position) != RowType.CONTACT_ROW) {
+            return 0;
+        }
+        return searchCursorManager.getCursor(position).getLong(Projections.PHOTO_ID);
+    }
+
     public void setQuery(String query, @Nullable String rawNumber) {
         this.query = query;
         this.rawNumber = rawNumber;
@@ -118,8 +118,7 @@ class IconFactory {
                     context
                             .getResources()
                             .getDimensionPixelSize(R.dimen.launcher_shortcut_adaptive_icon_size);
-            return Icon.createWithAdaptiveBitmap(
-                    DrawableConverter.drawableToBitmap(letterTileDrawable, iconSize, iconSize));
+            return Icon.createWithAdaptiveBitmap(letterTileDrawable.getBitmap(iconSize, iconSize));
         }
         Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
         return Icon.createWithAdaptiveBitmap(bitmap);
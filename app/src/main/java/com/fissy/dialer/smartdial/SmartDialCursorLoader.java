@@ -102,6 +102,8 @@ public class SmartDialCursorLoader extends AsyncTaskLoader<Cursor> {
         for (ContactNumber contact : allMatches) {
             row[PhoneQuery.PHONE_ID] = contact.dataId;
             row[PhoneQuery.PHONE_NUMBER] = contact.phoneNumber;
+            row[PhoneQuery.PHONE_TYPE] = contact.phoneType;
+            row[PhoneQuery.PHONE_LABEL] = contact.phoneLabel;
             row[PhoneQuery.CONTACT_ID] = contact.id;
             row[PhoneQuery.LOOKUP_KEY] = contact.lookupKey;
             row[PhoneQuery.PHOTO_ID] = contact.photoId;
@@ -32,6 +32,9 @@ import com.google.common.base.Optional;
  *
  * <p>Note that the second implementation can be absent if it is not defined for the system's 1st
  * language preference.
+ *
+ * <p>Both implementations are compiled into a {@link SmartDialTable} which the methods look
+ * characters up in.
  */
 @SuppressWarnings("Guava")
 public class CompositeSmartDialMap {
@@ -48,9 +51,33 @@ public class CompositeSmartDialMap {
         EXTRA_MAPS.put("ukr", UkrainianSmartDialMap.getInstance());
     }
 
+    // Tables of the language last asked for, replaced as a whole when the language changes.
+    private static volatile SmartDialTable table;
+
     private CompositeSmartDialMap() {
     }
 
+    /**
+     * Returns the tables of the default map and the one for the system's 1st language preference.
+     *
+     * <p>The tables are compiled the first time they are needed and again whenever the language
+     * changes. Callers looking up many characters should call this once and use the table for all of
+     * them rather than calling the methods below, which resolve the locale on every call.
+     */
+    public static SmartDialTable getTable(Context context) {
+        String languageCode = LocaleUtils.getLocale(context).getISO3Language();
+        SmartDialTable current = table;
+        if (current == null || !current.getLanguageCode().equals(languageCode)) {
+            Optional<SmartDialMap> extraMap = getExtraMap(languageCode);
+            current =
+                    extraMap.isPresent()
+                            ? SmartDialTable.compile(languageCode, DEFAULT_MAP, extraMap.get())
+                            : SmartDialTable.compile(languageCode, DEFAULT_MAP);
+            table = current;
+        }
+        return current;
+    }
+
     /**
      * Returns true if the provided character can be mapped to a key on the dialpad.
      *
@@ -58,12 +85,7 @@ public class CompositeSmartDialMap {
      * SmartDialMap#normalizeCharacter(char)} for details.
      */
     public static boolean isValidDialpadCharacter(Context context, char ch) {
-        if (DEFAULT_MAP.isValidDialpadCharacter(ch)) {
-            return true;
-        }
-
-        Optional<SmartDialMap> extraMap = getExtraMap(context);
-        return extraMap.isPresent() && extraMap.get().isValidDialpadCharacter(ch);
+        return getTable(context).isValidDialpadCharacter(ch);
     }
 
     /**
@@ -73,24 +95,14 @@ public class CompositeSmartDialMap {
      * SmartDialMap#normalizeCharacter(char)} for details.
      */
     public static boolean isValidDialpadAlphabeticChar(Context context, char ch) {
-        if (DEFAULT_MAP.isValidDialpadAlphabeticChar(ch)) {
-            return true;
-        }
-
-        Optional<SmartDialMap> extraMap = getExtraMap(context);
-        return extraMap.isPresent() && extraMap.get().isValidDialpadAlphabeticChar(ch);
+        return getTable(context).isValidDialpadAlphabeticChar(ch);
     }
 
     /**
      * Returns true if the provided character is a digit, and can be mapped to a key on the dialpad.
      */
     public static boolean isValidDialpadNumericChar(Context context, char ch) {
-        if (DEFAULT_MAP.isValidDialpadNumericChar(ch)) {
-            return true;
-        }
-
-        Optional<SmartDialMap> extraMap = getExtraMap(context);
-        return extraMap.isPresent() && extraMap.get().isValidDialpadNumericChar(ch);
+        return getTable(context).isValidDialpadNumericChar(ch);
     }
 
     /**
@@ -102,17 +114,7 @@ public class CompositeSmartDialMap {
      * <p>If the provided character can't be mapped to a key on the dialpad, return -1.
      */
     public static byte getDialpadIndex(Context context, char ch) {
-        Optional<Byte> dialpadIndex = DEFAULT_MAP.getDialpadIndex(ch);
-        if (dialpadIndex.isPresent()) {
-            return dialpadIndex.get();
-        }
-
-        Optional<SmartDialMap> extraMap = getExtraMap(context);
-        if (extraMap.isPresent()) {
-            dialpadIndex = extraMap.get().getDialpadIndex(ch);
-        }
-
-        return dialpadIndex.isPresent() ? dialpadIndex.get() : -1;
+        return getTable(context).getDialpadIndex(ch);
     }
 
     /**
@@ -124,17 +126,7 @@ public class CompositeSmartDialMap {
      * <p>If the provided character can't be mapped to a key on the dialpad, return the character.
      */
     public static char getDialpadNumericCharacter(Context context, char ch) {
-        Optional<Character> dialpadNumericChar = DEFAULT_MAP.getDialpadNumericCharacter(ch);
-        if (dialpadNumericChar.isPresent()) {
-            return dialpadNumericChar.get();
-        }
-
-        Optional<SmartDialMap> extraMap = getExtraMap(context);
-        if (extraMap.isPresent()) {
-            dialpadNumericChar = extraMap.get().getDialpadNumericCharacter(ch);
-        }
-
-        return dialpadNumericChar.isPresent() ? dialpadNumericChar.get() : ch;
+        return getTable(context).getDialpadNumericCharacter(ch);
     }
 
     /**
@@ -144,22 +136,15 @@ public class CompositeSmartDialMap {
      * <p>If the provided character can't be mapped to a key on the dialpad, return the character.
      */
     public static char normalizeCharacter(Context context, char ch) {
-        Optional<Character> normalizedChar = DEFAULT_MAP.normalizeCharacter(ch);
-        if (normalizedChar.isPresent()) {
-            return normalizedChar.get();
-        }
-
-        Optional<SmartDialMap> extraMap = getExtraMap(context);
-        if (extraMap.isPresent()) {
-            normalizedChar = extraMap.get().normalizeCharacter(ch);
-        }
-
-        return normalizedChar.isPresent() ? normalizedChar.get() : ch;
+        return getTable(context).normalizeCharacter(ch);
     }
 
     @VisibleForTesting
     static Optional<SmartDialMap> getExtraMap(Context context) {
-        String languageCode = LocaleUtils.getLocale(context).getISO3Language();
+        return getExtraMap(LocaleUtils.getLocale(context).getISO3Language());
+    }
+
+    private static Optional<SmartDialMap> getExtraMap(String languageCode) {
         return EXTRA_MAPS.containsKey(languageCode)
                 ? Optional.of(EXTRA_MAPS.get(languageCode))
                 : Optional.absent();
@@ -745,6 +745,12 @@ final class LatinSmartDialMap extends SmartDialMap {
         }
     }
 
+    @Override
+    int getCharacterLimit() {
+        // The accented characters of normalizeCharacter(char) end at U+0233.
+        return Math.max(super.getCharacterLimit(), 564);
+    }
+
     @Override
     SimpleArrayMap<Character, Character> getCharToKeyMap() {
         return DialpadCharMappings.getDefaultCharToKeyMap();
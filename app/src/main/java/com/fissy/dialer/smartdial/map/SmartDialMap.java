@@ -103,4 +103,21 @@ abstract class SmartDialMap {
      * dialpad key.
      */
     abstract SimpleArrayMap<Character, Character> getCharToKeyMap();
+
+    /**
+     * Returns one past the largest character this map can normalize or map to a key on the dialpad,
+     * which bounds the tables of {@link SmartDialTable}.
+     *
+     * <p>By default these are the keys of {@link #getCharToKeyMap()} and their upper case forms.
+     * Maps normalizing other characters must override this.
+     */
+    int getCharacterLimit() {
+        SimpleArrayMap<Character, Character> charToKeyMap = getCharToKeyMap();
+        int limit = '9' + 1;
+        for (int i = 0; i < charToKeyMap.size(); i++) {
+            char ch = charToKeyMap.keyAt(i);
+            limit = Math.max(limit, Math.max(ch, Character.toUpperCase(ch)) + 1);
+        }
+        return limit;
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+
+package com.fissy.dialer.smartdial.map;
+
+import com.google.common.base.Optional;
+
+/**
+ * The {@link SmartDialMap}s of a language compiled into flat tables indexed by character, so
+ * looking up a character is an array read instead of a switch and map lookups per map.
+ *
+ * <p>Tables are immutable and get compiled once per language by {@link
+ * CompositeSmartDialMap#getTable(android.content.Context)}, which swaps in a new one when the
+ * language changes. Callers looking up many characters, e.g. all of a name, should get the table
+ * once and use it for all of them.
+ *
+ * <p>The tables cover the characters up to the largest one any of the maps handles, see {@link
+ * SmartDialMap#getCharacterLimit()}. Characters past that can't be mapped to a key on the dialpad.
+ */
+@SuppressWarnings("Guava")
+public final class SmartDialTable {
+
+    private static final byte INVALID_INDEX = -1;
+
+    private final String languageCode;
+    // The normalized form of each character, see normalizeCharacter(char).
+    private final char[] normalizedChars;
+    // The index of the dialpad key of each character, or INVALID_INDEX.
+    private final byte[] dialpadIndices;
+
+    private SmartDialTable(String languageCode, char[] normalizedChars, byte[] dialpadIndices) {
+        this.languageCode = languageCode;
+        this.normalizedChars = normalizedChars;
+        this.dialpadIndices = dialpadIndices;
+    }
+
+    /**
+     * Compiles the tables of the given maps. Like {@link CompositeSmartDialMap}, a map is only
+     * consulted for a character if none of the maps before it could map it.
+     */
+    static SmartDialTable compile(String languageCode, SmartDialMap... maps) {
+        int limit = 0;
+        for (SmartDialMap map : maps) {
+            limit = Math.max(limit, map.getCharacterLimit());
+        }
+        char[] normalizedChars = new char[limit];
+        byte[] dialpadIndices = new byte[limit];
+        for (int i = 0; i < limit; i++) {
+            char ch = (char) i;
+            normalizedChars[i] = ch;
+            dialpadIndices[i] = INVALID_INDEX;
+            for (SmartDialMap map : maps) {
+                Optional<Character> normalizedChar = map.normalizeCharacter(ch);
+                if (normalizedChar.isPresent()) {
+                    normalizedChars[i] = normalizedChar.get();
+                    break;
+                }
+            }
+            for (SmartDialMap map : maps) {
+                Optional<Byte> dialpadIndex = map.getDialpadIndex(ch);
+                if (dialpadIndex.isPresent()) {
+                    dialpadIndices[i] = dialpadIndex.get();
+                    break;
+                }
+            }
+        }
+        return new SmartDialTable(languageCode, normalizedChars, dialpadIndices);
+    }
+
+    /**
+     * Returns the ISO 639-2 language code the table was compiled for.
+     */
+    String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * Returns true if the provided character can be mapped to a key on the dialpad.
+     *
+     * <p>The provided character is expected to be a normalized character. See {@link
+     * #normalizeCharacter(char)} for details.
+     */
+    public boolean isValidDialpadCharacter(char ch) {
+        return getDialpadIndex(ch) != INVALID_INDEX;
+    }
+
+    /**
+     * Returns true if the provided character is a letter, and can be mapped to a key on the dialpad.
+     *
+     * <p>The provided character is expected to be a normalized character. See {@link
+     * #normalizeCharacter(char)} for details.
+     */
+    public boolean isValidDialpadAlphabeticChar(char ch) {
+        return !isValidDialpadNumericChar(ch) && isValidDialpadCharacter(ch);
+    }
+
+    /**
+     * Returns true if the provided character is a digit, and can be mapped to a key on the dialpad.
+     */
+    public boolean isValidDialpadNumericChar(char ch) {
+        return '0' <= ch && ch <= '9';
+    }
+
+    /**
+     * Get the index of the key on the dialpad which the character corresponds to.
+     *
+     * <p>The provided character is expected to be a normalized character. See {@link
+     * #normalizeCharacter(char)} for details.
+     *
+     * <p>If the provided character can't be mapped to a key on the dialpad, return -1.
+     */
+    public byte getDialpadIndex(char ch) {
+        return ch < dialpadIndices.length ? dialpadIndices[ch] : INVALID_INDEX;
+    }
+
+    /**
+     * Get the actual numeric character on the dialpad which the character corresponds to.
+     *
+     * <p>The provided character is expected to be a normalized character. See {@link
+     * #normalizeCharacter(char)} for details.
+     *
+     * <p>If the provided character can't be mapped to a key on the dialpad, return the character.
+     */
+    public char getDialpadNumericCharacter(char ch) {
+        return isValidDialpadAlphabeticChar(ch) ? (char) ('0' + getDialpadIndex(ch)) : ch;
+    }
+
+    /**
+     * Converts uppercase characters to lower case ones, and on a best effort basis, strips accents
+     * from accented characters.
+     *
+     * <p>If the provided character can't be mapped to a key on the dialpad, return the character.
+     */
+    public char normalizeCharacter(char ch) {
+        return ch < normalizedChars.length ? normalizedChars[ch] : ch;
+    }
+}
@@ -21,6 +21,7 @@ import androidx.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.fissy.dialer.smartdial.map.CompositeSmartDialMap;
+import com.fissy.dialer.smartdial.map.SmartDialTable;
 import com.fissy.dialer.smartdial.util.SmartDialPrefix.PhoneNumberTokens;
 
 import java.util.ArrayList;
@@ -68,10 +69,11 @@ public class SmartDialNameMatcher {
      * @return Phone number consisting of digits from 0-9
      */
     public static String normalizeNumber(Context context, String number, int offset) {
+        final SmartDialTable table = CompositeSmartDialMap.getTable(context);
         final StringBuilder s = new StringBuilder();
         for (int i = offset; i < number.length(); i++) {
             char ch = number.charAt(i);
-            if (CompositeSmartDialMap.isValidDialpadNumericChar(context, ch)) {
+            if (table.isValidDialpadNumericChar(ch)) {
                 s.append(ch);
             }
         }
@@ -168,6 +170,7 @@ public class SmartDialNameMatcher {
         if (TextUtils.isEmpty(phoneNumber) || TextUtils.isEmpty(query)) {
             return shouldMatchEmptyQuery ? new SmartDialMatchPosition(offset, offset) : null;
         }
+        final SmartDialTable table = CompositeSmartDialMap.getTable(context);
         int queryAt = 0;
         int numberAt = offset;
         for (int i = offset; i < phoneNumber.length(); i++) {
@@ -175,7 +178,7 @@ public class SmartDialNameMatcher {
                 break;
             }
             char ch = phoneNumber.charAt(i);
-            if (CompositeSmartDialMap.isValidDialpadNumericChar(context, ch)) {
+            if (table.isValidDialpadNumericChar(ch)) {
                 if (ch != query.charAt(queryAt)) {
                     return null;
                 }
@@ -219,23 +222,22 @@ public class SmartDialNameMatcher {
      * <p>Also, a match can extend across tokens. For example, typing 37337(FredS) would match (Fred
      * S)mith.
      *
-     * @param displayName The normalized(no accented characters) display name we intend to match
-     *                    against.
-     * @param query       The string of digits that we want to match the display name to.
-     * @param matchList   An array list of {@link SmartDialMatchPosition}s that we add matched positions
-     *                    to.
-     * @return Returns true if a combination of the tokens in displayName match the query string
+     * @param t9Key     The T9 key of the display name we intend to match against, see {@link
+     *                  SmartDialPrefix#getT9Key(Context, String)}.
+     * @param query     The string of digits that we want to match the display name to.
+     * @param matchList An array list of {@link SmartDialMatchPosition}s that we add matched positions
+     *                  to.
+     * @return Returns true if a combination of the tokens in t9Key match the query string
      * contained in query. If the function returns true, matchList will contain an ArrayList of
      * match positions (multiple matches correspond to initial matches).
      */
     private boolean matchesCombination(
-            Context context,
-            String displayName,
+            String t9Key,
             String query,
             ArrayList<SmartDialMatchPosition> matchList) {
         StringBuilder builder = new StringBuilder();
-        constructEmptyMask(builder, displayName.length());
-        final int nameLength = displayName.length();
+        constructEmptyMask(builder, t9Key.length());
+        final int nameLength = t9Key.length();
         final int queryLength = query.length();
 
         if (nameLength < queryLength) {
@@ -265,13 +267,9 @@ public class SmartDialNameMatcher {
         ArrayList<SmartDialMatchPosition> partial = new ArrayList<SmartDialMatchPosition>();
         // Keep going until we reach the end of displayName
         while (nameStart < nameLength && queryStart < queryLength) {
-            char ch = displayName.charAt(nameStart);
-            // Strip diacritics from accented characters if any
-            ch = CompositeSmartDialMap.normalizeCharacter(context, ch);
-            if (CompositeSmartDialMap.isValidDialpadCharacter(context, ch)) {
-                if (CompositeSmartDialMap.isValidDialpadAlphabeticChar(context, ch)) {
-                    ch = CompositeSmartDialMap.getDialpadNumericCharacter(context, ch);
-                }
+            // Letters were mapped to their digits and diacritics stripped when computing the key
+            char ch = t9Key.charAt(nameStart);
+            if (ch != SmartDialPrefix.T9_KEY_SEPARATOR) {
                 if (ch != query.charAt(queryStart)) {
                     // Failed to match the current character in the query.
 
@@ -290,16 +288,10 @@ public class SmartDialNameMatcher {
                     // then skip to the end of the "Yoghurt" token.
 
                     if (queryStart == 0
-                            || CompositeSmartDialMap.isValidDialpadCharacter(
-                            context,
-                            CompositeSmartDialMap.normalizeCharacter(
-                                    context, displayName.charAt(nameStart - 1)))) {
+                            || t9Key.charAt(nameStart - 1) != SmartDialPrefix.T9_KEY_SEPARATOR) {
                         // skip to the next token, in the case of 1 or 2.
                         while (nameStart < nameLength
-                                && CompositeSmartDialMap.isValidDialpadCharacter(
-                                context,
-                                CompositeSmartDialMap.normalizeCharacter(
-                                        context, displayName.charAt(nameStart)))) {
+                                && t9Key.charAt(nameStart) != SmartDialPrefix.T9_KEY_SEPARATOR) {
                             nameStart++;
                         }
                         nameStart++;
@@ -327,18 +319,16 @@ public class SmartDialNameMatcher {
                         // find the next separator in the query string
                         int j;
                         for (j = nameStart; j < nameLength; j++) {
-                            if (!CompositeSmartDialMap.isValidDialpadCharacter(
-                                    context,
-                                    CompositeSmartDialMap.normalizeCharacter(context, displayName.charAt(j)))) {
+                            if (t9Key.charAt(j) == SmartDialPrefix.T9_KEY_SEPARATOR) {
                                 break;
                             }
                         }
                         // this means there is at least one character left after the separator
                         if (j < nameLength - 1) {
-                            final String remainder = displayName.substring(j + 1);
+                            final String remainder = t9Key.substring(j + 1);
                             final ArrayList<SmartDialMatchPosition> partialTemp = new ArrayList<>();
                             if (matchesCombination(
-                                    context, remainder, query.substring(queryStart + 1), partialTemp)) {
+                                    remainder, query.substring(queryStart + 1), partialTemp)) {
 
                                 // store the list of possible match positions
                                 SmartDialMatchPosition.advanceMatchPositions(partialTemp, j + 1);
@@ -408,8 +398,17 @@ public class SmartDialNameMatcher {
      * match positions (multiple matches correspond to initial matches).
      */
     public boolean matches(Context context, String displayName) {
+        return matchesT9Key(SmartDialPrefix.getT9Key(context, displayName));
+    }
+
+    /**
+     * Same as {@link #matches(Context, String)} but takes the T9 key of the display name, see {@link
+     * SmartDialPrefix#getT9Key(Context, String)}. The match positions are the same for the key and
+     * the display name.
+     */
+    public boolean matchesT9Key(String t9Key) {
         matchPositions.clear();
-        return matchesCombination(context, displayName, query, matchPositions);
+        return matchesCombination(t9Key, query, matchPositions);
     }
 
     public ArrayList<SmartDialMatchPosition> getMatchPositions() {
@@ -24,9 +24,11 @@ import android.telephony.TelephonyManager;
 import android.text.TextUtils;
 
 import com.fissy.dialer.smartdial.map.CompositeSmartDialMap;
+import com.fissy.dialer.smartdial.map.SmartDialTable;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -50,6 +52,17 @@ public class SmartDialPrefix {
 
     private static final int FIRST_TOKENS_FOR_INITIALS = 2;
 
+    /**
+     * Stands for the characters of a name which can't be mapped to a key on the dialpad in its T9
+     * key, see {@link #getT9Key(Context, String)}.
+     */
+    public static final char T9_KEY_SEPARATOR = ' ';
+
+    /**
+     * Separates the words of a normalized name, see {@link #normalizeName(Context, String)}.
+     */
+    public static final char NAME_SEPARATOR = ' ';
+
     /**
      * The country code of the user's sim card obtained by calling getSimCountryIso
      */
@@ -100,6 +113,31 @@ public class SmartDialPrefix {
         nanpInitialized = true;
     }
 
+    /**
+     * Returns the T9 key of a contact's name: the name with each character replaced by the digit of
+     * its key on the dialpad, and every character which can't be mapped to a key replaced by {@link
+     * #T9_KEY_SEPARATOR}.
+     *
+     * <p>The key has the same length as the name, so positions in the key are positions in the name.
+     * It is computed once when a contact is added to the smart dial database and stored along with it,
+     * see {@link #parseT9KeyToIndexTokens(String)} and {@link
+     * SmartDialNameMatcher#matchesT9Key(String)} for its uses.
+     *
+     * @param contactName Contact's name stored in string.
+     */
+    public static String getT9Key(Context context, String contactName) {
+        final SmartDialTable table = CompositeSmartDialMap.getTable(context);
+        final char[] t9Key = new char[contactName.length()];
+        for (int i = 0; i < t9Key.length; i++) {
+            char c = table.normalizeCharacter(contactName.charAt(i));
+            t9Key[i] =
+                    table.isValidDialpadCharacter(c)
+                            ? table.getDialpadNumericCharacter(c)
+                            : T9_KEY_SEPARATOR;
+        }
+        return new String(t9Key);
+    }
+
     /**
      * Parses a contact's name into a list of separated tokens.
      *
@@ -107,32 +145,31 @@ public class SmartDialPrefix {
      * @return A list of name tokens, for example separated first names, last name, etc.
      */
     public static ArrayList<String> parseToIndexTokens(Context context, String contactName) {
-        final int length = contactName.length();
+        return parseT9KeyToIndexTokens(getT9Key(context, contactName));
+    }
+
+    /**
+     * Parses the T9 key of a contact's name into a list of separated tokens, see {@link
+     * #getT9Key(Context, String)}.
+     *
+     * @param t9Key T9 key of the contact's name.
+     * @return A list of name tokens, for example separated first names, last name, etc.
+     */
+    public static ArrayList<String> parseT9KeyToIndexTokens(String t9Key) {
         final ArrayList<String> result = new ArrayList<>();
-        char c;
-        final StringBuilder currentIndexToken = new StringBuilder();
+        int tokenStart = 0;
         /**
-         * Iterates through the whole name string. If the current character is a valid character, append
-         * it to the current token. If the current character is not a valid character, for example space
-         * " ", mark the current token as complete and add it to the list of tokens.
+         * Iterates through the whole key. Every separator marks the current token as complete and adds
+         * it to the list of tokens.
          */
-        for (int i = 0; i < length; i++) {
-            c = CompositeSmartDialMap.normalizeCharacter(context, contactName.charAt(i));
-            if (CompositeSmartDialMap.isValidDialpadCharacter(context, c)) {
-                /** Converts a character into the number on dialpad that represents the character. */
-                currentIndexToken.append(CompositeSmartDialMap.getDialpadIndex(context, c));
-            } else {
-                if (currentIndexToken.length() != 0) {
-                    result.add(currentIndexToken.toString());
+        for (int i = 0; i <= t9Key.length(); i++) {
+            if (i == t9Key.length() || t9Key.charAt(i) == T9_KEY_SEPARATOR) {
+                if (i > tokenStart) {
+                    result.add(t9Key.substring(tokenStart, i));
                 }
-                currentIndexToken.delete(0, currentIndexToken.length());
+                tokenStart = i + 1;
             }
         }
-
-        /** Adds the last token in case it has not been added. */
-        if (currentIndexToken.length() != 0) {
-            result.add(currentIndexToken.toString());
-        }
         return result;
     }
 
@@ -144,10 +181,20 @@ public class SmartDialPrefix {
      * @return A List of strings, whose prefix can be used to look up the contact.
      */
     public static ArrayList<String> generateNamePrefixes(Context context, String index) {
-        final ArrayList<String> result = new ArrayList<>();
-
         /** Parses the name into a list of tokens. */
-        final ArrayList<String> indexTokens = parseToIndexTokens(context, index);
+        return generateNamePrefixes(parseToIndexTokens(context, index));
+    }
+
+    /**
+     * Generates a list of strings that any prefix of any string in the list can be used to look up
+     * the contact's name.
+     *
+     * @param indexTokens The tokens of the contact's name, see {@link #parseToIndexTokens(Context,
+     *                    String)}.
+     * @return A List of strings, whose prefix can be used to look up the contact.
+     */
+    public static ArrayList<String> generateNamePrefixes(List<String> indexTokens) {
+        final ArrayList<String> result = new ArrayList<>();
 
         if (indexTokens.size() > 0) {
             /**
@@ -196,6 +243,58 @@ public class SmartDialPrefix {
         return result;
     }
 
+    /**
+     * Returns the name in the form used to look it up by text: lower case, accents stripped on a best
+     * effort basis and each run of white space replaced by a single {@link #NAME_SEPARATOR}, with
+     * none at the start or the end. For example, "José  María" becomes "jose maria".
+     *
+     * @param name Contact's name or the query typed by the user.
+     */
+    public static String normalizeName(Context context, String name) {
+        final SmartDialTable table = CompositeSmartDialMap.getTable(context);
+        final StringBuilder normalizedName = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (normalizedName.length() > 0
+                        && normalizedName.charAt(normalizedName.length() - 1) != NAME_SEPARATOR) {
+                    normalizedName.append(NAME_SEPARATOR);
+                }
+            } else {
+                normalizedName.append(Character.toLowerCase(table.normalizeCharacter(c)));
+            }
+        }
+        int length = normalizedName.length();
+        if (length > 0 && normalizedName.charAt(length - 1) == NAME_SEPARATOR) {
+            normalizedName.setLength(length - 1);
+        }
+        return normalizedName.toString();
+    }
+
+    /**
+     * Generates the strings that any prefix of any string in the list can be used to look up the
+     * contact's name by text. For example, a contact with name "José María Ruiz" can be looked up by
+     * any prefix of "jose maria ruiz", "maria ruiz" and "ruiz", the same way {@link
+     * com.fissy.dialer.searchfragment.common.QueryFilteringUtil#nameContainsQuery(String, String)}
+     * matches names, but ignoring accents.
+     *
+     * @param name Contact's name or nickname.
+     */
+    public static ArrayList<String> generateNameTokens(Context context, String name) {
+        final ArrayList<String> result = new ArrayList<>();
+        final String normalizedName = normalizeName(context, name);
+        if (normalizedName.isEmpty()) {
+            return result;
+        }
+        result.add(normalizedName);
+        int separator = normalizedName.indexOf(NAME_SEPARATOR);
+        while (separator != -1) {
+            result.add(normalizedName.substring(separator + 1));
+            separator = normalizedName.indexOf(NAME_SEPARATOR, separator + 1);
+        }
+        return result;
+    }
+
     /**
      * Computes a list of number strings based on tokens of a given phone number. Any prefix of any
      * string in the list can be used to look up the phone number. The list include the full phone
@@ -21,7 +21,6 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.ContactsContract.CommonDataKinds.Phone;
@@ -49,8 +48,8 @@ import com.fissy.dialer.common.LogUtil;
 import com.fissy.dialer.common.concurrent.DefaultFutureCallback;
 import com.fissy.dialer.common.concurrent.DialerExecutorComponent;
 import com.fissy.dialer.common.concurrent.SupportUiListener;
-import com.fissy.dialer.common.concurrent.ThreadUtil;
 import com.fissy.dialer.constants.ActivityRequestCodes;
+import com.fissy.dialer.contentchange.ContentChangeHub;
 import com.fissy.dialer.historyitemactions.DividerModule;
 import com.fissy.dialer.historyitemactions.HistoryItemActionBottomSheet;
 import com.fissy.dialer.historyitemactions.HistoryItemActionModule;
@@ -68,11 +67,13 @@ import com.fissy.dialer.speeddial.database.SpeedDialEntry.Channel;
 import com.fissy.dialer.speeddial.draghelper.SpeedDialItemTouchHelperCallback;
 import com.fissy.dialer.speeddial.draghelper.SpeedDialLayoutManager;
 import com.fissy.dialer.speeddial.loader.SpeedDialUiItem;
+import com.fissy.dialer.speeddial.loader.SpeedDialUiItemMutator;
 import com.fissy.dialer.speeddial.loader.UiItemLoaderComponent;
 import com.fissy.dialer.util.IntentUtil;
 import com.fissy.dialer.util.PermissionsUtil;
 import com.fissy.dialer.widget.EmptyContentView;
 import com.fissy.dialer.widget.EmptyContentView.OnEmptyViewActionButtonClickedListener;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 
@@ -118,14 +119,7 @@ public class SpeedDialFragment extends Fragment {
     /**
      * Listen for changes to the strequents content observer.
      */
-    private final ContentObserver strequentsContentObserver =
-            new ContentObserver(ThreadUtil.getUiThreadHandler()) {
-                @Override
-                public void onChange(boolean selfChange) {
-                    super.onChange(selfChange);
-                    loadContacts();
-                }
-            };
+    private final ContentChangeHub.Listener strequentsListener = summary -> loadContacts();
 
     public static SpeedDialFragment newInstance() {
         return new SpeedDialFragment();
@@ -241,9 +235,18 @@ public class SpeedDialFragment extends Fragment {
             return;
         }
 
+        SpeedDialUiItemMutator speedDialUiItemMutator =
+                UiItemLoaderComponent.get(getContext()).speedDialUiItemMutator();
+        // Render the last loaded list right away, it's replaced once the refresh below completes.
+        Optional<ImmutableList<SpeedDialUiItem>> lastLoadedItems =
+                speedDialUiItemMutator.getLastLoadedSpeedDialUiItems();
+        if (adapter.getSpeedDialUiItems().isEmpty() && lastLoadedItems.isPresent()) {
+            onSpeedDialUiItemListLoaded(lastLoadedItems.get());
+        }
+
         speedDialLoaderListener.listen(
                 getContext(),
-                UiItemLoaderComponent.get(getContext()).speedDialUiItemMutator().loadSpeedDialUiItems(),
+                speedDialUiItemMutator.loadSpeedDialUiItems(),
                 this::onSpeedDialUiItemListLoaded,
                 throwable -> {
                     throw new RuntimeException(throwable);
@@ -320,9 +323,8 @@ public class SpeedDialFragment extends Fragment {
         PermissionsUtil.registerPermissionReceiver(
                 getActivity(), readContactsPermissionGrantedReceiver, Manifest.permission.READ_CONTACTS);
         if (PermissionsUtil.hasContactsReadPermissions(getContext())) {
-            getContext()
-                    .getContentResolver()
-                    .registerContentObserver(Contacts.CONTENT_STREQUENT_URI, true, strequentsContentObserver);
+            ContentChangeHub.get(getContext())
+                    .subscribe(Contacts.CONTENT_STREQUENT_URI, true, strequentsListener);
         }
     }
 
@@ -331,7 +333,7 @@ public class SpeedDialFragment extends Fragment {
         super.onStop();
         PermissionsUtil.unregisterPermissionReceiver(
                 getContext(), readContactsPermissionGrantedReceiver);
-        getContext().getContentResolver().unregisterContentObserver(strequentsContentObserver);
+        ContentChangeHub.get(getContext()).unsubscribe(strequentsListener);
     }
 
     /**
@@ -28,6 +28,7 @@ import android.provider.ContactsContract;
 import android.provider.ContactsContract.CommonDataKinds.Phone;
 import android.provider.ContactsContract.Contacts;
 import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 import android.util.ArrayMap;
 import android.util.ArraySet;
@@ -45,6 +46,8 @@ import com.fissy.dialer.contacts.displaypreference.ContactDisplayPreferences.Dis
 import com.fissy.dialer.contacts.hiresphoto.HighResolutionPhotoRequester;
 import com.fissy.dialer.duo.DuoComponent;
 import com.fissy.dialer.inject.ApplicationContext;
+import com.fissy.dialer.metrics.Metrics;
+import com.fissy.dialer.metrics.MetricsComponent;
 import com.fissy.dialer.speeddial.database.SpeedDialEntry;
 import com.fissy.dialer.speeddial.database.SpeedDialEntry.Channel;
 import com.fissy.dialer.speeddial.database.SpeedDialEntryDao;
@@ -53,12 +56,14 @@ import com.fissy.dialer.util.CallUtil;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -89,12 +94,18 @@ import javax.inject.Singleton;
 @Singleton
 public final class SpeedDialUiItemMutator {
 
+    // SQLite's default limit on the number of selection arguments.
+    private static final int MAX_SELECTION_ARGS = 999;
+
     private final Context appContext;
     private final ListeningExecutorService backgroundExecutor;
     // Used to ensure that only one refresh flow runs at a time.
     private final DialerFutureSerializer dialerFutureSerializer = new DialerFutureSerializer();
     private final ContactDisplayPreferences contactDisplayPreferences;
     private final HighResolutionPhotoRequester highResolutionPhotoRequester;
+    // Snapshot of the last result, rendered while a refresh is running.
+    @Nullable
+    private volatile ImmutableList<SpeedDialUiItem> lastLoadedSpeedDialUiItems;
 
     @Inject
     public SpeedDialUiItemMutator(
@@ -132,7 +143,20 @@ public final class SpeedDialUiItemMutator {
      * list is composed of starred contacts from {@link SpeedDialEntryDatabaseHelper}.
      */
     public ListenableFuture<ImmutableList<SpeedDialUiItem>> loadSpeedDialUiItems() {
-        return dialerFutureSerializer.submit(this::loadSpeedDialUiItemsInternal, backgroundExecutor);
+        ListenableFuture<ImmutableList<SpeedDialUiItem>> future =
+                dialerFutureSerializer.submit(this::loadSpeedDialUiItemsInternal, backgroundExecutor);
+        MetricsComponent.get(appContext)
+                .futureTimer()
+                .applyTiming(future, Metrics.LOAD_SPEED_DIAL_UI_ITEMS_EVENT_NAME);
+        return future;
+    }
+
+    /**
+     * Returns the list of {@link SpeedDialUiItem SpeedDialUiItems} from the last completed load, if
+     * any, so the UI can render it while {@link #loadSpeedDialUiItems()} refreshes it.
+     */
+    public Optional<ImmutableList<SpeedDialUiItem>> getLastLoadedSpeedDialUiItems() {
+        return Optional.fromNullable(lastLoadedSpeedDialUiItems);
     }
 
     /**
@@ -269,11 +293,25 @@ public final class SpeedDialUiItemMutator {
         List<Long> entriesToDelete = new ArrayList<>();
 
         // Get all SpeedDialEntries and update their contact ids and lookupkeys.
-        List<SpeedDialEntry> entries = db.getAllEntries();
-        entries = updateContactIdsAndLookupKeys(entries);
+        List<SpeedDialEntry> entries = updateContactIdsAndLookupKeys(db.getAllEntries());
+        if (entries == null) {
+            Trace.endSection(); // loadSpeedDialUiItemsInternal
+            return ImmutableList.of();
+        }
+
+        // Read the contacts of our updated entries and all starred contacts.
+        Set<String> contactIds = new ArraySet<>();
+        entries.forEach(entry -> contactIds.add(Long.toString(entry.contactId())));
+        Map<Long, SpeedDialUiItem> itemsByContactId = getSpeedDialUiItemsByContactId(contactIds);
+        if (itemsByContactId == null) {
+            // Don't touch the SpeedDialEntry database if we couldn't read the contacts.
+            Trace.endSection(); // loadSpeedDialUiItemsInternal
+            return ImmutableList.of();
+        }
 
         // Build SpeedDialUiItems from our updated entries.
-        Map<SpeedDialEntry, SpeedDialUiItem> entriesToUiItems = getSpeedDialUiItemsFromEntries(entries);
+        Map<SpeedDialEntry, SpeedDialUiItem> entriesToUiItems =
+                getSpeedDialUiItemsFromEntries(entries, itemsByContactId);
         Assert.checkArgument(
                 entries.size() == entriesToUiItems.size(),
                 "Updated entries are incomplete: " + entries.size() + " != " + entriesToUiItems.size());
@@ -303,7 +341,7 @@ public final class SpeedDialUiItemMutator {
         Trace.endSection(); // updateOrDeleteEntries
 
         // Get all starred contacts
-        List<SpeedDialUiItem> starredContacts = getStarredContacts();
+        List<SpeedDialUiItem> starredContacts = getStarredContacts(itemsByContactId);
         // If it is starred and not already accounted for above, then insert into the SpeedDialEntry DB.
         Trace.beginSection("addStarredContact");
         for (SpeedDialUiItem contact : starredContacts) {
@@ -324,8 +362,11 @@ public final class SpeedDialUiItemMutator {
                         ImmutableList.copyOf(entriesToUpdate),
                         ImmutableList.copyOf(entriesToDelete));
         Trace.endSection(); // insertUpdateAndDelete
+        ImmutableList<SpeedDialUiItem> loadedItems =
+                speedDialUiItemsWithUpdatedIds(speedDialUiItems, insertedEntriesToIdsMap);
+        lastLoadedSpeedDialUiItems = loadedItems;
         Trace.endSection(); // loadSpeedDialUiItemsInternal
-        return speedDialUiItemsWithUpdatedIds(speedDialUiItems, insertedEntriesToIdsMap);
+        return loadedItems;
     }
 
     @WorkerThread
@@ -380,17 +421,49 @@ public final class SpeedDialUiItemMutator {
 
     /**
      * Returns the same list of SpeedDialEntries that are passed in except their contact ids and
-     * lookup keys are updated to current values.
+     * lookup keys are updated to current values, or null if CP2 couldn't be queried.
      *
-     * <p>Unfortunately, we need to look up each contact individually to update the contact id and
-     * lookup key. Luckily though, this query is highly optimized on the framework side and very
-     * quick.
+     * <p>The contact ids are checked in batches first. Only entries whose contact id no longer maps
+     * to their lookup key (i.e. the contact was deleted, joined or split) need to be looked up
+     * individually by their lookup uri.
      */
     @WorkerThread
+    @Nullable
     private List<SpeedDialEntry> updateContactIdsAndLookupKeys(List<SpeedDialEntry> entries) {
+        Trace.beginSection("updateContactIdsAndLookupKeys");
         Assert.isWorkerThread();
+        Set<String> contactIds = new ArraySet<>();
+        entries.forEach(entry -> contactIds.add(Long.toString(entry.contactId())));
+
+        Map<Long, String> lookupKeysByContactId = new ArrayMap<>();
+        for (List<String> chunk : Iterables.partition(contactIds, MAX_SELECTION_ARGS)) {
+            Selection selection = Selection.column(Contacts._ID).in(chunk);
+            try (Cursor cursor =
+                         appContext
+                                 .getContentResolver()
+                                 .query(
+                                         Contacts.CONTENT_URI,
+                                         new String[]{Contacts._ID, Contacts.LOOKUP_KEY},
+                                         selection.getSelection(),
+                                         selection.getSelectionArgs(),
+                                         null)) {
+                if (cursor == null) {
+                    LogUtil.e("SpeedDialUiItemMutator.updateContactIdsAndLookupKeys", "null cursor");
+                    Trace.endSection();
+                    return null;
+                }
+                while (cursor.moveToNext()) {
+                    lookupKeysByContactId.put(cursor.getLong(0), cursor.getString(1));
+                }
+            }
+        }
+
         List<SpeedDialEntry> updatedEntries = new ArrayList<>();
         for (SpeedDialEntry entry : entries) {
+            if (Objects.equals(lookupKeysByContactId.get(entry.contactId()), entry.lookupKey())) {
+                updatedEntries.add(entry);
+                continue;
+            }
             try (Cursor cursor =
                          appContext
                                  .getContentResolver()
@@ -402,7 +475,8 @@ public final class SpeedDialUiItemMutator {
                                          null)) {
                 if (cursor == null) {
                     LogUtil.e("SpeedDialUiItemMutator.updateContactIdsAndLookupKeys", "null cursor");
-                    return new ArrayList<>();
+                    Trace.endSection();
+                    return null;
                 }
                 if (cursor.getCount() == 0) {
                     // No need to update this entry, the contact was deleted. We'll clear it up later.
@@ -420,144 +494,114 @@ public final class SpeedDialUiItemMutator {
                                 .build());
             }
         }
+        Trace.endSection();
         return updatedEntries;
     }
 
     /**
-     * Returns a map of SpeedDialEntries to their corresponding SpeedDialUiItems. Mappings to null
-     * elements imply that the contact was deleted.
+     * Returns {@link SpeedDialUiItem SpeedDialUiItems} for the contacts with the given ids and for
+     * all starred contacts, keyed by contact id, or null if CP2 couldn't be queried. Both are read
+     * from {@link Phone#CONTENT_URI} in the same batched queries.
      */
     @WorkerThread
-    private Map<SpeedDialEntry, SpeedDialUiItem> getSpeedDialUiItemsFromEntries(
-            List<SpeedDialEntry> entries) {
-        Trace.beginSection("getSpeedDialUiItemsFromEntries");
+    @Nullable
+    private Map<Long, SpeedDialUiItem> getSpeedDialUiItemsByContactId(Set<String> contactIds) {
+        Trace.beginSection("getSpeedDialUiItemsByContactId");
         Assert.isWorkerThread();
-        // Fetch the contact ids from the SpeedDialEntries
-        Set<String> contactIds = new ArraySet<>();
-        entries.forEach(entry -> contactIds.add(Long.toString(entry.contactId())));
-        if (contactIds.isEmpty()) {
-            Trace.endSection();
-            return new ArrayMap<>();
+        Selection starred = Selection.column(Phone.STARRED).is("=", 1);
+        List<Selection> selections = new ArrayList<>();
+        List<String> ids = new ArrayList<>(contactIds);
+        if (ids.isEmpty()) {
+            selections.add(starred);
+        } else {
+            // Starred contacts only need to be fetched once, with the first chunk. Their argument
+            // takes one of the chunk's slots.
+            int firstChunkSize = Math.min(ids.size(), MAX_SELECTION_ARGS - 1);
+            selections.add(
+                    Selection.column(Phone.CONTACT_ID)
+                            .in(ids.subList(0, firstChunkSize))
+                            .buildUpon()
+                            .or(starred)
+                            .build());
+            for (List<String> chunk :
+                    Iterables.partition(ids.subList(firstChunkSize, ids.size()), MAX_SELECTION_ARGS)) {
+                selections.add(Selection.column(Phone.CONTACT_ID).in(chunk));
+            }
         }
 
-        // Build SpeedDialUiItems from those contact ids and map them to their entries
-        Selection selection =
-                Selection.builder().and(Selection.column(Phone.CONTACT_ID).in(contactIds)).build();
-        try (Cursor cursor =
-                     appContext
-                             .getContentResolver()
-                             .query(
-                                     Phone.CONTENT_URI,
-                                     SpeedDialUiItem.getPhoneProjection(isPrimaryDisplayNameOrder()),
-                                     selection.getSelection(),
-                                     selection.getSelectionArgs(),
-                                     null)) {
-            Map<SpeedDialEntry, SpeedDialUiItem> map = new ArrayMap<>();
-            for (cursor.moveToFirst(); !cursor.isAfterLast(); /* Iterate in the loop */) {
-                SpeedDialUiItem item =
-                        SpeedDialUiItem.fromCursor(
-                                appContext.getResources(), cursor, CallUtil.isVideoEnabled(appContext));
-                for (SpeedDialEntry entry : entries) {
-                    if (entry.contactId() == item.contactId()) {
-                        // Update the id and pinned position to match it's corresponding SpeedDialEntry.
-                        SpeedDialUiItem.Builder entrySpeedDialItem =
-                                item.toBuilder()
-                                        .setSpeedDialEntryId(entry.id())
-                                        .setPinnedPosition(entry.pinnedPosition());
-
-                        // Preserve the default channel if it didn't change/still exists
-                        Channel defaultChannel = entry.defaultChannel();
-                        if (defaultChannel != null) {
-                            if (item.channels().contains(defaultChannel)
-                                    || isValidDuoDefaultChannel(item.channels(), defaultChannel)) {
-                                entrySpeedDialItem.setDefaultChannel(defaultChannel);
-                            }
-                        }
-
-                        // It's impossible for two contacts to exist with the same contact id, so if this entry
-                        // was previously matched to a SpeedDialUiItem and is being matched again, something
-                        // went horribly wrong.
-                        Assert.checkArgument(
-                                map.put(entry, entrySpeedDialItem.build()) == null,
-                                "Each SpeedDialEntry only has one correct SpeedDialUiItem");
-                    }
+        // Keep the CP2 order, it's the order newly starred contacts are added in.
+        Map<Long, SpeedDialUiItem> items = new LinkedHashMap<>();
+        for (Selection selection : selections) {
+            try (Cursor cursor =
+                         appContext
+                                 .getContentResolver()
+                                 .query(
+                                         Phone.CONTENT_URI,
+                                         SpeedDialUiItem.getPhoneProjection(isPrimaryDisplayNameOrder()),
+                                         selection.getSelection(),
+                                         selection.getSelectionArgs(),
+                                         null)) {
+                if (cursor == null) {
+                    LogUtil.e("SpeedDialUiItemMutator.getSpeedDialUiItemsByContactId", "null cursor");
+                    Trace.endSection();
+                    return null;
+                }
+                for (cursor.moveToFirst(); !cursor.isAfterLast(); /* Iterate in the loop */) {
+                    SpeedDialUiItem item =
+                            SpeedDialUiItem.fromCursor(
+                                    appContext.getResources(), cursor, CallUtil.isVideoEnabled(appContext));
+                    items.putIfAbsent(item.contactId(), item);
                 }
             }
-
-            // Contact must have been deleted
-            for (SpeedDialEntry entry : entries) {
-                map.putIfAbsent(entry, null);
-            }
-            Trace.endSection();
-            return map;
         }
+        Trace.endSection();
+        return items;
     }
 
-    @WorkerThread
-    private List<SpeedDialUiItem> getStarredContacts() {
-        Trace.beginSection("getStrequentContacts");
-        Assert.isWorkerThread();
-        Set<String> contactIds = new ArraySet<>();
-
-        // Fetch the contact ids of all starred contacts
-        Uri strequentUri =
-                Contacts.CONTENT_STREQUENT_URI
-                        .buildUpon()
-                        .appendQueryParameter(ContactsContract.STREQUENT_PHONE_ONLY, "true")
-                        .build();
-        Selection selection = Selection.column(Phone.STARRED).is("=", 1);
-        try (Cursor cursor =
-                     appContext
-                             .getContentResolver()
-                             .query(
-                                     strequentUri,
-                                     new String[]{Phone.CONTACT_ID},
-                                     selection.getSelection(),
-                                     selection.getSelectionArgs(),
-                                     null)) {
-            if (cursor == null) {
-                LogUtil.e("SpeedDialUiItemMutator.getStarredContacts", "null cursor");
-                Trace.endSection();
-                return new ArrayList<>();
-            }
-            if (cursor.getCount() == 0) {
-                Trace.endSection();
-                return new ArrayList<>();
+    /**
+     * Returns a map of SpeedDialEntries to their corresponding SpeedDialUiItems. Mappings to null
+     * elements imply that the contact was deleted.
+     */
+    private static Map<SpeedDialEntry, SpeedDialUiItem> getSpeedDialUiItemsFromEntries(
+            List<SpeedDialEntry> entries, Map<Long, SpeedDialUiItem> itemsByContactId) {
+        Trace.beginSection("getSpeedDialUiItemsFromEntries");
+        Map<SpeedDialEntry, SpeedDialUiItem> map = new ArrayMap<>();
+        for (SpeedDialEntry entry : entries) {
+            SpeedDialUiItem item = itemsByContactId.get(entry.contactId());
+            if (item == null) {
+                // Contact must have been deleted
+                map.put(entry, null);
+                continue;
             }
-            for (cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext()) {
-                contactIds.add(Long.toString(cursor.getLong(0)));
+            // Update the id and pinned position to match it's corresponding SpeedDialEntry.
+            SpeedDialUiItem.Builder entrySpeedDialItem =
+                    item.toBuilder()
+                            .setSpeedDialEntryId(entry.id())
+                            .setPinnedPosition(entry.pinnedPosition());
+
+            // Preserve the default channel if it didn't change/still exists
+            Channel defaultChannel = entry.defaultChannel();
+            if (defaultChannel != null) {
+                if (item.channels().contains(defaultChannel)
+                        || isValidDuoDefaultChannel(item.channels(), defaultChannel)) {
+                    entrySpeedDialItem.setDefaultChannel(defaultChannel);
+                }
             }
+            map.put(entry, entrySpeedDialItem.build());
         }
+        Trace.endSection();
+        return map;
+    }
 
-        // Build SpeedDialUiItems from those contact ids
-        selection = Selection.builder().and(Selection.column(Phone.CONTACT_ID).in(contactIds)).build();
-        try (Cursor cursor =
-                     appContext
-                             .getContentResolver()
-                             .query(
-                                     Phone.CONTENT_URI,
-                                     SpeedDialUiItem.getPhoneProjection(isPrimaryDisplayNameOrder()),
-                                     selection.getSelection(),
-                                     selection.getSelectionArgs(),
-                                     null)) {
-            List<SpeedDialUiItem> contacts = new ArrayList<>();
-            if (cursor == null) {
-                LogUtil.e("SpeedDialUiItemMutator.getStrequentContacts", "null cursor");
-                Trace.endSection();
-                return new ArrayList<>();
-            }
-            if (cursor.getCount() == 0) {
-                Trace.endSection();
-                return contacts;
-            }
-            for (cursor.moveToFirst(); !cursor.isAfterLast(); /* Iterate in the loop */) {
-                contacts.add(
-                        SpeedDialUiItem.fromCursor(
-                                appContext.getResources(), cursor, CallUtil.isVideoEnabled(appContext)));
+    private static List<SpeedDialUiItem> getStarredContacts(
+            Map<Long, SpeedDialUiItem> itemsByContactId) {
+        List<SpeedDialUiItem> contacts = new ArrayList<>();
+        for (SpeedDialUiItem item : itemsByContactId.values()) {
+            if (item.isStarred()) {
+                contacts.add(item);
             }
-            Trace.endSection();
-            return contacts;
         }
+        return contacts;
     }
 
     /**